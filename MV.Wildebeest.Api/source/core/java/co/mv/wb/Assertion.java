@@ -67,4 +67,17 @@ public interface Assertion
 	 * @since                                   1.0
 	 */
 	AssertionResponse perform(Instance instance);
+
+	/**
+	 * Gets a hint for how expensive this Assertion is to perform.  When only the overall outcome of a state's
+	 * assertions is needed, cheaper assertions are performed first so that a failure is found as soon as possible.
+	 * Assertions that do not declare a cost are treated as the most expensive.
+	 *
+	 * @return                                  the cost class of this Assertion.
+	 * @since                                   4.0
+	 */
+	default AssertionCost getCost()
+	{
+		return AssertionCost.FullScan;
+	}
 }
@@ -0,0 +1,41 @@
+// Wildebeest Migration Framework
+// Copyright © 2013 - 2018, Matheson Ventures Pte Ltd
+//
+// This file is part of Wildebeest
+//
+// Wildebeest is free software: you can redistribute it and/or modify it under
+// the terms of the GNU General Public License v2 as published by the Free
+// Software Foundation.
+//
+// Wildebeest is distributed in the hope that it will be useful, but WITHOUT ANY
+// WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+// A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along with
+// Wildebeest.  If not, see http://www.gnu.org/licenses/gpl-2.0.html
+
+package co.mv.wb;
+
+/**
+ * A hint for how expensive an {@link Assertion} is to perform, so that cheap assertions can be performed before
+ * expensive ones.  The classes are declared from cheapest to most expensive.
+ *
+ * @since                                       4.0
+ */
+public enum AssertionCost
+{
+	/**
+	 * The assertion looks up an object in the catalog of the resource, such as whether a table exists.
+	 */
+	CatalogLookup,
+
+	/**
+	 * The assertion performs a query that reads no more than a few rows, whatever the size of the data.
+	 */
+	BoundedRowQuery,
+
+	/**
+	 * The assertion performs a query whose cost may grow with the size of the data, or whose cost is not known.
+	 */
+	FullScan
+}
@@ -16,11 +16,94 @@
 
 package co.mv.wb;
 
+import java.io.PrintStream;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
 /**
  * Represents a specific instance of a Resource.
  * 
  * @since                                       1.0
  */
-public interface Instance
+public interface Instance extends AutoCloseable
 {
+	/**
+	 * Releases any resources, such as database connections, that this Instance has acquired while it was being worked
+	 * with.  The Instance can continue to be used after it has been closed, in which case the resources are acquired
+	 * again as they are needed.
+	 *
+	 * Connections are shared by every step of a single state, migrate or jumpstate command, and WildebeestApi closes
+	 * the Instance when the command completes.
+	 *
+	 * @since                                   4.0
+	 */
+	@Override default void close()
+	{
+	}
+
+	/**
+	 * Gets the number of operations, such as assertions, that may be performed against this Instance at once.  An
+	 * Instance that can serve several callers at a time, such as a database with a pool of connections, overrides
+	 * this.
+	 *
+	 * @return                                  the number of operations that may be performed at once, which is at
+	 *                                          least 1.
+	 * @since                                   4.0
+	 */
+	default int getMaxConcurrency()
+	{
+		return 1;
+	}
+
+	/**
+	 * Called before the assertions of a state are performed against this Instance, so that it can prepare for them.
+	 * A database, for example, may take a snapshot of its catalog so that the assertions are answered from memory
+	 * rather than each of them querying it.  Anything prepared is kept until {@link #afterMigration()} is called.
+	 *
+	 * @param       snapshot                    true if the assertions may be answered from a snapshot of this
+	 *                                          Instance.
+	 * @since                                   4.0
+	 */
+	default void beforeAssertions(
+		boolean snapshot)
+	{
+	}
+
+	/**
+	 * Performs those of the supplied assertions that this Instance can answer more cheaply together than one at a
+	 * time, and returns their responses.  The assertions that are not answered are performed individually.
+	 *
+	 * @param       assertions                  the assertions of the state being asserted.
+	 * @return                                  the responses of the assertions that were performed, by assertion ID.
+	 * @since                                   4.0
+	 */
+	default Map<UUID, AssertionResponse> performAssertions(
+		List<Assertion> assertions)
+	{
+		return Collections.emptyMap();
+	}
+
+	/**
+	 * Called after the assertions of a state have been performed against this Instance, so that it can report on
+	 * anything that it prepared for them in {@link #beforeAssertions(boolean)}.
+	 *
+	 * @param       output                      the PrintStream to report to.
+	 * @since                                   4.0
+	 */
+	default void afterAssertions(
+		PrintStream output)
+	{
+	}
+
+	/**
+	 * Called after a migration has been performed against this Instance, or has failed part way through.  The
+	 * migration may have changed the Instance, so anything that was prepared for earlier assertions is discarded.
+	 *
+	 * @since                                   4.0
+	 */
+	default void afterMigration()
+	{
+	}
 }
@@ -16,6 +16,8 @@
 
 package co.mv.wb;
 
+import java.io.IOException;
+import java.security.MessageDigest;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -60,4 +62,22 @@ public interface Migration
 	 * @since                                   2.0
 	 */
 	List<ResourceType> getApplicableTypes();
+
+	/**
+	 * Adds everything that determines what this Migration does, including the contents of any files that it reads, to
+	 * the supplied digest.  Results that are reused from one run to the next, such as template databases, are keyed on
+	 * this digest, so any change to the Migration must change what it adds.  A Migration that cannot describe its
+	 * content returns false, and its results are then never reused.
+	 *
+	 * @param       digest                      the digest to add the content of this Migration to.
+	 * @return                                  true if the content was added, or false if this Migration cannot
+	 *                                          describe its content.
+	 * @throws      IOException                 if a file that the Migration reads cannot be read.
+	 * @since                                   4.0
+	 */
+	default boolean digestContent(
+		MessageDigest digest) throws IOException
+	{
+		return false;
+	}
 }
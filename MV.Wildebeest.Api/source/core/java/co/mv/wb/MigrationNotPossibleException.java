@@ -32,4 +32,15 @@ public class MigrationNotPossibleException extends Exception
 	public MigrationNotPossibleException()
 	{
 	}
+
+	/**
+	 * Creates a new MigrationNotPossibleException with the supplied message.
+	 *
+	 * @param       message                     the message for the new exception.
+	 * @since                                   4.0
+	 */
+	public MigrationNotPossibleException(String message)
+	{
+		super(message);
+	}
 }
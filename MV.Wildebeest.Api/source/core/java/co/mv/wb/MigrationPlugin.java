@@ -17,6 +17,7 @@
 package co.mv.wb;
 
 import java.io.PrintStream;
+import java.util.List;
 
 /**
  * MigrationPlugins actually perform {@link Migration}'s.  Runner plugins are separated from {@link Migration}'s so that
@@ -38,4 +39,50 @@ public interface MigrationPlugin
 		Migration migration,
 		Instance instance) throws
 			MigrationFailedException;
+
+	/**
+	 * Checks whether the supplied migration, which follows the last migration of a step on a migration path, can be
+	 * added to that step, so that the migrations of the step are performed together by
+	 * {@link #performTogether(PrintStream, List, Instance)}.  The state is then recorded, and asserted if the
+	 * assertion policy asks for it, once for the whole step rather than after each migration.
+	 *
+	 * @param       last                        the last migration of the step, which this plugin performs.
+	 * @param       next                        the migration that follows it on the path, which may be of any type.
+	 * @param       instance                    the instance to be migrated.
+	 * @return                                  true if the next migration can be performed together with the step.
+	 * @since                                   4.0
+	 */
+	default boolean canPerformTogether(
+		Migration last,
+		Migration next,
+		Instance instance)
+	{
+		return false;
+	}
+
+	/**
+	 * Performs a step of consecutive migrations, each of which was accepted by
+	 * {@link #canPerformTogether(Migration, Migration, Instance)}, transitioning the supplied Instance from the from
+	 * state of the first migration to the to state of the last.
+	 *
+	 * @param       output                      the PrintStream for user output.
+	 * @param       migrations                  the migrations to apply to the supplied instance, in order.
+	 * @param       instance                    the instance to be migrated
+	 * @throws      MigrationFailedException    if the migrations fail
+	 * @since                                   4.0
+	 */
+	default void performTogether(
+		PrintStream output,
+		List<Migration> migrations,
+		Instance instance) throws
+			MigrationFailedException
+	{
+		for (Migration migration : migrations)
+		{
+			this.perform(
+				output,
+				migration,
+				instance);
+		}
+	}
 }
@@ -17,6 +17,8 @@
 package co.mv.wb;
 
 import java.io.PrintStream;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 /**
@@ -62,4 +64,98 @@ public interface ResourcePlugin
 		Resource resource,
 		Instance instance,
 		UUID stateId);
+
+	/**
+	 * Registers resource-type-specific meta data to record that it has moved from an expected state to the specified
+	 * state.  The state is only recorded if the resource is still in the expected state, so that two processes
+	 * migrating the same instance at the same time detect each other rather than overwriting each other's progress.
+	 *
+	 * The default implementation records the state without checking the expected state, for resource types that have
+	 * no way to do so atomically.
+	 *
+	 * @param       output                      the PrintStream for user output.
+	 * @param       resource                    the resource for which the state should be set in the specified
+	 *                                          {@link Instance}
+	 * @param       instance                    the {@link Instance} to record the state against
+	 * @param       expectedStateId             the state that the instance is expected to be in, or empty if the
+	 *                                          resource is expected not to exist yet
+	 * @param       stateId                     the state to record against the instance
+	 * @exception   IndeterminateStateException if the instance is no longer in the expected state.
+	 * @since                                   4.0
+	 */
+	default void setStateId(
+		PrintStream output,
+		Resource resource,
+		Instance instance,
+		Optional<UUID> expectedStateId,
+		UUID stateId) throws IndeterminateStateException
+	{
+		this.setStateId(
+			output,
+			resource,
+			instance,
+			stateId);
+	}
+
+	/**
+	 * Checks whether the supplied instance could be created as a copy of a template that has already been migrated,
+	 * rather than by performing each migration, with
+	 * {@link #provisionFromTemplate(PrintStream, Resource, Instance, UUID, List, TemplateBuilder)}.  This is only
+	 * asked for an instance that the resource does not yet exist in.
+	 *
+	 * The default implementation returns false, for resource types that have no templates.
+	 *
+	 * @param       instance                    the instance that is to be migrated.
+	 * @return                                  true if the instance could be provisioned from a template.
+	 * @since                                   4.0
+	 */
+	default boolean canProvisionFromTemplate(
+		Instance instance)
+	{
+		return false;
+	}
+
+	/**
+	 * Creates the supplied instance as a copy of the template for the migration path, building the template first
+	 * with the supplied builder if it does not yet exist.  The state is recorded, and asserted if the assertion policy
+	 * asks for it, by the caller once the instance has been created.
+	 *
+	 * The default implementation provisions nothing and returns false.
+	 *
+	 * @param       output                      the PrintStream for user output.
+	 * @param       resource                    the resource that is to be provisioned.
+	 * @param       instance                    the instance to create, which was accepted by
+	 *                                          {@link #canProvisionFromTemplate(Instance)}.
+	 * @param       targetStateId               the state that the instance is to be migrated to.
+	 * @param       path                        the migrations that lead from non-existent to the target state, each
+	 *                                          already built.
+	 * @param       builder                     migrates an instance of the template to the target state.
+	 * @return                                  true if the instance was created from a template, or false if the
+	 *                                          migrations on the path must be performed instead.
+	 * @throws      AssertionFailedException    if an assertion fails while the template is built.
+	 * @throws      TargetNotSpecifiedException if the target state is not specified.
+	 * @throws      IndeterminateStateException if the state of the template cannot be determined.
+	 * @throws      InvalidStateSpecifiedException if the target state is invalid.
+	 * @throws      MigrationFailedException    if a migration fails while the template is built.
+	 * @throws      MigrationNotPossibleException if there is no migration path to the target state.
+	 * @throws      UnknownStateSpecifiedException if the target state is not defined for the resource.
+	 * @since                                   4.0
+	 */
+	default boolean provisionFromTemplate(
+		PrintStream output,
+		Resource resource,
+		Instance instance,
+		UUID targetStateId,
+		List<Migration> path,
+		TemplateBuilder builder) throws
+			AssertionFailedException,
+			TargetNotSpecifiedException,
+			IndeterminateStateException,
+			InvalidStateSpecifiedException,
+			MigrationFailedException,
+			MigrationNotPossibleException,
+			UnknownStateSpecifiedException
+	{
+		return false;
+	}
 }
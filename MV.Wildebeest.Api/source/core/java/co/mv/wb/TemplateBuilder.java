@@ -0,0 +1,51 @@
+// Wildebeest Migration Framework
+// Copyright © 2013 - 2018, Matheson Ventures Pte Ltd
+//
+// This file is part of Wildebeest
+//
+// Wildebeest is free software: you can redistribute it and/or modify it under
+// the terms of the GNU General Public License v2 as published by the Free
+// Software Foundation.
+//
+// Wildebeest is distributed in the hope that it will be useful, but WITHOUT ANY
+// WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+// A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along with
+// Wildebeest.  If not, see http://www.gnu.org/licenses/gpl-2.0.html
+
+package co.mv.wb;
+
+/**
+ * Builds a template for a resource, by migrating an instance of its own along the migration path that the template
+ * is for.  This is supplied by the engine to a {@link ResourcePlugin} that provisions new instances from templates, so
+ * that the template is built with the same migrations, assertions and output as any other instance.
+ *
+ * @since                                       4.0
+ */
+@FunctionalInterface
+public interface TemplateBuilder
+{
+	/**
+	 * Migrates the supplied instance, which does not yet exist, to the state that the template is for.
+	 *
+	 * @param       instance                    the instance that is to become the template.
+	 * @throws      AssertionFailedException    if an assertion fails.
+	 * @throws      TargetNotSpecifiedException if the target state is not specified.
+	 * @throws      IndeterminateStateException if the current state of the instance cannot be determined.
+	 * @throws      InvalidStateSpecifiedException if the target state is invalid.
+	 * @throws      MigrationFailedException    if a migration fails.
+	 * @throws      MigrationNotPossibleException if there is no migration path to the target state.
+	 * @throws      UnknownStateSpecifiedException if the target state is not defined for the resource.
+	 * @since                                   4.0
+	 */
+	void build(
+		Instance instance) throws
+			AssertionFailedException,
+			TargetNotSpecifiedException,
+			IndeterminateStateException,
+			InvalidStateSpecifiedException,
+			MigrationFailedException,
+			MigrationNotPossibleException,
+			UnknownStateSpecifiedException;
+}
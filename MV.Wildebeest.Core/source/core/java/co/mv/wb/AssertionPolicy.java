@@ -0,0 +1,68 @@
+// Wildebeest Migration Framework
+// Copyright © 2013 - 2018, Matheson Ventures Pte Ltd
+//
+// This file is part of Wildebeest
+//
+// Wildebeest is free software: you can redistribute it and/or modify it under
+// the terms of the GNU General Public License v2 as published by the Free
+// Software Foundation.
+//
+// Wildebeest is distributed in the hope that it will be useful, but WITHOUT ANY
+// WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+// A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along with
+// Wildebeest.  If not, see http://www.gnu.org/licenses/gpl-2.0.html
+
+package co.mv.wb;
+
+import java.util.Optional;
+
+/**
+ * Which of the states on a migration path have their assertions performed when an instance is migrated.
+ *
+ * @since                                       4.0
+ */
+public enum AssertionPolicy
+{
+	/**
+	 * Only the assertions of the target state are performed, once every migration on the path has been performed.
+	 * If they fail then the migration that caused the failure is not known; migrating a fresh instance with
+	 * {@link #Each} finds it.
+	 */
+	Final,
+
+	/**
+	 * The assertions of each state are performed as soon as it is reached.
+	 */
+	Each,
+
+	/**
+	 * No assertions are performed.
+	 */
+	None;
+
+	/**
+	 * Gets the policy with the supplied name, ignoring case.
+	 *
+	 * @param       name                        the name of the policy: final, each or none.
+	 * @return                                  the policy with the supplied name, or empty if there is no such
+	 *                                          policy.
+	 * @since                                   4.0
+	 */
+	public static Optional<AssertionPolicy> forName(
+		String name)
+	{
+		if (name == null) { throw new IllegalArgumentException("name cannot be null"); }
+
+		for (AssertionPolicy policy : AssertionPolicy.values())
+		{
+			if (policy.name().equalsIgnoreCase(name.trim()))
+			{
+				return Optional.of(policy);
+			}
+		}
+
+		return Optional.empty();
+	}
+}
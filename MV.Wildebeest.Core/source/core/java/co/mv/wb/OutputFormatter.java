@@ -64,6 +64,28 @@ public class OutputFormatter
 			e.getMessage());
 	}
 
+	public static String migrationLoop(
+		Migration migration,
+		Optional<State> state)
+	{
+		if (migration == null) { throw new IllegalArgumentException("migration cannot be null"); }
+		if (state == null) { throw new IllegalArgumentException("state cannot be null"); }
+
+		return String.format(
+			"Warning: migration %s leads from %s back to the same state, so it is never performed",
+			migration.getMigrationId(),
+			state.map(s -> "state \"" + s.getDisplayName() + "\"").orElse("non-existent"));
+	}
+
+	public static String unreachableState(State state)
+	{
+		if (state == null) { throw new IllegalArgumentException("state cannot be null"); }
+
+		return String.format(
+			"Warning: state \"%s\" cannot be reached by any migration from non-existent",
+			state.getDisplayName());
+	}
+
 	//
 	// State
 	//
@@ -140,6 +162,45 @@ public class OutputFormatter
 		return result.toString();
 	}
 
+	public static String fastForward(
+		int migrations)
+	{
+		return String.format(
+			"Fast-forwarding through %d SQL script migrations in a single transaction",
+			migrations);
+	}
+
+	public static String templateBuildStart(
+		String templateName)
+	{
+		if (templateName == null) { throw new IllegalArgumentException("templateName cannot be null"); }
+
+		return String.format("Building template database %s", templateName);
+	}
+
+	public static String templateClone(
+		String templateName,
+		String databaseName)
+	{
+		if (templateName == null) { throw new IllegalArgumentException("templateName cannot be null"); }
+		if (databaseName == null) { throw new IllegalArgumentException("databaseName cannot be null"); }
+
+		return String.format("Creating %s as a copy of template database %s", databaseName, templateName);
+	}
+
+	public static String templateNotPossible()
+	{
+		return "Migrating without a template database, as a migration on the path cannot be hashed for one";
+	}
+
+	public static String templateDropped(
+		String templateName)
+	{
+		if (templateName == null) { throw new IllegalArgumentException("templateName cannot be null"); }
+
+		return String.format("Dropped template database %s, which was built for an earlier migration path", templateName);
+	}
+
 	public static String migrationComplete(
 		Resource resource,
 		Migration migration)
@@ -150,6 +211,47 @@ public class OutputFormatter
 		return "Migration complete";
 	}
 
+	public static String sqlScriptProgress(
+		int statements)
+	{
+		return String.format(
+			"Executed %,d SQL statements",
+			statements);
+	}
+
+	public static String bulkLoadComplete(
+		String tableName,
+		long rows,
+		long elapsedNanos)
+	{
+		if (tableName == null) { throw new IllegalArgumentException("tableName cannot be null"); }
+
+		double seconds = elapsedNanos / 1e9;
+
+		return String.format(
+			"Loaded %,d rows into %s in %.1f seconds (%,.0f rows per second)",
+			rows,
+			tableName,
+			seconds,
+			seconds > 0 ? rows / seconds : 0);
+	}
+
+	public static String backfillComplete(
+		String tableName,
+		long rows,
+		long chunks,
+		long elapsedNanos)
+	{
+		if (tableName == null) { throw new IllegalArgumentException("tableName cannot be null"); }
+
+		return String.format(
+			"Backfilled %,d rows of %s in %,d chunks in %.1f seconds",
+			rows,
+			tableName,
+			chunks,
+			elapsedNanos / 1e9);
+	}
+
 	public static String migrationNotPossible(MigrationNotPossibleException e)
 	{
 		return String.format("Migration not possible: %s", e.getMessage());
@@ -171,6 +273,16 @@ public class OutputFormatter
 		return String.format("Starting assertion: %s", assertion.getDescription());
 	}
 
+	public static String catalogSnapshotComplete(
+		long queriesSaved,
+		int queriesRun)
+	{
+		return String.format(
+			"Catalog snapshot answered %,d catalog queries from memory, having run %d to load",
+			queriesSaved,
+			queriesRun);
+	}
+
 	public static String assertionComplete(
 		Assertion assertion,
 		AssertionResponse response)
@@ -188,6 +300,55 @@ public class OutputFormatter
 			response.getMessage());
 	}
 
+	public static String assertionsSkipped(
+		int count)
+	{
+		return String.format(
+			"Skipped %d remaining assertion%s, as a failed assertion has already decided the outcome",
+			count,
+			count == 1 ? "" : "s");
+	}
+
+	public static String finalAssertionsFailed(
+		int migrations)
+	{
+		return String.format(
+			"The assertions of the target state failed after %d migration%s; migrate a new instance with the " +
+				"assertion policy \"each\" to find the migration that caused the failure",
+			migrations,
+			migrations == 1 ? "" : "s");
+	}
+
+	public static String invalidAssertionPolicy(String value)
+	{
+		return String.format(
+			"The assertion policy \"%s\" is not valid; expected final, each or none",
+			value);
+	}
+
+	public static String invalidSwitch(
+		String name,
+		String value)
+	{
+		if (name == null) { throw new IllegalArgumentException("name cannot be null"); }
+		if (value == null) { throw new IllegalArgumentException("value cannot be null"); }
+
+		return String.format(
+			"The value \"%s\" is not valid for the %s option; expected true or false",
+			value,
+			name);
+	}
+
+	public static String invalidAssertionConcurrency(
+		String value)
+	{
+		if (value == null) { throw new IllegalArgumentException("value cannot be null"); }
+
+		return String.format(
+			"The assertion concurrency \"%s\" is not valid; expected a whole number of at least 1",
+			value);
+	}
+
 	public static String assertionFailed(AssertionFailedException e)
 	{
 		return "Assertion failed: " + e.getMessage();
@@ -0,0 +1,38 @@
+// Wildebeest Migration Framework
+// Copyright © 2013 - 2018, Matheson Ventures Pte Ltd
+//
+// This file is part of Wildebeest
+//
+// Wildebeest is free software: you can redistribute it and/or modify it under
+// the terms of the GNU General Public License v2 as published by the Free
+// Software Foundation.
+//
+// Wildebeest is distributed in the hope that it will be useful, but WITHOUT ANY
+// WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+// A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along with
+// Wildebeest.  If not, see http://www.gnu.org/licenses/gpl-2.0.html
+
+package co.mv.wb;
+
+import java.util.List;
+
+/**
+ * Lets a plugin jar declare its {@link MigrationType} and {@link AssertionType} classes to Wildebeest.  Plugin jars
+ * that were compiled with the plugin index annotation processor do not need one.  Jars that were not can list an
+ * implementation in META-INF/services/co.mv.wb.PluginTypeProvider to have it found with {@link java.util.ServiceLoader}.
+ *
+ * @since                                       4.0
+ */
+public interface PluginTypeProvider
+{
+	/**
+	 * Returns the classes provided by this plugin jar that are annotated with {@link MigrationType} or
+	 * {@link AssertionType}.
+	 *
+	 * @return                                  the plugin classes provided by this plugin jar.
+	 * @since                                   4.0
+	 */
+	List<Class<?>> getPluginTypes();
+}
@@ -86,7 +86,11 @@ public class V
 		}
 		else
 		{
-			messages.addMessage("The value of element %s is invalid for %s with ID %s", elementName, itemType.getName());
+			messages.addMessage(
+				"The value of element %s is invalid for %s with ID %s",
+				elementName,
+				itemType.getName(),
+				itemId);
 		}
 	}
 }
@@ -17,12 +17,19 @@
 package co.mv.wb;
 
 import co.mv.wb.framework.ArgumentNullException;
+import co.mv.wb.impl.PluginIndex;
 import co.mv.wb.impl.PluginManagerImpl;
 import co.mv.wb.impl.WildebeestApiBuilder;
+import co.mv.wb.plugin.base.ImmutableResource;
 import co.mv.wb.plugin.composite.ExternalResourceMigrationPlugin;
 import co.mv.wb.plugin.generaldatabase.AnsiSqlCreateDatabaseMigrationPlugin;
 import co.mv.wb.plugin.generaldatabase.AnsiSqlDropDatabaseMigrationPlugin;
+import co.mv.wb.plugin.generaldatabase.BulkLoadMigrationPlugin;
+import co.mv.wb.plugin.generaldatabase.ChunkedBackfillMigrationPlugin;
+import co.mv.wb.plugin.generaldatabase.CreateIndexMigrationPlugin;
+import co.mv.wb.plugin.generaldatabase.DropIndexMigrationPlugin;
 import co.mv.wb.plugin.generaldatabase.SqlScriptMigrationPlugin;
+import co.mv.wb.plugin.h2.H2DatabaseResourcePlugin;
 import co.mv.wb.plugin.mysql.MySqlCreateDatabaseMigrationPlugin;
 import co.mv.wb.plugin.mysql.MySqlDatabaseResourcePlugin;
 import co.mv.wb.plugin.mysql.MySqlDropDatabaseMigrationPlugin;
@@ -32,7 +39,6 @@ import co.mv.wb.plugin.sqlserver.SqlServerCreateSchemaMigrationPlugin;
 import co.mv.wb.plugin.sqlserver.SqlServerDatabaseResourcePlugin;
 import co.mv.wb.plugin.sqlserver.SqlServerDropDatabaseMigrationPlugin;
 import co.mv.wb.plugin.sqlserver.SqlServerDropSchemaMigrationPlugin;
-import org.reflections.Reflections;
 
 import java.io.PrintStream;
 import java.util.ArrayList;
@@ -63,6 +69,10 @@ public class Wildebeest
 		"co.mv.wb:GeneralDatabase",
 		"General Database",
 		"Plugins that can be used for most relational database management systems");
+	public static final PluginGroup H2PluginGroup = new PluginGroup(
+		"co.mv.wb:H2Database",
+		"H2",
+		"Plugins for embedded H2 database resources");
 	public static final PluginGroup MySqlPluginGroup = new PluginGroup(
 		"co.mv.wb:MySqlDatabase",
 		"MySQL",
@@ -81,6 +91,7 @@ public class Wildebeest
 		return Arrays.asList(
 			Wildebeest.CompositeResourcePluginGroup,
 			Wildebeest.GeneralDatabasePluginGroup,
+			Wildebeest.H2PluginGroup,
 			Wildebeest.MySqlPluginGroup,
 			Wildebeest.PostgreSqlPluginGroup,
 			Wildebeest.SqlServerPluginGroup);
@@ -90,6 +101,9 @@ public class Wildebeest
 	// ResourceType
 	//
 
+	public static final ResourceType H2Database = new ResourceType(
+		"co.mv.wb.H2Database",
+		"H2 Database");
 	public static final ResourceType MySqlDatabase = new ResourceType(
 		"co.mv.wb.MySqlDatabase",
 		"MySQL Database");
@@ -104,6 +118,7 @@ public class Wildebeest
 	{
 		Map<ResourceType, ResourcePlugin> result = new HashMap<>();
 
+		result.put(Wildebeest.H2Database, new H2DatabaseResourcePlugin());
 		result.put(Wildebeest.MySqlDatabase, new MySqlDatabaseResourcePlugin());
 		result.put(Wildebeest.PostgreSqlDatabase, new PostgreSqlDatabaseResourcePlugin());
 		result.put(Wildebeest.SqlServerDatabase, new SqlServerDatabaseResourcePlugin());
@@ -130,6 +145,10 @@ public class Wildebeest
 		result.add(new ExternalResourceMigrationPlugin(wildebeestApi));
 
 		// database
+		result.add(new BulkLoadMigrationPlugin());
+		result.add(new ChunkedBackfillMigrationPlugin());
+		result.add(new CreateIndexMigrationPlugin());
+		result.add(new DropIndexMigrationPlugin());
 		result.add(new SqlScriptMigrationPlugin());
 
 		// mysql
@@ -151,10 +170,8 @@ public class Wildebeest
 
 	public static List<AssertionType> findAssertionTypes()
 	{
-		Reflections reflections = new Reflections("co.mv.wb");
-
-		List<AssertionType> assertionTypes = reflections
-			.getTypesAnnotatedWith(AssertionType.class)
+		List<AssertionType> assertionTypes = PluginIndex
+			.assertionTypes()
 			.stream()
 			.map(x -> x.getAnnotation(AssertionType.class))
 			.collect(Collectors.toList());
@@ -185,6 +202,11 @@ public class Wildebeest
 		if (resource == null) { throw new IllegalArgumentException("resource cannot be null"); }
 		if (stateId == null) { throw new IllegalArgumentException("stateId cannot be null"); }
 
+		if (resource instanceof ImmutableResource)
+		{
+			return ((ImmutableResource)resource).stateForId(stateId).orElse(null);
+		}
+
 		State result = null;
 
 		for(State check : resource.getStates())
@@ -123,6 +123,43 @@ public interface WildebeestApi
 			TargetNotSpecifiedException,
 			UnknownStateSpecifiedException;
 
+	/**
+	 * Migrates an instance of a resource to a particular state, performing the assertions of the states on the
+	 * migration path according to the supplied policy.  The recorded state of the instance is updated after each
+	 * migration whatever the policy, so that an interrupted migration can be resumed.
+	 *
+	 * @param       resource                    the resource.
+	 * @param       instance                    the instance.
+	 * @param       targetState                 the optional name or unique ID of the state to which the instance should
+	 *                                          be migrated.  If none is supplied then Wildebeest will use the default
+	 *                                          target if one is set on the Resource.  Otherwise a
+	 *                                          NoTargetSpecifiedException is thrown.
+	 * @param       assertionPolicy             which states on the migration path have their assertions performed.
+	 * @throws      AssertionFailedException    if one or more assertions that are performed fail.
+	 * @throws      MigrationFailedException    if the migration operation fails for any reason.
+	 * @throws      MigrationNotPossibleException   if the requested migration is not possible due to the lack of a
+	 *                                          migration path
+	 * @throws      IndeterminateStateException if the current state of the resource cannot be determined prior to
+	 *                                          migrating.
+	 * @throws      InvalidStateSpecifiedException  if the specified state is not a valid state identifier.
+	 * @throws      TargetNotSpecifiedException if no target state is specified and the resource does not have a default
+	 *                                          target.
+	 * @throws      UnknownStateSpecifiedException  if the specified state does not exist in the resource.
+	 * @since                                   4.0
+	 */
+	void migrate(
+		Resource resource,
+		Instance instance,
+		Optional<String> targetState,
+		AssertionPolicy assertionPolicy) throws
+			AssertionFailedException,
+			MigrationFailedException,
+			MigrationNotPossibleException,
+			IndeterminateStateException,
+			InvalidStateSpecifiedException,
+			TargetNotSpecifiedException,
+			UnknownStateSpecifiedException;
+
 	/**
 	 * Jumps the recorded state of the specified instance to the supplied target state.  This can be useful when you are
 	 * bringing a pre-existing resource under Wildebeest management, or if you need to align the tracked state with the
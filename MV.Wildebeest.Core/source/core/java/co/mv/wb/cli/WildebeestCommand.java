@@ -18,6 +18,7 @@ package co.mv.wb.cli;
 
 import co.mv.wb.About;
 import co.mv.wb.AssertionFailedException;
+import co.mv.wb.AssertionPolicy;
 import co.mv.wb.FileLoadException;
 import co.mv.wb.IndeterminateStateException;
 import co.mv.wb.Instance;
@@ -34,6 +35,7 @@ import co.mv.wb.UnknownStateSpecifiedException;
 import co.mv.wb.Wildebeest;
 import co.mv.wb.WildebeestApi;
 import co.mv.wb.framework.ArgumentNullException;
+import co.mv.wb.impl.WildebeestApiBuilder;
 import co.mv.wb.XmlValidationException;
 
 import java.io.File;
@@ -138,17 +140,92 @@ public class WildebeestCommand
 	{
 		PrintStream output = System.out;
 
-		WildebeestApi wildebeestApi = Wildebeest
-			.wildebeestApi(output)
-			.withFactoryResourcePlugins()
-			.withFactoryPluginManager()
-			.get();
+		Optional<WildebeestApi> wildebeestApi = WildebeestCommand.tryBuildWildebeestApi(
+			Wildebeest
+				.wildebeestApi(output)
+				.withFactoryResourcePlugins()
+				.withFactoryPluginManager(),
+			args,
+			output);
 
-		WildebeestCommand wb = new WildebeestCommand(
-			output,
-			wildebeestApi);
+		if (wildebeestApi.isPresent())
+		{
+			WildebeestCommand wb = new WildebeestCommand(
+				output,
+				wildebeestApi.get());
 
-		wb.run(args);
+			wb.run(args);
+		}
+	}
+
+	/**
+	 * Applies the options that configure the WildebeestApi for every command, rather than a single command, and
+	 * builds it.
+	 *
+	 * @param       builder                     the builder to apply the options to.
+	 * @param       args                        the arguments supplied on the command-line invocation.
+	 * @param       out                         the PrintStream to report an invalid option to.
+	 * @return                                  the WildebeestApi, or empty if an option has an invalid value.
+	 * @since                                   4.0
+	 */
+	static Optional<WildebeestApi> tryBuildWildebeestApi(
+		WildebeestApiBuilder builder,
+		String[] args,
+		PrintStream out)
+	{
+		if (builder == null) throw new ArgumentNullException("builder");
+		if (args == null) throw new ArgumentNullException("args");
+		if (out == null) throw new ArgumentNullException("out");
+
+		// Migrations are only read when they are performed if asked for, so that by default a resource with a broken
+		// migration is rejected as soon as it is loaded
+		Optional<String> lazyMigrationsValue = WildebeestCommand.getOptionalArg(args, "l", "lazyMigrations");
+		Optional<Boolean> lazyMigrations = lazyMigrationsValue.isPresent()
+			? WildebeestCommand.parseSwitch(lazyMigrationsValue.get())
+			: Optional.of(false);
+
+		if (!lazyMigrations.isPresent())
+		{
+			out.println(OutputFormatter.invalidSwitch("lazyMigrations", lazyMigrationsValue.get()));
+			return Optional.empty();
+		}
+
+		if (lazyMigrations.get())
+		{
+			builder = builder.withLazyMigrations();
+		}
+
+		// Assertions are performed one at a time, and all of them, unless asked otherwise
+		Optional<String> assertFailFastValue = WildebeestCommand.getOptionalArg(args, "f", "assertFailFast");
+		Optional<Boolean> assertFailFast = assertFailFastValue.isPresent()
+			? WildebeestCommand.parseSwitch(assertFailFastValue.get())
+			: Optional.of(false);
+
+		if (!assertFailFast.isPresent())
+		{
+			out.println(OutputFormatter.invalidSwitch("assertFailFast", assertFailFastValue.get()));
+			return Optional.empty();
+		}
+
+		if (assertFailFast.get())
+		{
+			builder = builder.withFailFastAssertions();
+		}
+
+		Optional<String> assertConcurrencyValue = WildebeestCommand.getOptionalArg(args, "c", "assertConcurrency");
+		Optional<Integer> assertConcurrency = assertConcurrencyValue.isPresent()
+			? WildebeestCommand.parseConcurrency(assertConcurrencyValue.get())
+			: Optional.of(1);
+
+		if (!assertConcurrency.isPresent())
+		{
+			out.println(OutputFormatter.invalidAssertionConcurrency(assertConcurrencyValue.get()));
+			return Optional.empty();
+		}
+
+		builder = builder.withAssertionConcurrency(assertConcurrency.get());
+
+		return Optional.of(builder.get());
 	}
 
 	/**
@@ -236,6 +313,10 @@ public class WildebeestCommand
 				String resourceFilename = WildebeestCommand.getArg(args, "r", "resource");
 				String instanceFilename = WildebeestCommand.getArg(args, "i", "instance");
 				Optional<String> targetState = WildebeestCommand.getOptionalArg(args, "t", "targetState");
+				Optional<String> assertionPolicyName = WildebeestCommand.getOptionalArg(args, "a", "assert");
+				Optional<AssertionPolicy> assertionPolicy = assertionPolicyName.isPresent()
+					? AssertionPolicy.forName(assertionPolicyName.get())
+					: Optional.of(AssertionPolicy.Each);
 
 				if (isNullOrWhiteSpace(resourceFilename) || isNullOrWhiteSpace(instanceFilename))
 				{
@@ -243,6 +324,10 @@ public class WildebeestCommand
 
 					WildebeestCommand.printUsage(System.out);
 				}
+				else if (!assertionPolicy.isPresent())
+				{
+					this.getOutput().println(OutputFormatter.invalidAssertionPolicy(assertionPolicyName.get()));
+				}
 				else
 				{
 					Optional<Resource> resource = WildebeestCommand.tryLoadResource(
@@ -262,7 +347,8 @@ public class WildebeestCommand
 							this.getWildebeestApi().migrate(
 								resource.get(),
 								instance.get(),
-								targetState);
+								targetState,
+								assertionPolicy.get());
 						}
 						catch (TargetNotSpecifiedException e)
 						{
@@ -509,6 +595,40 @@ public class WildebeestCommand
 		return result;
 	}
 
+	private static Optional<Boolean> parseSwitch(
+		String value)
+	{
+		if (value == null) { throw new IllegalArgumentException("value cannot be null"); }
+
+		Optional<Boolean> result = Optional.empty();
+
+		if ("true".equals(value))
+		{
+			result = Optional.of(true);
+		}
+		else if ("false".equals(value))
+		{
+			result = Optional.of(false);
+		}
+
+		return result;
+	}
+
+	private static Optional<Integer> parseConcurrency(
+		String value)
+	{
+		if (value == null) { throw new IllegalArgumentException("value cannot be null"); }
+
+		Optional<Integer> result = Optional.empty();
+
+		if (value.matches("[0-9]{1,4}") && Integer.parseInt(value) >= 1)
+		{
+			result = Optional.of(Integer.parseInt(value));
+		}
+
+		return result;
+	}
+
 	private static boolean isNull(String value)
     {
         return value == null;
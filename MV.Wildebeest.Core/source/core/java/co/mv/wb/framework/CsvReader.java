@@ -0,0 +1,205 @@
+// Wildebeest Migration Framework
+// Copyright © 2013 - 2018, Matheson Ventures Pte Ltd
+//
+// This file is part of Wildebeest
+//
+// Wildebeest is free software: you can redistribute it and/or modify it under
+// the terms of the GNU General Public License v2 as published by the Free
+// Software Foundation.
+//
+// Wildebeest is distributed in the hope that it will be useful, but WITHOUT ANY
+// WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+// A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along with
+// Wildebeest.  If not, see http://www.gnu.org/licenses/gpl-2.0.html
+
+package co.mv.wb.framework;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Reads records from comma-separated values, as described by RFC 4180, one record at a time.  Fields may be enclosed
+ * in double quotes, in which case they may contain commas, line breaks and doubled double quotes.  Records may be
+ * terminated by CRLF, LF or CR, and blank lines are skipped.
+ *
+ * A field that is empty and not quoted is read as null, so that it can be told apart from an empty string, which is
+ * written as "".
+ *
+ * @since                                       4.0
+ */
+public class CsvReader implements Closeable
+{
+	private static final int BUFFER_SIZE = 8192;
+
+	private final Reader _reader;
+	private final char[] _buffer = new char[BUFFER_SIZE];
+	private int _position = 0;
+	private int _length = 0;
+	private long _recordNumber = 0;
+
+	/**
+	 * Creates a new CsvReader that reads from the supplied Reader.
+	 *
+	 * @param       reader                      the Reader to read the values from.
+	 * @since                                   4.0
+	 */
+	public CsvReader(
+		Reader reader)
+	{
+		if (reader == null) throw new ArgumentNullException("reader");
+
+		_reader = reader;
+	}
+
+	/**
+	 * Gets the number of records that have been read so far.
+	 *
+	 * @return                                  the number of records that have been read.
+	 * @since                                   4.0
+	 */
+	public long getRecordNumber()
+	{
+		return _recordNumber;
+	}
+
+	/**
+	 * Reads the next record.
+	 *
+	 * @return                                  the fields of the next record, or empty if there are no more records.
+	 * @throws      IOException                 if the values cannot be read, or a quoted field is not closed.
+	 * @since                                   4.0
+	 */
+	public Optional<List<String>> read() throws IOException
+	{
+		// Skip blank lines
+		int c = this.next();
+		while (c == '\r' || c == '\n')
+		{
+			c = this.next();
+		}
+
+		if (c == -1)
+		{
+			return Optional.empty();
+		}
+
+		List<String> result = new ArrayList<>();
+		StringBuilder field = new StringBuilder();
+
+		while (true)
+		{
+			boolean quoted = c == '"';
+			field.setLength(0);
+
+			if (quoted)
+			{
+				c = this.readQuoted(field);
+			}
+			else
+			{
+				while (c != ',' && c != '\r' && c != '\n' && c != -1)
+				{
+					field.append((char)c);
+					c = this.next();
+				}
+			}
+
+			result.add(quoted || field.length() > 0 ? field.toString() : null);
+
+			if (c == ',')
+			{
+				c = this.next();
+				continue;
+			}
+
+			if (c == '\r' && this.peek() == '\n')
+			{
+				this.next();
+			}
+
+			break;
+		}
+
+		_recordNumber ++;
+
+		return Optional.of(result);
+	}
+
+	@Override public void close() throws IOException
+	{
+		_reader.close();
+	}
+
+	/**
+	 * Reads a quoted field, starting at its opening quote, and returns the character that follows its closing quote.
+	 */
+	private int readQuoted(
+		StringBuilder field) throws IOException
+	{
+		while (true)
+		{
+			int c = this.next();
+
+			if (c == -1)
+			{
+				throw new IOException(String.format(
+					"Record %d has a quoted field that is not closed",
+					_recordNumber + 1));
+			}
+
+			if (c == '"')
+			{
+				if (this.peek() != '"')
+				{
+					// Characters between the closing quote and the next delimiter are kept, as most readers do
+					c = this.next();
+					while (c != ',' && c != '\r' && c != '\n' && c != -1)
+					{
+						field.append((char)c);
+						c = this.next();
+					}
+					return c;
+				}
+
+				this.next();
+			}
+
+			field.append((char)c);
+		}
+	}
+
+	private int next() throws IOException
+	{
+		int result = this.peek();
+
+		if (result != -1)
+		{
+			_position ++;
+		}
+
+		return result;
+	}
+
+	private int peek() throws IOException
+	{
+		if (_position == _length)
+		{
+			_length = _reader.read(_buffer, 0, _buffer.length);
+			_position = 0;
+
+			if (_length <= 0)
+			{
+				_length = 0;
+				return -1;
+			}
+		}
+
+		return _buffer[_position];
+	}
+}
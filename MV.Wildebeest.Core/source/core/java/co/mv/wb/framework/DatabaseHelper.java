@@ -19,10 +19,21 @@ package co.mv.wb.framework;
 import co.mv.wb.FaultException;
 
 import javax.sql.DataSource;
+import java.sql.BatchUpdateException;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.function.IntConsumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * Provides a set of convenience methods for working with JDBC-accessed databases.
@@ -31,6 +42,27 @@ import java.sql.SQLException;
 */
 public class DatabaseHelper
 {
+	// The number of statements sent to the database in each round trip by executeBatch
+	private static final int BATCH_SIZE = 1000;
+
+	// Statements that begin with one of these keywords do not return results, so drivers accept them in a batch
+	private static final Set<String> BATCHABLE_KEYWORDS = new HashSet<>(Arrays.asList(
+		"ALTER", "COMMENT", "CREATE", "DELETE", "DROP", "GRANT", "INSERT", "MERGE", "REVOKE", "TRUNCATE", "UPDATE"));
+
+	// The first keyword of a statement, after any whitespace, comments and opening parentheses
+	private static final Pattern LEADING_KEYWORD = Pattern.compile(
+		"\\A(?:\\s+|--[^\\n]*(?:\\n|\\z)|/\\*.*?\\*/|\\()*([A-Za-z]+)",
+		Pattern.DOTALL);
+
+	// Clauses that make a data-modifying statement return rows
+	private static final Pattern RESULT_CLAUSE = Pattern.compile(
+		"\\b(?:RETURNING|OUTPUT)\\b",
+		Pattern.CASE_INSENSITIVE);
+
+	private static final Pattern SELECT = Pattern.compile(
+		"\\bSELECT\\b",
+		Pattern.CASE_INSENSITIVE);
+
 	/**
 	 * Executes a SQL statement against the database represented by the supplied DataSource.
 	 * 
@@ -63,6 +95,247 @@ public class DatabaseHelper
 			DatabaseHelper.release(conn);
 		}
 	}
+
+	/**
+	 * Executes a SQL statement against the database represented by the supplied DataSource in auto-commit mode, for
+	 * statements such as PostgreSQL's CREATE INDEX CONCURRENTLY that cannot be run inside a transaction block.
+	 *
+	 * @param       dataSource                  the DataSource that represents the database to work with
+	 * @param       sql                         the SQL statement to execute against the target database.
+	 * @throws      SQLException                may be thrown due to a mal-formed SQL statement, connectivity problem,
+	 *                                          or some other issue.
+	 * @since                                   4.0
+	 */
+	public static void executeOutsideTransaction(
+		DataSource dataSource,
+		String sql) throws SQLException
+	{
+		if (dataSource == null) { throw new IllegalArgumentException("dataSource cannot be null"); }
+		if (sql == null) { throw new IllegalArgumentException("sql cannot be null"); }
+		if ("".equals(sql)) { throw new IllegalArgumentException("sql cannot be empty"); }
+
+		try (Connection conn = dataSource.getConnection();
+			Statement stmt = conn.createStatement())
+		{
+			if (!conn.getAutoCommit())
+			{
+				conn.setAutoCommit(true);
+			}
+
+			stmt.execute(sql);
+		}
+	}
+
+	/**
+	 * Executes a sequence of SQL statements, in order, on a single connection to the database represented by the
+	 * supplied DataSource.  If the driver supports batch updates then the statements are sent in batches, so that a
+	 * long script needs only a few round trips.  Otherwise they are executed one at a time.  Statements that might
+	 * return results, such as queries, are always executed on their own, as drivers reject them in a batch; the
+	 * statements batched before them are sent first so that the order is kept.
+	 *
+	 * If a statement fails then the statements after it are not executed, and the SQLException identifies which
+	 * statement failed.
+	 * 
+	 * @param       dataSource                  the DataSource that represents the database to work with
+	 * @param       statements                  the SQL statements to execute against the target database.
+	 * @throws      SQLException                may be thrown due to a mal-formed SQL statement, connectivity problem,
+	 *                                          or some other issue.
+	 * @since                                   4.0
+	 */
+	public static void executeBatch(
+		DataSource dataSource,
+		List<String> statements) throws SQLException
+	{
+		if (dataSource == null) { throw new IllegalArgumentException("dataSource cannot be null"); }
+		if (statements == null) { throw new IllegalArgumentException("statements cannot be null"); }
+
+		DatabaseHelper.executeBatch(dataSource, statements.iterator());
+	}
+	
+	/**
+	 * Executes a sequence of SQL statements, in order, on a single connection to the database represented by the
+	 * supplied DataSource, as for {@link #executeBatch(DataSource, List)}.  The statements are drawn from the Iterator
+	 * only as they are needed, and only the statements in the current batch are held at once, so a script of any
+	 * length can be executed without first reading all of it into memory.
+	 * 
+	 * @param       dataSource                  the DataSource that represents the database to work with
+	 * @param       statements                  the SQL statements to execute against the target database.
+	 * @throws      SQLException                may be thrown due to a mal-formed SQL statement, connectivity problem,
+	 *                                          or some other issue.
+	 * @since                                   4.0
+	 */
+	public static void executeBatch(
+		DataSource dataSource,
+		Iterator<String> statements) throws SQLException
+	{
+		if (dataSource == null) { throw new IllegalArgumentException("dataSource cannot be null"); }
+		if (statements == null) { throw new IllegalArgumentException("statements cannot be null"); }
+		
+		DatabaseHelper.executeBatch(dataSource, statements, executed -> { });
+	}
+
+	/**
+	 * Executes a sequence of SQL statements, in order, on a single connection to the database represented by the
+	 * supplied DataSource, as for {@link #executeBatch(DataSource, Iterator)}, and reports progress as they are
+	 * executed.
+	 *
+	 * @param       dataSource                  the DataSource that represents the database to work with
+	 * @param       statements                  the SQL statements to execute against the target database.
+	 * @param       progress                    receives the number of statements executed so far, after each batch
+	 *                                          and after each statement that is executed on its own.
+	 * @throws      SQLException                may be thrown due to a mal-formed SQL statement, connectivity problem,
+	 *                                          or some other issue.
+	 * @since                                   4.0
+	 */
+	public static void executeBatch(
+		DataSource dataSource,
+		Iterator<String> statements,
+		IntConsumer progress) throws SQLException
+	{
+		if (dataSource == null) { throw new IllegalArgumentException("dataSource cannot be null"); }
+		if (statements == null) { throw new IllegalArgumentException("statements cannot be null"); }
+		if (progress == null) { throw new IllegalArgumentException("progress cannot be null"); }
+
+		try (Connection conn = dataSource.getConnection())
+		{
+			DatabaseHelper.executeBatch(conn, statements, progress);
+		}
+	}
+
+	/**
+	 * Executes a sequence of SQL statements, in order, on a single connection to the database represented by the
+	 * supplied DataSource, as for {@link #executeBatch(DataSource, Iterator)}, in a single transaction.  Either every
+	 * statement takes effect or, if one fails, none of them do.  The statements must therefore be ones that the
+	 * database can perform inside a transaction.
+	 *
+	 * @param       dataSource                  the DataSource that represents the database to work with
+	 * @param       statements                  the SQL statements to execute against the target database.
+	 * @throws      SQLException                may be thrown due to a mal-formed SQL statement, connectivity problem,
+	 *                                          or some other issue.
+	 * @since                                   4.0
+	 */
+	public static void executeBatchInTransaction(
+		DataSource dataSource,
+		Iterator<String> statements) throws SQLException
+	{
+		if (dataSource == null) { throw new IllegalArgumentException("dataSource cannot be null"); }
+		if (statements == null) { throw new IllegalArgumentException("statements cannot be null"); }
+
+		try (Connection conn = dataSource.getConnection())
+		{
+			boolean autoCommit = conn.getAutoCommit();
+			conn.setAutoCommit(false);
+			try
+			{
+				DatabaseHelper.executeBatch(conn, statements, executed -> { });
+				conn.commit();
+			}
+			catch (SQLException | RuntimeException e)
+			{
+				conn.rollback();
+				throw e;
+			}
+			finally
+			{
+				conn.setAutoCommit(autoCommit);
+			}
+		}
+	}
+
+	private static void executeBatch(
+		Connection conn,
+		Iterator<String> statements,
+		IntConsumer progress) throws SQLException
+	{
+		try (Statement stmt = conn.createStatement())
+		{
+			boolean batched = conn.getMetaData().supportsBatchUpdates();
+			List<String> batch = new ArrayList<>();
+			int executed = 0;
+
+			while (statements.hasNext())
+			{
+				String statement = statements.next();
+
+				if (batched && DatabaseHelper.isBatchable(statement))
+				{
+					batch.add(statement);
+					if (batch.size() == BATCH_SIZE)
+					{
+						executed = DatabaseHelper.executeBatch(stmt, batch, executed);
+						progress.accept(executed);
+					}
+				}
+				else
+				{
+					if (batch.size() > 0)
+					{
+						executed = DatabaseHelper.executeBatch(stmt, batch, executed);
+						progress.accept(executed);
+					}
+
+					DatabaseHelper.execute(stmt, statement, executed);
+					executed ++;
+					progress.accept(executed);
+				}
+			}
+
+			// A script that consists of a single statement is not worth a batch
+			if (batch.size() == 1 && executed == 0)
+			{
+				DatabaseHelper.execute(stmt, batch.get(0), executed);
+				progress.accept(1);
+			}
+			else if (batch.size() > 0)
+			{
+				executed = DatabaseHelper.executeBatch(stmt, batch, executed);
+				progress.accept(executed);
+			}
+		}
+	}
+	
+	/**
+	 * Executes a parameterized SQL statement against the database represented by the supplied DataSource, and returns
+	 * the number of rows that it affected.
+	 * 
+	 * @param       dataSource                  the DataSource that represents the database to work with
+	 * @param       sql                         the SQL statement to execute against the target database, with a ?
+	 *                                          placeholder for each parameter.
+	 * @param       parameters                  the values to bind to the placeholders in the SQL statement, in order.
+	 * @return                                  the number of rows affected by the statement.
+	 * @throws      SQLException                may be thrown due to a mal-formed SQL statement, connectivity problem,
+	 *                                          or some other issue.
+	 * @since                                   4.0
+	 */
+	public static int executeUpdate(
+		DataSource dataSource,
+		String sql,
+		Object... parameters) throws SQLException
+	{
+		if (dataSource == null) { throw new IllegalArgumentException("dataSource cannot be null"); }
+		if (sql == null) { throw new IllegalArgumentException("sql cannot be null"); }
+		if ("".equals(sql)) { throw new IllegalArgumentException("sql cannot be empty"); }
+		if (parameters == null) { throw new IllegalArgumentException("parameters cannot be null"); }
+		
+		Connection conn = null;
+		PreparedStatement ps = null;
+		
+		try
+		{
+			conn = dataSource.getConnection();
+			ps = conn.prepareStatement(sql);
+			for (int i = 0; i < parameters.length; i ++)
+			{
+				ps.setObject(i + 1, parameters[i]);
+			}
+			return ps.executeUpdate();
+		}
+		finally
+		{
+			DatabaseHelper.release(ps);
+			DatabaseHelper.release(conn);
+		}
+	}
 	
 	/**
 	 * Executes a SQL query against the database represented by the supplied DataSource and returns the value from the
@@ -172,6 +445,21 @@ public class DatabaseHelper
 		}
 	}
 
+	/**
+	 * If the supplied Statement reference is non-null, attempts to close that Statement.
+	 * 
+	 * @param       stmt                        the Statement to be closed.  Ignored if null is supplied.
+	 * @throws      SQLException                if an error occurs while closing the Statement.
+	 * @since                                   4.0
+	 */
+	public static void release(Statement stmt) throws SQLException
+	{
+		if (stmt != null)
+		{
+			stmt.close();
+		}
+	}
+	
 	/**
 	 * If the supplied PreparedStatement reference is non-null, attempts to close that PreparedStatement.
 	 * 
@@ -203,4 +491,116 @@ public class DatabaseHelper
 			rs.close();
 		}
 	}
+
+	/**
+	 * Finds the position of the first failed statement in a batch from the update counts reported by the driver.
+	 * Drivers either stop at the first failure and report counts only for the statements before it, or carry on and
+	 * report EXECUTE_FAILED for each statement that failed.
+	 */
+	private static int firstFailure(
+		int[] updateCounts)
+	{
+		if (updateCounts == null)
+		{
+			return 0;
+		}
+
+		for (int i = 0; i < updateCounts.length; i ++)
+		{
+			if (updateCounts[i] == Statement.EXECUTE_FAILED)
+			{
+				return i;
+			}
+		}
+
+		return updateCounts.length;
+	}
+
+	/**
+	 * Executes one batch of statements, and returns the number of statements that have been executed in total.  The
+	 * batch is cleared once it has been executed.
+	 */
+	/**
+	 * Indicates whether or not a statement can be sent to the database in a batch, which it can only be if it cannot
+	 * return results.  This errs towards executing statements on their own, which is slower but always accepted.
+	 */
+	static boolean isBatchable(
+		String statement)
+	{
+		if (statement == null) { throw new IllegalArgumentException("statement cannot be null"); }
+
+		Matcher leading = LEADING_KEYWORD.matcher(statement);
+		if (!leading.find())
+		{
+			return false;
+		}
+
+		String keyword = leading.group(1).toUpperCase();
+
+		// INSERT ... SELECT and CREATE ... AS SELECT do not return the rows that they select, but a SELECT anywhere else
+		// may be a query in its own right, such as one in a SQL Server batch
+		return BATCHABLE_KEYWORDS.contains(keyword) &&
+			!RESULT_CLAUSE.matcher(statement).find() &&
+			("INSERT".equals(keyword) || "CREATE".equals(keyword) || !SELECT.matcher(statement).find());
+	}
+
+	private static int executeBatch(
+		Statement stmt,
+		List<String> batch,
+		int executed) throws SQLException
+	{
+		for (String statement : batch)
+		{
+			stmt.addBatch(statement);
+		}
+
+		try
+		{
+			stmt.executeBatch();
+		}
+		catch (BatchUpdateException e)
+		{
+			int failed = DatabaseHelper.firstFailure(e.getUpdateCounts());
+			throw DatabaseHelper.statementFailed(
+				executed + failed,
+				failed < batch.size() ? batch.get(failed) : null,
+				e);
+		}
+
+		int result = executed + batch.size();
+		batch.clear();
+
+		return result;
+	}
+
+	private static void execute(
+		Statement stmt,
+		String statement,
+		int executed) throws SQLException
+	{
+		try
+		{
+			stmt.execute(statement);
+		}
+		catch (SQLException e)
+		{
+			throw DatabaseHelper.statementFailed(executed, statement, e);
+		}
+	}
+
+	private static SQLException statementFailed(
+		int index,
+		String statement,
+		SQLException cause)
+	{
+		String message = statement == null
+			? cause.getMessage()
+			: String.format(
+				"Statement %d failed: %s%n%s",
+				index + 1,
+				cause.getMessage(),
+				statement);
+
+		return new SQLException(message, cause.getSQLState(), cause.getErrorCode(), cause);
+	}
 }
@@ -0,0 +1,105 @@
+// Wildebeest Migration Framework
+// Copyright © 2013 - 2018, Matheson Ventures Pte Ltd
+//
+// This file is part of Wildebeest
+//
+// Wildebeest is free software: you can redistribute it and/or modify it under
+// the terms of the GNU General Public License v2 as published by the Free
+// Software Foundation.
+//
+// Wildebeest is distributed in the hope that it will be useful, but WITHOUT ANY
+// WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+// A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along with
+// Wildebeest.  If not, see http://www.gnu.org/licenses/gpl-2.0.html
+
+package co.mv.wb.framework;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+
+/**
+ * Adds values to a {@link MessageDigest}, for migrations that describe their content with
+ * {@link co.mv.wb.Migration#digestContent(MessageDigest)}.  Each value is followed by a terminator, so that the
+ * boundaries between values are part of the digest.
+ *
+ * @since                                       4.0
+ */
+public class Digests
+{
+	private static final int BUFFER_SIZE = 8192;
+
+	/**
+	 * Adds a string to the digest.
+	 *
+	 * @param       digest                      the digest to update.
+	 * @param       value                       the string to add.
+	 * @since                                   4.0
+	 */
+	public static void update(
+		MessageDigest digest,
+		String value)
+	{
+		if (digest == null) throw new ArgumentNullException("digest");
+		if (value == null) throw new ArgumentNullException("value");
+
+		digest.update(value.getBytes(StandardCharsets.UTF_8));
+		digest.update((byte)0);
+	}
+
+	/**
+	 * Adds everything that can be read from a Reader to the digest, without holding all of it in memory.  The Reader
+	 * is not closed.
+	 *
+	 * @param       digest                      the digest to update.
+	 * @param       reader                      the Reader to add the content of.
+	 * @throws      IOException                 if the Reader cannot be read.
+	 * @since                                   4.0
+	 */
+	public static void update(
+		MessageDigest digest,
+		Reader reader) throws IOException
+	{
+		if (digest == null) throw new ArgumentNullException("digest");
+		if (reader == null) throw new ArgumentNullException("reader");
+
+		char[] buffer = new char[BUFFER_SIZE];
+		for (int read = reader.read(buffer); read != -1; read = reader.read(buffer))
+		{
+			digest.update(new String(buffer, 0, read).getBytes(StandardCharsets.UTF_8));
+		}
+		digest.update((byte)0);
+	}
+
+	/**
+	 * Adds the bytes of a file to the digest.
+	 *
+	 * @param       digest                      the digest to update.
+	 * @param       file                        the file to add the content of.
+	 * @throws      IOException                 if the file cannot be read.
+	 * @since                                   4.0
+	 */
+	public static void update(
+		MessageDigest digest,
+		File file) throws IOException
+	{
+		if (digest == null) throw new ArgumentNullException("digest");
+		if (file == null) throw new ArgumentNullException("file");
+
+		try (InputStream input = Files.newInputStream(file.toPath()))
+		{
+			byte[] buffer = new byte[BUFFER_SIZE];
+			for (int read = input.read(buffer); read != -1; read = input.read(buffer))
+			{
+				digest.update(buffer, 0, read);
+			}
+		}
+		digest.update((byte)0);
+	}
+}
@@ -0,0 +1,219 @@
+// Wildebeest Migration Framework
+// Copyright © 2013 - 2018, Matheson Ventures Pte Ltd
+//
+// This file is part of Wildebeest
+//
+// Wildebeest is free software: you can redistribute it and/or modify it under
+// the terms of the GNU General Public License v2 as published by the Free
+// Software Foundation.
+//
+// Wildebeest is distributed in the hope that it will be useful, but WITHOUT ANY
+// WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+// A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along with
+// Wildebeest.  If not, see http://www.gnu.org/licenses/gpl-2.0.html
+
+package co.mv.wb.framework;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * An annotation processor that writes an index of the classes annotated with {@code @MigrationType} and
+ * {@code @AssertionType} as the plugins are compiled.  At runtime the index is read by
+ * {@link co.mv.wb.impl.PluginIndex}, so that plugins can be discovered without scanning the classpath.
+ *
+ * Each index is a plain UTF-8 resource that lists one binary class name per line.
+ *
+ * A build may compile only the sources that have changed, so the index is merged with the one already in the class
+ * output rather than replacing it.  Entries for classes that were compiled again keep their place only if they are
+ * still annotated, and entries for classes that no longer exist are dropped.
+ *
+ * @since                                       4.0
+ */
+// Every build has to be seen, including one that compiles no annotated classes, so that stale entries are dropped
+@SupportedAnnotationTypes("*")
+public class PluginIndexProcessor extends AbstractProcessor
+{
+	/**
+	 * The classpath resource that lists the classes annotated with {@code @MigrationType}.
+	 *
+	 * @since                                   4.0
+	 */
+	public static final String MIGRATION_TYPES_INDEX = "META-INF/co.mv.wb/migration-types";
+
+	/**
+	 * The classpath resource that lists the classes annotated with {@code @AssertionType}.
+	 *
+	 * @since                                   4.0
+	 */
+	public static final String ASSERTION_TYPES_INDEX = "META-INF/co.mv.wb/assertion-types";
+
+	static final String MIGRATION_TYPE_ANNOTATION = "co.mv.wb.MigrationType";
+	static final String ASSERTION_TYPE_ANNOTATION = "co.mv.wb.AssertionType";
+
+	private final Set<String> _migrationTypes = new TreeSet<>();
+	private final Set<String> _assertionTypes = new TreeSet<>();
+	private final Set<String> _compiledTypes = new HashSet<>();
+
+	@Override public SourceVersion getSupportedSourceVersion()
+	{
+		return SourceVersion.latestSupported();
+	}
+
+	@Override public boolean process(
+		Set<? extends TypeElement> annotations,
+		RoundEnvironment roundEnv)
+	{
+		if (annotations == null) { throw new IllegalArgumentException("annotations cannot be null"); }
+		if (roundEnv == null) { throw new IllegalArgumentException("roundEnv cannot be null"); }
+
+		for (Element element : roundEnv.getRootElements())
+		{
+			this.addCompiledTypes(element);
+		}
+
+		for (TypeElement annotation : annotations)
+		{
+			String annotationName = annotation.getQualifiedName().toString();
+
+			Set<String> index;
+			if (MIGRATION_TYPE_ANNOTATION.equals(annotationName))
+			{
+				index = _migrationTypes;
+			}
+			else if (ASSERTION_TYPE_ANNOTATION.equals(annotationName))
+			{
+				index = _assertionTypes;
+			}
+			else
+			{
+				continue;
+			}
+
+			for (Element element : roundEnv.getElementsAnnotatedWith(annotation))
+			{
+				index.add(processingEnv
+					.getElementUtils()
+					.getBinaryName((TypeElement)element)
+					.toString());
+			}
+		}
+
+		if (roundEnv.processingOver())
+		{
+			this.writeIndex(MIGRATION_TYPES_INDEX, _migrationTypes);
+			this.writeIndex(ASSERTION_TYPES_INDEX, _assertionTypes);
+		}
+
+		// Other processors may also be interested in these annotations
+		return false;
+	}
+
+	private void addCompiledTypes(
+		Element element)
+	{
+		if (element instanceof TypeElement)
+		{
+			_compiledTypes.add(processingEnv.getElementUtils().getBinaryName((TypeElement)element).toString());
+
+			for (Element enclosed : element.getEnclosedElements())
+			{
+				this.addCompiledTypes(enclosed);
+			}
+		}
+	}
+
+	/**
+	 * Adds the entries of the index already in the class output to the supplied set of class names, leaving out the
+	 * classes that were compiled in this build, which have already been indexed, and the classes that no longer exist.
+	 * Returns false if there is no index in the class output yet.
+	 */
+	private boolean mergeExistingIndex(
+		String resourceName,
+		Set<String> classNames)
+	{
+		if (resourceName == null) { throw new IllegalArgumentException("resourceName cannot be null"); }
+		if (classNames == null) { throw new IllegalArgumentException("classNames cannot be null"); }
+
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+			processingEnv
+				.getFiler()
+				.getResource(StandardLocation.CLASS_OUTPUT, "", resourceName)
+				.openInputStream(),
+			StandardCharsets.UTF_8)))
+		{
+			for (String line = reader.readLine(); line != null; line = reader.readLine())
+			{
+				String className = line.trim();
+
+				if (!className.isEmpty() &&
+					!_compiledTypes.contains(className) &&
+					processingEnv.getElementUtils().getTypeElement(className.replace('$', '.')) != null)
+				{
+					classNames.add(className);
+				}
+			}
+
+			return true;
+		}
+		catch (IOException e)
+		{
+			// There is no index yet, as this is a clean build
+			return false;
+		}
+	}
+
+	private void writeIndex(
+		String resourceName,
+		Set<String> classNames)
+	{
+		if (resourceName == null) { throw new IllegalArgumentException("resourceName cannot be null"); }
+		if (classNames == null) { throw new IllegalArgumentException("classNames cannot be null"); }
+
+		try
+		{
+			// An existing index is rewritten even if it is left empty, so that it does not list removed classes
+			if (!this.mergeExistingIndex(resourceName, classNames) && classNames.isEmpty())
+			{
+				return;
+			}
+
+			FileObject resource = processingEnv
+				.getFiler()
+				.createResource(StandardLocation.CLASS_OUTPUT, "", resourceName);
+
+			try (Writer writer = new OutputStreamWriter(resource.openOutputStream(), StandardCharsets.UTF_8))
+			{
+				for (String className : classNames)
+				{
+					writer.write(className);
+					writer.write("\n");
+				}
+			}
+		}
+		catch (IOException e)
+		{
+			processingEnv.getMessager().printMessage(
+				Diagnostic.Kind.ERROR,
+				String.format("unable to write plugin index %s: %s", resourceName, e.getMessage()));
+		}
+	}
+}
@@ -0,0 +1,598 @@
+// Wildebeest Migration Framework
+// Copyright © 2013 - 2018, Matheson Ventures Pte Ltd
+//
+// This file is part of Wildebeest
+//
+// Wildebeest is free software: you can redistribute it and/or modify it under
+// the terms of the GNU General Public License v2 as published by the Free
+// Software Foundation.
+//
+// Wildebeest is distributed in the hope that it will be useful, but WITHOUT ANY
+// WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+// A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along with
+// Wildebeest.  If not, see http://www.gnu.org/licenses/gpl-2.0.html
+
+package co.mv.wb.framework;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTimeoutException;
+import java.util.ArrayDeque;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+/**
+ * A {@link DataSource} that keeps a small pool of physical connections opened from an underlying DataSource, so that
+ * consecutive statements reuse a connection rather than each opening a new one.
+ *
+ * Connections handed out by a PooledDataSource are returned to the pool when they are closed.  The most recently
+ * returned connection is handed out first, so that a single-threaded caller keeps reusing the same physical connection.
+ * A connection that was left in a transaction is rolled back before it is returned to the pool, and any session
+ * settings changed through the Connection, such as its read-only flag or transaction isolation, are put back.
+ *
+ * Session state can also be changed by SQL, for example by SET, USE or the creation of a temporary table, and the
+ * database offers no portable way to reset it.  A connection that has executed such a statement is therefore closed
+ * rather than returned to the pool, so that the next caller never inherits the state.
+ *
+ * @since                                       4.0
+ */
+public final class PooledDataSource implements DataSource, AutoCloseable
+{
+	// Idle connections older than this are checked with Connection.isValid before they are reused
+	private static final long VALIDATION_INTERVAL_MILLIS = 5000;
+	private static final int VALIDATION_TIMEOUT_SECONDS = 5;
+
+	// Statements that change the state of the session rather than of the database, after any whitespace and comments
+	private static final Pattern SESSION_STATEMENT = Pattern.compile(
+		"\\A(?:\\s+|--[^\\n]*(?:\\n|\\z)|/\\*.*?\\*/)*" +
+		"(?:(?:SET|RESET|USE|DISCARD|LISTEN|PREPARE|LOCK|CREATE\\s+(?:(?:GLOBAL|LOCAL)\\s+)?TEMP(?:ORARY)?)\\b|" +
+		"CREATE\\s+TABLE\\s+#)",
+		Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+	// The session settings that can be changed through a Connection, each keyed by its setter and mapped to its getter
+	private static final Map<String, String> SESSION_SETTINGS = new HashMap<>();
+	static
+	{
+		SESSION_SETTINGS.put("setCatalog", "getCatalog");
+		SESSION_SETTINGS.put("setHoldability", "getHoldability");
+		SESSION_SETTINGS.put("setReadOnly", "isReadOnly");
+		SESSION_SETTINGS.put("setSchema", "getSchema");
+		SESSION_SETTINGS.put("setTransactionIsolation", "getTransactionIsolation");
+	}
+
+	private final DataSource _dataSource;
+	private final int _maxPoolSize;
+	private final long _connectionTimeoutMillis;
+	private final long _idleTimeoutMillis;
+
+	private final Object _lock = new Object();
+	private final Deque<IdleConnection> _idleConnections = new ArrayDeque<>();
+	private int _openConnections = 0;
+	private boolean _closed = false;
+
+	/**
+	 * Creates a new PooledDataSource.
+	 *
+	 * @param       dataSource                  the DataSource to open physical connections from.
+	 * @param       maxPoolSize                 the maximum number of physical connections that may be open at once.
+	 * @param       connectionTimeoutMillis     how long getConnection waits for a connection to become available when
+	 *                                          the pool is exhausted, in milliseconds.
+	 * @param       idleTimeoutMillis           how long a connection may sit unused in the pool before it is closed, in
+	 *                                          milliseconds.
+	 * @since                                   4.0
+	 */
+	public PooledDataSource(
+		DataSource dataSource,
+		int maxPoolSize,
+		long connectionTimeoutMillis,
+		long idleTimeoutMillis)
+	{
+		if (dataSource == null) throw new ArgumentNullException("dataSource");
+		if (maxPoolSize < 1) { throw new IllegalArgumentException("maxPoolSize must be at least 1"); }
+		if (connectionTimeoutMillis < 0) { throw new IllegalArgumentException("connectionTimeoutMillis cannot be negative"); }
+		if (idleTimeoutMillis < 0) { throw new IllegalArgumentException("idleTimeoutMillis cannot be negative"); }
+
+		_dataSource = dataSource;
+		_maxPoolSize = maxPoolSize;
+		_connectionTimeoutMillis = connectionTimeoutMillis;
+		_idleTimeoutMillis = idleTimeoutMillis;
+	}
+
+	@Override public Connection getConnection() throws SQLException
+	{
+		long deadline = System.currentTimeMillis() + _connectionTimeoutMillis;
+
+		synchronized (_lock)
+		{
+			while (true)
+			{
+				if (_closed)
+				{
+					throw new SQLException("the connection pool has been closed");
+				}
+
+				IdleConnection idle = _idleConnections.pollFirst();
+
+				if (idle != null)
+				{
+					if (this.isReusable(idle))
+					{
+						return this.lease(idle.getConnection());
+					}
+
+					PooledDataSource.closeQuietly(idle.getConnection());
+					_openConnections --;
+					continue;
+				}
+
+				if (_openConnections < _maxPoolSize)
+				{
+					// Reserve a slot, and open the physical connection outside of the lock
+					_openConnections ++;
+					break;
+				}
+
+				long remaining = deadline - System.currentTimeMillis();
+				if (remaining <= 0)
+				{
+					throw new SQLTimeoutException(String.format(
+						"timed out after %dms waiting for a connection from a pool of %d",
+						_connectionTimeoutMillis,
+						_maxPoolSize));
+				}
+
+				try
+				{
+					_lock.wait(remaining);
+				}
+				catch (InterruptedException e)
+				{
+					Thread.currentThread().interrupt();
+					throw new SQLException("interrupted while waiting for a connection", e);
+				}
+			}
+		}
+
+		Connection physical;
+		try
+		{
+			physical = _dataSource.getConnection();
+		}
+		catch (SQLException | RuntimeException e)
+		{
+			synchronized (_lock)
+			{
+				_openConnections --;
+				_lock.notifyAll();
+			}
+			throw e;
+		}
+
+		return this.lease(physical);
+	}
+
+	@Override public Connection getConnection(
+		String username,
+		String password) throws SQLException
+	{
+		throw new SQLFeatureNotSupportedException("a PooledDataSource only opens connections with its own credentials");
+	}
+
+	/**
+	 * Closes all of the connections that are currently idle in the pool.  Connections that are in use are unaffected,
+	 * and the pool continues to open new connections as they are needed.  This is used before dropping a database, as
+	 * most database systems refuse to drop a database that has open connections.
+	 *
+	 * @since                                   4.0
+	 */
+	public void evictIdleConnections()
+	{
+		List<IdleConnection> evicted;
+
+		synchronized (_lock)
+		{
+			evicted = new ArrayList<>(_idleConnections);
+			_idleConnections.clear();
+			_openConnections -= evicted.size();
+			_lock.notifyAll();
+		}
+
+		evicted.forEach(idle -> PooledDataSource.closeQuietly(idle.getConnection()));
+	}
+
+	/**
+	 * Closes all idle connections and stops the pool from handing out any more.  Connections that are still in use are
+	 * closed as they are returned.
+	 *
+	 * @since                                   4.0
+	 */
+	@Override public void close()
+	{
+		synchronized (_lock)
+		{
+			_closed = true;
+		}
+
+		this.evictIdleConnections();
+	}
+
+	/**
+	 * Returns the number of physical connections that are currently open, whether they are idle or in use.
+	 *
+	 * @return                                  the number of physical connections currently open.
+	 * @since                                   4.0
+	 */
+	public int getOpenConnectionCount()
+	{
+		synchronized (_lock)
+		{
+			return _openConnections;
+		}
+	}
+
+	@Override public PrintWriter getLogWriter() throws SQLException
+	{
+		return _dataSource.getLogWriter();
+	}
+
+	@Override public void setLogWriter(
+		PrintWriter out) throws SQLException
+	{
+		_dataSource.setLogWriter(out);
+	}
+
+	@Override public void setLoginTimeout(
+		int seconds) throws SQLException
+	{
+		_dataSource.setLoginTimeout(seconds);
+	}
+
+	@Override public int getLoginTimeout() throws SQLException
+	{
+		return _dataSource.getLoginTimeout();
+	}
+
+	@Override public Logger getParentLogger() throws SQLFeatureNotSupportedException
+	{
+		return _dataSource.getParentLogger();
+	}
+
+	@Override public <T> T unwrap(
+		Class<T> iface) throws SQLException
+	{
+		if (iface == null) throw new ArgumentNullException("iface");
+
+		if (iface.isInstance(this))
+		{
+			return iface.cast(this);
+		}
+
+		return _dataSource.unwrap(iface);
+	}
+
+	@Override public boolean isWrapperFor(
+		Class<?> iface) throws SQLException
+	{
+		if (iface == null) throw new ArgumentNullException("iface");
+
+		return iface.isInstance(this) || _dataSource.isWrapperFor(iface);
+	}
+
+	private boolean isReusable(
+		IdleConnection idle)
+	{
+		if (idle == null) throw new ArgumentNullException("idle");
+
+		long idleMillis = System.currentTimeMillis() - idle.getIdleSince();
+
+		if (idleMillis > _idleTimeoutMillis)
+		{
+			return false;
+		}
+
+		try
+		{
+			if (idle.getConnection().isClosed())
+			{
+				return false;
+			}
+
+			return idleMillis < VALIDATION_INTERVAL_MILLIS || idle.getConnection().isValid(VALIDATION_TIMEOUT_SECONDS);
+		}
+		catch (SQLException e)
+		{
+			return false;
+		}
+	}
+
+	private Connection lease(
+		Connection physical)
+	{
+		if (physical == null) throw new ArgumentNullException("physical");
+
+		return (Connection)Proxy.newProxyInstance(
+			PooledDataSource.class.getClassLoader(),
+			new Class<?>[] { Connection.class },
+			new LeasedConnection(physical));
+	}
+
+	private void release(
+		Connection physical,
+		Map<Method, Object> originalSettings,
+		boolean sessionChanged)
+	{
+		if (physical == null) throw new ArgumentNullException("physical");
+		if (originalSettings == null) throw new ArgumentNullException("originalSettings");
+
+		boolean reusable = !sessionChanged;
+		if (reusable)
+		{
+			try
+			{
+				if (!physical.getAutoCommit())
+				{
+					physical.rollback();
+					physical.setAutoCommit(true);
+				}
+
+				for (Map.Entry<Method, Object> setting : originalSettings.entrySet())
+				{
+					setting.getKey().invoke(physical, setting.getValue());
+				}
+
+				reusable = !physical.isClosed();
+			}
+			catch (SQLException | ReflectiveOperationException e)
+			{
+				reusable = false;
+			}
+		}
+
+		synchronized (_lock)
+		{
+			if (reusable && !_closed)
+			{
+				_idleConnections.addFirst(new IdleConnection(physical, System.currentTimeMillis()));
+				_lock.notifyAll();
+				return;
+			}
+
+			_openConnections --;
+			_lock.notifyAll();
+		}
+
+		PooledDataSource.closeQuietly(physical);
+	}
+
+	private static void closeQuietly(
+		Connection physical)
+	{
+		try
+		{
+			physical.close();
+		}
+		catch (SQLException e)
+		{
+			// The connection is being discarded, so there is nothing more to do with it
+		}
+	}
+
+	/**
+	 * A physical connection waiting in the pool, and the time that it was returned.
+	 */
+	private static class IdleConnection
+	{
+		private final Connection _connection;
+		private final long _idleSince;
+
+		IdleConnection(
+			Connection connection,
+			long idleSince)
+		{
+			if (connection == null) throw new ArgumentNullException("connection");
+
+			_connection = connection;
+			_idleSince = idleSince;
+		}
+
+		Connection getConnection()
+		{
+			return _connection;
+		}
+
+		long getIdleSince()
+		{
+			return _idleSince;
+		}
+	}
+
+	/**
+	 * The Connection handed out to callers.  Closing it returns the physical connection to the pool, after which it
+	 * can no longer be used.  The LeasedConnection records the original value of each session setting that the caller
+	 * changes, so that it can be put back, and whether the caller has executed SQL that changes the session.
+	 */
+	private class LeasedConnection implements InvocationHandler
+	{
+		private final Connection _physical;
+		private final Map<Method, Object> _originalSettings = new LinkedHashMap<>();
+		private boolean _sessionChanged = false;
+		private boolean _released = false;
+
+		LeasedConnection(
+			Connection physical)
+		{
+			if (physical == null) throw new ArgumentNullException("physical");
+
+			_physical = physical;
+		}
+
+		@Override public Object invoke(
+			Object proxy,
+			Method method,
+			Object[] args) throws Throwable
+		{
+			String name = method.getName();
+
+			if ("close".equals(name) && method.getParameterCount() == 0)
+			{
+				if (!_released)
+				{
+					_released = true;
+					PooledDataSource.this.release(_physical, _originalSettings, _sessionChanged);
+				}
+				return null;
+			}
+
+			if ("isClosed".equals(name) && method.getParameterCount() == 0)
+			{
+				return _released || _physical.isClosed();
+			}
+
+			if ("equals".equals(name) && method.getParameterCount() == 1)
+			{
+				return proxy == args[0];
+			}
+
+			if ("hashCode".equals(name) && method.getParameterCount() == 0)
+			{
+				return System.identityHashCode(proxy);
+			}
+
+			if ("toString".equals(name) && method.getParameterCount() == 0)
+			{
+				return "Pooled " + _physical.toString();
+			}
+
+			if (_released)
+			{
+				throw new SQLException("the connection has been closed");
+			}
+
+			// The original value of a setting is read only when the caller first changes it
+			if (SESSION_SETTINGS.containsKey(name) &&
+				method.getParameterCount() == 1 &&
+				!_originalSettings.containsKey(method))
+			{
+				Method getter = Connection.class.getMethod(SESSION_SETTINGS.get(name));
+				_originalSettings.put(method, PooledDataSource.invoke(getter, _physical, null));
+			}
+
+			if (("prepareStatement".equals(name) || "prepareCall".equals(name)) &&
+				args != null &&
+				args[0] instanceof String)
+			{
+				this.inspect((String)args[0]);
+			}
+
+			Object result = PooledDataSource.invoke(method, _physical, args);
+
+			if (result instanceof Statement)
+			{
+				return Proxy.newProxyInstance(
+					PooledDataSource.class.getClassLoader(),
+					new Class<?>[] { method.getReturnType() },
+					new LeasedStatement((Statement)result, (Connection)proxy, this));
+			}
+
+			return result;
+		}
+
+		void inspect(
+			String sql)
+		{
+			if (sql == null) throw new ArgumentNullException("sql");
+
+			if (!_sessionChanged && SESSION_STATEMENT.matcher(sql).find())
+			{
+				_sessionChanged = true;
+			}
+		}
+	}
+
+	/**
+	 * A Statement created through a LeasedConnection.  It reports the LeasedConnection rather than the physical
+	 * connection as its Connection, so that closing that Connection returns it to the pool, and it passes the SQL that
+	 * it executes to the LeasedConnection to check for statements that change the session.
+	 */
+	private static class LeasedStatement implements InvocationHandler
+	{
+		private final Statement _physical;
+		private final Connection _connection;
+		private final LeasedConnection _lease;
+
+		LeasedStatement(
+			Statement physical,
+			Connection connection,
+			LeasedConnection lease)
+		{
+			if (physical == null) throw new ArgumentNullException("physical");
+			if (connection == null) throw new ArgumentNullException("connection");
+			if (lease == null) throw new ArgumentNullException("lease");
+
+			_physical = physical;
+			_connection = connection;
+			_lease = lease;
+		}
+
+		@Override public Object invoke(
+			Object proxy,
+			Method method,
+			Object[] args) throws Throwable
+		{
+			String name = method.getName();
+
+			if ("getConnection".equals(name) && method.getParameterCount() == 0)
+			{
+				return _connection;
+			}
+
+			if ("equals".equals(name) && method.getParameterCount() == 1)
+			{
+				return proxy == args[0];
+			}
+
+			if ("hashCode".equals(name) && method.getParameterCount() == 0)
+			{
+				return System.identityHashCode(proxy);
+			}
+
+			if ((name.startsWith("execute") || "addBatch".equals(name)) && args != null && args[0] instanceof String)
+			{
+				_lease.inspect((String)args[0]);
+			}
+
+			return PooledDataSource.invoke(method, _physical, args);
+		}
+	}
+
+	private static Object invoke(
+		Method method,
+		Object target,
+		Object[] args) throws Throwable
+	{
+		try
+		{
+			return method.invoke(target, args);
+		}
+		catch (InvocationTargetException e)
+		{
+			throw e.getCause();
+		}
+	}
+}
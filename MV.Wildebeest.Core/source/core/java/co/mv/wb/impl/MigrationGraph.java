@@ -0,0 +1,297 @@
+// Wildebeest Migration Framework
+// Copyright © 2013 - 2018, Matheson Ventures Pte Ltd
+//
+// This file is part of Wildebeest
+//
+// Wildebeest is free software: you can redistribute it and/or modify it under
+// the terms of the GNU General Public License v2 as published by the Free
+// Software Foundation.
+//
+// Wildebeest is distributed in the hope that it will be useful, but WITHOUT ANY
+// WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+// A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along with
+// Wildebeest.  If not, see http://www.gnu.org/licenses/gpl-2.0.html
+
+package co.mv.wb.impl;
+
+import co.mv.wb.Migration;
+import co.mv.wb.MigrationNotPossibleException;
+import co.mv.wb.Resource;
+import co.mv.wb.State;
+import co.mv.wb.framework.ArgumentNullException;
+import co.mv.wb.plugin.base.ImmutableResource;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * An index over the states and migrations of a {@link Resource} that treats the resource as a directed graph, with
+ * states as nodes and migrations as edges.  The non-existent state is represented by {@link Optional#empty()}.
+ *
+ * The index is built once in O(V+E) time, after which paths between states are found with a breadth-first search
+ * that visits each state at most once.
+ *
+ * @since                                       4.0
+ */
+public final class MigrationGraph
+{
+	private final List<State> _states;
+	private final Map<UUID, State> _statesById;
+	private final Map<Optional<UUID>, List<Migration>> _migrationsFrom;
+
+	private MigrationGraph(
+		List<State> states,
+		Map<UUID, State> statesById,
+		Map<Optional<UUID>, List<Migration>> migrationsFrom)
+	{
+		if (states == null) throw new ArgumentNullException("states");
+		if (statesById == null) throw new ArgumentNullException("statesById");
+		if (migrationsFrom == null) throw new ArgumentNullException("migrationsFrom");
+
+		_states = states;
+		_statesById = statesById;
+		_migrationsFrom = migrationsFrom;
+	}
+
+	/**
+	 * Builds a MigrationGraph over the current states and migrations of the supplied Resource.  Later changes to the
+	 * Resource are not reflected in the graph.
+	 *
+	 * @param       resource                    the Resource to index.
+	 * @return                                  a MigrationGraph for the supplied Resource.
+	 * @since                                   4.0
+	 */
+	public static MigrationGraph build(
+		Resource resource)
+	{
+		if (resource == null) throw new ArgumentNullException("resource");
+
+		// An ImmutableResource has already indexed its states and migrations
+		if (resource instanceof ImmutableResource)
+		{
+			ImmutableResource immutableResource = (ImmutableResource)resource;
+
+			return new MigrationGraph(
+				immutableResource.getStates(),
+				immutableResource.getStatesById(),
+				immutableResource.getMigrationsByFromState());
+		}
+
+		Map<UUID, State> statesById = new HashMap<>();
+		for (State state : resource.getStates())
+		{
+			statesById.put(state.getStateId(), state);
+		}
+
+		Map<Optional<UUID>, List<Migration>> migrationsFrom = new HashMap<>();
+		for (Migration migration : resource.getMigrations())
+		{
+			migrationsFrom
+				.computeIfAbsent(migration.getFromStateId(), k -> new ArrayList<>())
+				.add(migration);
+		}
+
+		return new MigrationGraph(
+			resource.getStates(),
+			statesById,
+			migrationsFrom);
+	}
+
+	/**
+	 * Looks up the State with the supplied ID.
+	 *
+	 * @param       stateId                     the ID of the State to look up.
+	 * @return                                  the State with the supplied ID, or null if no such State exists.
+	 * @since                                   4.0
+	 */
+	public State stateForId(
+		UUID stateId)
+	{
+		if (stateId == null) throw new ArgumentNullException("stateId");
+
+		return _statesById.get(stateId);
+	}
+
+	/**
+	 * Gets the migrations that start from the supplied state, in the order that they were declared.
+	 *
+	 * @param       fromStateId                 the state to migrate from, or empty for the non-existent state.
+	 * @return                                  the migrations that start from the supplied state.
+	 * @since                                   4.0
+	 */
+	public List<Migration> migrationsFrom(
+		Optional<UUID> fromStateId)
+	{
+		if (fromStateId == null) throw new ArgumentNullException("fromStateId");
+
+		return Collections.unmodifiableList(_migrationsFrom.getOrDefault(fromStateId, Collections.emptyList()));
+	}
+
+	/**
+	 * Finds the shortest sequence of migrations that takes a resource from one state to another.  Where more than one
+	 * shortest path exists, the path whose migrations were declared first is chosen.
+	 *
+	 * @param       fromStateId                 the state to migrate from, or empty for the non-existent state.
+	 * @param       targetStateId               the state to migrate to, or empty for the non-existent state.
+	 * @return                                  the migrations to perform, in order.  The list is empty if the
+	 *                                          resource is already in the target state.
+	 * @throws      MigrationNotPossibleException if there is no path from the source state to the target state.
+	 * @since                                   4.0
+	 */
+	public List<Migration> findPath(
+		Optional<UUID> fromStateId,
+		Optional<UUID> targetStateId) throws
+			MigrationNotPossibleException
+	{
+		if (fromStateId == null) throw new ArgumentNullException("fromStateId");
+		if (targetStateId == null) throw new ArgumentNullException("targetStateId");
+
+		// The migration used to first reach each visited state
+		Map<Optional<UUID>, Migration> reachedBy = new HashMap<>();
+		reachedBy.put(fromStateId, null);
+
+		Deque<Optional<UUID>> queue = new ArrayDeque<>();
+		queue.add(fromStateId);
+
+		boolean found = fromStateId.equals(targetStateId);
+
+		while (!found && !queue.isEmpty())
+		{
+			Optional<UUID> stateId = queue.remove();
+
+			for (Migration migration : _migrationsFrom.getOrDefault(stateId, Collections.emptyList()))
+			{
+				Optional<UUID> toStateId = migration.getToStateId();
+
+				if (!reachedBy.containsKey(toStateId))
+				{
+					reachedBy.put(toStateId, migration);
+
+					if (toStateId.equals(targetStateId))
+					{
+						found = true;
+						break;
+					}
+
+					queue.add(toStateId);
+				}
+			}
+		}
+
+		if (!found)
+		{
+			throw new MigrationNotPossibleException(String.format(
+				"no path exists from %s to %s",
+				describeState(fromStateId),
+				describeState(targetStateId)));
+		}
+
+		// Walk back from the target to rebuild the path
+		List<Migration> result = new ArrayList<>();
+		Migration migration = reachedBy.get(targetStateId);
+		while (migration != null)
+		{
+			result.add(migration);
+			migration = reachedBy.get(migration.getFromStateId());
+		}
+		Collections.reverse(result);
+
+		return result;
+	}
+
+	/**
+	 * Finds the states that cannot be reached by any sequence of migrations from the non-existent state.
+	 *
+	 * @return                                  the unreachable states, in the order that they were declared.
+	 * @since                                   4.0
+	 */
+	public List<State> findUnreachableStates()
+	{
+		Set<Optional<UUID>> visited = new HashSet<>();
+		Deque<Optional<UUID>> queue = new ArrayDeque<>();
+		visited.add(Optional.empty());
+		queue.add(Optional.empty());
+
+		while (!queue.isEmpty())
+		{
+			Optional<UUID> stateId = queue.remove();
+
+			for (Migration migration : _migrationsFrom.getOrDefault(stateId, Collections.emptyList()))
+			{
+				if (visited.add(migration.getToStateId()))
+				{
+					queue.add(migration.getToStateId());
+				}
+			}
+		}
+
+		List<State> result = new ArrayList<>();
+		for (State state : _states)
+		{
+			if (!visited.contains(Optional.of(state.getStateId())))
+			{
+				result.add(state);
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Finds the migrations that lead from a state back to the same state.  A migration path never includes one, so
+	 * it is never performed.  Other cycles are expected, as a rollback migration forms one with the migration that
+	 * it reverses.
+	 *
+	 * @return                                  the migrations that lead from a state back to the same state, in the
+	 *                                          order that their states were declared.
+	 * @since                                   4.0
+	 */
+	public List<Migration> findLoops()
+	{
+		List<Optional<UUID>> stateIds = new ArrayList<>();
+		stateIds.add(Optional.empty());
+		_states.forEach(state -> stateIds.add(Optional.of(state.getStateId())));
+
+		List<Migration> result = new ArrayList<>();
+		for (Optional<UUID> stateId : stateIds)
+		{
+			for (Migration migration : _migrationsFrom.getOrDefault(stateId, Collections.emptyList()))
+			{
+				if (migration.getToStateId().equals(stateId))
+				{
+					result.add(migration);
+				}
+			}
+		}
+
+		return result;
+	}
+
+	private String describeState(
+		Optional<UUID> stateId)
+	{
+		if (stateId == null) throw new ArgumentNullException("stateId");
+
+		if (!stateId.isPresent())
+		{
+			return "non-existent";
+		}
+
+		State state = _statesById.get(stateId.get());
+
+		return state == null
+			? stateId.get().toString()
+			: String.format("\"%s\"", state.getDisplayName());
+	}
+}
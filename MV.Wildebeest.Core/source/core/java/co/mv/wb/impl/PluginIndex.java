@@ -0,0 +1,182 @@
+// Wildebeest Migration Framework
+// Copyright © 2013 - 2018, Matheson Ventures Pte Ltd
+//
+// This file is part of Wildebeest
+//
+// Wildebeest is free software: you can redistribute it and/or modify it under
+// the terms of the GNU General Public License v2 as published by the Free
+// Software Foundation.
+//
+// Wildebeest is distributed in the hope that it will be useful, but WITHOUT ANY
+// WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+// A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along with
+// Wildebeest.  If not, see http://www.gnu.org/licenses/gpl-2.0.html
+
+package co.mv.wb.impl;
+
+import co.mv.wb.AssertionType;
+import co.mv.wb.MigrationType;
+import co.mv.wb.PluginTypeProvider;
+import co.mv.wb.framework.ArgumentNullException;
+import co.mv.wb.framework.PluginIndexProcessor;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.lang.annotation.Annotation;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.ServiceLoader;
+import java.util.Set;
+
+/**
+ * The index of the {@link MigrationType} and {@link AssertionType} classes available to Wildebeest.
+ *
+ * The index is written at compile time by {@link PluginIndexProcessor}, and is read from every jar and class directory
+ * on the classpath the first time it is needed.  Plugin jars that were not compiled with the processor can contribute
+ * their classes through a {@link PluginTypeProvider} registered with {@link ServiceLoader}.
+ *
+ * @since                                       4.0
+ */
+public final class PluginIndex
+{
+	private final List<Class<?>> _migrationTypes;
+	private final List<Class<?>> _assertionTypes;
+
+	private PluginIndex(
+		List<Class<?>> migrationTypes,
+		List<Class<?>> assertionTypes)
+	{
+		if (migrationTypes == null) throw new ArgumentNullException("migrationTypes");
+		if (assertionTypes == null) throw new ArgumentNullException("assertionTypes");
+
+		_migrationTypes = Collections.unmodifiableList(migrationTypes);
+		_assertionTypes = Collections.unmodifiableList(assertionTypes);
+	}
+
+	/**
+	 * Returns the classes annotated with {@link MigrationType}.
+	 *
+	 * @return                                  the classes annotated with MigrationType.
+	 * @since                                   4.0
+	 */
+	public static List<Class<?>> migrationTypes()
+	{
+		return Holder.INSTANCE._migrationTypes;
+	}
+
+	/**
+	 * Returns the classes annotated with {@link AssertionType}.
+	 *
+	 * @return                                  the classes annotated with AssertionType.
+	 * @since                                   4.0
+	 */
+	public static List<Class<?>> assertionTypes()
+	{
+		return Holder.INSTANCE._assertionTypes;
+	}
+
+	private static PluginIndex load()
+	{
+		ClassLoader classLoader = PluginIndex.class.getClassLoader();
+
+		Set<Class<?>> migrationTypes = new LinkedHashSet<>();
+		Set<Class<?>> assertionTypes = new LinkedHashSet<>();
+
+		PluginIndex.readIndex(classLoader, PluginIndexProcessor.MIGRATION_TYPES_INDEX, migrationTypes);
+		PluginIndex.readIndex(classLoader, PluginIndexProcessor.ASSERTION_TYPES_INDEX, assertionTypes);
+
+		for (PluginTypeProvider provider : ServiceLoader.load(PluginTypeProvider.class, classLoader))
+		{
+			for (Class<?> pluginType : provider.getPluginTypes())
+			{
+				PluginIndex.addIfAnnotated(pluginType, MigrationType.class, migrationTypes);
+				PluginIndex.addIfAnnotated(pluginType, AssertionType.class, assertionTypes);
+			}
+		}
+
+		return new PluginIndex(
+			new ArrayList<>(migrationTypes),
+			new ArrayList<>(assertionTypes));
+	}
+
+	private static void readIndex(
+		ClassLoader classLoader,
+		String resourceName,
+		Set<Class<?>> result)
+	{
+		if (classLoader == null) throw new ArgumentNullException("classLoader");
+		if (resourceName == null) throw new ArgumentNullException("resourceName");
+		if (result == null) throw new ArgumentNullException("result");
+
+		try
+		{
+			Enumeration<URL> indexes = classLoader.getResources(resourceName);
+
+			while (indexes.hasMoreElements())
+			{
+				URL index = indexes.nextElement();
+
+				try (
+					InputStream stream = index.openStream();
+					BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8)))
+				{
+					String className = reader.readLine();
+					while (className != null)
+					{
+						className = className.trim();
+
+						if (!className.isEmpty())
+						{
+							result.add(Class.forName(className, false, classLoader));
+						}
+
+						className = reader.readLine();
+					}
+				}
+			}
+		}
+		catch (IOException e)
+		{
+			throw new UncheckedIOException(e);
+		}
+		catch (ClassNotFoundException e)
+		{
+			throw new RuntimeException(String.format(
+				"plugin index %s refers to a class that cannot be loaded",
+				resourceName), e);
+		}
+	}
+
+	private static void addIfAnnotated(
+		Class<?> pluginType,
+		Class<? extends Annotation> annotationType,
+		Set<Class<?>> result)
+	{
+		if (pluginType == null) throw new ArgumentNullException("pluginType");
+		if (annotationType == null) throw new ArgumentNullException("annotationType");
+		if (result == null) throw new ArgumentNullException("result");
+
+		if (pluginType.isAnnotationPresent(annotationType))
+		{
+			result.add(pluginType);
+		}
+	}
+
+	/**
+	 * Loads the index the first time it is used.
+	 */
+	private static class Holder
+	{
+		static final PluginIndex INSTANCE = PluginIndex.load();
+	}
+}
@@ -25,7 +25,6 @@ import co.mv.wb.PluginGroup;
 import co.mv.wb.PluginManager;
 import co.mv.wb.framework.ArgumentNullException;
 import co.mv.wb.framework.Util;
-import org.reflections.Reflections;
 
 import java.util.List;
 import java.util.Map;
@@ -38,8 +37,6 @@ import java.util.stream.Collectors;
  */
 public class PluginManagerImpl implements PluginManager
 {
-	private static final String ScanPackage = "co.mv.wb";
-
 	private final List<PluginGroup> _pluginGroups;
 	private final Map<String, MigrationPlugin> _migrationPlugins;
 
@@ -78,10 +75,8 @@ public class PluginManagerImpl implements PluginManager
 
 	@Override public List<MigrationTypeInfo> getMigrationTypeInfos()
 	{
-		Reflections reflections = new Reflections(ScanPackage);
-
-		List<MigrationTypeInfo> result = reflections
-			.getTypesAnnotatedWith(MigrationType.class)
+		List<MigrationTypeInfo> result = PluginIndex
+			.migrationTypes()
 			.stream()
 			.map(
 				migrationClass ->
@@ -116,10 +111,8 @@ public class PluginManagerImpl implements PluginManager
 
 	@Override public List<AssertionType> getAssertionTypes()
 	{
-		Reflections reflections = new Reflections(ScanPackage);
-
-		List<AssertionType> result = reflections
-			.getTypesAnnotatedWith(AssertionType.class)
+		List<AssertionType> result = PluginIndex
+			.assertionTypes()
 			.stream()
 			.map(assertionClass -> assertionClass.getAnnotation(AssertionType.class))
 			.collect(Collectors.toList());
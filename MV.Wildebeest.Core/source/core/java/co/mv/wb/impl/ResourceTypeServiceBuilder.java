@@ -49,6 +49,7 @@ public class ResourceTypeServiceBuilder
 		List<ResourceType> resourceTypes = new ArrayList<>();
 		resourceTypes.addAll(_resourceTypes);
 
+		resourceTypes.add(Wildebeest.H2Database);
 		resourceTypes.add(Wildebeest.MySqlDatabase);
 		resourceTypes.add(Wildebeest.PostgreSqlDatabase);
 		resourceTypes.add(Wildebeest.SqlServerDatabase);
@@ -38,6 +38,12 @@ public class WildebeestApiBuilder
 	private final WildebeestApiImpl _wildebeestApi;
 	private final Map<ResourceType, ResourcePlugin> _resourcePlugins;
 	private final PluginManager _pluginManager;
+	private final boolean _lazyMigrations;
+	private final boolean _catalogSnapshots;
+	private final int _assertionConcurrency;
+	private final boolean _failFastAssertions;
+	private final boolean _fastForward;
+	private final boolean _templateProvisioning;
 
 	public static WildebeestApiBuilder build(
 		PrintStream output)
@@ -49,13 +55,25 @@ public class WildebeestApiBuilder
 			new HashMap<>(),
 			new PluginManagerImpl(
 				new ArrayList<>(),
-				new ArrayList<>()));
+				new ArrayList<>()),
+			false,
+			false,
+			1,
+			false,
+			false,
+			false);
 	}
 
 	private WildebeestApiBuilder(
 		WildebeestApiImpl wildebeestApi,
 		Map<ResourceType, ResourcePlugin> resourcePlugins,
-		PluginManager pluginManager)
+		PluginManager pluginManager,
+		boolean lazyMigrations,
+		boolean catalogSnapshots,
+		int assertionConcurrency,
+		boolean failFastAssertions,
+		boolean fastForward,
+		boolean templateProvisioning)
 	{
 		if (wildebeestApi == null) throw new ArgumentNullException("wildebeestApi");
 		if (resourcePlugins == null) throw new ArgumentNullException("resourcePlugins");
@@ -64,6 +82,12 @@ public class WildebeestApiBuilder
 		_wildebeestApi = wildebeestApi;
 		_resourcePlugins = resourcePlugins;
 		_pluginManager = pluginManager;
+		_lazyMigrations = lazyMigrations;
+		_catalogSnapshots = catalogSnapshots;
+		_assertionConcurrency = assertionConcurrency;
+		_failFastAssertions = failFastAssertions;
+		_fastForward = fastForward;
+		_templateProvisioning = templateProvisioning;
 	}
 
 	public WildebeestApiBuilder withFactoryResourcePlugins()
@@ -74,7 +98,13 @@ public class WildebeestApiBuilder
 		return new WildebeestApiBuilder(
 			_wildebeestApi,
 			resourcePlugins,
-			_pluginManager);
+			_pluginManager,
+			_lazyMigrations,
+			_catalogSnapshots,
+			_assertionConcurrency,
+			_failFastAssertions,
+			_fastForward,
+			_templateProvisioning);
 	}
 
 	public WildebeestApiBuilder withFactoryPluginManager()
@@ -91,13 +121,154 @@ public class WildebeestApiBuilder
 		return new WildebeestApiBuilder(
 			_wildebeestApi,
 			_resourcePlugins,
-			pluginManager);
+			pluginManager,
+			_lazyMigrations,
+			_catalogSnapshots,
+			_assertionConcurrency,
+			_failFastAssertions,
+			_fastForward,
+			_templateProvisioning);
+	}
+
+	/**
+	 * Loads resources with lazy migrations, so that the body of a migration is read from the resource file only
+	 * when it is about to be performed.
+	 *
+	 * @return                                  a builder that loads resources with lazy migrations.
+	 * @since                                   4.0
+	 */
+	public WildebeestApiBuilder withLazyMigrations()
+	{
+		return new WildebeestApiBuilder(
+			_wildebeestApi,
+			_resourcePlugins,
+			_pluginManager,
+			true,
+			_catalogSnapshots,
+			_assertionConcurrency,
+			_failFastAssertions,
+			_fastForward,
+			_templateProvisioning);
+	}
+
+	/**
+	 * Performs up to the specified number of the assertions for a state at once, rather than one at a time.
+	 *
+	 * @param       assertionConcurrency        the number of assertions that may be performed at once.
+	 * @return                                  a builder that performs assertions in parallel.
+	 * @since                                   4.0
+	 */
+	public WildebeestApiBuilder withAssertionConcurrency(
+		int assertionConcurrency)
+	{
+		if (assertionConcurrency < 1) throw new IllegalArgumentException("assertionConcurrency must be at least 1");
+
+		return new WildebeestApiBuilder(
+			_wildebeestApi,
+			_resourcePlugins,
+			_pluginManager,
+			_lazyMigrations,
+			_catalogSnapshots,
+			assertionConcurrency,
+			_failFastAssertions,
+			_fastForward,
+			_templateProvisioning);
+	}
+
+	/**
+	 * Answers the catalog assertions of each state from a snapshot of the database catalog, taken once when the state
+	 * is asserted, rather than each of them querying the catalog.
+	 *
+	 * @return                                  a builder that answers catalog assertions from a snapshot.
+	 * @since                                   4.0
+	 */
+	public WildebeestApiBuilder withCatalogSnapshots()
+	{
+		return new WildebeestApiBuilder(
+			_wildebeestApi,
+			_resourcePlugins,
+			_pluginManager,
+			_lazyMigrations,
+			true,
+			_assertionConcurrency,
+			_failFastAssertions,
+			_fastForward,
+			_templateProvisioning);
+	}
+
+	/**
+	 * Performs the assertions of a state fail-fast when a migration or a jumpstate is checked: cheaper assertions are
+	 * performed first, and no further assertions are performed once one has failed.
+	 *
+	 * @return                                  a builder that performs assertions fail-fast.
+	 * @since                                   4.0
+	 */
+	public WildebeestApiBuilder withFailFastAssertions()
+	{
+		return new WildebeestApiBuilder(
+			_wildebeestApi,
+			_resourcePlugins,
+			_pluginManager,
+			_lazyMigrations,
+			_catalogSnapshots,
+			_assertionConcurrency,
+			true,
+			_fastForward,
+			_templateProvisioning);
+	}
+
+	/**
+	 * Performs each run of consecutive SQL script migrations on a migration path as one step, in a single
+	 * transaction, when the instance is a database whose DDL is transactional.
+	 *
+	 * @return                                  a builder that fast-forwards through runs of SQL script migrations.
+	 * @since                                   4.0
+	 */
+	public WildebeestApiBuilder withFastForward()
+	{
+		return new WildebeestApiBuilder(
+			_wildebeestApi,
+			_resourcePlugins,
+			_pluginManager,
+			_lazyMigrations,
+			_catalogSnapshots,
+			_assertionConcurrency,
+			_failFastAssertions,
+			true,
+			_templateProvisioning);
+	}
+
+	/**
+	 * Creates each new PostgreSQL database as a copy of a template database that has already been migrated to the
+	 * target state along the same migration path, building the template the first time that it is needed.
+	 *
+	 * @return                                  a builder that provisions new PostgreSQL databases from templates.
+	 * @since                                   4.0
+	 */
+	public WildebeestApiBuilder withTemplateProvisioning()
+	{
+		return new WildebeestApiBuilder(
+			_wildebeestApi,
+			_resourcePlugins,
+			_pluginManager,
+			_lazyMigrations,
+			_catalogSnapshots,
+			_assertionConcurrency,
+			_failFastAssertions,
+			_fastForward,
+			true);
 	}
 
 	public WildebeestApi get()
 	{
 		_wildebeestApi.setResourcePlugins(_resourcePlugins);
 		_wildebeestApi.setPluginManager(_pluginManager);
+		_wildebeestApi.setLazyMigrations(_lazyMigrations);
+		_wildebeestApi.setCatalogSnapshots(_catalogSnapshots);
+		_wildebeestApi.setAssertionConcurrency(_assertionConcurrency);
+		_wildebeestApi.setFailFastAssertions(_failFastAssertions);
+		_wildebeestApi.setFastForward(_fastForward);
+		_wildebeestApi.setTemplateProvisioning(_templateProvisioning);
 
 		return _wildebeestApi;
 	}
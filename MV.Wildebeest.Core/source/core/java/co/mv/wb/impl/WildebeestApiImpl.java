@@ -16,10 +16,13 @@
 
 package co.mv.wb.impl;
 
+import co.mv.wb.Assertion;
 import co.mv.wb.AssertionFailedException;
+import co.mv.wb.AssertionPolicy;
 import co.mv.wb.AssertionResponse;
 import co.mv.wb.AssertionResult;
 import co.mv.wb.AssertionType;
+import co.mv.wb.FaultException;
 import co.mv.wb.FileLoadException;
 import co.mv.wb.IndeterminateStateException;
 import co.mv.wb.Instance;
@@ -28,6 +31,8 @@ import co.mv.wb.JumpStateFailedException;
 import co.mv.wb.LoaderFault;
 import co.mv.wb.Migration;
 import co.mv.wb.MigrationFailedException;
+import co.mv.wb.MigrationFaultException;
+import co.mv.wb.MigrationNotPossibleException;
 import co.mv.wb.MigrationPlugin;
 import co.mv.wb.MigrationType;
 import co.mv.wb.MigrationTypeInfo;
@@ -45,9 +50,11 @@ import co.mv.wb.WildebeestApi;
 import co.mv.wb.framework.ArgumentNullException;
 import co.mv.wb.framework.Util;
 import co.mv.wb.plugin.base.ImmutableAssertionResult;
+import co.mv.wb.plugin.base.ImmutableResource;
 import co.mv.wb.plugin.base.dom.DomInstanceLoader;
 import co.mv.wb.plugin.base.dom.DomPlugins;
-import co.mv.wb.plugin.base.dom.DomResourceLoader;
+import co.mv.wb.plugin.base.dom.LazyMigration;
+import co.mv.wb.plugin.base.dom.SaxResourceLoader;
 import co.mv.wb.XmlValidationException;
 import org.xml.sax.*;
 
@@ -57,12 +64,22 @@ import javax.xml.validation.Schema;
 import javax.xml.validation.SchemaFactory;
 import javax.xml.validation.Validator;
 import java.io.*;
-import java.net.URISyntaxException;
+import java.net.URL;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
 
 /**
  * Provides a generic interface that can be adapted to different environments.  For example the WildebeestCommand
@@ -75,6 +92,12 @@ public class WildebeestApiImpl implements WildebeestApi
 	private final PrintStream _output;
 	private static final String RESOURCE_XSD = "resource.xsd";
 	private static final String INSTANCE_XSD = "instance.xsd";
+	private static final String XSD_1_1 = "http://www.w3.org/XML/XMLSchema/v1.1";
+
+	// Compiled Schemas are thread-safe and are shared for the life of the process.  Validators are not thread-safe, so
+	// each thread keeps its own.
+	private static final Map<String, Schema> SCHEMAS = new ConcurrentHashMap<>();
+	private static final ThreadLocal<Map<String, Validator>> VALIDATORS = ThreadLocal.withInitial(HashMap::new);
 
 	/**
 	 * Creates a new WildebeestApiImpl using the supplied {@link PrintStream} for user output and the supplied
@@ -91,6 +114,114 @@ public class WildebeestApiImpl implements WildebeestApi
 		_output = output;
 	}
 
+	private boolean _lazyMigrations = false;
+
+	/**
+	 * Sets whether resources are loaded with lazy migrations, whose bodies are read from the resource file only when
+	 * they are about to be performed.
+	 *
+	 * @param       value                       true to load migrations lazily, or false to build every migration
+	 *                                          when a resource is loaded.
+	 * @since                                   4.0
+	 */
+	public void setLazyMigrations(
+		boolean value)
+	{
+		_lazyMigrations = value;
+	}
+
+	private boolean _catalogSnapshots = false;
+
+	/**
+	 * Sets whether the assertions of each state may be answered from a snapshot of the instance, taken once when the
+	 * state is asserted and discarded when a migration is performed.  A database instance answers its catalog
+	 * assertions from a snapshot of its catalog, rather than each of them querying the catalog.
+	 *
+	 * @param       value                       true to answer assertions from a snapshot where the instance supports
+	 *                                          it.
+	 * @since                                   4.0
+	 */
+	public void setCatalogSnapshots(
+		boolean value)
+	{
+		_catalogSnapshots = value;
+	}
+
+	private int _assertionConcurrency = 1;
+
+	/**
+	 * Sets the number of assertions that may be performed at once when the state of an instance is asserted.  The
+	 * assertions are still reported in seqNum order.  The number is also limited to the maximum concurrency of the
+	 * instance, which for a database instance is the size of its connection pool.
+	 *
+	 * @param       value                       the number of assertions that may be performed at once, or 1 to
+	 *                                          perform them one at a time.
+	 * @since                                   4.0
+	 */
+	public void setAssertionConcurrency(
+		int value)
+	{
+		if (value < 1) throw new IllegalArgumentException("value must be at least 1");
+
+		_assertionConcurrency = value;
+	}
+
+	private boolean _failFastAssertions = false;
+
+	/**
+	 * Sets whether the assertions of a state are performed fail-fast when only their overall outcome is needed, as
+	 * when a migration or a jumpstate is checked.  Cheaper assertions are then performed first, and no further
+	 * assertions are performed once one has failed.  Reporting the state of an instance always performs every
+	 * assertion.
+	 *
+	 * @param       value                       true to perform assertions fail-fast where only the overall outcome is
+	 *                                          needed.
+	 * @since                                   4.0
+	 */
+	public void setFailFastAssertions(
+		boolean value)
+	{
+		_failFastAssertions = value;
+	}
+
+	private boolean _fastForward = false;
+
+	/**
+	 * Sets whether a run of consecutive migrations on a migration path is performed as one step, where their plugin
+	 * can perform them together; see {@link MigrationPlugin#canPerformTogether(Migration, Migration, Instance)}.  A
+	 * run of SqlScriptMigrations against a database whose DDL is transactional, for example, is performed in a single
+	 * transaction.  The state is recorded, and asserted if the assertion policy asks for it, once for the whole run
+	 * rather than after each migration.
+	 *
+	 * @param       value                       true to fast-forward through runs of migrations.
+	 * @since                                   4.0
+	 */
+	public void setFastForward(
+		boolean value)
+	{
+		_fastForward = value;
+	}
+
+	private boolean _templateProvisioning = false;
+
+	/**
+	 * Sets whether a new instance is created as a copy of a template that has already been migrated to the target
+	 * state, rather than by performing each migration, where the resource plugin supports it, as the PostgreSQL plugin
+	 * does.  There is one template for each resource, target state and migration path, and it is built the first time
+	 * that it is needed.
+	 *
+	 * Only the instance itself is copied, so this is not suitable for resources whose migrations have effects outside
+	 * the instance.
+	 *
+	 * @param       value                       true to provision new instances from templates.
+	 * @since                                   4.0
+	 */
+	public void setTemplateProvisioning(
+		boolean value)
+	{
+		_templateProvisioning = value;
+	}
+
 	// <editor-fold desc="ResourcePlugins" defaultstate="collapsed">
 
 	private Map<ResourceType, ResourcePlugin> _resourcePlugins = null;
@@ -183,31 +314,39 @@ public class WildebeestApiImpl implements WildebeestApi
 		// Get the absolute file for this resource - this ensures that getParentFile works correctly
 		resourceFile = resourceFile.getAbsoluteFile();
 
-		// Load Resource
-		String resourceXml;
-		try
-		{
-			resourceXml = readAllText(resourceFile);
-		}
-		catch (IOException ex)
+		if (!resourceFile.isFile())
 		{
 			throw new FileLoadException(resourceFile);
 		}
 
-		Resource resource = null;
-
-		if (resourceXml != null)
+		// Validate and load the Resource in a single streaming pass over the file
+		Resource resource;
+		try
 		{
-			WildebeestApiImpl.validateResourceXml(resourceXml);
-			DomResourceLoader resourceLoader = DomPlugins.resourceLoader(
+			SaxResourceLoader resourceLoader = DomPlugins.saxResourceLoader(
 				ResourceTypeServiceBuilder
 					.create()
 					.withFactoryResourceTypes()
 					.build(),
-				resourceXml);
+				Optional.of(WildebeestApiImpl.schema(WildebeestApiImpl.RESOURCE_XSD)),
+				resourceFile,
+				_lazyMigrations);
 
 			resource = resourceLoader.load(resourceFile.getParentFile());
 		}
+		catch (LoaderFault ex)
+		{
+			if (ex.getCause() instanceof XmlValidationException)
+			{
+				throw (XmlValidationException)ex.getCause();
+			}
+
+			throw ex;
+		}
+
+		WildebeestApiImpl.checkMigrationGraph(
+			_output,
+			MigrationGraph.build(resource));
 
 		return resource;
 	}
@@ -284,6 +423,23 @@ public class WildebeestApiImpl implements WildebeestApi
 		Resource resource,
 		Instance instance) throws
 			IndeterminateStateException
+	{
+		return this.assertState(
+			resource,
+			instance,
+			false);
+	}
+
+	/**
+	 * Asserts the current state of the supplied instance.  When failFast is set the assertions are performed in order
+	 * of their cost rather than their seqNum, and once one has failed no further assertions are performed, so the
+	 * results include only the assertions that were performed.
+	 */
+	private List<AssertionResult> assertState(
+		Resource resource,
+		Instance instance,
+		boolean failFast) throws
+			IndeterminateStateException
 	{
 		if (resource == null) throw new ArgumentNullException("resource");
 		if (instance == null) throw new ArgumentNullException("instance");
@@ -296,28 +452,193 @@ public class WildebeestApiImpl implements WildebeestApi
 			resource,
 			instance);
 
+		return this.performAssertions(
+			state,
+			instance,
+			failFast);
+	}
+
+	/**
+	 * Performs the assertions of the supplied state against the instance, which need not be in that state.
+	 */
+	private List<AssertionResult> performAssertions(
+		State state,
+		Instance instance,
+		boolean failFast)
+	{
+		if (state == null) throw new ArgumentNullException("state");
+		if (instance == null) throw new ArgumentNullException("instance");
+
+		List<Assertion> assertions = new ArrayList<>(state.getAssertions());
+		assertions.sort(failFast
+			? Comparator.comparing(Assertion::getCost).thenComparingInt(Assertion::getSeqNum)
+			: Comparator.comparingInt(Assertion::getSeqNum));
+
+		if (assertions.isEmpty())
+		{
+			return new ArrayList<>();
+		}
+
+		instance.beforeAssertions(_catalogSnapshots);
+
+		// Assertions that the instance can answer together, such as catalog assertions, are performed up front
+		Map<UUID, AssertionResponse> batched = instance.performAssertions(assertions);
+
+		int concurrency = Math.min(
+			Math.min(_assertionConcurrency, instance.getMaxConcurrency()),
+			assertions.size() - batched.size());
+
 		List<AssertionResult> result = new ArrayList<>();
 
-		state.getAssertions().forEach(
-			assertion ->
+		// Set once an assertion has failed, if that is enough to decide the outcome
+		AtomicBoolean decided = new AtomicBoolean(
+			failFast && batched.values().stream().anyMatch(response -> !response.getResult()));
+
+		if (concurrency <= 1)
+		{
+			for (Assertion assertion : assertions)
+			{
+				AssertionResponse response = batched.containsKey(assertion.getAssertionId())
+					? batched.get(assertion.getAssertionId())
+					: decided.get() ? null : assertion.perform(instance);
+
+				if (response != null)
+				{
+					_output.println(OutputFormatter.assertionStart(assertion));
+					this.addAssertionResult(
+						result,
+						assertion,
+						response);
+
+					if (failFast && !response.getResult())
+					{
+						break;
+					}
+				}
+			}
+		}
+		else
+		{
+			// The assertions are performed in the background, but their output and results are produced here in order
+			// as each one completes, so that the output is the same as when they are performed one at a time
+			ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+			try
+			{
+				List<Future<AssertionResponse>> responses = new ArrayList<>();
+				for (Assertion assertion : assertions)
+				{
+					responses.add(batched.containsKey(assertion.getAssertionId())
+						? CompletableFuture.completedFuture(batched.get(assertion.getAssertionId()))
+						: executor.submit(() -> WildebeestApiImpl.performUnlessDecided(
+							assertion,
+							instance,
+							failFast,
+							decided)));
+				}
+
+				for (int i = 0; i < assertions.size(); i ++)
+				{
+					AssertionResponse response = WildebeestApiImpl.awaitAssertionResponse(responses.get(i));
+
+					// An assertion that was not performed because another had already failed is left out
+					if (response != null)
+					{
+						_output.println(OutputFormatter.assertionStart(assertions.get(i)));
+						this.addAssertionResult(
+							result,
+							assertions.get(i),
+							response);
+
+						if (failFast && !response.getResult())
+						{
+							break;
+						}
+					}
+				}
+			}
+			finally
 			{
-				_output.println(OutputFormatter.assertionStart(assertion));
+				executor.shutdownNow();
+			}
+		}
 
-				AssertionResponse response = assertion.perform(instance);
+		if (result.size() < assertions.size())
+		{
+			_output.println(OutputFormatter.assertionsSkipped(assertions.size() - result.size()));
+		}
 
-				_output.println(OutputFormatter.assertionComplete(
-					assertion,
-					response));
+		instance.afterAssertions(_output);
 
-				result.add(new ImmutableAssertionResult(
-					assertion.getAssertionId(),
-					response.getResult(),
-					response.getMessage()));
-			});
+		return result;
+	}
+
+	/**
+	 * Performs the supplied assertion in the background, unless the outcome has already been decided by another
+	 * assertion failing, in which case null is returned.
+	 */
+	private static AssertionResponse performUnlessDecided(
+		Assertion assertion,
+		Instance instance,
+		boolean failFast,
+		AtomicBoolean decided)
+	{
+		if (decided.get())
+		{
+			return null;
+		}
+
+		AssertionResponse result = assertion.perform(instance);
+
+		if (failFast && !result.getResult())
+		{
+			decided.set(true);
+		}
 
 		return result;
 	}
 
+	private void addAssertionResult(
+		List<AssertionResult> results,
+		Assertion assertion,
+		AssertionResponse response)
+	{
+		_output.println(OutputFormatter.assertionComplete(
+			assertion,
+			response));
+
+		results.add(new ImmutableAssertionResult(
+			assertion.getAssertionId(),
+			response.getResult(),
+			response.getMessage()));
+	}
+
+	private static AssertionResponse awaitAssertionResponse(
+		Future<AssertionResponse> response)
+	{
+		try
+		{
+			return response.get();
+		}
+		catch (ExecutionException e)
+		{
+			if (e.getCause() instanceof RuntimeException)
+			{
+				throw (RuntimeException)e.getCause();
+			}
+			if (e.getCause() instanceof Error)
+			{
+				throw (Error)e.getCause();
+			}
+
+			throw new FaultException(e.getCause());
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new FaultException(e);
+		}
+	}
+
 	public void state(
 		Resource resource,
 		Instance instance) throws
@@ -326,32 +647,40 @@ public class WildebeestApiImpl implements WildebeestApi
 		if (resource == null) { throw new IllegalArgumentException("resource cannot be null"); }
 		if (instance == null) { throw new IllegalArgumentException("instance cannot be null"); }
 
-		ResourcePlugin resourcePlugin = WildebeestApiImpl.getResourcePlugin(
-			this.getResourcePlugins(),
-			resource.getType());
+		try
+		{
+			ResourcePlugin resourcePlugin = WildebeestApiImpl.getResourcePlugin(
+				this.getResourcePlugins(),
+				resource.getType());
 
-		State state = resourcePlugin.currentState(
-			resource,
-			instance);
+			State state = resourcePlugin.currentState(
+				resource,
+				instance);
 
-		if (state == null)
-		{
-			_output.println("Current state: non-existent");
-		}
-		else
-		{
-			if (state.getLabel().isPresent())
+			if (state == null)
 			{
-				_output.println(String.format("Current state: %s", state.getLabel()));
+				_output.println("Current state: non-existent");
 			}
 			else
 			{
-				_output.println(String.format("Current state: %s", state.getStateId().toString()));
+				if (state.getLabel().isPresent())
+				{
+					_output.println(String.format("Current state: %s", state.getLabel()));
+				}
+				else
+				{
+					_output.println(String.format("Current state: %s", state.getStateId().toString()));
+				}
+
+				this.assertState(
+					resource,
+					instance);
 			}
-
-			this.assertState(
-				resource,
-				instance);
+		}
+		finally
+		{
+			// The connections opened by the instance are shared by every step of this command, and released at its end
+			instance.close();
 		}
 	}
 
@@ -364,90 +693,341 @@ public class WildebeestApiImpl implements WildebeestApi
 			IndeterminateStateException,
 			InvalidStateSpecifiedException,
 			MigrationFailedException,
+			MigrationNotPossibleException,
+			UnknownStateSpecifiedException
+	{
+		this.migrate(
+			resource,
+			instance,
+			targetState,
+			AssertionPolicy.Each);
+	}
+
+	public void migrate(
+		Resource resource,
+		Instance instance,
+		Optional<String> targetState,
+		AssertionPolicy assertionPolicy) throws
+			AssertionFailedException,
+			TargetNotSpecifiedException,
+			IndeterminateStateException,
+			InvalidStateSpecifiedException,
+			MigrationFailedException,
+			MigrationNotPossibleException,
+			UnknownStateSpecifiedException
+	{
+		this.migrate(
+			resource,
+			instance,
+			targetState,
+			assertionPolicy,
+			_templateProvisioning);
+	}
+
+	private void migrate(
+		Resource resource,
+		Instance instance,
+		Optional<String> targetState,
+		AssertionPolicy assertionPolicy,
+		boolean templateProvisioning) throws
+			AssertionFailedException,
+			TargetNotSpecifiedException,
+			IndeterminateStateException,
+			InvalidStateSpecifiedException,
+			MigrationFailedException,
+			MigrationNotPossibleException,
 			UnknownStateSpecifiedException
 	{
 		if (resource == null) throw new ArgumentNullException("resource");
 		if (instance == null) throw new ArgumentNullException("instance");
 		if (targetState == null) throw new ArgumentNullException("targetState");
+		if (assertionPolicy == null) throw new ArgumentNullException("assertionPolicy");
 
-		ResourcePlugin resourcePlugin = WildebeestApiImpl.getResourcePlugin(
-			this.getResourcePlugins(),
-			resource.getType());
+		try
+		{
+			ResourcePlugin resourcePlugin = WildebeestApiImpl.getResourcePlugin(
+				this.getResourcePlugins(),
+				resource.getType());
 
-		// Resolve the target state
-		Optional<String> ts = targetState.isPresent()
-			? targetState
-			: resource.getDefaultTarget();
+			// Resolve the target state
+			Optional<String> ts = targetState.isPresent()
+				? targetState
+				: resource.getDefaultTarget();
 
-		// Perform migration
-		if (!ts.isPresent())
-		{
-			throw new TargetNotSpecifiedException();
-		}
+			// Perform migration
+			if (!ts.isPresent())
+			{
+				throw new TargetNotSpecifiedException();
+			}
 
-		UUID targetStateId = WildebeestApiImpl.getTargetStateId(
-			resource,
-			ts.get());
+			UUID targetStateId = WildebeestApiImpl.getTargetStateId(
+				resource,
+				ts.get());
 
-		State currentState = resourcePlugin.currentState(
-			resource,
-			instance);
+			State currentState = resourcePlugin.currentState(
+				resource,
+				instance);
 
-		UUID currentStateId = currentState == null ? null : currentState.getStateId();
+			Optional<UUID> currentStateId = currentState == null
+				? Optional.empty()
+				: Optional.of(currentState.getStateId());
 
-		List<List<Migration>> paths = new ArrayList<>();
-		List<Migration> thisPath = new ArrayList<>();
+			MigrationGraph graph = MigrationGraph.build(resource);
 
-		WildebeestApiImpl.findPaths(resource, paths, thisPath, currentStateId, targetStateId);
+			List<Migration> path = graph.findPath(
+				currentStateId,
+				Optional.of(targetStateId));
 
-		if (paths.size() != 1)
-		{
-			throw new RuntimeException("multiple possible paths found");
-		}
+			// A new instance is copied from a template that has already been migrated along the same path, if the
+			// resource type supports it
+			if (templateProvisioning &&
+				!currentStateId.isPresent() &&
+				!path.isEmpty() &&
+				resourcePlugin.canProvisionFromTemplate(instance) &&
+				this.provisionFromTemplate(
+					resource,
+					resourcePlugin,
+					instance,
+					targetStateId,
+					path.stream().map(WildebeestApiImpl::materialize).collect(Collectors.toList()),
+					assertionPolicy))
+			{
+				return;
+			}
 
-		List<Migration> path = paths.get(0);
+			for (int index = 0; index < path.size(); )
+			{
+				// A lazily-loaded migration is only built once it is about to be performed
+				Migration first = WildebeestApiImpl.materialize(path.get(index));
+				MigrationPlugin migrationPlugin = this.getMigrationPlugin(first);
+
+				List<Migration> step = this.nextStep(
+					path,
+					index,
+					first,
+					migrationPlugin,
+					instance);
+				index += step.size();
+
+				Migration migration = step.get(step.size() - 1);
+				Optional<UUID> fromStateId = step.get(0).getFromStateId();
+
+				Optional<State> fromState = fromStateId.map(graph::stateForId);
+				Optional<State> toState = migration.getToStateId().map(graph::stateForId);
+
+				// Migrate to the next state
+				_output.println(OutputFormatter.migrationStart(
+					resource,
+					migration,
+					fromState,
+					toState));
 
-		for (Migration migration : path)
-		{
-			String migrationTypeUri = migration.getClass().getAnnotation(MigrationType.class).uri();
-			MigrationPlugin migrationPlugin = this.getPluginManager().getMigrationPlugin(migrationTypeUri);
+				try
+				{
+					if (step.size() == 1)
+					{
+						migrationPlugin.perform(
+							_output,
+							migration,
+							instance);
+					}
+					else
+					{
+						migrationPlugin.performTogether(
+							_output,
+							step,
+							instance);
+					}
+				}
+				finally
+				{
+					instance.afterMigration();
+				}
+
+				_output.println(OutputFormatter.migrationComplete(
+					resource,
+					migration));
 
-			Optional<State> fromState = migration.getFromStateId().map(stateId -> Wildebeest.stateForId(
-				resource,
-				stateId));
-			Optional<State> toState = migration.getToStateId().map(stateId -> Wildebeest.stateForId(
-				resource,
-				stateId));
+				// Update the state, checking that no other process has changed it during the migration
+				resourcePlugin.setStateId(
+					_output,
+					resource,
+					instance,
+					fromStateId,
+					migration.getToStateId().get());
+
+				if (assertionPolicy == AssertionPolicy.Each)
+				{
+					// Assert the new state
+					List<AssertionResult> assertionResults = this.assertState(
+						resource,
+						instance,
+						_failFastAssertions);
+
+					WildebeestApiImpl.throwIfFailed(migration.getToStateId().get(), assertionResults);
+				}
+			}
 
-			// Migrate to the next state
-			_output.println(OutputFormatter.migrationStart(
-				resource,
-				migration,
-				fromState,
-				toState));
+			if (assertionPolicy == AssertionPolicy.Final && !path.isEmpty())
+			{
+				// Assert the target state
+				List<AssertionResult> assertionResults = this.assertState(
+					resource,
+					instance,
+					_failFastAssertions);
 
-			migrationPlugin.perform(
-				_output,
-				migration,
-				instance);
+				if (WildebeestApiImpl.anyFailed(assertionResults))
+				{
+					// The intermediate states cannot be checked now, as later migrations may have changed what they
+					// assert
+					_output.println(OutputFormatter.finalAssertionsFailed(path.size()));
+				}
 
-			_output.println(OutputFormatter.migrationComplete(
-				resource,
-				migration));
+				WildebeestApiImpl.throwIfFailed(targetStateId, assertionResults);
+			}
+		}
+		finally
+		{
+			// The connections opened by the instance are shared by every step of this command, and released at its end
+			instance.close();
+		}
+	}
 
-			// Update the state
-			resourcePlugin.setStateId(
+	/**
+	 * Creates a new instance as a copy of the template for the migration path, if the resource plugin can, and then
+	 * records and asserts the target state.  The template is built, when it does not yet exist, by migrating an
+	 * instance of its own along the path without templates.
+	 *
+	 * @return                                  true if the instance was provisioned from a template.
+	 */
+	private boolean provisionFromTemplate(
+		Resource resource,
+		ResourcePlugin resourcePlugin,
+		Instance instance,
+		UUID targetStateId,
+		List<Migration> path,
+		AssertionPolicy assertionPolicy) throws
+			AssertionFailedException,
+			TargetNotSpecifiedException,
+			IndeterminateStateException,
+			InvalidStateSpecifiedException,
+			MigrationFailedException,
+			MigrationNotPossibleException,
+			UnknownStateSpecifiedException
+	{
+		if (resource == null) throw new ArgumentNullException("resource");
+		if (resourcePlugin == null) throw new ArgumentNullException("resourcePlugin");
+		if (instance == null) throw new ArgumentNullException("instance");
+		if (targetStateId == null) throw new ArgumentNullException("targetStateId");
+		if (path == null) throw new ArgumentNullException("path");
+		if (assertionPolicy == null) throw new ArgumentNullException("assertionPolicy");
+
+		boolean provisioned;
+		try
+		{
+			provisioned = resourcePlugin.provisionFromTemplate(
 				_output,
 				resource,
 				instance,
-				migration.getToStateId().get());
+				targetStateId,
+				path,
+				templateInstance -> this.migrate(
+					resource,
+					templateInstance,
+					Optional.of(targetStateId.toString()),
+					assertionPolicy,
+					false));
+		}
+		finally
+		{
+			instance.afterMigration();
+		}
 
-			// Assert the new state
+		if (!provisioned)
+		{
+			return false;
+		}
+
+		// The copy already records the target state, but the state is written again so that it is never left to chance
+		resourcePlugin.setStateId(
+			_output,
+			resource,
+			instance,
+			targetStateId);
+
+		if (assertionPolicy != AssertionPolicy.None)
+		{
 			List<AssertionResult> assertionResults = this.assertState(
 				resource,
-				instance);
+				instance,
+				_failFastAssertions);
+
+			WildebeestApiImpl.throwIfFailed(targetStateId, assertionResults);
+		}
+
+		return true;
+	}
+
+	/**
+	 * Gets the migrations that make up the next step along a migration path, built and ready to be performed.  This is
+	 * usually the single next migration.  With fast-forward enabled, it is followed by as many of the migrations after
+	 * it as its plugin can perform together with it, such as a run of SqlScriptMigrations against a database whose DDL
+	 * is transactional.
+	 */
+	private List<Migration> nextStep(
+		List<Migration> path,
+		int index,
+		Migration first,
+		MigrationPlugin migrationPlugin,
+		Instance instance)
+	{
+		if (path == null) throw new ArgumentNullException("path");
+		if (first == null) throw new ArgumentNullException("first");
+		if (migrationPlugin == null) throw new ArgumentNullException("migrationPlugin");
+		if (instance == null) throw new ArgumentNullException("instance");
+
+		List<Migration> result = new ArrayList<>();
+		result.add(first);
+
+		if (_fastForward)
+		{
+			while (index + result.size() < path.size())
+			{
+				Migration next = WildebeestApiImpl.materialize(path.get(index + result.size()));
+				if (!migrationPlugin.canPerformTogether(result.get(result.size() - 1), next, instance))
+				{
+					break;
+				}
+
+				result.add(next);
+			}
+		}
+
+		return result;
+	}
 
-			WildebeestApiImpl.throwIfFailed(migration.getToStateId().get(), assertionResults);
+	private MigrationPlugin getMigrationPlugin(
+		Migration migration)
+	{
+		if (migration == null) throw new ArgumentNullException("migration");
+
+		String migrationTypeUri = migration.getClass().getAnnotation(MigrationType.class).uri();
+
+		return this.getPluginManager().getMigrationPlugin(migrationTypeUri);
+	}
+
+	private static Migration materialize(
+		Migration migration)
+	{
+		if (migration == null) throw new ArgumentNullException("migration");
+
+		try
+		{
+			return LazyMigration.materialize(migration);
+		}
+		catch (LoaderFault | PluginBuildException e)
+		{
+			throw new MigrationFaultException(e);
 		}
 	}
 
@@ -468,36 +1048,45 @@ public class WildebeestApiImpl implements WildebeestApi
 			throw new IllegalArgumentException("targetState cannot be empty");
 		}
 
-		ResourcePlugin resourcePlugin = WildebeestApiImpl.getResourcePlugin(
-			this.getResourcePlugins(),
-			resource.getType());
+		try
+		{
+			ResourcePlugin resourcePlugin = WildebeestApiImpl.getResourcePlugin(
+				this.getResourcePlugins(),
+				resource.getType());
 
-		UUID targetStateId = getTargetStateId(
-			resource,
-			targetState);
+			UUID targetStateId = getTargetStateId(
+				resource,
+				targetState);
 
-		State state = Wildebeest.stateForId(
-			resource,
-			targetStateId);
+			State state = Wildebeest.stateForId(
+				resource,
+				targetStateId);
 
-		if (targetState == null)
-		{
-			throw new JumpStateFailedException("This resource does not have a state with ID " +
-				targetStateId.toString());
-		}
+			if (targetState == null)
+			{
+				throw new JumpStateFailedException("This resource does not have a state with ID " +
+					targetStateId.toString());
+			}
 
-		// Assert the new state
-		List<AssertionResult> assertionResults = this.assertState(
-			resource,
-			instance);
+			// Assert the new state
+			List<AssertionResult> assertionResults = this.assertState(
+				resource,
+				instance,
+				_failFastAssertions);
 
-		WildebeestApiImpl.throwIfFailed(state.getStateId(), assertionResults);
+			WildebeestApiImpl.throwIfFailed(state.getStateId(), assertionResults);
 
-		resourcePlugin.setStateId(
-			_output,
-			resource,
-			instance,
-			targetStateId);
+			resourcePlugin.setStateId(
+				_output,
+				resource,
+				instance,
+				targetStateId);
+		}
+		finally
+		{
+			// The connections opened by the instance are shared by every step of this command, and released at its end
+			instance.close();
+		}
 	}
 
 	@Override public String describePlugins()
@@ -598,6 +1187,11 @@ public class WildebeestApiImpl implements WildebeestApi
 		if (label == null) { throw new IllegalArgumentException("label cannot be null"); }
 		if ("".equals(label)) { throw new IllegalArgumentException("label cannot be empty"); }
 
+		if (resource instanceof ImmutableResource)
+		{
+			return ((ImmutableResource)resource).stateForLabel(label).map(State::getStateId).orElse(null);
+		}
+
 		State result = null;
 
 		for (State check : resource.getStates())
@@ -722,51 +1316,46 @@ public class WildebeestApiImpl implements WildebeestApi
 		if (assertionResults == null) { throw new IllegalArgumentException("assertionResults cannot be null"); }
 
 		// If any assertions failed, throw
-		for(AssertionResult assertionResult : assertionResults)
+		if (WildebeestApiImpl.anyFailed(assertionResults))
 		{
-			if (!assertionResult.getResult())
-			{
-				throw new AssertionFailedException(stateId, assertionResults);
-			}
+			throw new AssertionFailedException(stateId, assertionResults);
 		}
 	}
 
-	private static void findPaths(
-		Resource resource,
-		List<List<Migration>> paths,
-		List<Migration> thisPath,
-		UUID fromStateId,
-		UUID targetStateId)
+	private static boolean anyFailed(
+		List<AssertionResult> assertionResults)
 	{
-		if (resource == null) { throw new IllegalArgumentException("resource"); }
-		if (paths == null) { throw new IllegalArgumentException("paths"); }
-		if (thisPath == null) { throw new IllegalArgumentException("thisPath"); }
+		if (assertionResults == null) { throw new IllegalArgumentException("assertionResults cannot be null"); }
 
-		// Have we reached the target state?
-		if ((fromStateId == null && targetStateId == null) ||
-			(fromStateId != null && fromStateId.equals(targetStateId)))
+		return assertionResults.stream().anyMatch(assertionResult -> !assertionResult.getResult());
+	}
+
+	/**
+	 * Reports any migrations that lead from a state back to the same state, and any unreachable states, in the
+	 * migration graph of a newly-loaded resource.  Neither prevents the resource from being used, but both usually
+	 * indicate a mistake in the resource definition.
+	 *
+	 * @param       output                      the PrintStream to report any problems to.
+	 * @param       graph                       the MigrationGraph of the loaded resource.
+	 * @since                                   4.0
+	 */
+	private static void checkMigrationGraph(
+		PrintStream output,
+		MigrationGraph graph)
+	{
+		if (output == null) throw new ArgumentNullException("output");
+		if (graph == null) throw new ArgumentNullException("graph");
+
+		for (Migration migration : graph.findLoops())
 		{
-			paths.add(thisPath);
+			output.println(OutputFormatter.migrationLoop(
+				migration,
+				migration.getFromStateId().map(graph::stateForId)));
 		}
 
-		// If we have not reached the target state, keep traversing the graph
-		else
+		for (State state : graph.findUnreachableStates())
 		{
-			resource.getMigrations()
-				.stream()
-				.filter(m ->
-					(!m.getFromStateId().isPresent() && fromStateId == null) ||
-						(m.getFromStateId().isPresent() && m.getFromStateId().equals(fromStateId)))
-				.forEach(
-					migration ->
-					{
-						State toState = Wildebeest.stateForId(
-							resource,
-							migration.getToStateId().get());
-						List<Migration> thisPathCopy = new ArrayList<>(thisPath);
-						thisPathCopy.add(migration);
-						findPaths(resource, paths, thisPathCopy, toState.getStateId(), targetStateId);
-					});
+			output.println(OutputFormatter.unreachableState(state));
 		}
 	}
 
@@ -778,17 +1367,16 @@ public class WildebeestApiImpl implements WildebeestApi
 		if (xml == null) throw new ArgumentNullException("xml");
 		if (xsdResourceName == null) throw new ArgumentNullException("xsdResourceName");
 
+		Validator validator = VALIDATORS.get().computeIfAbsent(
+			xsdResourceName,
+			name -> WildebeestApiImpl.schema(name).newValidator());
+
 		try
 		{
-			SchemaFactory factory = SchemaFactory.newInstance("http://www.w3.org/XML/XMLSchema/v1.1");
-			File xsdLocation = new File(WildebeestApiImpl.class.getResource(xsdResourceName).toURI());
-			Schema schema = factory.newSchema(xsdLocation);
-
-			Validator validator = schema.newValidator();
 			Source source = new StreamSource(new StringReader(xml));
 			validator.validate(source);
 		}
-		catch (URISyntaxException | IOException e)
+		catch (IOException e)
 		{
 			throw new RuntimeException(e);
 		}
@@ -797,5 +1385,44 @@ public class WildebeestApiImpl implements WildebeestApi
 			// Validation failed
 			throw new XmlValidationException(e.getMessage());
 		}
+		finally
+		{
+			validator.reset();
+		}
+	}
+
+	/**
+	 * Gets the compiled form of the named XSD, compiling it from the classpath the first time it is requested.
+	 *
+	 * @param       xsdResourceName             the name of the XSD resource, relative to this class.
+	 * @return                                  the compiled Schema.
+	 * @since                                   4.0
+	 */
+	private static Schema schema(
+		String xsdResourceName)
+	{
+		if (xsdResourceName == null) throw new ArgumentNullException("xsdResourceName");
+
+		return SCHEMAS.computeIfAbsent(
+			xsdResourceName,
+			name ->
+			{
+				URL xsdLocation = WildebeestApiImpl.class.getResource(name);
+
+				if (xsdLocation == null)
+				{
+					throw new RuntimeException(String.format("XSD %s not found on the classpath", name));
+				}
+
+				try (InputStream xsd = xsdLocation.openStream())
+				{
+					SchemaFactory factory = SchemaFactory.newInstance(XSD_1_1);
+					return factory.newSchema(new StreamSource(xsd, xsdLocation.toExternalForm()));
+				}
+				catch (IOException | SAXException e)
+				{
+					throw new RuntimeException(e);
+				}
+			});
 	}
 }
@@ -0,0 +1,275 @@
+// Wildebeest Migration Framework
+// Copyright © 2013 - 2018, Matheson Ventures Pte Ltd
+//
+// This file is part of Wildebeest
+//
+// Wildebeest is free software: you can redistribute it and/or modify it under
+// the terms of the GNU General Public License v2 as published by the Free
+// Software Foundation.
+//
+// Wildebeest is distributed in the hope that it will be useful, but WITHOUT ANY
+// WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+// A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along with
+// Wildebeest.  If not, see http://www.gnu.org/licenses/gpl-2.0.html
+
+package co.mv.wb.plugin.base;
+
+import co.mv.wb.Migration;
+import co.mv.wb.Resource;
+import co.mv.wb.ResourceType;
+import co.mv.wb.State;
+import co.mv.wb.framework.ArgumentNullException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * A {@link Resource} that cannot be modified after it's initial construction.  States are indexed by ID and by label,
+ * and migrations by their from-state and to-state, so that lookups do not need to scan the whole resource.
+ *
+ * All of the state of an ImmutableResource is fixed when it is constructed, so a single instance can safely be shared
+ * between threads.
+ *
+ * @since                                       4.0
+ */
+public final class ImmutableResource implements Resource
+{
+	private final UUID _resourceId;
+	private final ResourceType _type;
+	private final String _name;
+	private final List<State> _states;
+	private final List<Migration> _migrations;
+	private final Optional<String> _defaultTarget;
+	private final Map<UUID, State> _statesById;
+	private final Map<String, State> _statesByLabel;
+	private final Map<Optional<UUID>, List<Migration>> _migrationsByFromState;
+	private final Map<Optional<UUID>, List<Migration>> _migrationsByToState;
+
+	/**
+	 * Creates a new ImmutableResource.
+	 *
+	 * @param       resourceId                  the ID of the new Resource
+	 * @param       type                        the type of the new Resource
+	 * @param       name                        the name of the new Resource
+	 * @param       states                      the states of the new Resource
+	 * @param       migrations                  the migrations of the new Resource
+	 * @param       defaultTarget               the optional default target for this resource
+	 * @since                                   4.0
+	 */
+	public ImmutableResource(
+		UUID resourceId,
+		ResourceType type,
+		String name,
+		List<State> states,
+		List<Migration> migrations,
+		Optional<String> defaultTarget)
+	{
+		if (resourceId == null) throw new ArgumentNullException("resourceId");
+		if (type == null) throw new ArgumentNullException("type");
+		if (name == null) throw new ArgumentNullException("name");
+		if (states == null) throw new ArgumentNullException("states");
+		if (migrations == null) throw new ArgumentNullException("migrations");
+		if (defaultTarget == null) throw new ArgumentNullException("defaultTarget");
+
+		_resourceId = resourceId;
+		_type = type;
+		_name = name;
+		_defaultTarget = defaultTarget;
+
+		List<State> frozenStates = new ArrayList<>(states.size());
+		Map<UUID, State> statesById = new HashMap<>();
+		Map<String, State> statesByLabel = new HashMap<>();
+		for (State state : states)
+		{
+			State frozenState = ImmutableResource.freeze(state);
+			frozenStates.add(frozenState);
+			statesById.put(frozenState.getStateId(), frozenState);
+			frozenState.getLabel().ifPresent(label -> statesByLabel.put(label, frozenState));
+		}
+
+		_states = Collections.unmodifiableList(frozenStates);
+		_statesById = Collections.unmodifiableMap(statesById);
+		_statesByLabel = Collections.unmodifiableMap(statesByLabel);
+
+		_migrations = Collections.unmodifiableList(new ArrayList<>(migrations));
+		_migrationsByFromState = ImmutableResource.index(migrations, true);
+		_migrationsByToState = ImmutableResource.index(migrations, false);
+	}
+
+	/**
+	 * Creates an ImmutableResource with the same content as the supplied Resource.  If the supplied Resource is
+	 * already an ImmutableResource then it is returned unchanged.
+	 *
+	 * @param       resource                    the Resource to copy.
+	 * @return                                  an ImmutableResource with the same content as the supplied Resource.
+	 * @since                                   4.0
+	 */
+	public static ImmutableResource from(
+		Resource resource)
+	{
+		if (resource == null) throw new ArgumentNullException("resource");
+
+		if (resource instanceof ImmutableResource)
+		{
+			return (ImmutableResource)resource;
+		}
+
+		return new ImmutableResource(
+			resource.getResourceId(),
+			resource.getType(),
+			resource.getName(),
+			resource.getStates(),
+			resource.getMigrations(),
+			resource.getDefaultTarget());
+	}
+
+	@Override public UUID getResourceId()
+	{
+		return _resourceId;
+	}
+
+	@Override public ResourceType getType()
+	{
+		return _type;
+	}
+
+	@Override public String getName()
+	{
+		return _name;
+	}
+
+	@Override public List<State> getStates()
+	{
+		return _states;
+	}
+
+	@Override public List<Migration> getMigrations()
+	{
+		return _migrations;
+	}
+
+	@Override public Optional<String> getDefaultTarget()
+	{
+		return _defaultTarget;
+	}
+
+	/**
+	 * Looks up the State with the supplied ID.
+	 *
+	 * @param       stateId                     the ID of the State to look up.
+	 * @return                                  the State with the supplied ID, or empty if there is no such State.
+	 * @since                                   4.0
+	 */
+	public Optional<State> stateForId(
+		UUID stateId)
+	{
+		if (stateId == null) throw new ArgumentNullException("stateId");
+
+		return Optional.ofNullable(_statesById.get(stateId));
+	}
+
+	/**
+	 * Looks up the State with the supplied label.
+	 *
+	 * @param       label                       the label of the State to look up.
+	 * @return                                  the State with the supplied label, or empty if there is no such State.
+	 * @since                                   4.0
+	 */
+	public Optional<State> stateForLabel(
+		String label)
+	{
+		if (label == null) throw new ArgumentNullException("label");
+
+		return Optional.ofNullable(_statesByLabel.get(label));
+	}
+
+	/**
+	 * Gets the migrations that start from the supplied state, in the order that they were declared.
+	 *
+	 * @param       fromStateId                 the state to migrate from, or empty for the non-existent state.
+	 * @return                                  the migrations that start from the supplied state.
+	 * @since                                   4.0
+	 */
+	public List<Migration> migrationsFrom(
+		Optional<UUID> fromStateId)
+	{
+		if (fromStateId == null) throw new ArgumentNullException("fromStateId");
+
+		return _migrationsByFromState.getOrDefault(fromStateId, Collections.emptyList());
+	}
+
+	/**
+	 * Gets the migrations that end in the supplied state, in the order that they were declared.
+	 *
+	 * @param       toStateId                   the state to migrate to, or empty for the non-existent state.
+	 * @return                                  the migrations that end in the supplied state.
+	 * @since                                   4.0
+	 */
+	public List<Migration> migrationsTo(
+		Optional<UUID> toStateId)
+	{
+		if (toStateId == null) throw new ArgumentNullException("toStateId");
+
+		return _migrationsByToState.getOrDefault(toStateId, Collections.emptyList());
+	}
+
+	/**
+	 * Gets all of the states of this Resource, keyed by their ID.
+	 *
+	 * @return                                  an unmodifiable map from state ID to state.
+	 * @since                                   4.0
+	 */
+	public Map<UUID, State> getStatesById()
+	{
+		return _statesById;
+	}
+
+	/**
+	 * Gets all of the migrations of this Resource, grouped by the state that they start from.
+	 *
+	 * @return                                  an unmodifiable map from from-state to migrations.
+	 * @since                                   4.0
+	 */
+	public Map<Optional<UUID>, List<Migration>> getMigrationsByFromState()
+	{
+		return _migrationsByFromState;
+	}
+
+	private static State freeze(
+		State state)
+	{
+		if (state == null) throw new ArgumentNullException("state");
+
+		return new ImmutableState(
+			state.getStateId(),
+			state.getLabel(),
+			Collections.unmodifiableList(new ArrayList<>(state.getAssertions())),
+			state.getDescription());
+	}
+
+	private static Map<Optional<UUID>, List<Migration>> index(
+		List<Migration> migrations,
+		boolean byFromState)
+	{
+		if (migrations == null) throw new ArgumentNullException("migrations");
+
+		Map<Optional<UUID>, List<Migration>> index = new HashMap<>();
+		for (Migration migration : migrations)
+		{
+			Optional<UUID> key = byFromState ? migration.getFromStateId() : migration.getToStateId();
+			index.computeIfAbsent(key, k -> new ArrayList<>()).add(migration);
+		}
+
+		Map<Optional<UUID>, List<Migration>> result = new HashMap<>();
+		index.forEach((key, value) -> result.put(key, Collections.unmodifiableList(value)));
+
+		return Collections.unmodifiableMap(result);
+	}
+}
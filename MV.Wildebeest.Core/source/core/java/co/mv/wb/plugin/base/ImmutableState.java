@@ -50,6 +50,7 @@ public class ImmutableState implements State {
 		this.setStateId(stateId);
 		this.setLabel(Optional.empty());
 		this.setAssertions(new ArrayList<>());
+		this.setDescription(Optional.empty());
 	}
 
 	/**
@@ -67,6 +68,7 @@ public class ImmutableState implements State {
 		this.setStateId(stateId);
 		this.setLabel(label);
 		this.setAssertions(new ArrayList<>());
+		this.setDescription(Optional.empty());
 	}
 
 	/**
@@ -82,7 +84,9 @@ public class ImmutableState implements State {
 			throw new IllegalStateException("label should not be null");
 		}
 		this.setStateId(stateId);
+		this.setLabel(Optional.empty());
 		this.setAssertions(assertions);
+		this.setDescription(Optional.empty());
 	}
 
 	/**
@@ -102,6 +106,7 @@ public class ImmutableState implements State {
 		this.setStateId(stateId);
 		this.setLabel(label);
 		this.setAssertions(assertions);
+		this.setDescription(Optional.empty());
 	}
 
 	/**
@@ -120,6 +125,7 @@ public class ImmutableState implements State {
 		}
 		this.setStateId(stateId);
 		this.setLabel(label);
+		this.setAssertions(new ArrayList<>());
 		this.setDescription(description);
 	}
 
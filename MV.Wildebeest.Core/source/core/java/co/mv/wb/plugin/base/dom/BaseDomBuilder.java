@@ -22,9 +22,13 @@ import org.w3c.dom.Node;
 
 import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpression;
 import javax.xml.xpath.XPathExpressionException;
 import javax.xml.xpath.XPathFactory;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
+import java.util.regex.Pattern;
 
 /**
  * Base class for DOM-based builders.
@@ -33,6 +37,10 @@ import java.util.Optional;
  */
 public abstract class BaseDomBuilder implements DomBuilder
 {
+	private static final Pattern CHILD_ELEMENT_NAME = Pattern.compile("[A-Za-z_][A-Za-z0-9_.-]*");
+
+	private final Map<String, XPathExpression> _expressions = new HashMap<>();
+
 	/**
 	 * Creates a new BaseDomBuilder.
 	 * 
@@ -131,11 +139,16 @@ public abstract class BaseDomBuilder implements DomBuilder
 	/**
 	 * Attempts to retrieve the string value identified by the supplied xpath expression, relative to the Element held
 	 * by this builder.
+	 *
+	 * Where the expression is a plain element name, as it is for nearly all builder fields, the value is found by
+	 * walking the direct children of the Element, without involving XPath at all.  Any other expression is compiled the
+	 * first time it is used by this builder, and the compiled expression is reused for every later Element.
 	 * 
 	 * @param       xpath                       the xpath expression to the Element that contains the value to be
 	 *                                          returned.
 	 * @return                                  a TryGetResult containing the value identified by the supplied xpath if
 	 *                                          it was able to be obtained, or an empty TryGetResult otherwise
+	 * @throws      IllegalArgumentException    if the supplied xpath is not a valid xpath expression.
 	 * @since                                   2.0
 	 */
 	protected Optional<String> tryGetString(String xpath)
@@ -143,34 +156,26 @@ public abstract class BaseDomBuilder implements DomBuilder
 		if (xpath == null) { throw new IllegalArgumentException("xpath"); }
 		if ("".equals(xpath)) { throw new IllegalArgumentException("xpath"); }
 		
-		Optional<String> result = null;
-		
-		Node node;
+		Element element;
 
-		try
+		if (CHILD_ELEMENT_NAME.matcher(xpath).matches())
 		{
-			node  = (Node)this.getXPath().compile(xpath).evaluate(this.getElement(), XPathConstants.NODE);
-			if (node != null)
-			{
-				Element element = ModelExtensions.As(node, Element.class);
-				
-				if (element != null)
-				{
-					String value = element.getTextContent();
-					result = Optional.of(value);
-				}
-			}
+			element = BaseDomBuilder.firstChildElement(this.getElement(), xpath);
 		}
-		catch (XPathExpressionException e)
-		{
-		}
-
-		if (result == null)
+		else
 		{
-			result = Optional.empty();
+			try
+			{
+				Node node = (Node)this.compile(xpath).evaluate(this.getElement(), XPathConstants.NODE);
+				element = node == null ? null : ModelExtensions.As(node, Element.class);
+			}
+			catch (XPathExpressionException e)
+			{
+				throw new IllegalArgumentException(String.format("unable to evaluate xpath %s", xpath), e);
+			}
 		}
 
-		return result;
+		return element == null ? Optional.empty() : Optional.of(element.getTextContent());
 	}
 	
 	/**
@@ -185,7 +190,7 @@ public abstract class BaseDomBuilder implements DomBuilder
 	 */
 	protected Optional<Integer> tryGetInteger(String xpath)
 	{
-		Optional<Integer> result = null;
+		Optional<Integer> result = Optional.empty();
 		Optional<String> raw = this.tryGetString(xpath);
 		
 		if (raw.isPresent())
@@ -197,10 +202,44 @@ public abstract class BaseDomBuilder implements DomBuilder
 			}
 			catch(NumberFormatException e)
 			{
-				result = Optional.empty();
 			}
 		}
 		
 		return result;
 	}
+
+	private XPathExpression compile(
+		String xpath) throws
+			XPathExpressionException
+	{
+		if (xpath == null) { throw new IllegalArgumentException("xpath cannot be null"); }
+
+		XPathExpression result = _expressions.get(xpath);
+
+		if (result == null)
+		{
+			result = this.getXPath().compile(xpath);
+			_expressions.put(xpath, result);
+		}
+
+		return result;
+	}
+
+	private static Element firstChildElement(
+		Element parent,
+		String name)
+	{
+		if (parent == null) { throw new IllegalArgumentException("parent cannot be null"); }
+		if (name == null) { throw new IllegalArgumentException("name cannot be null"); }
+
+		for (Node child = parent.getFirstChild(); child != null; child = child.getNextSibling())
+		{
+			if (child.getNodeType() == Node.ELEMENT_NODE && name.equals(child.getNodeName()))
+			{
+				return (Element)child;
+			}
+		}
+
+		return null;
+	}
 }
@@ -26,11 +26,17 @@ import co.mv.wb.plugin.generaldatabase.dom.AnsiSqlCreateDatabaseDomMigrationBuil
 import co.mv.wb.plugin.generaldatabase.dom.AnsiSqlDropDatabaseDomMigrationBuilder;
 import co.mv.wb.plugin.generaldatabase.dom.AnsiSqlTableDoesNotExistDomAssertionBuilder;
 import co.mv.wb.plugin.generaldatabase.dom.AnsiSqlTableExistsDomAssertionBuilder;
+import co.mv.wb.plugin.generaldatabase.dom.BulkLoadDomMigrationBuilder;
+import co.mv.wb.plugin.generaldatabase.dom.ChunkedBackfillDomMigrationBuilder;
+import co.mv.wb.plugin.generaldatabase.dom.CreateIndexDomMigrationBuilder;
 import co.mv.wb.plugin.generaldatabase.dom.DatabaseDoesNotExistDomAssertionBuilder;
 import co.mv.wb.plugin.generaldatabase.dom.DatabaseExistsDomAssertionBuilder;
+import co.mv.wb.plugin.generaldatabase.dom.DropIndexDomMigrationBuilder;
+import co.mv.wb.plugin.generaldatabase.dom.RowCountDomAssertionBuilder;
 import co.mv.wb.plugin.generaldatabase.dom.RowDoesNotExistDomAssertionBuilder;
 import co.mv.wb.plugin.generaldatabase.dom.RowExistsDomAssertionBuilder;
 import co.mv.wb.plugin.generaldatabase.dom.SqlScriptDomMigrationBuilder;
+import co.mv.wb.plugin.h2.dom.H2DatabaseDomInstanceBuilder;
 import co.mv.wb.plugin.mysql.dom.MySqlCreateDatabaseDomMigrationBuilder;
 import co.mv.wb.plugin.mysql.dom.MySqlDatabaseDomInstanceBuilder;
 import co.mv.wb.plugin.mysql.dom.MySqlTableDoesNotExistDomAssertionBuilder;
@@ -45,8 +51,13 @@ import co.mv.wb.plugin.sqlserver.dom.SqlServerSchemaExistsDomAssertionBuilder;
 import co.mv.wb.plugin.sqlserver.dom.SqlServerTableDoesNotExistDomAssertionBuilder;
 import co.mv.wb.plugin.sqlserver.dom.SqlServerTableExistsDomAssertionBuilder;
 
+import org.xml.sax.InputSource;
+
+import javax.xml.validation.Schema;
+import java.io.File;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 
 /**
  * Provides the set of pre-configured core plugins that are supported by Wildebeest.
@@ -70,6 +81,7 @@ public class DomPlugins
 		result.put("DatabaseDoesNotExist", new DatabaseDoesNotExistDomAssertionBuilder());
 		result.put("RowExists", new RowExistsDomAssertionBuilder());
 		result.put("RowDoesNotExist", new RowDoesNotExistDomAssertionBuilder());
+		result.put("RowCount", new RowCountDomAssertionBuilder());
 		
 		// AnsiSql
 		result.put("AnsiSqlTableExists", new AnsiSqlTableExistsDomAssertionBuilder());
@@ -100,6 +112,10 @@ public class DomPlugins
 
 		// Database
 		result.put("SqlScript", new SqlScriptDomMigrationBuilder());
+		result.put("BulkLoad", new BulkLoadDomMigrationBuilder());
+		result.put("ChunkedBackfill", new ChunkedBackfillDomMigrationBuilder());
+		result.put("CreateIndex", new CreateIndexDomMigrationBuilder());
+		result.put("DropIndex", new DropIndexDomMigrationBuilder());
 
 		// AnsiSql
 		result.put("AnsiSqlCreateDatabase", new AnsiSqlCreateDatabaseDomMigrationBuilder());
@@ -129,6 +145,7 @@ public class DomPlugins
 	{
 		Map<String, InstanceBuilder> result = new HashMap<>();
 		
+		result.put(Wildebeest.H2Database.getUri(), new H2DatabaseDomInstanceBuilder());
 		result.put(Wildebeest.MySqlDatabase.getUri(), new MySqlDatabaseDomInstanceBuilder());
 		result.put(Wildebeest.PostgreSqlDatabase.getUri(), new PostgreSqlDatabaseDomInstanceBuilder());
 		result.put(Wildebeest.SqlServerDatabase.getUri(), new SqlServerDatabaseDomInstanceBuilder());
@@ -155,6 +172,58 @@ public class DomPlugins
 			resourceXml);
 	}
 	
+	/**
+	 * Returns a {@link SaxResourceLoader} for the supplied resource XML, configured with the standard builders.
+	 *
+	 * @param       resourceTypeService         the {@link ResourceTypeService} to use to lookup resource types.
+	 * @param       schema                      the optional Schema to validate the resource XML against as it is
+	 *                                          loaded.
+	 * @param       resourceXml                 the source of the &lt;resource&gt; XML to be loaded by the
+	 *                                          SaxResourceLoader.
+	 * @return                                  a SaxResourceLoader configured with the standard builders.
+	 * @since                                   4.0
+	 */
+	public static SaxResourceLoader saxResourceLoader(
+		ResourceTypeService resourceTypeService,
+		Optional<Schema> schema,
+		InputSource resourceXml)
+	{
+		return new SaxResourceLoader(
+			resourceTypeService,
+			DomPlugins.assertionBuilders(),
+			DomPlugins.migrationBuilders(),
+			schema,
+			resourceXml);
+	}
+	
+	/**
+	 * Returns a {@link SaxResourceLoader} for the supplied resource file, configured with the standard builders.
+	 *
+	 * @param       resourceTypeService         the {@link ResourceTypeService} to use to lookup resource types.
+	 * @param       schema                      the optional Schema to validate the resource XML against as it is
+	 *                                          loaded.
+	 * @param       resourceFile                the file that contains the &lt;resource&gt; XML to be loaded by the
+	 *                                          SaxResourceLoader.
+	 * @param       lazyMigrations              true to build each migration only when it is needed, or false to build
+	 *                                          every migration while loading.
+	 * @return                                  a SaxResourceLoader configured with the standard builders.
+	 * @since                                   4.0
+	 */
+	public static SaxResourceLoader saxResourceLoader(
+		ResourceTypeService resourceTypeService,
+		Optional<Schema> schema,
+		File resourceFile,
+		boolean lazyMigrations)
+	{
+		return new SaxResourceLoader(
+			resourceTypeService,
+			DomPlugins.assertionBuilders(),
+			DomPlugins.migrationBuilders(),
+			schema,
+			resourceFile,
+			lazyMigrations);
+	}
+	
 	/**
 	 * Returns a {@link DomInstanceLoader} for the supplied instance XML, configured with the standard builders.
 	 * 
@@ -29,6 +29,7 @@ import co.mv.wb.ResourceLoader;
 import co.mv.wb.ResourceType;
 import co.mv.wb.ResourceTypeService;
 import co.mv.wb.State;
+import co.mv.wb.plugin.base.ImmutableResource;
 import co.mv.wb.plugin.base.ImmutableState;
 import co.mv.wb.plugin.base.ResourceImpl;
 import org.w3c.dom.Document;
@@ -339,6 +340,8 @@ public class DomResourceLoader implements ResourceLoader {
                     }
                 }
             }
+
+            resource = ImmutableResource.from(resource);
         }
 
         return resource;
@@ -361,31 +364,15 @@ public class DomResourceLoader implements ResourceLoader {
             throw new IllegalArgumentException("element");
         }
 
-        State result;
         UUID id = UUID.fromString(element.getAttribute(XA_STATE_ID));
-        String label = null;
-        String description = null;
-        int condition = 0;
-        if (element.hasAttribute(XA_STATE_LABEL)) {
-            label = element.getAttribute(XA_STATE_LABEL);
-            condition++;
-        }
-        if(element.hasAttribute(XA_STATE_DESCRIPTION)){
-            description = element.getAttribute(XA_STATE_DESCRIPTION);
-            condition++;
-        }
+        Optional<String> label = element.hasAttribute(XA_STATE_LABEL)
+                ? Optional.of(element.getAttribute(XA_STATE_LABEL))
+                : Optional.empty();
+        Optional<String> description = element.hasAttribute(XA_STATE_DESCRIPTION)
+                ? Optional.of(element.getAttribute(XA_STATE_DESCRIPTION))
+                : Optional.empty();
 
-        switch(condition){
-            case 1:
-                result = new ImmutableState(id, Optional.of(label));
-                break;
-            case 2:
-                result = new ImmutableState(id, Optional.of(label), Optional.of(description));
-                break;
-            default:
-                result = new ImmutableState(id);
-        }
-        return result;
+        return new ImmutableState(id, label, description);
     }
 
     private static Assertion buildAssertion(
@@ -0,0 +1,200 @@
+// Wildebeest Migration Framework
+// Copyright © 2013 - 2018, Matheson Ventures Pte Ltd
+//
+// This file is part of Wildebeest
+//
+// Wildebeest is free software: you can redistribute it and/or modify it under
+// the terms of the GNU General Public License v2 as published by the Free
+// Software Foundation.
+//
+// Wildebeest is distributed in the hope that it will be useful, but WITHOUT ANY
+// WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+// A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along with
+// Wildebeest.  If not, see http://www.gnu.org/licenses/gpl-2.0.html
+
+package co.mv.wb.plugin.base.dom;
+
+import co.mv.wb.FaultException;
+import co.mv.wb.LoaderFault;
+import co.mv.wb.Migration;
+import co.mv.wb.PluginBuildException;
+import co.mv.wb.ResourceType;
+import co.mv.wb.framework.ArgumentNullException;
+
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * A {@link Migration} whose body has not yet been read from the resource file.  A LazyMigration carries only the
+ * metadata needed to find a path through the migration graph, and builds the full Migration the first time that
+ * {@link #materialize()} is called.  Migrations that are not on the path being migrated are therefore never built.
+ *
+ * @since                                       4.0
+ */
+public final class LazyMigration implements Migration
+{
+	private final UUID _migrationId;
+	private final Optional<UUID> _fromStateId;
+	private final Optional<UUID> _toStateId;
+	private final String _type;
+	private final Body _body;
+	private Migration _migration = null;
+
+	/**
+	 * Creates a new LazyMigration.
+	 *
+	 * @param       migrationId                 the ID of the migration.
+	 * @param       fromStateId                 the optional from state for the migration.
+	 * @param       toStateId                   the optional to state for the migration.
+	 * @param       type                        the type of the migration, as named in the resource file.
+	 * @param       body                        builds the full migration when it is needed.
+	 * @since                                   4.0
+	 */
+	LazyMigration(
+		UUID migrationId,
+		Optional<UUID> fromStateId,
+		Optional<UUID> toStateId,
+		String type,
+		Body body)
+	{
+		if (migrationId == null) throw new ArgumentNullException("migrationId");
+		if (fromStateId == null) throw new ArgumentNullException("fromStateId");
+		if (toStateId == null) throw new ArgumentNullException("toStateId");
+		if (type == null) throw new ArgumentNullException("type");
+		if (body == null) throw new ArgumentNullException("body");
+
+		_migrationId = migrationId;
+		_fromStateId = fromStateId;
+		_toStateId = toStateId;
+		_type = type;
+		_body = body;
+	}
+
+	@Override public UUID getMigrationId()
+	{
+		return _migrationId;
+	}
+
+	@Override public Optional<UUID> getFromStateId()
+	{
+		return _fromStateId;
+	}
+
+	@Override public Optional<UUID> getToStateId()
+	{
+		return _toStateId;
+	}
+
+	/**
+	 * Gets the type of the migration, as named in the resource file.
+	 *
+	 * @return                                  the type of the migration.
+	 * @since                                   4.0
+	 */
+	public String getType()
+	{
+		return _type;
+	}
+
+	/**
+	 * Gets the resource types that the migration can be applied to.  The types are declared by the full migration, so
+	 * this builds it if it has not already been built.
+	 *
+	 * @return                                  the list of resource types that the migration can be applied to.
+	 * @since                                   4.0
+	 */
+	@Override public List<ResourceType> getApplicableTypes()
+	{
+		try
+		{
+			return this.materialize().getApplicableTypes();
+		}
+		catch (LoaderFault | PluginBuildException e)
+		{
+			throw new FaultException(e);
+		}
+	}
+
+	/**
+	 * Adds the content of the migration to the supplied digest.  The content is described by the full migration, so
+	 * this builds it if it has not already been built.
+	 *
+	 * @param       digest                      the digest to add the content of the migration to.
+	 * @return                                  true if the content was added, or false if the migration cannot
+	 *                                          describe its content.
+	 * @throws      IOException                 if a file that the migration reads cannot be read.
+	 * @since                                   4.0
+	 */
+	@Override public boolean digestContent(
+		MessageDigest digest) throws IOException
+	{
+		if (digest == null) throw new ArgumentNullException("digest");
+
+		try
+		{
+			return this.materialize().digestContent(digest);
+		}
+		catch (LoaderFault | PluginBuildException e)
+		{
+			throw new FaultException(e);
+		}
+	}
+
+	/**
+	 * Builds the full migration from its definition in the resource file, if it has not already been built, and
+	 * returns it.
+	 *
+	 * @return                                  the full migration.
+	 * @throws      LoaderFault                 if the definition of the migration cannot be read.
+	 * @throws      PluginBuildException        if the migration builder rejects the definition.
+	 * @since                                   4.0
+	 */
+	public synchronized Migration materialize() throws
+		LoaderFault,
+		PluginBuildException
+	{
+		if (_migration == null)
+		{
+			_migration = _body.build();
+		}
+
+		return _migration;
+	}
+
+	/**
+	 * Returns the full form of the supplied migration: the migration itself, or if it is a LazyMigration then the
+	 * migration that it builds.
+	 *
+	 * @param       migration                   the migration to materialize.
+	 * @return                                  the full migration.
+	 * @throws      LoaderFault                 if the definition of the migration cannot be read.
+	 * @throws      PluginBuildException        if the migration builder rejects the definition.
+	 * @since                                   4.0
+	 */
+	public static Migration materialize(
+		Migration migration) throws
+			LoaderFault,
+			PluginBuildException
+	{
+		if (migration == null) throw new ArgumentNullException("migration");
+
+		return migration instanceof LazyMigration
+			? ((LazyMigration)migration).materialize()
+			: migration;
+	}
+
+	/**
+	 * Builds the full migration from its definition.
+	 */
+	interface Body
+	{
+		Migration build() throws
+			LoaderFault,
+			PluginBuildException;
+	}
+}
@@ -0,0 +1,1082 @@
+// Wildebeest Migration Framework
+// Copyright © 2013 - 2018, Matheson Ventures Pte Ltd
+//
+// This file is part of Wildebeest
+//
+// Wildebeest is free software: you can redistribute it and/or modify it under
+// the terms of the GNU General Public License v2 as published by the Free
+// Software Foundation.
+//
+// Wildebeest is distributed in the hope that it will be useful, but WITHOUT ANY
+// WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+// A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along with
+// Wildebeest.  If not, see http://www.gnu.org/licenses/gpl-2.0.html
+
+package co.mv.wb.plugin.base.dom;
+
+import co.mv.wb.Assertion;
+import co.mv.wb.AssertionBuilder;
+import co.mv.wb.LoaderFault;
+import co.mv.wb.Messages;
+import co.mv.wb.Migration;
+import co.mv.wb.MigrationBuilder;
+import co.mv.wb.PluginBuildException;
+import co.mv.wb.Resource;
+import co.mv.wb.ResourceLoader;
+import co.mv.wb.ResourceTypeService;
+import co.mv.wb.State;
+import co.mv.wb.XmlValidationException;
+import co.mv.wb.framework.ArgumentNullException;
+import co.mv.wb.plugin.base.ImmutableResource;
+import co.mv.wb.plugin.base.ImmutableState;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.Locator;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.ext.Locator2;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+import javax.xml.validation.Schema;
+import javax.xml.validation.ValidatorHandler;
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Loads {@link Resource}'s from XML definitions in a single streaming pass.  The document is optionally validated
+ * against a {@link Schema} as it is read, and each &lt;assertion&gt; and &lt;migration&gt; element is handed to its
+ * {@link DomBuilder} as a small standalone DOM fragment as soon as it has been read.  The document as a whole is never
+ * held in memory, so the heap used is proportional to the Resource that is built rather than the size of the file.
+ *
+ * If the document is not valid according to the Schema, load throws a LoaderFault whose cause is an
+ * {@link XmlValidationException}.
+ *
+ * When a resource file is loaded with lazy migrations, each migration is loaded as a {@link LazyMigration} that
+ * records only its ID, states and type, and where its definition starts in the file.  Its body is read back from the
+ * file and built only when {@link LazyMigration#materialize()} is called, so loading a resource with a long history
+ * costs memory in proportion to the number of migrations rather than the size of their scripts.  Errors in the body
+ * of a migration are then reported when it is materialized rather than when the resource is loaded.
+ *
+ * @since                                       4.0
+ */
+public class SaxResourceLoader implements ResourceLoader
+{
+	private static final String XE_RESOURCE = "resource";
+	private static final String XA_RESOURCE_TYPE = "type";
+	private static final String XA_RESOURCE_ID = "id";
+	private static final String XA_RESOURCE_NAME = "name";
+	private static final String XA_RESOURCE_DEFAULT_TARGET = "defaultTarget";
+
+	private static final String XE_STATE = "state";
+	private static final String XA_STATE_ID = "id";
+	private static final String XA_STATE_LABEL = "label";
+	private static final String XA_STATE_DESCRIPTION = "description";
+
+	private static final String XE_ASSERTION = "assertion";
+	private static final String XA_ASSERTION_TYPE = "type";
+	private static final String XA_ASSERTION_ID = "id";
+
+	private static final String XE_MIGRATION = "migration";
+	private static final String XA_MIGRATION_TYPE = "type";
+	private static final String XA_MIGRATION_ID = "id";
+	private static final String XA_MIGRATION_FROM_STATE_ID = "fromStateId";
+	private static final String XA_MIGRATION_TO_STATE_ID = "toStateId";
+
+	private final ResourceTypeService _resourceTypeService;
+	private final Map<String, AssertionBuilder> _assertionBuilders;
+	private final Map<String, MigrationBuilder> _migrationBuilders;
+	private final Optional<Schema> _schema;
+	private final Optional<InputSource> _resourceXml;
+	private final Optional<File> _resourceFile;
+	private final boolean _lazyMigrations;
+
+	/**
+	 * Creates a new SaxResourceLoader.
+	 *
+	 * @param       resourceTypeService         the {@link ResourceTypeService} to use to look up resource types.
+	 * @param       assertionBuilders           the set of available {@link AssertionBuilder}s.
+	 * @param       migrationBuilders           the set of available {@link MigrationBuilder}s.
+	 * @param       schema                      the optional Schema to validate the document against while loading.
+	 * @param       resourceXml                 the source of the XML representation of the {@link Resource} to be
+	 *                                          loaded.  The source is consumed by load.
+	 * @since                                   4.0
+	 */
+	public SaxResourceLoader(
+		ResourceTypeService resourceTypeService,
+		Map<String, AssertionBuilder> assertionBuilders,
+		Map<String, MigrationBuilder> migrationBuilders,
+		Optional<Schema> schema,
+		InputSource resourceXml)
+	{
+		if (resourceTypeService == null) throw new ArgumentNullException("resourceTypeService");
+		if (assertionBuilders == null) throw new ArgumentNullException("assertionBuilders");
+		if (migrationBuilders == null) throw new ArgumentNullException("migrationBuilders");
+		if (schema == null) throw new ArgumentNullException("schema");
+		if (resourceXml == null) throw new ArgumentNullException("resourceXml");
+
+		_resourceTypeService = resourceTypeService;
+		_assertionBuilders = assertionBuilders;
+		_migrationBuilders = migrationBuilders;
+		_schema = schema;
+		_resourceXml = Optional.of(resourceXml);
+		_resourceFile = Optional.empty();
+		_lazyMigrations = false;
+	}
+
+	/**
+	 * Creates a new SaxResourceLoader that reads the resource from a file.
+	 *
+	 * @param       resourceTypeService         the {@link ResourceTypeService} to use to look up resource types.
+	 * @param       assertionBuilders           the set of available {@link AssertionBuilder}s.
+	 * @param       migrationBuilders           the set of available {@link MigrationBuilder}s.
+	 * @param       schema                      the optional Schema to validate the document against while loading.
+	 * @param       resourceFile                the file that contains the XML representation of the {@link Resource}
+	 *                                          to be loaded.
+	 * @param       lazyMigrations              true to load each migration as a {@link LazyMigration} whose body is
+	 *                                          built only when it is needed, or false to build every migration while
+	 *                                          loading.
+	 * @since                                   4.0
+	 */
+	public SaxResourceLoader(
+		ResourceTypeService resourceTypeService,
+		Map<String, AssertionBuilder> assertionBuilders,
+		Map<String, MigrationBuilder> migrationBuilders,
+		Optional<Schema> schema,
+		File resourceFile,
+		boolean lazyMigrations)
+	{
+		if (resourceTypeService == null) throw new ArgumentNullException("resourceTypeService");
+		if (assertionBuilders == null) throw new ArgumentNullException("assertionBuilders");
+		if (migrationBuilders == null) throw new ArgumentNullException("migrationBuilders");
+		if (schema == null) throw new ArgumentNullException("schema");
+		if (resourceFile == null) throw new ArgumentNullException("resourceFile");
+
+		_resourceTypeService = resourceTypeService;
+		_assertionBuilders = assertionBuilders;
+		_migrationBuilders = migrationBuilders;
+		_schema = schema;
+		_resourceXml = Optional.empty();
+		_resourceFile = Optional.of(resourceFile);
+		_lazyMigrations = lazyMigrations;
+	}
+
+	@Override public Resource load(
+		File baseDir) throws
+			LoaderFault,
+			PluginBuildException
+	{
+		if (baseDir == null) throw new ArgumentNullException("baseDir");
+
+		XMLReader reader;
+		try
+		{
+			SAXParserFactory factory = SAXParserFactory.newInstance();
+			factory.setNamespaceAware(true);
+			reader = factory.newSAXParser().getXMLReader();
+		}
+		catch (ParserConfigurationException | SAXException e)
+		{
+			throw new LoaderFault(e);
+		}
+
+		if (_resourceXml.isPresent())
+		{
+			return this.load(baseDir, reader, _resourceXml.get(), Optional.empty());
+		}
+
+		try (LineOffsetInputStream input = new LineOffsetInputStream(new BufferedInputStream(
+			Files.newInputStream(_resourceFile.get().toPath()))))
+		{
+			InputSource source = new InputSource(input);
+			source.setSystemId(_resourceFile.get().toURI().toString());
+
+			return this.load(
+				baseDir,
+				reader,
+				source,
+				_lazyMigrations ? Optional.of(input) : Optional.empty());
+		}
+		catch (IOException e)
+		{
+			throw new LoaderFault(e);
+		}
+	}
+
+	private Resource load(
+		File baseDir,
+		XMLReader reader,
+		InputSource source,
+		Optional<LineOffsetInputStream> lineOffsets) throws
+			LoaderFault,
+			PluginBuildException
+	{
+		if (baseDir == null) throw new ArgumentNullException("baseDir");
+		if (reader == null) throw new ArgumentNullException("reader");
+		if (source == null) throw new ArgumentNullException("source");
+		if (lineOffsets == null) throw new ArgumentNullException("lineOffsets");
+
+		ResourceHandler handler;
+		try
+		{
+			handler = new ResourceHandler(baseDir, lineOffsets);
+		}
+		catch (ParserConfigurationException e)
+		{
+			throw new LoaderFault(e);
+		}
+
+		if (_schema.isPresent())
+		{
+			ValidatorHandler validatorHandler = _schema.get().newValidatorHandler();
+			validatorHandler.setContentHandler(handler);
+			reader.setContentHandler(validatorHandler);
+		}
+		else
+		{
+			reader.setContentHandler(handler);
+		}
+
+		try
+		{
+			reader.parse(source);
+		}
+		catch (BuildInterruptedException e)
+		{
+			if (e.getPluginBuildException() != null)
+			{
+				throw e.getPluginBuildException();
+			}
+
+			throw e.getLoaderFault();
+		}
+		catch (SAXException e)
+		{
+			// The document is malformed or is not valid according to the schema
+			throw new LoaderFault(new XmlValidationException(e.getMessage()));
+		}
+		catch (IOException e)
+		{
+			throw new LoaderFault(e);
+		}
+
+		return handler.getResource();
+	}
+
+	/**
+	 * Receives the SAX events for a resource document and builds the Resource as they arrive.
+	 */
+	private class ResourceHandler extends DefaultHandler
+	{
+		private final File _baseDir;
+		private final Document _fragmentDocument;
+		private final Optional<LineOffsetInputStream> _lineOffsets;
+
+		private Locator _locator = null;
+		private final Map<String, String> _namespaces = new HashMap<>();
+
+		private Resource _resource = null;
+		private UUID _resourceId = null;
+		private co.mv.wb.ResourceType _resourceType = null;
+		private String _resourceName = null;
+		private Optional<String> _defaultTarget = Optional.empty();
+		private final List<State> _states = new ArrayList<>();
+		private final List<Migration> _migrations = new ArrayList<>();
+
+		private State _state = null;
+		private int _assertionSeqNum = 0;
+
+		// The assertion or migration element currently being read
+		private FragmentBuilder _fragment = null;
+
+		// The migration element currently being passed over, when migrations are loaded lazily
+		private Element _lazyElement = null;
+		private ContentPosition _lazyPosition = null;
+		private boolean _lazyHasContent = false;
+		private int _lazyDepth = 0;
+
+		ResourceHandler(
+			File baseDir,
+			Optional<LineOffsetInputStream> lineOffsets) throws
+				ParserConfigurationException
+		{
+			if (baseDir == null) throw new ArgumentNullException("baseDir");
+			if (lineOffsets == null) throw new ArgumentNullException("lineOffsets");
+
+			_baseDir = baseDir;
+			_fragmentDocument = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+			_lineOffsets = lineOffsets;
+		}
+
+		Resource getResource()
+		{
+			return _resource;
+		}
+
+		@Override public void setDocumentLocator(
+			Locator locator)
+		{
+			_locator = locator;
+		}
+
+		@Override public void startPrefixMapping(
+			String prefix,
+			String uri)
+		{
+			_namespaces.put(prefix, uri);
+		}
+
+		@Override public void startElement(
+			String uri,
+			String localName,
+			String qName,
+			Attributes attributes)
+		{
+			String name = "".equals(localName) ? qName : localName;
+
+			// Inside a migration that is being loaded lazily - pass over it
+			if (_lazyElement != null)
+			{
+				_lazyDepth ++;
+				_lazyHasContent = true;
+			}
+
+			// Inside an assertion or migration - add to the fragment being built
+			else if (_fragment != null)
+			{
+				_fragment.startElement(name, attributes);
+			}
+
+			else if (XE_RESOURCE.equals(name))
+			{
+				_resourceId = UUID.fromString(attributes.getValue(XA_RESOURCE_ID));
+				_resourceType = _resourceTypeService.forUri(attributes.getValue(XA_RESOURCE_TYPE));
+				_resourceName = attributes.getValue(XA_RESOURCE_NAME);
+				_defaultTarget = Optional.ofNullable(attributes.getValue(XA_RESOURCE_DEFAULT_TARGET));
+			}
+
+			else if (XE_STATE.equals(name))
+			{
+				_state = new ImmutableState(
+					UUID.fromString(attributes.getValue(XA_STATE_ID)),
+					Optional.ofNullable(attributes.getValue(XA_STATE_LABEL)),
+					Optional.ofNullable(attributes.getValue(XA_STATE_DESCRIPTION)));
+				_states.add(_state);
+				_assertionSeqNum = 0;
+			}
+
+			else if (XE_ASSERTION.equals(name) || XE_MIGRATION.equals(name))
+			{
+				Element element = SaxResourceLoader.createElement(_fragmentDocument, name, attributes);
+				Optional<ContentPosition> position = XE_MIGRATION.equals(name)
+					? this.contentPosition()
+					: Optional.empty();
+
+				if (position.isPresent())
+				{
+					_lazyElement = element;
+					_lazyPosition = position.get();
+					_lazyHasContent = false;
+					_lazyDepth = 0;
+				}
+				else
+				{
+					_fragment = new FragmentBuilder(element);
+				}
+			}
+		}
+
+		@Override public void characters(
+			char[] ch,
+			int start,
+			int length)
+		{
+			if (_lazyElement != null)
+			{
+				_lazyHasContent |= !new String(ch, start, length).trim().isEmpty();
+			}
+			else if (_fragment != null)
+			{
+				_fragment.characters(ch, start, length);
+			}
+		}
+
+		@Override public void endElement(
+			String uri,
+			String localName,
+			String qName) throws
+				SAXException
+		{
+			if (_lazyElement != null)
+			{
+				if (_lazyDepth > 0)
+				{
+					_lazyDepth --;
+					return;
+				}
+
+				Element element = _lazyElement;
+				_lazyElement = null;
+
+				try
+				{
+					_migrations.add(this.lazyMigration(
+						element,
+						_lazyHasContent ? Optional.of(_lazyPosition) : Optional.empty()));
+				}
+				catch (PluginBuildException e)
+				{
+					throw new BuildInterruptedException(e);
+				}
+			}
+
+			else if (_fragment == null)
+			{
+				String name = "".equals(localName) ? qName : localName;
+
+				if (XE_STATE.equals(name))
+				{
+					_state = null;
+				}
+				else if (XE_RESOURCE.equals(name))
+				{
+					_resource = new ImmutableResource(
+						_resourceId,
+						_resourceType,
+						_resourceName,
+						_states,
+						_migrations,
+						_defaultTarget);
+				}
+			}
+
+			// The assertion or migration element is complete - build it
+			else if (_fragment.endElement())
+			{
+				Element element = _fragment.getRoot();
+				_fragment = null;
+
+				try
+				{
+					if (XE_ASSERTION.equals(element.getTagName()))
+					{
+						_state.getAssertions().add(this.buildAssertion(element, _assertionSeqNum));
+						_assertionSeqNum ++;
+					}
+					else
+					{
+						_migrations.add(SaxResourceLoader.this.buildMigration(element, _baseDir));
+					}
+				}
+				catch (PluginBuildException e)
+				{
+					throw new BuildInterruptedException(e);
+				}
+				catch (LoaderFault e)
+				{
+					throw new BuildInterruptedException(e);
+				}
+			}
+		}
+
+		/**
+		 * Finds where the content of the element that has just been started begins in the file, if migrations are
+		 * being loaded lazily and the position can be determined.
+		 */
+		private Optional<ContentPosition> contentPosition()
+		{
+			if (!_lineOffsets.isPresent() || _locator == null)
+			{
+				return Optional.empty();
+			}
+
+			// Line starts are found from the bytes of line breaks, so the encoding must write them as single bytes
+			String encoding = _locator instanceof Locator2 ? ((Locator2)_locator).getEncoding() : null;
+			if (encoding == null || !Charset.isSupported(encoding))
+			{
+				return Optional.empty();
+			}
+
+			Charset charset = Charset.forName(encoding);
+			if (!Arrays.equals("\r\n".getBytes(charset), new byte[] { '\r', '\n' }))
+			{
+				return Optional.empty();
+			}
+
+			OptionalLong lineOffset = _lineOffsets.get().offsetOf(_locator.getLineNumber());
+			if (!lineOffset.isPresent() || _locator.getColumnNumber() < 1)
+			{
+				return Optional.empty();
+			}
+
+			return Optional.of(new ContentPosition(
+				lineOffset.getAsLong(),
+				_locator.getColumnNumber() - 1,
+				charset,
+				new HashMap<>(_namespaces)));
+		}
+
+		private LazyMigration lazyMigration(
+			Element element,
+			Optional<ContentPosition> position) throws
+				PluginBuildException
+		{
+			if (element == null) throw new ArgumentNullException("element");
+			if (position == null) throw new ArgumentNullException("position");
+
+			// Check the type now, so that an unknown type is still reported when the resource is loaded
+			String type = element.getAttribute(XA_MIGRATION_TYPE);
+			SaxResourceLoader.this.migrationBuilder(type);
+
+			File baseDir = _baseDir;
+
+			return new LazyMigration(
+				UUID.fromString(element.getAttribute(XA_MIGRATION_ID)),
+				SaxResourceLoader.stateId(element, XA_MIGRATION_FROM_STATE_ID),
+				SaxResourceLoader.stateId(element, XA_MIGRATION_TO_STATE_ID),
+				type,
+				() -> SaxResourceLoader.this.buildMigration(
+					position.isPresent()
+						? SaxResourceLoader.this.readContent(element, position.get())
+						: element,
+					baseDir));
+		}
+
+		private Assertion buildAssertion(
+			Element element,
+			int seqNum) throws
+				LoaderFault,
+				PluginBuildException
+		{
+			if (element == null) throw new ArgumentNullException("element");
+
+			String type = element.getAttribute(XA_ASSERTION_TYPE);
+			UUID id = UUID.fromString(element.getAttribute(XA_ASSERTION_ID));
+
+			AssertionBuilder builder = _assertionBuilders.get(type);
+
+			if (builder == null)
+			{
+				Messages messages = new Messages();
+				messages.addMessage(String.format(
+					"assertion builder of type %s not found",
+					type));
+				throw new PluginBuildException(messages);
+			}
+
+			builder.reset();
+			((DomBuilder)builder).setElement(element);
+			return builder.build(id, seqNum);
+		}
+	}
+
+	private MigrationBuilder migrationBuilder(
+		String type) throws
+			PluginBuildException
+	{
+		MigrationBuilder result = _migrationBuilders.get(type);
+
+		if (result == null)
+		{
+			Messages messages = new Messages();
+			messages.addMessage(String.format(
+				"migration builder of type %s not found",
+				type));
+			throw new PluginBuildException(messages);
+		}
+
+		return result;
+	}
+
+	private Migration buildMigration(
+		Element element,
+		File baseDir) throws
+			LoaderFault,
+			PluginBuildException
+	{
+		if (element == null) throw new ArgumentNullException("element");
+		if (baseDir == null) throw new ArgumentNullException("baseDir");
+
+		UUID id = UUID.fromString(element.getAttribute(XA_MIGRATION_ID));
+		MigrationBuilder builder = this.migrationBuilder(element.getAttribute(XA_MIGRATION_TYPE));
+
+		// Lazy migrations may be built after loading has finished, and they share the builders
+		synchronized (builder)
+		{
+			builder.reset();
+			((DomBuilder)builder).setElement(element);
+			return builder.build(
+				id,
+				SaxResourceLoader.stateId(element, XA_MIGRATION_FROM_STATE_ID),
+				SaxResourceLoader.stateId(element, XA_MIGRATION_TO_STATE_ID),
+				baseDir);
+		}
+	}
+
+	/**
+	 * Reads the content of a migration element back from the resource file, and returns a copy of the element with
+	 * the content added to it.
+	 */
+	private Element readContent(
+		Element element,
+		ContentPosition position) throws
+			LoaderFault
+	{
+		if (element == null) throw new ArgumentNullException("element");
+		if (position == null) throw new ArgumentNullException("position");
+
+		Element result = (Element)element.cloneNode(false);
+		FragmentHandler handler = new FragmentHandler(new FragmentBuilder(result));
+
+		try (FileChannel channel = FileChannel.open(_resourceFile.get().toPath(), StandardOpenOption.READ))
+		{
+			channel.position(position.getLineOffset());
+			Reader content = new BufferedReader(Channels.newReader(channel, position.getCharset().newDecoder(), -1));
+
+			// Move from the start of the line to the end of the start tag
+			for (long remaining = position.getColumn(); remaining > 0; )
+			{
+				long skipped = content.skip(remaining);
+				if (skipped <= 0)
+				{
+					throw new LoaderFault(new IOException("The resource file has changed since it was loaded"));
+				}
+				remaining -= skipped;
+			}
+
+			// Give the content a root element of its own so that it can be parsed on its own, and stop parsing once
+			// the end tag of the migration has been read
+			SAXParserFactory factory = SAXParserFactory.newInstance();
+			factory.setNamespaceAware(true);
+			XMLReader reader = factory.newSAXParser().getXMLReader();
+			reader.setContentHandler(handler);
+			reader.parse(new InputSource(new PrefixedReader(
+				SaxResourceLoader.startTag(element.getTagName(), position.getNamespaces()),
+				content)));
+		}
+		catch (ContentCompleteException e)
+		{
+			return result;
+		}
+		catch (IOException | ParserConfigurationException | SAXException e)
+		{
+			throw new LoaderFault(e);
+		}
+
+		throw new LoaderFault(new IOException("The resource file has changed since it was loaded"));
+	}
+
+	private static Element createElement(
+		Document document,
+		String name,
+		Attributes attributes)
+	{
+		if (document == null) throw new ArgumentNullException("document");
+		if (name == null) throw new ArgumentNullException("name");
+		if (attributes == null) throw new ArgumentNullException("attributes");
+
+		Element result = document.createElement(name);
+
+		for (int i = 0; i < attributes.getLength(); i ++)
+		{
+			String attributeName = "".equals(attributes.getLocalName(i))
+				? attributes.getQName(i)
+				: attributes.getLocalName(i);
+			result.setAttribute(attributeName, attributes.getValue(i));
+		}
+
+		return result;
+	}
+
+	private static Optional<UUID> stateId(
+		Element element,
+		String attributeName)
+	{
+		return element.hasAttribute(attributeName)
+			? Optional.of(UUID.fromString(element.getAttribute(attributeName)))
+			: Optional.empty();
+	}
+
+	private static String startTag(
+		String name,
+		Map<String, String> namespaces)
+	{
+		StringBuilder result = new StringBuilder("<").append(name);
+
+		for (Map.Entry<String, String> namespace : namespaces.entrySet())
+		{
+			result
+				.append("".equals(namespace.getKey()) ? " xmlns" : " xmlns:" + namespace.getKey())
+				.append("=\"")
+				.append(namespace.getValue()
+					.replace("&", "&amp;")
+					.replace("<", "&lt;")
+					.replace("\"", "&quot;"))
+				.append("\"");
+		}
+
+		return result.append(">").toString();
+	}
+
+	/**
+	 * Builds a standalone DOM fragment from the SAX events for an element and its content.
+	 */
+	private static class FragmentBuilder
+	{
+		private final Element _root;
+		private Node _cursor;
+
+		FragmentBuilder(
+			Element root)
+		{
+			if (root == null) throw new ArgumentNullException("root");
+
+			_root = root;
+			_cursor = root;
+		}
+
+		Element getRoot()
+		{
+			return _root;
+		}
+
+		void startElement(
+			String name,
+			Attributes attributes)
+		{
+			Element element = SaxResourceLoader.createElement(_root.getOwnerDocument(), name, attributes);
+			_cursor.appendChild(element);
+			_cursor = element;
+		}
+
+		void characters(
+			char[] ch,
+			int start,
+			int length)
+		{
+			_cursor.appendChild(_root.getOwnerDocument().createTextNode(new String(ch, start, length)));
+		}
+
+		/**
+		 * Closes the element that is currently open, and returns true if it was the root element.
+		 */
+		boolean endElement()
+		{
+			if (_cursor == _root)
+			{
+				return true;
+			}
+
+			_cursor = _cursor.getParentNode();
+			return false;
+		}
+	}
+
+	/**
+	 * Receives the SAX events for the content of a migration element that is read back from the resource file.
+	 */
+	private static class FragmentHandler extends DefaultHandler
+	{
+		private final FragmentBuilder _fragment;
+		private boolean _started = false;
+
+		FragmentHandler(
+			FragmentBuilder fragment)
+		{
+			if (fragment == null) throw new ArgumentNullException("fragment");
+
+			_fragment = fragment;
+		}
+
+		@Override public void startElement(
+			String uri,
+			String localName,
+			String qName,
+			Attributes attributes)
+		{
+			// The root element stands in for the start tag that has already been read
+			if (_started)
+			{
+				_fragment.startElement("".equals(localName) ? qName : localName, attributes);
+			}
+
+			_started = true;
+		}
+
+		@Override public void characters(
+			char[] ch,
+			int start,
+			int length)
+		{
+			_fragment.characters(ch, start, length);
+		}
+
+		@Override public void endElement(
+			String uri,
+			String localName,
+			String qName) throws
+				SAXException
+		{
+			if (_fragment.endElement())
+			{
+				throw new ContentCompleteException();
+			}
+		}
+	}
+
+	/**
+	 * Where the content of an element starts in the resource file: the byte offset of the line that the start tag
+	 * ends on, and the number of characters from the start of that line to the end of the start tag.
+	 */
+	private static class ContentPosition
+	{
+		private final long _lineOffset;
+		private final int _column;
+		private final Charset _charset;
+		private final Map<String, String> _namespaces;
+
+		ContentPosition(
+			long lineOffset,
+			int column,
+			Charset charset,
+			Map<String, String> namespaces)
+		{
+			if (charset == null) throw new ArgumentNullException("charset");
+			if (namespaces == null) throw new ArgumentNullException("namespaces");
+
+			_lineOffset = lineOffset;
+			_column = column;
+			_charset = charset;
+			_namespaces = namespaces;
+		}
+
+		long getLineOffset()
+		{
+			return _lineOffset;
+		}
+
+		int getColumn()
+		{
+			return _column;
+		}
+
+		Charset getCharset()
+		{
+			return _charset;
+		}
+
+		Map<String, String> getNamespaces()
+		{
+			return _namespaces;
+		}
+	}
+
+	/**
+	 * Counts the bytes read from the resource file, and records the offset at which each line starts.  Offsets are
+	 * kept only for recent lines, which is enough to cover the lines the parser has read ahead of the element it is
+	 * reporting.
+	 */
+	private static class LineOffsetInputStream extends FilterInputStream
+	{
+		private static final int WINDOW = 65536;
+		private static final int[] UTF8_BOM = { 0xef, 0xbb, 0xbf };
+
+		private final long[] _lineStarts = new long[WINDOW];
+		private long _offset = 0;
+		private int _line = 1;
+		private int _previous = -1;
+		private int _bomLength = 0;
+
+		LineOffsetInputStream(
+			InputStream in)
+		{
+			super(in);
+		}
+
+		OptionalLong offsetOf(
+			int line)
+		{
+			return line >= 1 && line <= _line && line > _line - WINDOW
+				? OptionalLong.of(_lineStarts[line % WINDOW])
+				: OptionalLong.empty();
+		}
+
+		@Override public int read() throws IOException
+		{
+			int result = super.read();
+
+			if (result != -1)
+			{
+				this.count(result);
+			}
+
+			return result;
+		}
+
+		@Override public int read(
+			byte[] b,
+			int off,
+			int len) throws IOException
+		{
+			int result = super.read(b, off, len);
+
+			for (int i = 0; i < result; i ++)
+			{
+				this.count(b[off + i] & 0xff);
+			}
+
+			return result;
+		}
+
+		@Override public long skip(
+			long n) throws IOException
+		{
+			int result = this.read(new byte[(int)Math.min(n, 8192)]);
+			return Math.max(result, 0);
+		}
+
+		@Override public boolean markSupported()
+		{
+			return false;
+		}
+
+		private void count(
+			int b)
+		{
+			// A UTF-8 byte order mark is not part of the first line
+			if (_offset == _bomLength && _bomLength < UTF8_BOM.length && b == UTF8_BOM[_bomLength])
+			{
+				_bomLength ++;
+				if (_bomLength == UTF8_BOM.length)
+				{
+					_lineStarts[1] = _bomLength;
+				}
+			}
+
+			_offset ++;
+
+			// CR, LF and CRLF each end a line, as they do for the parser
+			if (b == '\n' && _previous == '\r')
+			{
+				_lineStarts[_line % WINDOW] = _offset;
+			}
+			else if (b == '\n' || b == '\r')
+			{
+				_line ++;
+				_lineStarts[_line % WINDOW] = _offset;
+			}
+
+			_previous = b;
+		}
+	}
+
+	/**
+	 * A Reader that reads a fixed prefix and then the content of another Reader.
+	 */
+	private static class PrefixedReader extends Reader
+	{
+		private final String _prefix;
+		private final Reader _content;
+		private int _position = 0;
+
+		PrefixedReader(
+			String prefix,
+			Reader content)
+		{
+			if (prefix == null) throw new ArgumentNullException("prefix");
+			if (content == null) throw new ArgumentNullException("content");
+
+			_prefix = prefix;
+			_content = content;
+		}
+
+		@Override public int read(
+			char[] cbuf,
+			int off,
+			int len) throws IOException
+		{
+			if (_position < _prefix.length())
+			{
+				int result = Math.min(len, _prefix.length() - _position);
+				_prefix.getChars(_position, _position + result, cbuf, off);
+				_position += result;
+				return result;
+			}
+
+			return _content.read(cbuf, off, len);
+		}
+
+		@Override public void close() throws IOException
+		{
+			_content.close();
+		}
+	}
+
+	/**
+	 * Stops the parser once the content of a migration element has been read.
+	 */
+	private static class ContentCompleteException extends SAXException
+	{
+	}
+
+	/**
+	 * Carries a failure from a builder out through the SAX parser, so that it can be distinguished from a parsing or
+	 * validation error.
+	 */
+	private static class BuildInterruptedException extends SAXException
+	{
+		private final PluginBuildException _pluginBuildException;
+		private final LoaderFault _loaderFault;
+
+		BuildInterruptedException(
+			PluginBuildException cause)
+		{
+			super(cause);
+			_pluginBuildException = cause;
+			_loaderFault = null;
+		}
+
+		BuildInterruptedException(
+			LoaderFault cause)
+		{
+			super(cause);
+			_pluginBuildException = null;
+			_loaderFault = cause;
+		}
+
+		PluginBuildException getPluginBuildException()
+		{
+			return _pluginBuildException;
+		}
+
+		LoaderFault getLoaderFault()
+		{
+			return _loaderFault;
+		}
+	}
+}
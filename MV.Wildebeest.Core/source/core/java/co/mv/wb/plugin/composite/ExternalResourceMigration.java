@@ -189,6 +189,7 @@ public class ExternalResourceMigration extends BaseMigration
 	@Override public List<ResourceType> getApplicableTypes()
 	{
 		return Arrays.asList(
+			Wildebeest.H2Database,
 			Wildebeest.MySqlDatabase,
 			Wildebeest.PostgreSqlDatabase,
 			Wildebeest.SqlServerDatabase);
@@ -22,6 +22,8 @@ import co.mv.wb.ResourceType;
 import co.mv.wb.Wildebeest;
 import co.mv.wb.plugin.base.BaseMigration;
 
+import java.io.IOException;
+import java.security.MessageDigest;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -56,6 +58,15 @@ public class AnsiSqlCreateDatabaseMigration extends BaseMigration
         super(migrationId, fromStateId, toStateId);
     }
 
+    @Override public boolean digestContent(
+        MessageDigest digest) throws IOException
+    {
+        if (digest == null) { throw new IllegalArgumentException("digest cannot be null"); }
+
+        // Everything this migration does is determined by the database instance it is applied to
+        return true;
+    }
+
     @Override public List<ResourceType> getApplicableTypes()
     {
 		return Arrays.asList(
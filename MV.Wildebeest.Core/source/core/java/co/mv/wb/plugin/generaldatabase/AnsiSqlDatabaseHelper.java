@@ -36,6 +36,11 @@ public class AnsiSqlDatabaseHelper
 		if (tableName == null) { throw new IllegalArgumentException("tableName cannot be null"); }
 		if ("".equals(tableName)) { throw new IllegalArgumentException("tableName cannot be empty"); }
 
+		if (db.getCatalogSnapshot().isPresent())
+		{
+			return db.getCatalogSnapshot().get().tableExists(schemaName.toLowerCase(), tableName.toLowerCase());
+		}
+
 		return DatabaseHelper.rowExists(
 			db.getAppDataSource(),
 			String.format(
@@ -65,6 +65,9 @@ public class AnsiSqlDropDatabaseMigrationPlugin implements MigrationPlugin
 				String.format("database \"%s\" does not exist",	instanceT.getDatabaseName()));
 		}
 
+		// Pooled connections to the database would prevent it from being dropped
+		instanceT.releaseAppConnections();
+
 		try
 		{
 			DatabaseHelper.execute(
@@ -28,6 +28,7 @@ import co.mv.wb.plugin.base.ImmutableAssertionResponse;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 /**
@@ -49,7 +50,7 @@ import java.util.UUID;
 		"    <tableName>ProductType</tableName>\n" +
 		"</assertion>"
 )
-public class AnsiSqlTableExistsAssertion extends BaseAssertion
+public class AnsiSqlTableExistsAssertion extends BaseAssertion implements CatalogAssertion
 {
 	/**
 	 * Creates a new AnsiSqlTableExistsAssertion.
@@ -166,9 +167,41 @@ public class AnsiSqlTableExistsAssertion extends BaseAssertion
 	@Override public List<ResourceType> getApplicableTypes()
 	{
 		return Arrays.asList(
+			Wildebeest.H2Database,
 			Wildebeest.PostgreSqlDatabase);
 	}
 
+	@Override public Optional<CatalogProbe> getCatalogProbe(Instance instance)
+	{
+		if (instance == null) { throw new IllegalArgumentException("instance cannot be null"); }
+		AnsiSqlDatabaseInstance db = ModelExtensions.As(instance, AnsiSqlDatabaseInstance.class);
+
+		return db == null
+			? Optional.empty()
+			: Optional.of(CatalogProbe.table(
+				this.getSchemaName().toLowerCase(),
+				this.getTableName().toLowerCase()));
+	}
+
+	@Override public AssertionResponse respond(boolean exists)
+	{
+		AssertionResponse result;
+
+		if (exists)
+		{
+			result = new ImmutableAssertionResponse(true, "Table " + this.getTableName() +
+				" exists in schema " + this.getSchemaName());
+		}
+
+		else
+		{
+			result = new ImmutableAssertionResponse(false, "Table " + this.getTableName() +
+				" does not exist in schema " + this.getSchemaName());
+		}
+
+		return result;
+	}
+
 	@Override public AssertionResponse perform(Instance instance)
 	{
 		if (instance == null) { throw new IllegalArgumentException("instance cannot be null"); }
@@ -184,19 +217,12 @@ public class AnsiSqlTableExistsAssertion extends BaseAssertion
 				String.format("Database %s does not exist", db.getDatabaseName()));
 		}
 		
-		else if (AnsiSqlDatabaseHelper.tableExists(
-			db,
-			this.getSchemaName(),
-			this.getTableName()))
-		{
-			result = new ImmutableAssertionResponse(true, "Table " + this.getTableName() +
-				" exists in schema " + this.getSchemaName());
-		}
-		
 		else
 		{
-			result = new ImmutableAssertionResponse(false, "Table " + this.getTableName() +
-				" does not exist in schema " + this.getSchemaName());
+			result = this.respond(AnsiSqlDatabaseHelper.tableExists(
+				db,
+				this.getSchemaName(),
+				this.getTableName()));
 		}
 		
 		return result;
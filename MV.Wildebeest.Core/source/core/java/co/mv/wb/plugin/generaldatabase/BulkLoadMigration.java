@@ -0,0 +1,155 @@
+// Wildebeest Migration Framework
+// Copyright © 2013 - 2018, Matheson Ventures Pte Ltd
+//
+// This file is part of Wildebeest
+//
+// Wildebeest is free software: you can redistribute it and/or modify it under
+// the terms of the GNU General Public License v2 as published by the Free
+// Software Foundation.
+//
+// Wildebeest is distributed in the hope that it will be useful, but WITHOUT ANY
+// WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+// A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along with
+// Wildebeest.  If not, see http://www.gnu.org/licenses/gpl-2.0.html
+
+package co.mv.wb.plugin.generaldatabase;
+
+import co.mv.wb.Migration;
+import co.mv.wb.MigrationType;
+import co.mv.wb.ResourceType;
+import co.mv.wb.Wildebeest;
+import co.mv.wb.framework.Digests;
+import co.mv.wb.plugin.base.BaseMigration;
+
+import java.io.File;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * A {@link Migration} that loads the rows of a CSV file into a table.  The first line of the file names the columns
+ * to load.  The file is streamed to the database with its native bulk-load facility where there is one, and
+ * otherwise with batched inserts.
+ *
+ * @since                                       4.0
+ */
+@MigrationType(
+	pluginGroupUri = "co.mv.wb:GeneralDatabase",
+	uri = "co.mv.wb.generaldatabase:BulkLoad",
+	description = "Loads the rows of a CSV file into a table.  The first line of the file names the columns to " +
+			"load, and the file is read relative to the resource file.  PostgreSQL and MySQL databases are loaded " +
+			"with COPY and LOAD DATA respectively, and other databases with batches of inserts.",
+	example =
+		"<migration\n" +
+		"    type=\"BulkLoad\"\n" +
+		"    id=\"5a8b4b4e-0f5a-4f0c-9f6e-7f3c9c2e1d21\"\n" +
+		"    fromStateId=\"199b7cc1-3cc6-48ca-b012-a70d05d5b5e7\"\n" +
+		"    toStateId=\"363568f1-aaed-4a50-bea0-9ddee713cc11\">\n" +
+		"    <tableName>PostalCode</tableName>\n" +
+		"    <file>data/PostalCode.csv</file>\n" +
+		"    <batchSize>5000</batchSize>\n" +
+		"</migration>"
+)
+public class BulkLoadMigration extends BaseMigration implements Migration
+{
+	/**
+	 * The number of rows inserted in each batch when no batch size is specified.
+	 */
+	public static final int DEFAULT_BATCH_SIZE = 1000;
+
+	private final String _tableName;
+	private final File _file;
+	private final int _batchSize;
+
+	/**
+	 * Creates a new BulkLoadMigration.
+	 *
+	 * @param       migrationId                 the ID of the migration
+	 * @param       fromStateId                 the ID of the source state that this migration applies to, or empty
+	 *                                          if this migration transitions from the non-existent state.
+	 * @param       toStateId                   the ID of the target state that the migration applies to, or empty if
+	 *                                          this migration transitions to the non-existent state.
+	 * @param       tableName                   the name of the table to load the rows into.
+	 * @param       file                        the CSV file to load, encoded in UTF-8.
+	 * @param       batchSize                   the number of rows to send in each batch when the rows are loaded
+	 *                                          with batched inserts.
+	 * @since                                   4.0
+	 */
+	public BulkLoadMigration(
+		UUID migrationId,
+		Optional<UUID> fromStateId,
+		Optional<UUID> toStateId,
+		String tableName,
+		File file,
+		int batchSize)
+	{
+		super(migrationId, fromStateId, toStateId);
+
+		if (tableName == null) { throw new IllegalArgumentException("tableName cannot be null"); }
+		if ("".equals(tableName.trim())) { throw new IllegalArgumentException("tableName cannot be empty"); }
+		if (file == null) { throw new IllegalArgumentException("file cannot be null"); }
+		if (batchSize < 1) { throw new IllegalArgumentException("batchSize must be at least 1"); }
+
+		_tableName = tableName;
+		_file = file;
+		_batchSize = batchSize;
+	}
+
+	/**
+	 * Gets the name of the table to load the rows into.
+	 *
+	 * @return                                  the name of the table to load the rows into.
+	 * @since                                   4.0
+	 */
+	public String getTableName()
+	{
+		return _tableName;
+	}
+
+	/**
+	 * Gets the CSV file to load.
+	 *
+	 * @return                                  the CSV file to load.
+	 * @since                                   4.0
+	 */
+	public File getFile()
+	{
+		return _file;
+	}
+
+	/**
+	 * Gets the number of rows to send in each batch when the rows are loaded with batched inserts.
+	 *
+	 * @return                                  the number of rows in each batch.
+	 * @since                                   4.0
+	 */
+	public int getBatchSize()
+	{
+		return _batchSize;
+	}
+
+	@Override public boolean digestContent(
+		MessageDigest digest) throws IOException
+	{
+		if (digest == null) { throw new IllegalArgumentException("digest cannot be null"); }
+
+		Digests.update(digest, _tableName);
+		Digests.update(digest, Integer.toString(_batchSize));
+		Digests.update(digest, _file);
+
+		return true;
+	}
+
+	@Override public List<ResourceType> getApplicableTypes()
+	{
+		return Arrays.asList(
+			Wildebeest.MySqlDatabase,
+			Wildebeest.PostgreSqlDatabase,
+			Wildebeest.SqlServerDatabase);
+	}
+}
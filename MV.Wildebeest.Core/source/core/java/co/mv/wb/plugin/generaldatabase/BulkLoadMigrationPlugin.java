@@ -0,0 +1,411 @@
+// Wildebeest Migration Framework
+// Copyright © 2013 - 2018, Matheson Ventures Pte Ltd
+//
+// This file is part of Wildebeest
+//
+// Wildebeest is free software: you can redistribute it and/or modify it under
+// the terms of the GNU General Public License v2 as published by the Free
+// Software Foundation.
+//
+// Wildebeest is distributed in the hope that it will be useful, but WITHOUT ANY
+// WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+// A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along with
+// Wildebeest.  If not, see http://www.gnu.org/licenses/gpl-2.0.html
+
+package co.mv.wb.plugin.generaldatabase;
+
+import co.mv.wb.Instance;
+import co.mv.wb.Migration;
+import co.mv.wb.MigrationFailedException;
+import co.mv.wb.MigrationFaultException;
+import co.mv.wb.MigrationPlugin;
+import co.mv.wb.MigrationPluginType;
+import co.mv.wb.ModelExtensions;
+import co.mv.wb.OutputFormatter;
+import co.mv.wb.framework.CsvReader;
+import org.postgresql.PGConnection;
+
+import javax.sql.DataSource;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * {@link MigrationPlugin} for {@link BulkLoadMigration}.  The CSV file is streamed to PostgreSQL with COPY and to
+ * MySQL with LOAD DATA LOCAL INFILE, so that the rows are parsed by the database itself.  Other databases are loaded
+ * with batches of parameterized inserts in a single transaction.
+ *
+ * An empty field that is not quoted is loaded as NULL, and a quoted empty field as an empty string, on every database.
+ * The columns named by the first line of the file are written into the SQL, so each must be a plain identifier.
+ *
+ * @since                                       4.0
+ */
+@MigrationPluginType(uri = "co.mv.wb.generaldatabase:BulkLoadMigration")
+public class BulkLoadMigrationPlugin implements MigrationPlugin
+{
+	private static final int BUFFER_SIZE = 65536;
+	private static final int[] UTF8_BOM = { 0xef, 0xbb, 0xbf };
+
+	// A column name that can be written into SQL unquoted on every supported database
+	private static final Pattern IDENTIFIER = Pattern.compile("[\\p{L}_][\\p{L}\\p{N}_$]*");
+
+	@Override public void perform(
+		PrintStream output,
+		Migration migration,
+		Instance instance) throws
+			MigrationFailedException
+	{
+		if (output == null) { throw new IllegalArgumentException("output cannot be null"); }
+		if (migration == null) { throw new IllegalArgumentException("migration cannot be null"); }
+		if (instance == null) { throw new IllegalArgumentException("instance cannot be null"); }
+
+		BulkLoadMigration migrationT = ModelExtensions.As(migration, BulkLoadMigration.class);
+		if (migrationT == null)
+		{
+			throw new IllegalArgumentException("migration must be a BulkLoadMigration");
+		}
+
+		DatabaseInstance instanceT = ModelExtensions.As(instance, DatabaseInstance.class);
+		if (instanceT == null)
+		{
+			throw new IllegalArgumentException("instance must be a DatabaseInstance");
+		}
+
+		long start = System.nanoTime();
+		long rows;
+
+		try (InputStream input = new BufferedInputStream(
+			Files.newInputStream(migrationT.getFile().toPath()),
+			BUFFER_SIZE))
+		{
+			List<String> columns = BulkLoadMigrationPlugin.readHeader(input);
+
+			for (String column : columns)
+			{
+				if (!IDENTIFIER.matcher(column).matches())
+				{
+					throw new MigrationFailedException(
+						migrationT.getMigrationId(),
+						String.format(
+							"The column \"%s\" named in the first line of %s is not a valid column name",
+							column,
+							migrationT.getFile()));
+				}
+			}
+
+			switch (instanceT.getSqlDialect())
+			{
+				case PostgreSql:
+					rows = BulkLoadMigrationPlugin.copy(
+						instanceT.getAppDataSource(),
+						migrationT.getTableName(),
+						columns,
+						input);
+					break;
+
+				case MySql:
+					rows = BulkLoadMigrationPlugin.loadData(
+						instanceT.getAppDataSource(),
+						migrationT.getTableName(),
+						columns,
+						input);
+					break;
+
+				default:
+					rows = BulkLoadMigrationPlugin.insertBatches(
+						instanceT.getAppDataSource(),
+						migrationT.getTableName(),
+						columns,
+						input,
+						migrationT.getBatchSize());
+					break;
+			}
+		}
+		catch (IOException | SQLException e)
+		{
+			throw new MigrationFaultException(e);
+		}
+
+		output.println(OutputFormatter.bulkLoadComplete(
+			migrationT.getTableName(),
+			rows,
+			System.nanoTime() - start));
+	}
+
+	/**
+	 * Reads the first line of the file, which names the columns to load, and leaves the input positioned at the start
+	 * of the first row.
+	 */
+	private static List<String> readHeader(
+		InputStream input) throws IOException
+	{
+		// Skip a UTF-8 byte order mark
+		input.mark(UTF8_BOM.length);
+		for (int b : UTF8_BOM)
+		{
+			if (input.read() != b)
+			{
+				input.reset();
+				break;
+			}
+		}
+
+		ByteArrayOutputStream line = new ByteArrayOutputStream();
+		boolean quoted = false;
+		int b = input.read();
+		while (b != -1 && (quoted || (b != '\r' && b != '\n')))
+		{
+			quoted ^= b == '"';
+			line.write(b);
+			b = input.read();
+		}
+
+		if (b == '\r')
+		{
+			input.mark(1);
+			if (input.read() != '\n')
+			{
+				input.reset();
+			}
+		}
+
+		Optional<List<String>> columns = new CsvReader(new StringReader(
+			new String(line.toByteArray(), StandardCharsets.UTF_8))).read();
+
+		if (!columns.isPresent() || columns.get().contains(null))
+		{
+			throw new IOException("The first line of the file must name the columns to load");
+		}
+
+		return columns.get();
+	}
+
+	private static long copy(
+		DataSource dataSource,
+		String tableName,
+		List<String> columns,
+		InputStream rows) throws
+			IOException,
+			SQLException
+	{
+		String sql = String.format(
+			"COPY %s (%s) FROM STDIN WITH (FORMAT csv)",
+			tableName,
+			String.join(", ", columns));
+
+		try (Connection conn = dataSource.getConnection())
+		{
+			return conn.unwrap(PGConnection.class).getCopyAPI().copyIn(sql, rows, BUFFER_SIZE);
+		}
+	}
+
+	private static long loadData(
+		DataSource dataSource,
+		String tableName,
+		List<String> columns,
+		InputStream rows) throws SQLException
+	{
+		String sql = String.format(
+			"LOAD DATA LOCAL INFILE 'stream' INTO TABLE %s CHARACTER SET utf8 " +
+				"FIELDS TERMINATED BY ',' ENCLOSED BY '\"' ESCAPED BY '' LINES TERMINATED BY '\\n' (%s)",
+			tableName,
+			String.join(", ", columns));
+
+		try (Connection conn = dataSource.getConnection();
+			Statement stmt = conn.createStatement())
+		{
+			stmt.unwrap(com.mysql.jdbc.Statement.class).setLocalInfileInputStream(new LoadDataRows(
+				new CsvReader(new InputStreamReader(rows, StandardCharsets.UTF_8)),
+				columns.size()));
+			return stmt.executeUpdate(sql);
+		}
+	}
+
+	private static long insertBatches(
+		DataSource dataSource,
+		String tableName,
+		List<String> columns,
+		InputStream rows,
+		int batchSize) throws
+			IOException,
+			SQLException
+	{
+		int columnCount = columns.size();
+		String sql = String.format(
+			"INSERT INTO %s (%s) VALUES (%s)",
+			tableName,
+			String.join(", ", columns),
+			String.join(", ", Collections.nCopies(columnCount, "?")));
+
+		CsvReader reader = new CsvReader(new InputStreamReader(rows, StandardCharsets.UTF_8));
+
+		try (Connection conn = dataSource.getConnection())
+		{
+			boolean autoCommit = conn.getAutoCommit();
+			conn.setAutoCommit(false);
+
+			try (PreparedStatement ps = conn.prepareStatement(sql))
+			{
+				int pending = 0;
+
+				for (Optional<List<String>> row = reader.read(); row.isPresent(); row = reader.read())
+				{
+					BulkLoadMigrationPlugin.checkFieldCount(reader, row.get(), columnCount);
+
+					for (int i = 0; i < columnCount; i ++)
+					{
+						ps.setString(i + 1, row.get().get(i));
+					}
+					ps.addBatch();
+					pending ++;
+
+					if (pending == batchSize)
+					{
+						ps.executeBatch();
+						pending = 0;
+					}
+				}
+
+				if (pending > 0)
+				{
+					ps.executeBatch();
+				}
+
+				conn.commit();
+			}
+			catch (IOException | SQLException | RuntimeException e)
+			{
+				conn.rollback();
+				throw e;
+			}
+			finally
+			{
+				conn.setAutoCommit(autoCommit);
+			}
+		}
+
+		return reader.getRecordNumber();
+	}
+
+	private static void checkFieldCount(
+		CsvReader reader,
+		List<String> row,
+		int columnCount) throws IOException
+	{
+		if (row.size() != columnCount)
+		{
+			throw new IOException(String.format(
+				"Row %d has %d fields, but the first line of the file names %d columns",
+				reader.getRecordNumber(),
+				row.size(),
+				columnCount));
+		}
+	}
+
+	/**
+	 * The rows of a CSV file, re-encoded for LOAD DATA as they are read.  LOAD DATA cannot tell an empty field that is
+	 * not quoted from a quoted one, so a null field is written as the unquoted word NULL, which LOAD DATA loads as
+	 * NULL, and every other field is quoted, so that the word NULL in the file is still loaded as a string.
+	 */
+	static class LoadDataRows extends InputStream
+	{
+		private final CsvReader _reader;
+		private final int _columnCount;
+		private byte[] _buffer = new byte[0];
+		private int _position = 0;
+
+		LoadDataRows(
+			CsvReader reader,
+			int columnCount)
+		{
+			if (reader == null) { throw new IllegalArgumentException("reader cannot be null"); }
+
+			_reader = reader;
+			_columnCount = columnCount;
+		}
+
+		@Override public int read() throws IOException
+		{
+			if (!this.fill())
+			{
+				return -1;
+			}
+
+			return _buffer[_position ++] & 0xff;
+		}
+
+		@Override public int read(
+			byte[] b,
+			int off,
+			int len) throws IOException
+		{
+			if (len == 0)
+			{
+				return 0;
+			}
+
+			if (!this.fill())
+			{
+				return -1;
+			}
+
+			int result = Math.min(len, _buffer.length - _position);
+			System.arraycopy(_buffer, _position, b, off, result);
+			_position += result;
+
+			return result;
+		}
+
+		/**
+		 * Encodes the next row into the buffer if the buffer has been used up, and returns false if there are no more
+		 * rows.
+		 */
+		private boolean fill() throws IOException
+		{
+			if (_position < _buffer.length)
+			{
+				return true;
+			}
+
+			Optional<List<String>> row = _reader.read();
+			if (!row.isPresent())
+			{
+				return false;
+			}
+
+			BulkLoadMigrationPlugin.checkFieldCount(_reader, row.get(), _columnCount);
+
+			StringBuilder line = new StringBuilder();
+			for (int i = 0; i < row.get().size(); i ++)
+			{
+				String field = row.get().get(i);
+
+				line.append(i == 0 ? "" : ",").append(field == null
+					? "NULL"
+					: "\"" + field.replace("\"", "\"\"") + "\"");
+			}
+			line.append('\n');
+
+			_buffer = line.toString().getBytes(StandardCharsets.UTF_8);
+			_position = 0;
+
+			return true;
+		}
+	}
+}
@@ -0,0 +1,57 @@
+// Wildebeest Migration Framework
+// Copyright © 2013 - 2018, Matheson Ventures Pte Ltd
+//
+// This file is part of Wildebeest
+//
+// Wildebeest is free software: you can redistribute it and/or modify it under
+// the terms of the GNU General Public License v2 as published by the Free
+// Software Foundation.
+//
+// Wildebeest is distributed in the hope that it will be useful, but WITHOUT ANY
+// WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+// A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along with
+// Wildebeest.  If not, see http://www.gnu.org/licenses/gpl-2.0.html
+
+package co.mv.wb.plugin.generaldatabase;
+
+import co.mv.wb.Assertion;
+import co.mv.wb.AssertionCost;
+import co.mv.wb.AssertionResponse;
+import co.mv.wb.Instance;
+
+import java.util.Optional;
+
+/**
+ * An {@link Assertion} whose outcome depends only on whether an object exists in the database catalog.  Such
+ * assertions can be performed together by {@link CatalogAssertions}, with one query for all of them.
+ *
+ * @since                                       4.0
+ */
+public interface CatalogAssertion extends Assertion
+{
+	/**
+	 * Gets the catalog object that this assertion checks for in the supplied instance.
+	 *
+	 * @param       instance                    the instance that the assertion is to be performed against.
+	 * @return                                  the catalog object to check for, or empty if this assertion cannot be
+	 *                                          performed against the instance as part of a batch.
+	 * @since                                   4.0
+	 */
+	Optional<CatalogProbe> getCatalogProbe(Instance instance);
+
+	/**
+	 * Gets the response for this assertion, given whether its catalog object exists.
+	 *
+	 * @param       exists                      true if the catalog object exists.
+	 * @return                                  the response for this assertion.
+	 * @since                                   4.0
+	 */
+	AssertionResponse respond(boolean exists);
+
+	@Override default AssertionCost getCost()
+	{
+		return AssertionCost.CatalogLookup;
+	}
+}
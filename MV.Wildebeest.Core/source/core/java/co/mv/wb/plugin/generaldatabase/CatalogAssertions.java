@@ -0,0 +1,218 @@
+// Wildebeest Migration Framework
+// Copyright © 2013 - 2018, Matheson Ventures Pte Ltd
+//
+// This file is part of Wildebeest
+//
+// Wildebeest is free software: you can redistribute it and/or modify it under
+// the terms of the GNU General Public License v2 as published by the Free
+// Software Foundation.
+//
+// Wildebeest is distributed in the hope that it will be useful, but WITHOUT ANY
+// WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+// A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along with
+// Wildebeest.  If not, see http://www.gnu.org/licenses/gpl-2.0.html
+
+package co.mv.wb.plugin.generaldatabase;
+
+import co.mv.wb.Assertion;
+import co.mv.wb.AssertionResponse;
+import co.mv.wb.FaultException;
+import co.mv.wb.Instance;
+import co.mv.wb.ModelExtensions;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Performs the {@link CatalogAssertion}s of a state together.  Rather than each assertion querying the catalog on its
+ * own, the objects that they check for are listed in a single query that joins them to the catalog, and the rows that
+ * come back tell which of them exist.
+ *
+ * @since                                       4.0
+ */
+public final class CatalogAssertions
+{
+	// SQL Server accepts at most 2100 parameters in a statement, and each probe takes four
+	private static final int MAX_PROBES_PER_QUERY = 500;
+
+	private CatalogAssertions()
+	{
+	}
+
+	/**
+	 * Performs all of the supplied assertions that are {@link CatalogAssertion}s against the supplied instance, and
+	 * returns their responses.  The other assertions are left to be performed individually, as are all of them when
+	 * there is nothing to be gained from batching them, such as when the instance is not a database or there is only
+	 * one of them.
+	 *
+	 * @param       instance                    the instance to perform the assertions against.
+	 * @param       assertions                  the assertions to perform.
+	 * @return                                  the responses of the assertions that were performed, by assertion ID.
+	 * @since                                   4.0
+	 */
+	public static Map<UUID, AssertionResponse> perform(
+		Instance instance,
+		List<Assertion> assertions)
+	{
+		if (instance == null) { throw new IllegalArgumentException("instance cannot be null"); }
+		if (assertions == null) { throw new IllegalArgumentException("assertions cannot be null"); }
+
+		Map<UUID, AssertionResponse> result = new HashMap<>();
+
+		DatabaseInstance db = ModelExtensions.As(instance, DatabaseInstance.class);
+		if (db == null)
+		{
+			return result;
+		}
+
+		List<CatalogAssertion> batch = new ArrayList<>();
+		List<CatalogProbe> probes = new ArrayList<>();
+		for (Assertion assertion : assertions)
+		{
+			CatalogAssertion catalogAssertion = ModelExtensions.As(assertion, CatalogAssertion.class);
+			Optional<CatalogProbe> probe = catalogAssertion == null
+				? Optional.empty()
+				: catalogAssertion.getCatalogProbe(instance);
+
+			if (probe.isPresent())
+			{
+				batch.add(catalogAssertion);
+				probes.add(probe.get());
+			}
+		}
+
+		// A missing database is reported by each assertion when it is performed on its own
+		if (batch.size() < 2 || !db.databaseExists())
+		{
+			return result;
+		}
+
+		boolean[] exists;
+		try
+		{
+			exists = CatalogAssertions.exists(db, probes);
+		}
+		catch (SQLException e)
+		{
+			throw new FaultException(e);
+		}
+
+		for (int i = 0; i < batch.size(); i ++)
+		{
+			result.put(batch.get(i).getAssertionId(), batch.get(i).respond(exists[i]));
+		}
+
+		return result;
+	}
+
+	private static boolean[] exists(
+		DatabaseInstance db,
+		List<CatalogProbe> probes) throws SQLException
+	{
+		boolean[] result = new boolean[probes.size()];
+
+		if (db.getCatalogSnapshot().isPresent())
+		{
+			CatalogSnapshot snapshot = db.getCatalogSnapshot().get();
+			for (int i = 0; i < probes.size(); i ++)
+			{
+				CatalogProbe probe = probes.get(i);
+				result[i] = probe.getKind() == CatalogProbe.Kind.Table
+					? snapshot.tableExists(probe.getSchemaName(), probe.getTableName().get())
+					: snapshot.schemaExists(probe.getSchemaName());
+			}
+
+			return result;
+		}
+
+		try (Connection conn = db.getAppDataSource().getConnection())
+		{
+			for (int offset = 0; offset < probes.size(); offset += MAX_PROBES_PER_QUERY)
+			{
+				List<CatalogProbe> chunk = probes.subList(
+					offset,
+					Math.min(offset + MAX_PROBES_PER_QUERY, probes.size()));
+
+				try (PreparedStatement ps = conn.prepareStatement(
+					CatalogAssertions.query(db.getSqlDialect(), chunk.size())))
+				{
+					for (int i = 0; i < chunk.size(); i ++)
+					{
+						CatalogProbe probe = chunk.get(i);
+						ps.setInt(i * 4 + 1, i);
+						ps.setString(i * 4 + 2, probe.getKind() == CatalogProbe.Kind.Table ? "T" : "S");
+						ps.setString(i * 4 + 3, probe.getSchemaName());
+						ps.setString(i * 4 + 4, probe.getTableName().orElse(""));
+					}
+
+					try (ResultSet rs = ps.executeQuery())
+					{
+						while (rs.next())
+						{
+							result[offset + rs.getInt(1)] = true;
+						}
+					}
+				}
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Builds a query that lists the given number of probes, each bound as an index, a kind (T or S), a schema name
+	 * and a table name, and returns the index of each probe whose object exists.
+	 */
+	static String query(
+		SqlDialect dialect,
+		int probeCount)
+	{
+		if (dialect == null) { throw new IllegalArgumentException("dialect cannot be null"); }
+		if (probeCount < 1) { throw new IllegalArgumentException("probeCount must be at least 1"); }
+
+		StringBuilder probes = new StringBuilder();
+		String columns;
+
+		if (dialect == SqlDialect.MySql)
+		{
+			// MySQL only has a VALUES table constructor from 8.0.19
+			for (int i = 0; i < probeCount; i ++)
+			{
+				probes.append(i == 0 ? "SELECT ? AS n, ? AS k, ? AS s, ? AS t" : " UNION ALL SELECT ?, ?, ?, ?");
+			}
+			columns = "";
+		}
+		else
+		{
+			probes.append("VALUES ");
+			for (int i = 0; i < probeCount; i ++)
+			{
+				probes.append(i == 0 ? "(?, ?, ?, ?)" : ", (?, ?, ?, ?)");
+			}
+			columns = "(n, k, s, t)";
+		}
+
+		String exists = dialect == SqlDialect.SqlServer
+			? "(p.k = 'T' AND OBJECT_ID(QUOTENAME(p.s) + '.' + QUOTENAME(p.t), 'U') IS NOT NULL) OR " +
+				"(p.k = 'S' AND EXISTS (SELECT 1 FROM sys.schemas x WHERE x.name = p.s))"
+			: "(p.k = 'T' AND EXISTS (SELECT 1 FROM information_schema.tables x " +
+				"WHERE x.table_schema = p.s AND x.table_name = p.t)) OR " +
+				"(p.k = 'S' AND EXISTS (SELECT 1 FROM information_schema.schemata x WHERE x.schema_name = p.s))";
+
+		return String.format(
+			"SELECT p.n FROM (%s) AS p%s WHERE %s",
+			probes,
+			columns,
+			exists);
+	}
+}
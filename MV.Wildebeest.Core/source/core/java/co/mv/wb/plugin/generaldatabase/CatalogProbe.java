@@ -0,0 +1,120 @@
+// Wildebeest Migration Framework
+// Copyright © 2013 - 2018, Matheson Ventures Pte Ltd
+//
+// This file is part of Wildebeest
+//
+// Wildebeest is free software: you can redistribute it and/or modify it under
+// the terms of the GNU General Public License v2 as published by the Free
+// Software Foundation.
+//
+// Wildebeest is distributed in the hope that it will be useful, but WITHOUT ANY
+// WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+// A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along with
+// Wildebeest.  If not, see http://www.gnu.org/licenses/gpl-2.0.html
+
+package co.mv.wb.plugin.generaldatabase;
+
+import java.util.Optional;
+
+/**
+ * Describes an object in a database catalog whose existence an assertion depends on, so that the existence of many
+ * such objects can be checked with a single query.
+ *
+ * @since                                       4.0
+ */
+public final class CatalogProbe
+{
+	/**
+	 * The kinds of catalog object that can be probed for.
+	 *
+	 * @since                                   4.0
+	 */
+	public enum Kind
+	{
+		Schema,
+		Table
+	}
+
+	private final Kind _kind;
+	private final String _schemaName;
+	private final Optional<String> _tableName;
+
+	private CatalogProbe(
+		Kind kind,
+		String schemaName,
+		Optional<String> tableName)
+	{
+		_kind = kind;
+		_schemaName = schemaName;
+		_tableName = tableName;
+	}
+
+	/**
+	 * Creates a probe for a schema.
+	 *
+	 * @param       schemaName                  the name of the schema, as it is stored in the catalog.
+	 * @return                                  a probe for the schema.
+	 * @since                                   4.0
+	 */
+	public static CatalogProbe schema(
+		String schemaName)
+	{
+		if (schemaName == null) { throw new IllegalArgumentException("schemaName cannot be null"); }
+
+		return new CatalogProbe(Kind.Schema, schemaName, Optional.empty());
+	}
+
+	/**
+	 * Creates a probe for a table.
+	 *
+	 * @param       schemaName                  the name of the schema that contains the table, as it is stored in the
+	 *                                          catalog.  For MySQL this is the name of the database.
+	 * @param       tableName                   the name of the table, as it is stored in the catalog.
+	 * @return                                  a probe for the table.
+	 * @since                                   4.0
+	 */
+	public static CatalogProbe table(
+		String schemaName,
+		String tableName)
+	{
+		if (schemaName == null) { throw new IllegalArgumentException("schemaName cannot be null"); }
+		if (tableName == null) { throw new IllegalArgumentException("tableName cannot be null"); }
+
+		return new CatalogProbe(Kind.Table, schemaName, Optional.of(tableName));
+	}
+
+	/**
+	 * Gets the kind of object probed for.
+	 *
+	 * @return                                  the kind of object probed for.
+	 * @since                                   4.0
+	 */
+	public Kind getKind()
+	{
+		return _kind;
+	}
+
+	/**
+	 * Gets the name of the schema probed for, or that contains the table probed for.
+	 *
+	 * @return                                  the name of the schema.
+	 * @since                                   4.0
+	 */
+	public String getSchemaName()
+	{
+		return _schemaName;
+	}
+
+	/**
+	 * Gets the name of the table probed for, if this is a probe for a table.
+	 *
+	 * @return                                  the name of the table, or empty if this is a probe for a schema.
+	 * @since                                   4.0
+	 */
+	public Optional<String> getTableName()
+	{
+		return _tableName;
+	}
+}
@@ -0,0 +1,283 @@
+// Wildebeest Migration Framework
+// Copyright © 2013 - 2018, Matheson Ventures Pte Ltd
+//
+// This file is part of Wildebeest
+//
+// Wildebeest is free software: you can redistribute it and/or modify it under
+// the terms of the GNU General Public License v2 as published by the Free
+// Software Foundation.
+//
+// Wildebeest is distributed in the hope that it will be useful, but WITHOUT ANY
+// WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+// A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along with
+// Wildebeest.  If not, see http://www.gnu.org/licenses/gpl-2.0.html
+
+package co.mv.wb.plugin.generaldatabase;
+
+import co.mv.wb.FaultException;
+import co.mv.wb.Instance;
+import co.mv.wb.ModelExtensions;
+import co.mv.wb.OutputFormatter;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An in-memory copy of the schemas and tables in a database, taken at the start of an assertion phase so that the
+ * catalog assertions of a state are answered without each of them querying the catalog.  A snapshot is attached to
+ * its {@link DatabaseInstance} until a migration is performed against the instance, or the instance's connections are
+ * released, at which point it no longer describes the database and is discarded.
+ *
+ * @since                                       4.0
+ */
+public final class CatalogSnapshot
+{
+	private final SqlDialect _dialect;
+	private final boolean _databaseExists;
+	private final Set<String> _schemas;
+	private final Set<String> _tables;
+	private final int _queriesRun;
+	private final AtomicLong _queriesSaved = new AtomicLong();
+	private final AtomicLong _queriesSavedReported = new AtomicLong();
+	private final AtomicBoolean _queriesRunReported = new AtomicBoolean();
+
+	private CatalogSnapshot(
+		SqlDialect dialect,
+		boolean databaseExists,
+		Set<String> schemas,
+		Set<String> tables,
+		int queriesRun)
+	{
+		_dialect = dialect;
+		_databaseExists = databaseExists;
+		_schemas = Collections.unmodifiableSet(schemas);
+		_tables = Collections.unmodifiableSet(tables);
+		_queriesRun = queriesRun;
+	}
+
+	/**
+	 * Gets the snapshot attached to the supplied instance, taking one first if the instance has none.
+	 *
+	 * @param       instance                    the instance to get the snapshot for.
+	 * @return                                  the snapshot for the instance, or empty if the instance is not a
+	 *                                          database.
+	 * @since                                   4.0
+	 */
+	public static Optional<CatalogSnapshot> take(
+		Instance instance)
+	{
+		if (instance == null) { throw new IllegalArgumentException("instance cannot be null"); }
+
+		DatabaseInstance db = ModelExtensions.As(instance, DatabaseInstance.class);
+		if (db == null)
+		{
+			return Optional.empty();
+		}
+
+		if (!db.getCatalogSnapshot().isPresent())
+		{
+			db.setCatalogSnapshot(Optional.of(CatalogSnapshot.load(db)));
+		}
+
+		return db.getCatalogSnapshot();
+	}
+
+	/**
+	 * Discards any snapshot attached to the supplied instance.
+	 *
+	 * @param       instance                    the instance to discard the snapshot of.
+	 * @since                                   4.0
+	 */
+	public static void invalidate(
+		Instance instance)
+	{
+		if (instance == null) { throw new IllegalArgumentException("instance cannot be null"); }
+
+		DatabaseInstance db = ModelExtensions.As(instance, DatabaseInstance.class);
+		if (db != null)
+		{
+			db.setCatalogSnapshot(Optional.empty());
+		}
+	}
+
+	private static CatalogSnapshot load(
+		DatabaseInstance db)
+	{
+		SqlDialect dialect = db.getSqlDialect();
+		Set<String> schemas = new HashSet<>();
+		Set<String> tables = new HashSet<>();
+
+		if (!db.databaseExists())
+		{
+			return new CatalogSnapshot(dialect, false, schemas, tables, 1);
+		}
+
+		String schemaQuery;
+		String tableQuery;
+		switch (dialect)
+		{
+			case MySql:
+				schemaQuery = "SELECT SCHEMA_NAME FROM information_schema.SCHEMATA";
+				tableQuery = "SELECT TABLE_SCHEMA, TABLE_NAME FROM information_schema.TABLES WHERE TABLE_SCHEMA = ?";
+				break;
+
+			case SqlServer:
+				schemaQuery = "SELECT name FROM sys.schemas";
+				tableQuery = "SELECT s.name, o.name FROM sys.objects o " +
+					"JOIN sys.schemas s ON s.schema_id = o.schema_id WHERE o.type = 'U'";
+				break;
+
+			default:
+				schemaQuery = "SELECT schema_name FROM information_schema.schemata";
+				tableQuery = "SELECT table_schema, table_name FROM information_schema.tables";
+				break;
+		}
+
+		try (Connection conn = db.getAppDataSource().getConnection())
+		{
+			try (PreparedStatement ps = conn.prepareStatement(schemaQuery);
+				ResultSet rs = ps.executeQuery())
+			{
+				while (rs.next())
+				{
+					schemas.add(CatalogSnapshot.key(dialect, rs.getString(1)));
+				}
+			}
+
+			try (PreparedStatement ps = conn.prepareStatement(tableQuery))
+			{
+				if (dialect == SqlDialect.MySql)
+				{
+					ps.setString(1, db.getDatabaseName());
+				}
+
+				try (ResultSet rs = ps.executeQuery())
+				{
+					while (rs.next())
+					{
+						tables.add(CatalogSnapshot.key(dialect, rs.getString(1), rs.getString(2)));
+					}
+				}
+			}
+		}
+		catch (SQLException e)
+		{
+			throw new FaultException(e);
+		}
+
+		return new CatalogSnapshot(dialect, true, schemas, tables, 3);
+	}
+
+	/**
+	 * Gets whether the database existed when the snapshot was taken.
+	 *
+	 * @return                                  true if the database existed.
+	 * @since                                   4.0
+	 */
+	public boolean databaseExists()
+	{
+		_queriesSaved.incrementAndGet();
+
+		return _databaseExists;
+	}
+
+	/**
+	 * Gets whether the named schema existed when the snapshot was taken.
+	 *
+	 * @param       schemaName                  the name of the schema.
+	 * @return                                  true if the schema existed.
+	 * @since                                   4.0
+	 */
+	public boolean schemaExists(
+		String schemaName)
+	{
+		if (schemaName == null) { throw new IllegalArgumentException("schemaName cannot be null"); }
+
+		_queriesSaved.incrementAndGet();
+
+		return _schemas.contains(CatalogSnapshot.key(_dialect, schemaName));
+	}
+
+	/**
+	 * Gets whether the named table existed when the snapshot was taken.
+	 *
+	 * @param       schemaName                  the name of the schema that contains the table.  For MySQL this is the
+	 *                                          name of the database.
+	 * @param       tableName                   the name of the table.
+	 * @return                                  true if the table existed.
+	 * @since                                   4.0
+	 */
+	public boolean tableExists(
+		String schemaName,
+		String tableName)
+	{
+		if (schemaName == null) { throw new IllegalArgumentException("schemaName cannot be null"); }
+		if (tableName == null) { throw new IllegalArgumentException("tableName cannot be null"); }
+
+		_queriesSaved.incrementAndGet();
+
+		return _tables.contains(CatalogSnapshot.key(_dialect, schemaName, tableName));
+	}
+
+	/**
+	 * Gets the number of catalog queries that were run to take the snapshot.
+	 *
+	 * @return                                  the number of catalog queries that were run to take the snapshot.
+	 * @since                                   4.0
+	 */
+	public int getQueriesRun()
+	{
+		return _queriesRun;
+	}
+
+	/**
+	 * Gets the number of catalog queries that the snapshot has answered from memory.
+	 *
+	 * @return                                  the number of catalog queries answered from memory.
+	 * @since                                   4.0
+	 */
+	public long getQueriesSaved()
+	{
+		return _queriesSaved.get();
+	}
+
+	/**
+	 * Describes the catalog queries that the snapshot has answered from memory since it was last reported on.  The
+	 * queries that were run to take the snapshot are only counted the first time that it is reported on.
+	 *
+	 * @return                                  the report, for output to the user.
+	 * @since                                   4.0
+	 */
+	public String report()
+	{
+		long queriesSaved = _queriesSaved.get();
+
+		return OutputFormatter.catalogSnapshotComplete(
+			queriesSaved - _queriesSavedReported.getAndSet(queriesSaved),
+			_queriesRunReported.getAndSet(true) ? 0 : _queriesRun);
+	}
+
+	// Names are matched without regard to case on MySQL and SQL Server, as their catalog queries are under their
+	// default collations
+	private static String key(
+		SqlDialect dialect,
+		String... names)
+	{
+		String result = String.join("\n", names);
+
+		return dialect == SqlDialect.MySql || dialect == SqlDialect.SqlServer
+			? result.toLowerCase(Locale.ROOT)
+			: result;
+	}
+}
@@ -0,0 +1,198 @@
+// Wildebeest Migration Framework
+// Copyright © 2013 - 2018, Matheson Ventures Pte Ltd
+//
+// This file is part of Wildebeest
+//
+// Wildebeest is free software: you can redistribute it and/or modify it under
+// the terms of the GNU General Public License v2 as published by the Free
+// Software Foundation.
+//
+// Wildebeest is distributed in the hope that it will be useful, but WITHOUT ANY
+// WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+// A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along with
+// Wildebeest.  If not, see http://www.gnu.org/licenses/gpl-2.0.html
+
+package co.mv.wb.plugin.generaldatabase;
+
+import co.mv.wb.Migration;
+import co.mv.wb.MigrationType;
+import co.mv.wb.ResourceType;
+import co.mv.wb.Wildebeest;
+import co.mv.wb.framework.Digests;
+import co.mv.wb.plugin.base.BaseMigration;
+
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * A {@link Migration} that updates the rows of a table in chunks of its integer key, committing each chunk on its own
+ * so that no transaction holds locks on more than one chunk of rows.  Chunks can be processed by several workers in
+ * parallel, and the workers can be throttled with a pause after each chunk, or by waiting while replication lag is
+ * above a limit.
+ *
+ * Each completed chunk is recorded in a checkpoint table alongside the state table, in the same transaction as the
+ * update.  If the migration is interrupted then performing it again carries on from where it stopped.
+ *
+ * @since                                       4.0
+ */
+@MigrationType(
+	pluginGroupUri = "co.mv.wb:GeneralDatabase",
+	uri = "co.mv.wb.generaldatabase:ChunkedBackfill",
+	description = "Updates the rows of a table in chunks of its integer key, committing each chunk on its own.  The " +
+			"SQL must have two ? parameters, which are bound to the first key of the chunk and the first key after " +
+			"it.  Chunks can be processed by several workers, throttled, and resumed if the migration is interrupted.",
+	example =
+		"<migration\n" +
+		"    type=\"ChunkedBackfill\"\n" +
+		"    id=\"0d6ac6e5-4bfb-4c0f-a3b4-0d4bd1d5a1f7\"\n" +
+		"    fromStateId=\"199b7cc1-3cc6-48ca-b012-a70d05d5b5e7\"\n" +
+		"    toStateId=\"363568f1-aaed-4a50-bea0-9ddee713cc11\">\n" +
+		"    <tableName>OrderLine</tableName>\n" +
+		"    <keyColumn>OrderLineId</keyColumn>\n" +
+		"    <chunkSize>10000</chunkSize>\n" +
+		"    <sql>UPDATE OrderLine SET Total = Quantity * UnitPrice WHERE OrderLineId &gt;= ? AND OrderLineId &lt; ?</sql>\n" +
+		"    <workers>2</workers>\n" +
+		"    <sleepMillis>50</sleepMillis>\n" +
+		"    <maxLagSeconds>5</maxLagSeconds>\n" +
+		"</migration>"
+)
+public class ChunkedBackfillMigration extends BaseMigration implements Migration
+{
+	private final String _tableName;
+	private final String _keyColumn;
+	private final long _chunkSize;
+	private final String _sql;
+	private final int _workers;
+	private final long _sleepMillis;
+	private final Optional<Integer> _maxLagSeconds;
+	private final Optional<String> _lagQuery;
+
+	/**
+	 * Creates a new ChunkedBackfillMigration.
+	 *
+	 * @param       migrationId                 the ID of the migration
+	 * @param       fromStateId                 the ID of the source state that this migration applies to, or empty
+	 *                                          if this migration transitions from the non-existent state.
+	 * @param       toStateId                   the ID of the target state that the migration applies to, or empty if
+	 *                                          this migration transitions to the non-existent state.
+	 * @param       tableName                   the name of the table to update.
+	 * @param       keyColumn                   the integer key column that the table is divided into chunks by.
+	 * @param       chunkSize                   the number of key values in each chunk.
+	 * @param       sql                         the SQL that updates one chunk.  Its two ? parameters are bound to the
+	 *                                          first key of the chunk and the first key after the chunk.
+	 * @param       workers                     the number of chunks to update in parallel, each on its own
+	 *                                          connection.
+	 * @param       sleepMillis                 the time that each worker pauses for after each chunk.
+	 * @param       maxLagSeconds               the replication lag above which workers wait before starting another
+	 *                                          chunk, if any.
+	 * @param       lagQuery                    the query that returns the current replication lag in seconds, if the
+	 *                                          default for the database is not to be used.
+	 * @since                                   4.0
+	 */
+	public ChunkedBackfillMigration(
+		UUID migrationId,
+		Optional<UUID> fromStateId,
+		Optional<UUID> toStateId,
+		String tableName,
+		String keyColumn,
+		long chunkSize,
+		String sql,
+		int workers,
+		long sleepMillis,
+		Optional<Integer> maxLagSeconds,
+		Optional<String> lagQuery)
+	{
+		super(migrationId, fromStateId, toStateId);
+
+		if (tableName == null) { throw new IllegalArgumentException("tableName cannot be null"); }
+		if ("".equals(tableName.trim())) { throw new IllegalArgumentException("tableName cannot be empty"); }
+		if (keyColumn == null) { throw new IllegalArgumentException("keyColumn cannot be null"); }
+		if ("".equals(keyColumn.trim())) { throw new IllegalArgumentException("keyColumn cannot be empty"); }
+		if (chunkSize < 1) { throw new IllegalArgumentException("chunkSize must be at least 1"); }
+		if (sql == null) { throw new IllegalArgumentException("sql cannot be null"); }
+		if (workers < 1) { throw new IllegalArgumentException("workers must be at least 1"); }
+		if (sleepMillis < 0) { throw new IllegalArgumentException("sleepMillis cannot be negative"); }
+		if (maxLagSeconds == null) { throw new IllegalArgumentException("maxLagSeconds cannot be null"); }
+		if (lagQuery == null) { throw new IllegalArgumentException("lagQuery cannot be null"); }
+
+		_tableName = tableName;
+		_keyColumn = keyColumn;
+		_chunkSize = chunkSize;
+		_sql = sql;
+		_workers = workers;
+		_sleepMillis = sleepMillis;
+		_maxLagSeconds = maxLagSeconds;
+		_lagQuery = lagQuery;
+	}
+
+	public String getTableName()
+	{
+		return _tableName;
+	}
+
+	public String getKeyColumn()
+	{
+		return _keyColumn;
+	}
+
+	public long getChunkSize()
+	{
+		return _chunkSize;
+	}
+
+	public String getSql()
+	{
+		return _sql;
+	}
+
+	public int getWorkers()
+	{
+		return _workers;
+	}
+
+	public long getSleepMillis()
+	{
+		return _sleepMillis;
+	}
+
+	public Optional<Integer> getMaxLagSeconds()
+	{
+		return _maxLagSeconds;
+	}
+
+	public Optional<String> getLagQuery()
+	{
+		return _lagQuery;
+	}
+
+	@Override public boolean digestContent(
+		MessageDigest digest) throws IOException
+	{
+		if (digest == null) { throw new IllegalArgumentException("digest cannot be null"); }
+
+		Digests.update(digest, _tableName);
+		Digests.update(digest, _keyColumn);
+		Digests.update(digest, Long.toString(_chunkSize));
+		Digests.update(digest, _sql);
+		Digests.update(digest, Integer.toString(_workers));
+		Digests.update(digest, Long.toString(_sleepMillis));
+		Digests.update(digest, _maxLagSeconds.map(Object::toString).orElse(""));
+		Digests.update(digest, _lagQuery.orElse(""));
+
+		return true;
+	}
+
+	@Override public List<ResourceType> getApplicableTypes()
+	{
+		return Arrays.asList(
+			Wildebeest.MySqlDatabase,
+			Wildebeest.PostgreSqlDatabase,
+			Wildebeest.SqlServerDatabase);
+	}
+}
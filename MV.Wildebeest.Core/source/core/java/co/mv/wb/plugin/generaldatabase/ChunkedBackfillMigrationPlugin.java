@@ -0,0 +1,419 @@
+// Wildebeest Migration Framework
+// Copyright © 2013 - 2018, Matheson Ventures Pte Ltd
+//
+// This file is part of Wildebeest
+//
+// Wildebeest is free software: you can redistribute it and/or modify it under
+// the terms of the GNU General Public License v2 as published by the Free
+// Software Foundation.
+//
+// Wildebeest is distributed in the hope that it will be useful, but WITHOUT ANY
+// WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+// A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along with
+// Wildebeest.  If not, see http://www.gnu.org/licenses/gpl-2.0.html
+
+package co.mv.wb.plugin.generaldatabase;
+
+import co.mv.wb.Instance;
+import co.mv.wb.Migration;
+import co.mv.wb.MigrationFailedException;
+import co.mv.wb.MigrationFaultException;
+import co.mv.wb.MigrationPlugin;
+import co.mv.wb.MigrationPluginType;
+import co.mv.wb.ModelExtensions;
+import co.mv.wb.OutputFormatter;
+import co.mv.wb.framework.DatabaseHelper;
+
+import javax.sql.DataSource;
+import java.io.PrintStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link MigrationPlugin} for {@link ChunkedBackfillMigration}.
+ *
+ * Chunks are aligned to multiples of the chunk size, so that the chunks recorded in the checkpoint table still line
+ * up when an interrupted backfill is resumed.  Each worker takes the next chunk, waits while replication lag is too
+ * high, updates the chunk and records it in the checkpoint table in one transaction, and then pauses if it has been
+ * asked to.  The checkpoint is cleared once every chunk has been updated.
+ *
+ * Workers take their connections from the instance's connection pool, so workers beyond the size of the pool wait for
+ * a connection.
+ *
+ * @since                                       4.0
+ */
+@MigrationPluginType(uri = "co.mv.wb.generaldatabase:ChunkedBackfillMigration")
+public class ChunkedBackfillMigrationPlugin implements MigrationPlugin
+{
+	private static final long LAG_POLL_MILLIS = 1000;
+
+	// Replication lag on PostgreSQL 10 and later, as seen from the primary
+	private static final String POSTGRESQL_LAG_QUERY =
+		"SELECT COALESCE(EXTRACT(EPOCH FROM MAX(replay_lag)), 0) FROM pg_stat_replication";
+
+	@Override public void perform(
+		PrintStream output,
+		Migration migration,
+		Instance instance) throws
+			MigrationFailedException
+	{
+		if (output == null) { throw new IllegalArgumentException("output cannot be null"); }
+		if (migration == null) { throw new IllegalArgumentException("migration cannot be null"); }
+		if (instance == null) { throw new IllegalArgumentException("instance cannot be null"); }
+
+		ChunkedBackfillMigration migrationT = ModelExtensions.As(migration, ChunkedBackfillMigration.class);
+		if (migrationT == null)
+		{
+			throw new IllegalArgumentException("migration must be a ChunkedBackfillMigration");
+		}
+
+		DatabaseInstance instanceT = ModelExtensions.As(instance, DatabaseInstance.class);
+		if (instanceT == null)
+		{
+			throw new IllegalArgumentException("instance must be a DatabaseInstance");
+		}
+
+		Optional<String> lagQuery = migrationT.getLagQuery().isPresent() ||
+			instanceT.getSqlDialect() != SqlDialect.PostgreSql
+				? migrationT.getLagQuery()
+				: Optional.of(POSTGRESQL_LAG_QUERY);
+
+		if (migrationT.getMaxLagSeconds().isPresent() && !lagQuery.isPresent())
+		{
+			throw new MigrationFailedException(
+				migrationT.getMigrationId(),
+				"A lagQuery must be specified to throttle on replication lag for this database");
+		}
+
+		DataSource dataSource = instanceT.getAppDataSource();
+		String checkpointTableName = ChunkedBackfillMigrationPlugin.checkpointTableName(instanceT);
+		long start = System.nanoTime();
+		Progress progress;
+
+		try
+		{
+			ChunkedBackfillMigrationPlugin.ensureCheckpointTable(
+				dataSource,
+				instanceT,
+				checkpointTableName);
+
+			progress = ChunkedBackfillMigrationPlugin.backfill(
+				dataSource,
+				migrationT,
+				checkpointTableName,
+				lagQuery);
+
+			DatabaseHelper.executeUpdate(
+				dataSource,
+				"DELETE FROM " + checkpointTableName + " WHERE MigrationId = ?",
+				migrationT.getMigrationId().toString());
+		}
+		catch (SQLException e)
+		{
+			throw new MigrationFaultException(e);
+		}
+
+		output.println(OutputFormatter.backfillComplete(
+			migrationT.getTableName(),
+			progress.getRows().get(),
+			progress.getChunks().get(),
+			System.nanoTime() - start));
+	}
+
+	private static Progress backfill(
+		DataSource dataSource,
+		ChunkedBackfillMigration migration,
+		String checkpointTableName,
+		Optional<String> lagQuery) throws SQLException
+	{
+		Progress result = new Progress();
+
+		Optional<long[]> keyRange = ChunkedBackfillMigrationPlugin.keyRange(dataSource, migration);
+		if (!keyRange.isPresent())
+		{
+			return result;
+		}
+
+		long chunkSize = migration.getChunkSize();
+		long maxKey = keyRange.get()[1];
+		AtomicLong nextChunkStart = new AtomicLong(Math.floorDiv(keyRange.get()[0], chunkSize) * chunkSize);
+		Set<Long> completed = ChunkedBackfillMigrationPlugin.completedChunks(
+			dataSource,
+			checkpointTableName,
+			migration.getMigrationId());
+		AtomicBoolean failed = new AtomicBoolean(false);
+
+		ExecutorService executor = Executors.newFixedThreadPool(migration.getWorkers());
+		try
+		{
+			List<Future<Void>> workers = new ArrayList<>();
+			for (int i = 0; i < migration.getWorkers(); i ++)
+			{
+				workers.add(executor.submit(() ->
+				{
+					try
+					{
+						for (long chunkStart = nextChunkStart.getAndAdd(chunkSize);
+							chunkStart <= maxKey && !failed.get();
+							chunkStart = nextChunkStart.getAndAdd(chunkSize))
+						{
+							if (completed.contains(chunkStart))
+							{
+								continue;
+							}
+
+							if (migration.getMaxLagSeconds().isPresent())
+							{
+								ChunkedBackfillMigrationPlugin.awaitLag(
+									dataSource,
+									lagQuery.get(),
+									migration.getMaxLagSeconds().get());
+							}
+
+							result.getRows().addAndGet(ChunkedBackfillMigrationPlugin.updateChunk(
+								dataSource,
+								migration,
+								checkpointTableName,
+								chunkStart));
+							result.getChunks().incrementAndGet();
+
+							if (migration.getSleepMillis() > 0)
+							{
+								Thread.sleep(migration.getSleepMillis());
+							}
+						}
+					}
+					catch (Exception e)
+					{
+						// Stop the other workers from starting further chunks
+						failed.set(true);
+						throw e;
+					}
+
+					return null;
+				}));
+			}
+
+			for (Future<Void> worker : workers)
+			{
+				worker.get();
+			}
+		}
+		catch (ExecutionException e)
+		{
+			if (e.getCause() instanceof SQLException)
+			{
+				throw (SQLException)e.getCause();
+			}
+
+			throw new MigrationFaultException(e);
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new MigrationFaultException(e);
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+
+		return result;
+	}
+
+	/**
+	 * Gets the name of the checkpoint table, which sits next to the state tracking table: it is named after the state
+	 * table, and is in the meta-data schema on databases that keep the state table in one.
+	 */
+	static String checkpointTableName(
+		DatabaseInstance instance)
+	{
+		if (instance == null) { throw new IllegalArgumentException("instance cannot be null"); }
+
+		String tableName = Extensions.getStateTableName(instance) + DatabaseConstants.CheckpointTableSuffix;
+		AnsiSqlDatabaseInstance ansiInstance = ModelExtensions.As(instance, AnsiSqlDatabaseInstance.class);
+
+		return ansiInstance == null
+			? tableName
+			: Extensions.getMetaSchemaName(ansiInstance) + "." + tableName;
+	}
+
+	private static Optional<long[]> keyRange(
+		DataSource dataSource,
+		ChunkedBackfillMigration migration) throws SQLException
+	{
+		String sql = String.format(
+			"SELECT MIN(%1$s), MAX(%1$s) FROM %2$s",
+			migration.getKeyColumn(),
+			migration.getTableName());
+
+		try (Connection conn = dataSource.getConnection();
+			PreparedStatement ps = conn.prepareStatement(sql);
+			ResultSet rs = ps.executeQuery())
+		{
+			rs.next();
+			long min = rs.getLong(1);
+
+			return rs.wasNull()
+				? Optional.empty()
+				: Optional.of(new long[] { min, rs.getLong(2) });
+		}
+	}
+
+	private static Set<Long> completedChunks(
+		DataSource dataSource,
+		String checkpointTableName,
+		UUID migrationId) throws SQLException
+	{
+		Set<Long> result = new HashSet<>();
+
+		try (Connection conn = dataSource.getConnection();
+			PreparedStatement ps = conn.prepareStatement(
+				"SELECT ChunkStart FROM " + checkpointTableName + " WHERE MigrationId = ?"))
+		{
+			ps.setString(1, migrationId.toString());
+
+			try (ResultSet rs = ps.executeQuery())
+			{
+				while (rs.next())
+				{
+					result.add(rs.getLong(1));
+				}
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Updates one chunk and records it in the checkpoint table in a single transaction, and returns the number of rows
+	 * updated.
+	 */
+	private static int updateChunk(
+		DataSource dataSource,
+		ChunkedBackfillMigration migration,
+		String checkpointTableName,
+		long chunkStart) throws SQLException
+	{
+		try (Connection conn = dataSource.getConnection())
+		{
+			conn.setAutoCommit(false);
+
+			try
+			{
+				int result;
+				try (PreparedStatement ps = conn.prepareStatement(migration.getSql()))
+				{
+					ps.setLong(1, chunkStart);
+					ps.setLong(2, chunkStart + migration.getChunkSize());
+					result = ps.executeUpdate();
+				}
+
+				try (PreparedStatement ps = conn.prepareStatement(
+					"INSERT INTO " + checkpointTableName + " (MigrationId, ChunkStart) VALUES (?, ?)"))
+				{
+					ps.setString(1, migration.getMigrationId().toString());
+					ps.setLong(2, chunkStart);
+					ps.executeUpdate();
+				}
+
+				conn.commit();
+
+				return result;
+			}
+			catch (SQLException | RuntimeException e)
+			{
+				conn.rollback();
+				throw e;
+			}
+			finally
+			{
+				conn.setAutoCommit(true);
+			}
+		}
+	}
+
+	private static void awaitLag(
+		DataSource dataSource,
+		String lagQuery,
+		int maxLagSeconds) throws
+			InterruptedException,
+			SQLException
+	{
+		while (true)
+		{
+			Object lag = DatabaseHelper.single(dataSource, lagQuery);
+
+			if (lag == null || Double.parseDouble(lag.toString()) <= maxLagSeconds)
+			{
+				return;
+			}
+
+			Thread.sleep(LAG_POLL_MILLIS);
+		}
+	}
+
+	private static void ensureCheckpointTable(
+		DataSource dataSource,
+		DatabaseInstance instance,
+		String checkpointTableName) throws SQLException
+	{
+		SqlDialect dialect = instance.getSqlDialect();
+		AnsiSqlDatabaseInstance ansiInstance = ModelExtensions.As(instance, AnsiSqlDatabaseInstance.class);
+
+		if (ansiInstance != null)
+		{
+			DatabaseHelper.execute(
+				dataSource,
+				String.format("CREATE SCHEMA IF NOT EXISTS %s", Extensions.getMetaSchemaName(ansiInstance)));
+		}
+
+		String columns = "(MigrationId char(36) NOT NULL, ChunkStart bigint NOT NULL, " +
+			"PRIMARY KEY (MigrationId, ChunkStart))";
+
+		DatabaseHelper.execute(dataSource, dialect == SqlDialect.SqlServer
+			? String.format(
+				"IF OBJECT_ID('%1$s', 'U') IS NULL CREATE TABLE %1$s %2$s",
+				checkpointTableName,
+				columns)
+			: String.format(
+				"CREATE TABLE IF NOT EXISTS %s %s",
+				checkpointTableName,
+				columns));
+	}
+
+	/**
+	 * The number of rows and chunks updated so far, shared by the workers.
+	 */
+	private static class Progress
+	{
+		private final AtomicLong _rows = new AtomicLong();
+		private final AtomicLong _chunks = new AtomicLong();
+
+		AtomicLong getRows()
+		{
+			return _rows;
+		}
+
+		AtomicLong getChunks()
+		{
+			return _chunks;
+		}
+	}
+}
@@ -0,0 +1,100 @@
+// Wildebeest Migration Framework
+// Copyright © 2013 - 2018, Matheson Ventures Pte Ltd
+//
+// This file is part of Wildebeest
+//
+// Wildebeest is free software: you can redistribute it and/or modify it under
+// the terms of the GNU General Public License v2 as published by the Free
+// Software Foundation.
+//
+// Wildebeest is distributed in the hope that it will be useful, but WITHOUT ANY
+// WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+// A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along with
+// Wildebeest.  If not, see http://www.gnu.org/licenses/gpl-2.0.html
+
+package co.mv.wb.plugin.generaldatabase;
+
+/**
+ * The sizing and timeouts of the connection pools that a {@link JdbcDatabaseInstance} keeps open while it is being
+ * worked with.
+ *
+ * @since                                       4.0
+ */
+public final class ConnectionPoolSettings
+{
+	/**
+	 * The default maximum number of connections in each pool.
+	 *
+	 * @since                                   4.0
+	 */
+	public static final int DEFAULT_MAX_SIZE = 4;
+
+	/**
+	 * The default time to wait for a connection when a pool is exhausted, in milliseconds.
+	 *
+	 * @since                                   4.0
+	 */
+	public static final long DEFAULT_CONNECTION_TIMEOUT_MILLIS = 30000;
+
+	/**
+	 * The default time that a connection may sit unused in a pool before it is closed, in milliseconds.
+	 *
+	 * @since                                   4.0
+	 */
+	public static final long DEFAULT_IDLE_TIMEOUT_MILLIS = 600000;
+
+	/**
+	 * The settings used when an instance does not specify any.
+	 *
+	 * @since                                   4.0
+	 */
+	public static final ConnectionPoolSettings DEFAULT = new ConnectionPoolSettings(
+		DEFAULT_MAX_SIZE,
+		DEFAULT_CONNECTION_TIMEOUT_MILLIS,
+		DEFAULT_IDLE_TIMEOUT_MILLIS);
+
+	private final int _maxSize;
+	private final long _connectionTimeoutMillis;
+	private final long _idleTimeoutMillis;
+
+	/**
+	 * Creates a new ConnectionPoolSettings.
+	 *
+	 * @param       maxSize                     the maximum number of connections in each pool.
+	 * @param       connectionTimeoutMillis     the time to wait for a connection when a pool is exhausted, in
+	 *                                          milliseconds.
+	 * @param       idleTimeoutMillis           the time that a connection may sit unused in a pool before it is closed,
+	 *                                          in milliseconds.
+	 * @since                                   4.0
+	 */
+	public ConnectionPoolSettings(
+		int maxSize,
+		long connectionTimeoutMillis,
+		long idleTimeoutMillis)
+	{
+		if (maxSize < 1) { throw new IllegalArgumentException("maxSize must be at least 1"); }
+		if (connectionTimeoutMillis < 0) { throw new IllegalArgumentException("connectionTimeoutMillis cannot be negative"); }
+		if (idleTimeoutMillis < 0) { throw new IllegalArgumentException("idleTimeoutMillis cannot be negative"); }
+
+		_maxSize = maxSize;
+		_connectionTimeoutMillis = connectionTimeoutMillis;
+		_idleTimeoutMillis = idleTimeoutMillis;
+	}
+
+	public int getMaxSize()
+	{
+		return _maxSize;
+	}
+
+	public long getConnectionTimeoutMillis()
+	{
+		return _connectionTimeoutMillis;
+	}
+
+	public long getIdleTimeoutMillis()
+	{
+		return _idleTimeoutMillis;
+	}
+}
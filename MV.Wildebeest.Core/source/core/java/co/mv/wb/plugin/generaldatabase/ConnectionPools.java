@@ -0,0 +1,139 @@
+// Wildebeest Migration Framework
+// Copyright © 2013 - 2018, Matheson Ventures Pte Ltd
+//
+// This file is part of Wildebeest
+//
+// Wildebeest is free software: you can redistribute it and/or modify it under
+// the terms of the GNU General Public License v2 as published by the Free
+// Software Foundation.
+//
+// Wildebeest is distributed in the hope that it will be useful, but WITHOUT ANY
+// WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+// A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along with
+// Wildebeest.  If not, see http://www.gnu.org/licenses/gpl-2.0.html
+
+package co.mv.wb.plugin.generaldatabase;
+
+import co.mv.wb.framework.ArgumentNullException;
+import co.mv.wb.framework.PooledDataSource;
+
+import javax.sql.DataSource;
+import java.util.function.Supplier;
+
+/**
+ * The pair of connection pools, one for the admin DataSource and one for the app DataSource, that a
+ * {@link JdbcDatabaseInstance} owns.  Each pool is created the first time it is needed, and both are released when the
+ * instance is closed.
+ *
+ * @since                                       4.0
+ */
+public final class ConnectionPools implements AutoCloseable
+{
+	private final Supplier<DataSource> _adminDataSourceFactory;
+	private final Supplier<DataSource> _appDataSourceFactory;
+
+	private ConnectionPoolSettings _settings = ConnectionPoolSettings.DEFAULT;
+	private PooledDataSource _adminDataSource = null;
+	private PooledDataSource _appDataSource = null;
+
+	/**
+	 * Creates a new ConnectionPools.
+	 *
+	 * @param       adminDataSourceFactory      creates the unpooled DataSource for administrative operations.
+	 * @param       appDataSourceFactory        creates the unpooled DataSource for the application database.
+	 * @since                                   4.0
+	 */
+	public ConnectionPools(
+		Supplier<DataSource> adminDataSourceFactory,
+		Supplier<DataSource> appDataSourceFactory)
+	{
+		if (adminDataSourceFactory == null) throw new ArgumentNullException("adminDataSourceFactory");
+		if (appDataSourceFactory == null) throw new ArgumentNullException("appDataSourceFactory");
+
+		_adminDataSourceFactory = adminDataSourceFactory;
+		_appDataSourceFactory = appDataSourceFactory;
+	}
+
+	public synchronized ConnectionPoolSettings getSettings()
+	{
+		return _settings;
+	}
+
+	/**
+	 * Sets the settings for the pools.  Pools that are already open are closed, and are reopened with the new settings
+	 * when they are next needed.
+	 *
+	 * @param       value                       the new settings.
+	 * @since                                   4.0
+	 */
+	public synchronized void setSettings(
+		ConnectionPoolSettings value)
+	{
+		if (value == null) throw new ArgumentNullException("value");
+
+		_settings = value;
+		this.close();
+	}
+
+	public synchronized DataSource getAdminDataSource()
+	{
+		if (_adminDataSource == null)
+		{
+			_adminDataSource = this.pool(_adminDataSourceFactory.get());
+		}
+
+		return _adminDataSource;
+	}
+
+	public synchronized DataSource getAppDataSource()
+	{
+		if (_appDataSource == null)
+		{
+			_appDataSource = this.pool(_appDataSourceFactory.get());
+		}
+
+		return _appDataSource;
+	}
+
+	/**
+	 * Closes the idle connections to the application database, so that the database can be dropped.
+	 *
+	 * @since                                   4.0
+	 */
+	public synchronized void releaseAppConnections()
+	{
+		if (_appDataSource != null)
+		{
+			_appDataSource.evictIdleConnections();
+		}
+	}
+
+	@Override public synchronized void close()
+	{
+		if (_adminDataSource != null)
+		{
+			_adminDataSource.close();
+			_adminDataSource = null;
+		}
+
+		if (_appDataSource != null)
+		{
+			_appDataSource.close();
+			_appDataSource = null;
+		}
+	}
+
+	private PooledDataSource pool(
+		DataSource dataSource)
+	{
+		if (dataSource == null) throw new ArgumentNullException("dataSource");
+
+		return new PooledDataSource(
+			dataSource,
+			_settings.getMaxSize(),
+			_settings.getConnectionTimeoutMillis(),
+			_settings.getIdleTimeoutMillis());
+	}
+}
@@ -0,0 +1,167 @@
+// Wildebeest Migration Framework
+// Copyright © 2013 - 2018, Matheson Ventures Pte Ltd
+//
+// This file is part of Wildebeest
+//
+// Wildebeest is free software: you can redistribute it and/or modify it under
+// the terms of the GNU General Public License v2 as published by the Free
+// Software Foundation.
+//
+// Wildebeest is distributed in the hope that it will be useful, but WITHOUT ANY
+// WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+// A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along with
+// Wildebeest.  If not, see http://www.gnu.org/licenses/gpl-2.0.html
+
+package co.mv.wb.plugin.generaldatabase;
+
+import co.mv.wb.Migration;
+import co.mv.wb.MigrationType;
+import co.mv.wb.ResourceType;
+import co.mv.wb.Wildebeest;
+import co.mv.wb.framework.Digests;
+import co.mv.wb.plugin.base.BaseMigration;
+
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * A {@link Migration} that creates an index without blocking writes to the table while the index is built.
+ *
+ * @since                                       4.0
+ */
+@MigrationType(
+	pluginGroupUri = "co.mv.wb:GeneralDatabase",
+	uri = "co.mv.wb.generaldatabase:CreateIndex",
+	description = "Creates an index while the table remains writable.  PostgreSQL databases use CREATE INDEX " +
+			"CONCURRENTLY outside of a transaction, MySQL databases use ALGORITHM=INPLACE, LOCK=NONE and SQL Server " +
+			"databases use ONLINE = ON.  On PostgreSQL, an invalid index left behind by an earlier failed attempt is " +
+			"dropped before the index is created.",
+	example =
+		"<migration\n" +
+		"    type=\"CreateIndex\"\n" +
+		"    id=\"3f1d0a4e-2b7c-4c55-9d38-0c6f4a9e8b17\"\n" +
+		"    fromStateId=\"199b7cc1-3cc6-48ca-b012-a70d05d5b5e7\"\n" +
+		"    toStateId=\"363568f1-aaed-4a50-bea0-9ddee713cc11\">\n" +
+		"    <indexName>IX_Order_CustomerId</indexName>\n" +
+		"    <tableName>Order</tableName>\n" +
+		"    <columns>CustomerId, CreatedAt</columns>\n" +
+		"    <unique>false</unique>\n" +
+		"</migration>"
+)
+public class CreateIndexMigration extends BaseMigration implements Migration
+{
+	private final String _indexName;
+	private final String _tableName;
+	private final String _columns;
+	private final boolean _unique;
+
+	/**
+	 * Creates a new CreateIndexMigration.
+	 *
+	 * @param       migrationId                 the ID of the migration
+	 * @param       fromStateId                 the ID of the source state that this migration applies to, or empty
+	 *                                          if this migration transitions from the non-existent state.
+	 * @param       toStateId                   the ID of the target state that the migration applies to, or empty if
+	 *                                          this migration transitions to the non-existent state.
+	 * @param       indexName                   the name of the index to create.
+	 * @param       tableName                   the name of the table to create the index on.
+	 * @param       columns                     the comma-separated list of columns to index, as it would appear in a
+	 *                                          CREATE INDEX statement.
+	 * @param       unique                      true if the index is to be a unique index.
+	 * @since                                   4.0
+	 */
+	public CreateIndexMigration(
+		UUID migrationId,
+		Optional<UUID> fromStateId,
+		Optional<UUID> toStateId,
+		String indexName,
+		String tableName,
+		String columns,
+		boolean unique)
+	{
+		super(migrationId, fromStateId, toStateId);
+
+		if (indexName == null) { throw new IllegalArgumentException("indexName cannot be null"); }
+		if ("".equals(indexName.trim())) { throw new IllegalArgumentException("indexName cannot be empty"); }
+		if (tableName == null) { throw new IllegalArgumentException("tableName cannot be null"); }
+		if ("".equals(tableName.trim())) { throw new IllegalArgumentException("tableName cannot be empty"); }
+		if (columns == null) { throw new IllegalArgumentException("columns cannot be null"); }
+		if ("".equals(columns.trim())) { throw new IllegalArgumentException("columns cannot be empty"); }
+
+		_indexName = indexName;
+		_tableName = tableName;
+		_columns = columns;
+		_unique = unique;
+	}
+
+	/**
+	 * Gets the name of the index to create.
+	 *
+	 * @return                                  the name of the index to create.
+	 * @since                                   4.0
+	 */
+	public String getIndexName()
+	{
+		return _indexName;
+	}
+
+	/**
+	 * Gets the name of the table to create the index on.
+	 *
+	 * @return                                  the name of the table to create the index on.
+	 * @since                                   4.0
+	 */
+	public String getTableName()
+	{
+		return _tableName;
+	}
+
+	/**
+	 * Gets the comma-separated list of columns to index.
+	 *
+	 * @return                                  the comma-separated list of columns to index.
+	 * @since                                   4.0
+	 */
+	public String getColumns()
+	{
+		return _columns;
+	}
+
+	/**
+	 * Gets whether the index is to be a unique index.
+	 *
+	 * @return                                  true if the index is to be a unique index.
+	 * @since                                   4.0
+	 */
+	public boolean isUnique()
+	{
+		return _unique;
+	}
+
+	@Override public boolean digestContent(
+		MessageDigest digest) throws IOException
+	{
+		if (digest == null) { throw new IllegalArgumentException("digest cannot be null"); }
+
+		Digests.update(digest, _indexName);
+		Digests.update(digest, _tableName);
+		Digests.update(digest, _columns);
+		Digests.update(digest, Boolean.toString(_unique));
+
+		return true;
+	}
+
+	@Override public List<ResourceType> getApplicableTypes()
+	{
+		return Arrays.asList(
+			Wildebeest.MySqlDatabase,
+			Wildebeest.PostgreSqlDatabase,
+			Wildebeest.SqlServerDatabase);
+	}
+}
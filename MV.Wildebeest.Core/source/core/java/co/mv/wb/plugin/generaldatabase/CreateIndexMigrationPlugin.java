@@ -0,0 +1,177 @@
+// Wildebeest Migration Framework
+// Copyright © 2013 - 2018, Matheson Ventures Pte Ltd
+//
+// This file is part of Wildebeest
+//
+// Wildebeest is free software: you can redistribute it and/or modify it under
+// the terms of the GNU General Public License v2 as published by the Free
+// Software Foundation.
+//
+// Wildebeest is distributed in the hope that it will be useful, but WITHOUT ANY
+// WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+// A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along with
+// Wildebeest.  If not, see http://www.gnu.org/licenses/gpl-2.0.html
+
+package co.mv.wb.plugin.generaldatabase;
+
+import co.mv.wb.Instance;
+import co.mv.wb.Migration;
+import co.mv.wb.MigrationFailedException;
+import co.mv.wb.MigrationFaultException;
+import co.mv.wb.MigrationPlugin;
+import co.mv.wb.MigrationPluginType;
+import co.mv.wb.ModelExtensions;
+import co.mv.wb.framework.DatabaseHelper;
+
+import javax.sql.DataSource;
+import java.io.PrintStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Optional;
+
+/**
+ * {@link MigrationPlugin} for {@link CreateIndexMigration}.
+ *
+ * On PostgreSQL a failed CREATE INDEX CONCURRENTLY leaves an invalid index behind, which is still maintained on every
+ * write but is never used by queries.  Any such index is dropped before the index is created, and again if the
+ * creation fails, so that a failed migration can simply be retried.
+ *
+ * @since                                       4.0
+ */
+@MigrationPluginType(uri = "co.mv.wb.generaldatabase:CreateIndexMigration")
+public class CreateIndexMigrationPlugin implements MigrationPlugin
+{
+	@Override public void perform(
+		PrintStream output,
+		Migration migration,
+		Instance instance) throws
+			MigrationFailedException
+	{
+		if (output == null) { throw new IllegalArgumentException("output cannot be null"); }
+		if (migration == null) { throw new IllegalArgumentException("migration cannot be null"); }
+		if (instance == null) { throw new IllegalArgumentException("instance cannot be null"); }
+
+		CreateIndexMigration migrationT = ModelExtensions.As(migration, CreateIndexMigration.class);
+		if (migrationT == null)
+		{
+			throw new IllegalArgumentException("migration must be a CreateIndexMigration");
+		}
+
+		DatabaseInstance instanceT = ModelExtensions.As(instance, DatabaseInstance.class);
+		if (instanceT == null)
+		{
+			throw new IllegalArgumentException("instance must be a DatabaseInstance");
+		}
+
+		String create = String.format(
+			"CREATE %sINDEX %s%s ON %s (%s)",
+			migrationT.isUnique() ? "UNIQUE " : "",
+			instanceT.getSqlDialect() == SqlDialect.PostgreSql ? "CONCURRENTLY " : "",
+			migrationT.getIndexName(),
+			migrationT.getTableName(),
+			migrationT.getColumns());
+
+		try
+		{
+			switch (instanceT.getSqlDialect())
+			{
+				case PostgreSql:
+					CreateIndexMigrationPlugin.createPostgreSqlIndex(
+						instanceT.getAppDataSource(),
+						migrationT,
+						create);
+					break;
+
+				case MySql:
+					DatabaseHelper.execute(
+						instanceT.getAppDataSource(),
+						create + " ALGORITHM=INPLACE LOCK=NONE");
+					break;
+
+				case SqlServer:
+					DatabaseHelper.execute(
+						instanceT.getAppDataSource(),
+						create + " WITH (ONLINE = ON)");
+					break;
+
+				default:
+					throw new MigrationFailedException(
+						migrationT.getMigrationId(),
+						String.format(
+							"indexes cannot be created online in %s databases",
+							instanceT.getSqlDialect()));
+			}
+		}
+		catch (SQLException e)
+		{
+			throw new MigrationFaultException(e);
+		}
+	}
+
+	private static void createPostgreSqlIndex(
+		DataSource dataSource,
+		CreateIndexMigration migration,
+		String create) throws
+			MigrationFailedException,
+			SQLException
+	{
+		CreateIndexMigrationPlugin.dropInvalidPostgreSqlIndex(dataSource, migration.getIndexName());
+
+		try
+		{
+			DatabaseHelper.executeOutsideTransaction(dataSource, create);
+		}
+		catch (SQLException e)
+		{
+			CreateIndexMigrationPlugin.dropInvalidPostgreSqlIndex(dataSource, migration.getIndexName());
+			throw e;
+		}
+
+		// CONCURRENTLY can report success for an index that is left invalid, for example after a deadlock
+		if (CreateIndexMigrationPlugin.dropInvalidPostgreSqlIndex(dataSource, migration.getIndexName()))
+		{
+			throw new MigrationFailedException(
+				migration.getMigrationId(),
+				String.format("index \"%s\" was left invalid and has been dropped", migration.getIndexName()));
+		}
+	}
+
+	/**
+	 * Drops the named index if it exists but is not valid, and returns true if it was dropped.  The name is resolved
+	 * with to_regclass, so that it is case-folded and qualified by the search path exactly as in the CREATE INDEX
+	 * statement.
+	 */
+	private static boolean dropInvalidPostgreSqlIndex(
+		DataSource dataSource,
+		String indexName) throws SQLException
+	{
+		Optional<Boolean> valid;
+
+		try (Connection conn = dataSource.getConnection();
+			PreparedStatement ps = conn.prepareStatement(
+				"SELECT i.indisvalid FROM pg_index i WHERE i.indexrelid = to_regclass(?)"))
+		{
+			ps.setString(1, indexName);
+
+			try (ResultSet rs = ps.executeQuery())
+			{
+				valid = rs.next() ? Optional.of(rs.getBoolean(1)) : Optional.empty();
+			}
+		}
+
+		if (!valid.isPresent() || valid.get())
+		{
+			return false;
+		}
+
+		DatabaseHelper.executeOutsideTransaction(
+			dataSource,
+			String.format("DROP INDEX CONCURRENTLY IF EXISTS %s", indexName));
+
+		return true;
+	}
+}
@@ -38,4 +38,12 @@ public class DatabaseConstants
 	 * @since                                   1.0
 	 */
 	public static final String DefaultStateTableName = "wb_state";
+
+	/**
+	 * The suffix added to the name of the state-tracking table to name the table where resumable migrations record
+	 * their progress.
+	 * 
+	 * @since                                   4.0
+	 */
+	public static final String CheckpointTableSuffix = "_checkpoint";
 }
@@ -17,6 +17,7 @@
 package co.mv.wb.plugin.generaldatabase;
 
 import co.mv.wb.Assertion;
+import co.mv.wb.AssertionCost;
 import co.mv.wb.AssertionResponse;
 import co.mv.wb.AssertionType;
 import co.mv.wb.Instance;
@@ -70,11 +71,17 @@ public class DatabaseExistsAssertion extends BaseAssertion
 	@Override public List<ResourceType> getApplicableTypes()
 	{
 		return Arrays.asList(
+			Wildebeest.H2Database,
 			Wildebeest.MySqlDatabase,
 			Wildebeest.PostgreSqlDatabase,
 			Wildebeest.SqlServerDatabase);
 	}
 
+	@Override public AssertionCost getCost()
+	{
+		return AssertionCost.CatalogLookup;
+	}
+
 	@Override public AssertionResponse perform(Instance instance)
 	{
 		if (instance == null) { throw new IllegalArgumentException("instance cannot be null"); }
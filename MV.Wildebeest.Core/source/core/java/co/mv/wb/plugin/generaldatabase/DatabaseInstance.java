@@ -16,10 +16,17 @@
 
 package co.mv.wb.plugin.generaldatabase;
 
+import co.mv.wb.Assertion;
+import co.mv.wb.AssertionResponse;
 import co.mv.wb.Instance;
 import co.mv.wb.Resource;
 
 import javax.sql.DataSource;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
 
 /**
  * A {@link Resource} {@link Instance} that is a database.
@@ -93,6 +100,52 @@ public interface DatabaseInstance extends Instance
 	 * @since                                   1.0
 	 */
 	DataSource getAppDataSource();
+
+	/**
+	 * Closes any idle connections that this DatabaseInstance holds to the database that it represents.  This must be
+	 * called before the database is dropped, as most database systems refuse to drop a database that is in use.
+	 *
+	 * @since                                   4.0
+	 */
+	void releaseAppConnections();
+
+	/**
+	 * Indicates whether or not the state tracking table is known to exist in the database, because it has already been
+	 * found or created while this DatabaseInstance has been in use.  This is forgotten when the DatabaseInstance is
+	 * closed, and when its application connections are released ahead of the database being dropped.
+	 *
+	 * @return                                  true if the state tracking table is known to exist, or false if it
+	 *                                          needs to be checked for.
+	 * @since                                   4.0
+	 */
+	boolean isStateTableKnownToExist();
+
+	/**
+	 * Records whether or not the state tracking table is known to exist in the database.
+	 *
+	 * @param       value                       true if the state tracking table is known to exist.
+	 * @since                                   4.0
+	 */
+	void setStateTableKnownToExist(boolean value);
+
+	/**
+	 * Gets the snapshot of the database catalog that catalog queries against this DatabaseInstance are currently
+	 * answered from, if any.  Like the state table flag, the snapshot is forgotten when the DatabaseInstance is closed
+	 * and when its application connections are released.
+	 *
+	 * @return                                  the current catalog snapshot, or empty if catalog queries go to the
+	 *                                          database.
+	 * @since                                   4.0
+	 */
+	Optional<CatalogSnapshot> getCatalogSnapshot();
+
+	/**
+	 * Sets the snapshot of the database catalog that catalog queries against this DatabaseInstance are answered from.
+	 *
+	 * @param       value                       the catalog snapshot, or empty to send catalog queries to the database.
+	 * @since                                   4.0
+	 */
+	void setCatalogSnapshot(Optional<CatalogSnapshot> value);
 	
 	/**
 	 * Returns a boolean flag indicating whether or not the catalog (database) represented by this DatabaseInstance
@@ -103,4 +156,73 @@ public interface DatabaseInstance extends Instance
 	 * @since                                   4.0
 	 */
 	boolean databaseExists();
+
+	/**
+	 * Returns the dialect of SQL that the database represented by this DatabaseInstance understands.
+	 *
+	 * @return                                  the dialect of SQL understood by this DatabaseInstance.
+	 * @since                                   4.0
+	 */
+	default SqlDialect getSqlDialect()
+	{
+		return SqlDialect.Ansi;
+	}
+
+	/**
+	 * Takes a snapshot of the database catalog if the assertions may be answered from one, and this DatabaseInstance
+	 * does not already have one.
+	 *
+	 * @param       snapshot                    true if the assertions may be answered from a catalog snapshot.
+	 * @since                                   4.0
+	 */
+	@Override default void beforeAssertions(
+		boolean snapshot)
+	{
+		if (snapshot)
+		{
+			CatalogSnapshot.take(this);
+		}
+	}
+
+	/**
+	 * Performs the {@link CatalogAssertion}s among the supplied assertions with one catalog query between them.
+	 *
+	 * @param       assertions                  the assertions of the state being asserted.
+	 * @return                                  the responses of the catalog assertions, by assertion ID.
+	 * @since                                   4.0
+	 */
+	@Override default Map<UUID, AssertionResponse> performAssertions(
+		List<Assertion> assertions)
+	{
+		if (assertions == null) { throw new IllegalArgumentException("assertions cannot be null"); }
+
+		return CatalogAssertions.perform(this, assertions);
+	}
+
+	/**
+	 * Reports how many catalog queries the catalog snapshot has answered from memory, if there is one.
+	 *
+	 * @param       output                      the PrintStream to report to.
+	 * @since                                   4.0
+	 */
+	@Override default void afterAssertions(
+		PrintStream output)
+	{
+		if (output == null) { throw new IllegalArgumentException("output cannot be null"); }
+
+		if (this.getCatalogSnapshot().isPresent())
+		{
+			output.println(this.getCatalogSnapshot().get().report());
+		}
+	}
+
+	/**
+	 * Discards the catalog snapshot, as the migration may have changed the catalog.
+	 *
+	 * @since                                   4.0
+	 */
+	@Override default void afterMigration()
+	{
+		this.setCatalogSnapshot(Optional.empty());
+	}
 }
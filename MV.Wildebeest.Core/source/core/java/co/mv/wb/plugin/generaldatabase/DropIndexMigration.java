@@ -0,0 +1,129 @@
+// Wildebeest Migration Framework
+// Copyright © 2013 - 2018, Matheson Ventures Pte Ltd
+//
+// This file is part of Wildebeest
+//
+// Wildebeest is free software: you can redistribute it and/or modify it under
+// the terms of the GNU General Public License v2 as published by the Free
+// Software Foundation.
+//
+// Wildebeest is distributed in the hope that it will be useful, but WITHOUT ANY
+// WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+// A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along with
+// Wildebeest.  If not, see http://www.gnu.org/licenses/gpl-2.0.html
+
+package co.mv.wb.plugin.generaldatabase;
+
+import co.mv.wb.Migration;
+import co.mv.wb.MigrationType;
+import co.mv.wb.ResourceType;
+import co.mv.wb.Wildebeest;
+import co.mv.wb.framework.Digests;
+import co.mv.wb.plugin.base.BaseMigration;
+
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * A {@link Migration} that drops an index without blocking writes to the table.
+ *
+ * @since                                       4.0
+ */
+@MigrationType(
+	pluginGroupUri = "co.mv.wb:GeneralDatabase",
+	uri = "co.mv.wb.generaldatabase:DropIndex",
+	description = "Drops an index while the table remains writable.  PostgreSQL databases use DROP INDEX " +
+			"CONCURRENTLY outside of a transaction, MySQL databases use ALGORITHM=INPLACE, LOCK=NONE and SQL Server " +
+			"databases drop clustered indexes with ONLINE = ON.",
+	example =
+		"<migration\n" +
+		"    type=\"DropIndex\"\n" +
+		"    id=\"9c2e5b7a-41d3-4f8e-a6b0-5d7e3c1f9a24\"\n" +
+		"    fromStateId=\"363568f1-aaed-4a50-bea0-9ddee713cc11\"\n" +
+		"    toStateId=\"199b7cc1-3cc6-48ca-b012-a70d05d5b5e7\">\n" +
+		"    <indexName>IX_Order_CustomerId</indexName>\n" +
+		"    <tableName>Order</tableName>\n" +
+		"</migration>"
+)
+public class DropIndexMigration extends BaseMigration implements Migration
+{
+	private final String _indexName;
+	private final String _tableName;
+
+	/**
+	 * Creates a new DropIndexMigration.
+	 *
+	 * @param       migrationId                 the ID of the migration
+	 * @param       fromStateId                 the ID of the source state that this migration applies to, or empty
+	 *                                          if this migration transitions from the non-existent state.
+	 * @param       toStateId                   the ID of the target state that the migration applies to, or empty if
+	 *                                          this migration transitions to the non-existent state.
+	 * @param       indexName                   the name of the index to drop.
+	 * @param       tableName                   the name of the table that the index is on.
+	 * @since                                   4.0
+	 */
+	public DropIndexMigration(
+		UUID migrationId,
+		Optional<UUID> fromStateId,
+		Optional<UUID> toStateId,
+		String indexName,
+		String tableName)
+	{
+		super(migrationId, fromStateId, toStateId);
+
+		if (indexName == null) { throw new IllegalArgumentException("indexName cannot be null"); }
+		if ("".equals(indexName.trim())) { throw new IllegalArgumentException("indexName cannot be empty"); }
+		if (tableName == null) { throw new IllegalArgumentException("tableName cannot be null"); }
+		if ("".equals(tableName.trim())) { throw new IllegalArgumentException("tableName cannot be empty"); }
+
+		_indexName = indexName;
+		_tableName = tableName;
+	}
+
+	/**
+	 * Gets the name of the index to drop.
+	 *
+	 * @return                                  the name of the index to drop.
+	 * @since                                   4.0
+	 */
+	public String getIndexName()
+	{
+		return _indexName;
+	}
+
+	/**
+	 * Gets the name of the table that the index is on.
+	 *
+	 * @return                                  the name of the table that the index is on.
+	 * @since                                   4.0
+	 */
+	public String getTableName()
+	{
+		return _tableName;
+	}
+
+	@Override public boolean digestContent(
+		MessageDigest digest) throws IOException
+	{
+		if (digest == null) { throw new IllegalArgumentException("digest cannot be null"); }
+
+		Digests.update(digest, _indexName);
+		Digests.update(digest, _tableName);
+
+		return true;
+	}
+
+	@Override public List<ResourceType> getApplicableTypes()
+	{
+		return Arrays.asList(
+			Wildebeest.MySqlDatabase,
+			Wildebeest.PostgreSqlDatabase,
+			Wildebeest.SqlServerDatabase);
+	}
+}
@@ -0,0 +1,132 @@
+// Wildebeest Migration Framework
+// Copyright © 2013 - 2018, Matheson Ventures Pte Ltd
+//
+// This file is part of Wildebeest
+//
+// Wildebeest is free software: you can redistribute it and/or modify it under
+// the terms of the GNU General Public License v2 as published by the Free
+// Software Foundation.
+//
+// Wildebeest is distributed in the hope that it will be useful, but WITHOUT ANY
+// WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+// A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along with
+// Wildebeest.  If not, see http://www.gnu.org/licenses/gpl-2.0.html
+
+package co.mv.wb.plugin.generaldatabase;
+
+import co.mv.wb.Instance;
+import co.mv.wb.Migration;
+import co.mv.wb.MigrationFailedException;
+import co.mv.wb.MigrationFaultException;
+import co.mv.wb.MigrationPlugin;
+import co.mv.wb.MigrationPluginType;
+import co.mv.wb.ModelExtensions;
+import co.mv.wb.framework.DatabaseHelper;
+
+import java.io.PrintStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * {@link MigrationPlugin} for {@link DropIndexMigration}.
+ *
+ * SQL Server only accepts ONLINE = ON when dropping a clustered index, because dropping a nonclustered index is a
+ * metadata-only change that does not hold its lock for long, so the option is only given for clustered indexes.
+ *
+ * @since                                       4.0
+ */
+@MigrationPluginType(uri = "co.mv.wb.generaldatabase:DropIndexMigration")
+public class DropIndexMigrationPlugin implements MigrationPlugin
+{
+	// sys.indexes.type for a clustered index
+	private static final int SQLSERVER_CLUSTERED = 1;
+
+	@Override public void perform(
+		PrintStream output,
+		Migration migration,
+		Instance instance) throws
+			MigrationFailedException
+	{
+		if (output == null) { throw new IllegalArgumentException("output cannot be null"); }
+		if (migration == null) { throw new IllegalArgumentException("migration cannot be null"); }
+		if (instance == null) { throw new IllegalArgumentException("instance cannot be null"); }
+
+		DropIndexMigration migrationT = ModelExtensions.As(migration, DropIndexMigration.class);
+		if (migrationT == null)
+		{
+			throw new IllegalArgumentException("migration must be a DropIndexMigration");
+		}
+
+		DatabaseInstance instanceT = ModelExtensions.As(instance, DatabaseInstance.class);
+		if (instanceT == null)
+		{
+			throw new IllegalArgumentException("instance must be a DatabaseInstance");
+		}
+
+		try
+		{
+			switch (instanceT.getSqlDialect())
+			{
+				case PostgreSql:
+					DatabaseHelper.executeOutsideTransaction(
+						instanceT.getAppDataSource(),
+						String.format("DROP INDEX CONCURRENTLY %s", migrationT.getIndexName()));
+					break;
+
+				case MySql:
+					DatabaseHelper.execute(
+						instanceT.getAppDataSource(),
+						String.format(
+							"DROP INDEX %s ON %s ALGORITHM=INPLACE LOCK=NONE",
+							migrationT.getIndexName(),
+							migrationT.getTableName()));
+					break;
+
+				case SqlServer:
+					DatabaseHelper.execute(
+						instanceT.getAppDataSource(),
+						String.format(
+							"DROP INDEX %s ON %s%s",
+							migrationT.getIndexName(),
+							migrationT.getTableName(),
+							DropIndexMigrationPlugin.isSqlServerClustered(instanceT, migrationT)
+								? " WITH (ONLINE = ON)"
+								: ""));
+					break;
+
+				default:
+					throw new MigrationFailedException(
+						migrationT.getMigrationId(),
+						String.format(
+							"indexes cannot be dropped online in %s databases",
+							instanceT.getSqlDialect()));
+			}
+		}
+		catch (SQLException e)
+		{
+			throw new MigrationFaultException(e);
+		}
+	}
+
+	private static boolean isSqlServerClustered(
+		DatabaseInstance instance,
+		DropIndexMigration migration) throws SQLException
+	{
+		try (Connection conn = instance.getAppDataSource().getConnection();
+			PreparedStatement ps = conn.prepareStatement(
+				"SELECT type FROM sys.indexes WHERE name = ? AND object_id = OBJECT_ID(?)"))
+		{
+			ps.setString(1, migration.getIndexName());
+			ps.setString(2, migration.getTableName());
+
+			try (ResultSet rs = ps.executeQuery())
+			{
+				return rs.next() && rs.getInt(1) == SQLSERVER_CLUSTERED;
+			}
+		}
+	}
+}
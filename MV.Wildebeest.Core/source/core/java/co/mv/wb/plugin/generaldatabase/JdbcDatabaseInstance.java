@@ -33,4 +33,32 @@ public interface JdbcDatabaseInstance extends DatabaseInstance
 	String getAdminUsername();
 	
 	String getAdminPassword();
+
+	/**
+	 * Gets the sizing and timeouts of the connection pools that this instance keeps open.
+	 *
+	 * @return                                  the connection pool settings for this instance.
+	 * @since                                   4.0
+	 */
+	ConnectionPoolSettings getConnectionPoolSettings();
+
+	/**
+	 * Sets the sizing and timeouts of the connection pools that this instance keeps open.
+	 *
+	 * @param       value                       the new connection pool settings for this instance.
+	 * @since                                   4.0
+	 */
+	void setConnectionPoolSettings(ConnectionPoolSettings value);
+
+	/**
+	 * Gets the number of operations that may be performed against this instance at once, which is the size of its
+	 * connection pool, as each operation holds one of the pooled connections.
+	 *
+	 * @return                                  the maximum size of the connection pool.
+	 * @since                                   4.0
+	 */
+	@Override default int getMaxConcurrency()
+	{
+		return this.getConnectionPoolSettings().getMaxSize();
+	}
 }
@@ -0,0 +1,259 @@
+// Wildebeest Migration Framework
+// Copyright © 2013 - 2018, Matheson Ventures Pte Ltd
+//
+// This file is part of Wildebeest
+//
+// Wildebeest is free software: you can redistribute it and/or modify it under
+// the terms of the GNU General Public License v2 as published by the Free
+// Software Foundation.
+//
+// Wildebeest is distributed in the hope that it will be useful, but WITHOUT ANY
+// WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+// A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along with
+// Wildebeest.  If not, see http://www.gnu.org/licenses/gpl-2.0.html
+
+package co.mv.wb.plugin.generaldatabase;
+
+import co.mv.wb.Assertion;
+import co.mv.wb.AssertionCost;
+import co.mv.wb.AssertionFaultException;
+import co.mv.wb.AssertionResponse;
+import co.mv.wb.AssertionType;
+import co.mv.wb.Instance;
+import co.mv.wb.ModelExtensions;
+import co.mv.wb.ResourceType;
+import co.mv.wb.Wildebeest;
+import co.mv.wb.plugin.base.BaseAssertion;
+import co.mv.wb.plugin.base.ImmutableAssertionResponse;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * An {@link Assertion} that verifies that the number of rows yielded by a SQL query is within given bounds.  The rows
+ * are counted by the database rather than fetched: the query is wrapped in an EXISTS test when the bounds only ask
+ * whether there are any rows, and in a COUNT(*) otherwise.
+ *
+ * @since                                       4.0
+ */
+@AssertionType(
+	pluginGroupUri = "co.mv.wb:GeneralDatabase",
+	uri = "co.mv.wb.generaldatabase:RowCount",
+	description = "Asserts that the number of rows yielded by a query is at least min and at most max.  Either " +
+			"bound may be omitted.  The query is counted by the database, so it must be usable as a subquery.",
+	example =
+		"<assertion\n" +
+		"    type=\"RowCount\"\n" +
+		"    id=\"4e0c1b9d-6a1f-4f4b-8a3e-2d5c7b9e1f30\">\n" +
+		"    <description>Every country has been loaded</description>\n" +
+		"    <sql><![CDATA[\n" +
+		"        SELECT * FROM Country\n" +
+		"    ]]></sql>\n" +
+		"    <min>249</min>\n" +
+		"    <max>249</max>\n" +
+		"</assertion>"
+)
+public class RowCountAssertion extends BaseAssertion implements Assertion
+{
+	private final String _description;
+	private final String _sql;
+	private final Optional<Integer> _min;
+	private final Optional<Integer> _max;
+
+	/**
+	 * Creates a new RowCountAssertion.
+	 *
+	 * @param       assertionId                 the ID of the assertion
+	 * @param       description                 the description of the query that is being asserted
+	 * @param       seqNum                      the ordinal index of the assertion within it's containing set
+	 * @param       sql                         the query whose rows are to be counted
+	 * @param       min                         the least number of rows that the query may yield, if any
+	 * @param       max                         the greatest number of rows that the query may yield, if any
+	 * @since                                   4.0
+	 */
+	public RowCountAssertion(
+		UUID assertionId,
+		String description,
+		int seqNum,
+		String sql,
+		Optional<Integer> min,
+		Optional<Integer> max)
+	{
+		super(assertionId, seqNum);
+
+		if (description == null) { throw new IllegalArgumentException("description cannot be null"); }
+		if (sql == null) { throw new IllegalArgumentException("sql cannot be null"); }
+		if (min == null) { throw new IllegalArgumentException("min cannot be null"); }
+		if (max == null) { throw new IllegalArgumentException("max cannot be null"); }
+		if (!min.isPresent() && !max.isPresent())
+		{
+			throw new IllegalArgumentException("at least one of min and max must be specified");
+		}
+		if (min.isPresent() && min.get() < 0) { throw new IllegalArgumentException("min cannot be negative"); }
+		if (max.isPresent() && max.get() < 0) { throw new IllegalArgumentException("max cannot be negative"); }
+		if (min.isPresent() && max.isPresent() && min.get() > max.get())
+		{
+			throw new IllegalArgumentException("min cannot be greater than max");
+		}
+
+		_description = description;
+		_sql = sql;
+		_min = min;
+		_max = max;
+	}
+
+	@Override public String getDescription()
+	{
+		return _description;
+	}
+
+	/**
+	 * Gets the query whose rows are to be counted.
+	 *
+	 * @return                                  the query whose rows are to be counted.
+	 * @since                                   4.0
+	 */
+	public String getSql()
+	{
+		return _sql;
+	}
+
+	/**
+	 * Gets the least number of rows that the query may yield, if any.
+	 *
+	 * @return                                  the least number of rows, or empty if there is no lower bound.
+	 * @since                                   4.0
+	 */
+	public Optional<Integer> getMin()
+	{
+		return _min;
+	}
+
+	/**
+	 * Gets the greatest number of rows that the query may yield, if any.
+	 *
+	 * @return                                  the greatest number of rows, or empty if there is no upper bound.
+	 * @since                                   4.0
+	 */
+	public Optional<Integer> getMax()
+	{
+		return _max;
+	}
+
+	@Override public List<ResourceType> getApplicableTypes()
+	{
+		return Arrays.asList(
+			Wildebeest.H2Database,
+			Wildebeest.MySqlDatabase,
+			Wildebeest.PostgreSqlDatabase,
+			Wildebeest.SqlServerDatabase);
+	}
+
+	@Override public AssertionCost getCost()
+	{
+		// An EXISTS test stops at the first row, but a count reads every row that the query yields
+		return this.isExistsOnly() ? AssertionCost.BoundedRowQuery : AssertionCost.FullScan;
+	}
+
+	@Override public AssertionResponse perform(Instance instance)
+	{
+		if (instance == null) { throw new IllegalArgumentException("instance cannot be null"); }
+		DatabaseInstance db = ModelExtensions.As(instance, DatabaseInstance.class);
+		if (db == null) { throw new IllegalArgumentException("instance must be a DatabaseInstance"); }
+
+		boolean existsOnly = this.isExistsOnly();
+
+		AssertionResponse result;
+
+		try (Connection conn = db.getAppDataSource().getConnection();
+			PreparedStatement ps = conn.prepareStatement(RowCountAssertion.wrap(this.getSql(), existsOnly));
+			ResultSet rs = ps.executeQuery())
+		{
+			rs.next();
+			long rowCount = rs.getLong(1);
+
+			boolean withinBounds =
+				(!_min.isPresent() || rowCount >= _min.get()) &&
+				(!_max.isPresent() || rowCount <= _max.get());
+
+			String found = existsOnly
+				? (rowCount == 0 ? "No rows exist" : "Rows exist")
+				: String.format("Found %d rows", rowCount);
+
+			result = new ImmutableAssertionResponse(
+				withinBounds,
+				withinBounds
+					? found + ", as expected"
+					: found + ", expected " + this.describeBounds());
+		}
+		catch (SQLException e)
+		{
+			throw new AssertionFaultException(this.getAssertionId(), e);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Returns true if the bounds only ask whether the query yields any rows, so that an EXISTS test is enough to
+	 * decide the assertion.
+	 */
+	boolean isExistsOnly()
+	{
+		return
+			(_max.isPresent() && _max.get() == 0) ||
+			(_min.isPresent() && _min.get() == 1 && !_max.isPresent());
+	}
+
+	/**
+	 * Wraps the supplied query so that it yields a single row and column: 1 or 0 for whether the query yields any rows,
+	 * or the number of rows that the query yields.
+	 */
+	static String wrap(
+		String sql,
+		boolean existsOnly)
+	{
+		// A trailing semicolon is allowed at the end of a statement but not inside a subquery
+		String query = sql.trim();
+		while (query.endsWith(";"))
+		{
+			query = query.substring(0, query.length() - 1).trim();
+		}
+
+		return existsOnly
+			? String.format("SELECT CASE WHEN EXISTS (%s) THEN 1 ELSE 0 END", query)
+			: String.format("SELECT COUNT(*) FROM (%s) AS q", query);
+	}
+
+	private String describeBounds()
+	{
+		String result;
+
+		if (!_min.isPresent())
+		{
+			result = String.format("at most %d", _max.get());
+		}
+		else if (!_max.isPresent())
+		{
+			result = String.format("at least %d", _min.get());
+		}
+		else if (_min.get().equals(_max.get()))
+		{
+			result = String.format("exactly %d", _min.get());
+		}
+		else
+		{
+			result = String.format("between %d and %d", _min.get(), _max.get());
+		}
+
+		return result;
+	}
+}
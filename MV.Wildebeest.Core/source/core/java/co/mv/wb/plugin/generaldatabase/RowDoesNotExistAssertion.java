@@ -17,6 +17,7 @@
 package co.mv.wb.plugin.generaldatabase;
 
 import co.mv.wb.Assertion;
+import co.mv.wb.AssertionCost;
 import co.mv.wb.AssertionFaultException;
 import co.mv.wb.AssertionResponse;
 import co.mv.wb.Instance;
@@ -58,6 +59,10 @@ import java.util.UUID;
 )
 public class RowDoesNotExistAssertion extends BaseAssertion implements Assertion
 {
+	// Two rows are enough to decide the assertion, so the driver is asked to stop there rather than fetching every
+	// row that the query matches
+	private static final int MAX_ROWS = 2;
+
 	/**
 	 * Creates a new RowDoesNotExistAssertion.
 	 * 
@@ -154,11 +159,17 @@ public class RowDoesNotExistAssertion extends BaseAssertion implements Assertion
 	@Override public List<ResourceType> getApplicableTypes()
 	{
 		return Arrays.asList(
+			Wildebeest.H2Database,
 			Wildebeest.MySqlDatabase,
 			Wildebeest.PostgreSqlDatabase,
 			Wildebeest.SqlServerDatabase);
 	}
 	
+	@Override public AssertionCost getCost()
+	{
+		return AssertionCost.BoundedRowQuery;
+	}
+
 	@Override public AssertionResponse perform(Instance instance)
 	{
 		if (instance == null) { throw new IllegalArgumentException("instance cannot be null"); }
@@ -179,6 +190,8 @@ public class RowDoesNotExistAssertion extends BaseAssertion implements Assertion
 			{
 				conn = ds.getConnection();
 				ps = conn.prepareStatement(this.getSql());
+				ps.setMaxRows(MAX_ROWS);
+				ps.setFetchSize(MAX_ROWS);
 				rs = ps.executeQuery();
 
 				int rowCount = 0;
@@ -191,12 +204,18 @@ public class RowDoesNotExistAssertion extends BaseAssertion implements Assertion
 				{
 					result = new ImmutableAssertionResponse(true, "Row does not exist, as expected");
 				}
-				else
+				else if (rowCount < MAX_ROWS)
 				{
 					result = new ImmutableAssertionResponse(
 						false,
 						String.format("Expected to find no rows but found %d", rowCount));
 				}
+				else
+				{
+					result = new ImmutableAssertionResponse(
+						false,
+						"Expected to find no rows but found more than one");
+				}
 			}
 			finally
 			{
@@ -0,0 +1,46 @@
+// Wildebeest Migration Framework
+// Copyright © 2013 - 2018, Matheson Ventures Pte Ltd
+//
+// This file is part of Wildebeest
+//
+// Wildebeest is free software: you can redistribute it and/or modify it under
+// the terms of the GNU General Public License v2 as published by the Free
+// Software Foundation.
+//
+// Wildebeest is distributed in the hope that it will be useful, but WITHOUT ANY
+// WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+// A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along with
+// Wildebeest.  If not, see http://www.gnu.org/licenses/gpl-2.0.html
+
+package co.mv.wb.plugin.generaldatabase;
+
+/**
+ * The dialects of SQL that Wildebeest needs to distinguish between when it parses SQL scripts.
+ *
+ * @since                                       4.0
+ */
+public enum SqlDialect
+{
+	/**
+	 * Standard SQL.  Statements are separated by semicolons.
+	 */
+	Ansi,
+
+	/**
+	 * PostgreSQL.  As for {@link #Ansi}, with dollar-quoted strings and nested block comments.
+	 */
+	PostgreSql,
+
+	/**
+	 * MySQL.  As for {@link #Ansi}, with backslash escapes in strings, backtick-quoted identifiers, # comments and the
+	 * DELIMITER command of the mysql client.
+	 */
+	MySql,
+
+	/**
+	 * SQL Server.  Scripts are separated into batches by GO on a line of its own, and each batch is executed whole.
+	 */
+	SqlServer
+}
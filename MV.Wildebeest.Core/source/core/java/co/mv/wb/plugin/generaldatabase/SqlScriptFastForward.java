@@ -0,0 +1,166 @@
+// Wildebeest Migration Framework
+// Copyright © 2013 - 2018, Matheson Ventures Pte Ltd
+//
+// This file is part of Wildebeest
+//
+// Wildebeest is free software: you can redistribute it and/or modify it under
+// the terms of the GNU General Public License v2 as published by the Free
+// Software Foundation.
+//
+// Wildebeest is distributed in the hope that it will be useful, but WITHOUT ANY
+// WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+// A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along with
+// Wildebeest.  If not, see http://www.gnu.org/licenses/gpl-2.0.html
+
+package co.mv.wb.plugin.generaldatabase;
+
+import co.mv.wb.Instance;
+import co.mv.wb.MigrationFaultException;
+import co.mv.wb.ModelExtensions;
+import co.mv.wb.framework.DatabaseHelper;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Performs a run of consecutive {@link SqlScriptMigration}s as one step: their scripts are sent to the database as
+ * one stream of batched statements, in a single transaction.  This is only possible for databases whose DDL is
+ * transactional, so that a failure part-way through leaves the database as it was before the first script.
+ *
+ * @since                                       4.0
+ */
+public final class SqlScriptFastForward
+{
+	private SqlScriptFastForward()
+	{
+	}
+
+	/**
+	 * Checks whether runs of SqlScriptMigrations can be performed as one step against the supplied instance.
+	 *
+	 * @param       instance                    the instance to be migrated.
+	 * @return                                  true if the instance is a database whose DDL is transactional.
+	 * @since                                   4.0
+	 */
+	public static boolean isSupported(
+		Instance instance)
+	{
+		if (instance == null) { throw new IllegalArgumentException("instance cannot be null"); }
+
+		DatabaseInstance db = ModelExtensions.As(instance, DatabaseInstance.class);
+
+		// MySQL commits implicitly after each DDL statement, so its scripts cannot be rolled back together
+		return db != null &&
+			(db.getSqlDialect() == SqlDialect.PostgreSql || db.getSqlDialect() == SqlDialect.SqlServer);
+	}
+
+	/**
+	 * Performs the scripts of the supplied migrations, in order, in a single transaction.
+	 *
+	 * @param       migrations                  the migrations to perform.
+	 * @param       instance                    the database instance to perform them against.
+	 * @since                                   4.0
+	 */
+	public static void perform(
+		List<SqlScriptMigration> migrations,
+		Instance instance)
+	{
+		if (migrations == null) { throw new IllegalArgumentException("migrations cannot be null"); }
+		if (instance == null) { throw new IllegalArgumentException("instance cannot be null"); }
+
+		DatabaseInstance db = ModelExtensions.As(instance, DatabaseInstance.class);
+		if (db == null)
+		{
+			throw new IllegalArgumentException("instance must be a DatabaseInstance");
+		}
+
+		try (Statements statements = new Statements(migrations, db.getSqlDialect()))
+		{
+			DatabaseHelper.executeBatchInTransaction(
+				db.getAppDataSource(),
+				statements);
+		}
+		catch (SQLException | IOException e)
+		{
+			throw new MigrationFaultException(e);
+		}
+		catch (UncheckedIOException e)
+		{
+			throw new MigrationFaultException(e.getCause());
+		}
+	}
+
+	/**
+	 * The statements of a sequence of scripts.  Each script is opened only once the statements of the script before it
+	 * have been read, and closed once its own have been read.
+	 */
+	static final class Statements implements Iterator<String>, AutoCloseable
+	{
+		private final Iterator<SqlScriptMigration> _migrations;
+		private final SqlDialect _dialect;
+		private Reader _script = null;
+		private SqlScriptSplitter _splitter = null;
+
+		Statements(
+			List<SqlScriptMigration> migrations,
+			SqlDialect dialect)
+		{
+			_migrations = migrations.iterator();
+			_dialect = dialect;
+		}
+
+		@Override public boolean hasNext()
+		{
+			try
+			{
+				while (_splitter == null || !_splitter.hasNext())
+				{
+					this.close();
+
+					if (!_migrations.hasNext())
+					{
+						return false;
+					}
+
+					_script = _migrations.next().openScript();
+					_splitter = new SqlScriptSplitter(_script, _dialect);
+				}
+			}
+			catch (IOException e)
+			{
+				throw new UncheckedIOException(e);
+			}
+
+			return true;
+		}
+
+		@Override public String next()
+		{
+			if (!this.hasNext())
+			{
+				throw new NoSuchElementException();
+			}
+
+			return _splitter.next();
+		}
+
+		@Override public void close() throws IOException
+		{
+			_splitter = null;
+
+			if (_script != null)
+			{
+				Reader script = _script;
+				_script = null;
+				script.close();
+			}
+		}
+	}
+}
@@ -20,15 +20,27 @@ import co.mv.wb.Migration;
 import co.mv.wb.MigrationType;
 import co.mv.wb.ResourceType;
 import co.mv.wb.Wildebeest;
+import co.mv.wb.framework.Digests;
 import co.mv.wb.plugin.base.BaseMigration;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.zip.GZIPInputStream;
 
 /**
- * A {@link Migration} that performs a SQL script to transition between states.
+ * A {@link Migration} that performs a SQL script to transition between states.  The script is either held inline, or
+ * read from a file when the migration is performed.
  * 
  * @since                                       1.0
  */
@@ -62,6 +74,8 @@ import java.util.UUID;
 )
 public class SqlScriptMigration extends BaseMigration implements Migration
 {
+	private static final int GZIP_BUFFER_SIZE = 65536;
+
 	/**
 	 * Creates a new SqlScriptMigration.
 	 * 
@@ -81,6 +95,80 @@ public class SqlScriptMigration extends BaseMigration implements Migration
 	{
 		super(migrationId, fromStateId, toStateId);
 		this.setSql(sql);
+		_file = Optional.empty();
+	}
+
+	/**
+	 * Creates a new SqlScriptMigration whose script is read from a file.  If the name of the file ends in .gz then the
+	 * file is decompressed as it is read.
+	 * 
+	 * @param       migrationId                 the ID of the migration
+	 * @param       fromStateId                 the ID of the source state that this migration applies to, or null if
+	 *                                          this migration transitions from the non-existent state.
+	 * @param       toStateId                   the ID of the target state that the migration applies to, or null if
+	 *                                          this migration transitions to the non-existent state.
+	 * @param       file                        the file that contains the SQL script that performs the migration from
+	 *                                          the from-state to the to-state, encoded in UTF-8.
+	 * @since                                   4.0
+	 */
+	public SqlScriptMigration(
+		UUID migrationId,
+		Optional<UUID> fromStateId,
+		Optional<UUID> toStateId,
+		File file)
+	{
+		super(migrationId, fromStateId, toStateId);
+
+		if (file == null) { throw new IllegalArgumentException("file cannot be null"); }
+
+		_file = Optional.of(file);
+	}
+
+	private final Optional<File> _file;
+
+	/**
+	 * Gets the file that the SQL script is read from, if the script is not held inline.
+	 * 
+	 * @return                                  the file that the SQL script is read from, or empty if the script is
+	 *                                          held inline.
+	 * @since                                   4.0
+	 */
+	public Optional<File> getFile()
+	{
+		return _file;
+	}
+
+	/**
+	 * Opens the SQL script for reading.  A script file is streamed from disk as it is read rather than loaded whole,
+	 * so that scripts of any size can be performed.  The caller is responsible for closing the Reader.
+	 * 
+	 * @return                                  a Reader over the SQL script.
+	 * @throws      IOException                 if the script file cannot be opened.
+	 * @since                                   4.0
+	 */
+	public Reader openScript() throws IOException
+	{
+		if (!_file.isPresent())
+		{
+			return new StringReader(this.getSql());
+		}
+
+		InputStream input = Files.newInputStream(_file.get().toPath());
+
+		if (_file.get().getName().toLowerCase().endsWith(".gz"))
+		{
+			try
+			{
+				input = new GZIPInputStream(input, GZIP_BUFFER_SIZE);
+			}
+			catch (IOException e)
+			{
+				input.close();
+				throw e;
+			}
+		}
+
+		return new InputStreamReader(input, StandardCharsets.UTF_8);
 	}
 	
 	// <editor-fold desc="Sql" defaultstate="collapsed">
@@ -120,9 +208,23 @@ public class SqlScriptMigration extends BaseMigration implements Migration
 
 	// </editor-fold>
 	
+	@Override public boolean digestContent(
+		MessageDigest digest) throws IOException
+	{
+		if (digest == null) { throw new IllegalArgumentException("digest cannot be null"); }
+
+		try (Reader script = this.openScript())
+		{
+			Digests.update(digest, script);
+		}
+
+		return true;
+	}
+
 	@Override public List<ResourceType> getApplicableTypes()
 	{
 		return Arrays.asList(
+			Wildebeest.H2Database,
 			Wildebeest.MySqlDatabase,
 			Wildebeest.PostgreSqlDatabase,
 			Wildebeest.SqlServerDatabase);
@@ -23,10 +23,16 @@ import co.mv.wb.MigrationFaultException;
 import co.mv.wb.MigrationPlugin;
 import co.mv.wb.MigrationPluginType;
 import co.mv.wb.ModelExtensions;
+import co.mv.wb.OutputFormatter;
 import co.mv.wb.framework.DatabaseHelper;
 
+import java.io.IOException;
 import java.io.PrintStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
 import java.sql.SQLException;
+import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * {@link MigrationPlugin} for {@link SqlScriptMigration}.
@@ -58,14 +64,59 @@ public class SqlScriptMigrationPlugin implements MigrationPlugin
 			throw new IllegalArgumentException("instance must be a SqlServerDatabaseInstance");
 		}
 
-		try
+		// Split the script into individual statements as it is read, and send them to the database in batches,
+		// reporting progress after each batch
+		try (Reader script = migrationT.openScript())
 		{
-			// Strip out any comments, and split the block of SQL into individual statements
-			DatabaseHelper.execute(instanceT.getAppDataSource(), migrationT.getSql());
+			DatabaseHelper.executeBatch(
+				instanceT.getAppDataSource(),
+				new SqlScriptSplitter(script, instanceT.getSqlDialect()),
+				executed -> output.println(OutputFormatter.sqlScriptProgress(executed)));
 		}
-		catch(SQLException e)
+		catch(SQLException | IOException e)
 		{
 			throw new MigrationFaultException(e);
 		}
+		catch(UncheckedIOException e)
+		{
+			throw new MigrationFaultException(e.getCause());
+		}
+	}
+
+	/**
+	 * A run of consecutive SqlScriptMigrations can be performed together against a database whose DDL is
+	 * transactional; see {@link SqlScriptFastForward}.
+	 */
+	@Override public boolean canPerformTogether(
+		Migration last,
+		Migration next,
+		Instance instance)
+	{
+		if (last == null) { throw new IllegalArgumentException("last cannot be null"); }
+		if (next == null) { throw new IllegalArgumentException("next cannot be null"); }
+		if (instance == null) { throw new IllegalArgumentException("instance cannot be null"); }
+
+		return last instanceof SqlScriptMigration &&
+			next instanceof SqlScriptMigration &&
+			SqlScriptFastForward.isSupported(instance);
+	}
+
+	@Override public void performTogether(
+		PrintStream output,
+		List<Migration> migrations,
+		Instance instance)
+	{
+		if (output == null) { throw new IllegalArgumentException("output cannot be null"); }
+		if (migrations == null) { throw new IllegalArgumentException("migrations cannot be null"); }
+		if (instance == null) { throw new IllegalArgumentException("instance cannot be null"); }
+
+		output.println(OutputFormatter.fastForward(migrations.size()));
+
+		SqlScriptFastForward.perform(
+			migrations
+				.stream()
+				.map(migration -> ModelExtensions.As(migration, SqlScriptMigration.class))
+				.collect(Collectors.toList()),
+			instance);
 	}
 }
@@ -0,0 +1,476 @@
+// Wildebeest Migration Framework
+// Copyright © 2013 - 2018, Matheson Ventures Pte Ltd
+//
+// This file is part of Wildebeest
+//
+// Wildebeest is free software: you can redistribute it and/or modify it under
+// the terms of the GNU General Public License v2 as published by the Free
+// Software Foundation.
+//
+// Wildebeest is distributed in the hope that it will be useful, but WITHOUT ANY
+// WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+// A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along with
+// Wildebeest.  If not, see http://www.gnu.org/licenses/gpl-2.0.html
+
+package co.mv.wb.plugin.generaldatabase;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Splits a SQL script into the individual statements that it contains, so that they can be sent to the database as a
+ * batch.  Delimiters that appear inside comments, quoted strings, quoted identifiers or dollar-quoted strings are not
+ * treated as the end of a statement.
+ *
+ * For {@link SqlDialect#SqlServer} the script is split into batches on lines that consist of GO, and each batch is
+ * returned whole.  For {@link SqlDialect#MySql} the DELIMITER command of the mysql client is honoured.  Comments are
+ * left in place within statements, but a statement that consists only of comments is dropped.
+ *
+ * The script is read incrementally as statements are requested, so only the statement currently being read is held in
+ * memory.  An IOException while reading the script is thrown as an UncheckedIOException.
+ *
+ * @since                                       4.0
+ */
+public final class SqlScriptSplitter implements Iterator<String>
+{
+	private static final Pattern GO = Pattern.compile("(?i)GO(?:\\s+(\\d+))?\\s*;?");
+	private static final Pattern DELIMITER = Pattern.compile("(?i)DELIMITER(?:\\s+(\\S+))?");
+
+	// Lines longer than this cannot be a GO or DELIMITER directive, so are not read ahead in full
+	private static final int DIRECTIVE_MAX_LENGTH = 256;
+	private static final int READ_SIZE = 8192;
+
+	private final Reader _reader;
+	private final SqlDialect _dialect;
+
+	private final StringBuilder _buffer = new StringBuilder();
+	private int _bufferPosition = 0;
+	private boolean _endOfInput = false;
+	private final char[] _chunk = new char[READ_SIZE];
+	private int _previous = -1;
+	private int _beforePrevious = -1;
+
+	private final StringBuilder _current = new StringBuilder();
+	private boolean _currentHasContent = false;
+	private String _delimiter;
+	private boolean _atLineStart = true;
+
+	private String _next = null;
+	private int _nextRepeat = 0;
+
+	/**
+	 * Creates a new SqlScriptSplitter that reads the script from the supplied Reader.  The Reader is not closed by the
+	 * SqlScriptSplitter.
+	 *
+	 * @param       reader                      the Reader to read the script from.
+	 * @param       dialect                     the dialect of SQL that the script is written in.
+	 * @since                                   4.0
+	 */
+	public SqlScriptSplitter(
+		Reader reader,
+		SqlDialect dialect)
+	{
+		if (reader == null) { throw new IllegalArgumentException("reader cannot be null"); }
+		if (dialect == null) { throw new IllegalArgumentException("dialect cannot be null"); }
+
+		_reader = reader;
+		_dialect = dialect;
+		_delimiter = dialect == SqlDialect.SqlServer ? null : ";";
+	}
+
+	/**
+	 * Splits the supplied script into statements.
+	 *
+	 * @param       sql                         the SQL script to split.
+	 * @param       dialect                     the dialect of SQL that the script is written in.
+	 * @return                                  the statements in the script, in order, with surrounding whitespace
+	 *                                          and the terminating delimiter removed.
+	 * @since                                   4.0
+	 */
+	public static List<String> split(
+		String sql,
+		SqlDialect dialect)
+	{
+		if (sql == null) { throw new IllegalArgumentException("sql cannot be null"); }
+		if (dialect == null) { throw new IllegalArgumentException("dialect cannot be null"); }
+
+		List<String> result = new ArrayList<>();
+		new SqlScriptSplitter(new StringReader(sql), dialect).forEachRemaining(result::add);
+
+		return result;
+	}
+
+	@Override public boolean hasNext()
+	{
+		if (_nextRepeat == 0)
+		{
+			try
+			{
+				this.readStatement();
+			}
+			catch (IOException e)
+			{
+				throw new UncheckedIOException(e);
+			}
+		}
+
+		return _nextRepeat > 0;
+	}
+
+	/**
+	 * Returns the next statement in the script, with surrounding whitespace and the terminating delimiter removed.
+	 *
+	 * @return                                  the next statement in the script.
+	 * @since                                   4.0
+	 */
+	@Override public String next()
+	{
+		if (!this.hasNext())
+		{
+			throw new NoSuchElementException();
+		}
+
+		_nextRepeat --;
+		return _next;
+	}
+
+	private void readStatement() throws IOException
+	{
+		while (_nextRepeat == 0 && this.peek(0) != -1)
+		{
+			this.step();
+		}
+
+		if (_nextRepeat == 0)
+		{
+			this.endStatement(1);
+		}
+	}
+
+	private void step() throws IOException
+	{
+		if (_atLineStart)
+		{
+			_atLineStart = false;
+			if (this.tryDirective())
+			{
+				return;
+			}
+		}
+
+		int c = this.peek(0);
+
+		if (c == '\n')
+		{
+			this.consume(1, false);
+			_atLineStart = true;
+		}
+		else if (this.startsWith("--") || (_dialect == SqlDialect.MySql && c == '#'))
+		{
+			while (this.peek(0) != -1 && this.peek(0) != '\n')
+			{
+				this.consume(1, false);
+			}
+		}
+		else if (this.startsWith("/*"))
+		{
+			this.consumeBlockComment();
+		}
+		else if (_delimiter != null && this.startsWith(_delimiter))
+		{
+			this.skip(_delimiter.length());
+			this.endStatement(1);
+		}
+		else if (c == '\'')
+		{
+			boolean backslashEscapes = _dialect == SqlDialect.MySql ||
+				(_dialect == SqlDialect.PostgreSql && this.followsEscapeStringPrefix());
+			this.consumeQuoted('\'', backslashEscapes);
+		}
+		else if (c == '"')
+		{
+			this.consumeQuoted('"', _dialect == SqlDialect.MySql);
+		}
+		else if (c == '`' && _dialect == SqlDialect.MySql)
+		{
+			this.consumeQuoted('`', false);
+		}
+		else if (c == '[' && _dialect == SqlDialect.SqlServer)
+		{
+			this.consumeQuoted(']', false);
+		}
+		else if (c == '$' && _dialect == SqlDialect.PostgreSql &&
+			(_previous == -1 || !Character.isJavaIdentifierPart(_previous)))
+		{
+			this.consumeDollarQuoted();
+		}
+		else
+		{
+			this.consume(1, !Character.isWhitespace(c));
+		}
+	}
+
+	/**
+	 * Handles a line that consists of a client-side directive: GO for SQL Server, or DELIMITER for MySQL.
+	 */
+	private boolean tryDirective() throws IOException
+	{
+		if (_dialect != SqlDialect.SqlServer && _dialect != SqlDialect.MySql)
+		{
+			return false;
+		}
+
+		int length = 0;
+		while (this.peek(length) != -1 && this.peek(length) != '\n')
+		{
+			length ++;
+			if (length > DIRECTIVE_MAX_LENGTH)
+			{
+				return false;
+			}
+		}
+
+		String line = _buffer.substring(_bufferPosition, _bufferPosition + length).trim();
+
+		if (_dialect == SqlDialect.SqlServer)
+		{
+			Matcher go = GO.matcher(line);
+			if (go.matches())
+			{
+				this.skip(length);
+				this.endStatement(go.group(1) == null ? 1 : Integer.parseInt(go.group(1)));
+				return true;
+			}
+		}
+		else
+		{
+			Matcher delimiter = DELIMITER.matcher(line);
+			if (delimiter.matches())
+			{
+				if (delimiter.group(1) == null)
+				{
+					throw new IllegalArgumentException("DELIMITER must be followed by the new delimiter");
+				}
+
+				this.skip(length);
+				this.endStatement(1);
+				_delimiter = delimiter.group(1);
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	private void consumeBlockComment() throws IOException
+	{
+		// PostgreSQL allows block comments to be nested
+		int depth = 0;
+
+		while (this.peek(0) != -1)
+		{
+			if (this.startsWith("/*"))
+			{
+				depth = _dialect == SqlDialect.PostgreSql || depth == 0 ? depth + 1 : depth;
+				this.consume(2, false);
+			}
+			else if (this.startsWith("*/"))
+			{
+				depth --;
+				this.consume(2, false);
+				if (depth == 0)
+				{
+					return;
+				}
+			}
+			else
+			{
+				this.consume(1, false);
+			}
+		}
+	}
+
+	private void consumeQuoted(
+		char close,
+		boolean backslashEscapes) throws IOException
+	{
+		this.consume(1, true);
+
+		while (this.peek(0) != -1)
+		{
+			int c = this.peek(0);
+
+			if (backslashEscapes && c == '\\')
+			{
+				this.consume(this.peek(1) == -1 ? 1 : 2, true);
+			}
+			else if (c == close)
+			{
+				// A doubled closing quote is an escaped quote
+				if (this.peek(1) == close)
+				{
+					this.consume(2, true);
+				}
+				else
+				{
+					this.consume(1, true);
+					return;
+				}
+			}
+			else
+			{
+				this.consume(1, true);
+			}
+		}
+	}
+
+	private void consumeDollarQuoted() throws IOException
+	{
+		int length = 1;
+		while (this.peek(length) != -1 && this.peek(length) != '$')
+		{
+			int c = this.peek(length);
+			boolean valid = length == 1
+				? Character.isLetter(c) || c == '_'
+				: Character.isLetterOrDigit(c) || c == '_';
+			if (!valid)
+			{
+				// A lone $, such as a positional parameter
+				this.consume(1, true);
+				return;
+			}
+			length ++;
+		}
+
+		if (this.peek(length) != '$')
+		{
+			this.consume(1, true);
+			return;
+		}
+
+		String tag = _buffer.substring(_bufferPosition, _bufferPosition + length + 1);
+		this.consume(tag.length(), true);
+
+		while (this.peek(0) != -1)
+		{
+			if (this.startsWith(tag))
+			{
+				this.consume(tag.length(), true);
+				return;
+			}
+
+			this.consume(1, true);
+		}
+	}
+
+	/**
+	 * Determines whether the quote at the current position starts a PostgreSQL escape string, such as E'\n'.
+	 */
+	private boolean followsEscapeStringPrefix()
+	{
+		return (_previous == 'E' || _previous == 'e') &&
+			(_beforePrevious == -1 || !Character.isJavaIdentifierPart(_beforePrevious));
+	}
+
+	private void endStatement(
+		int repeat)
+	{
+		if (_currentHasContent)
+		{
+			_next = _current.toString().trim();
+			_nextRepeat = repeat;
+		}
+
+		_current.setLength(0);
+		_currentHasContent = false;
+	}
+
+	private void consume(
+		int length,
+		boolean content) throws IOException
+	{
+		for (int i = 0; i < length; i ++)
+		{
+			int c = this.peek(0);
+			if (c == -1)
+			{
+				return;
+			}
+
+			_current.append((char)c);
+			this.skip(1);
+		}
+
+		_currentHasContent |= content;
+	}
+
+	private void skip(
+		int length) throws IOException
+	{
+		for (int i = 0; i < length && this.peek(0) != -1; i ++)
+		{
+			_beforePrevious = _previous;
+			_previous = _buffer.charAt(_bufferPosition);
+			_bufferPosition ++;
+		}
+	}
+
+	private boolean startsWith(
+		String value) throws IOException
+	{
+		for (int i = 0; i < value.length(); i ++)
+		{
+			if (this.peek(i) != value.charAt(i))
+			{
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Returns the character the supplied distance ahead of the current position, reading more of the script if it is
+	 * needed, or -1 if the script ends before then.
+	 */
+	private int peek(
+		int offset) throws IOException
+	{
+		while (_bufferPosition + offset >= _buffer.length())
+		{
+			if (_endOfInput)
+			{
+				return -1;
+			}
+
+			// Discard the characters that have already been consumed before reading more
+			if (_bufferPosition > 0)
+			{
+				_buffer.delete(0, _bufferPosition);
+				_bufferPosition = 0;
+			}
+
+			int read = _reader.read(_chunk);
+			if (read == -1)
+			{
+				_endOfInput = true;
+			}
+			else
+			{
+				_buffer.append(_chunk, 0, read);
+			}
+		}
+
+		return _buffer.charAt(_bufferPosition + offset);
+	}
+}
@@ -0,0 +1,88 @@
+// Wildebeest Migration Framework
+// Copyright © 2013 - 2018, Matheson Ventures Pte Ltd
+//
+// This file is part of Wildebeest
+//
+// Wildebeest is free software: you can redistribute it and/or modify it under
+// the terms of the GNU General Public License v2 as published by the Free
+// Software Foundation.
+//
+// Wildebeest is distributed in the hope that it will be useful, but WITHOUT ANY
+// WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+// A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along with
+// Wildebeest.  If not, see http://www.gnu.org/licenses/gpl-2.0.html
+
+package co.mv.wb.plugin.generaldatabase.dom;
+
+import co.mv.wb.InstanceBuilder;
+import co.mv.wb.Messages;
+import co.mv.wb.V;
+import co.mv.wb.plugin.base.dom.BaseDomInstanceBuilder;
+import co.mv.wb.plugin.generaldatabase.ConnectionPoolSettings;
+import co.mv.wb.plugin.generaldatabase.JdbcDatabaseInstance;
+
+import java.util.Optional;
+
+/**
+ * Base class for DOM-based {@link InstanceBuilder} implementations that build database instances.
+ *
+ * @since                                       4.0
+ */
+public abstract class BaseDatabaseDomInstanceBuilder extends BaseDomInstanceBuilder
+{
+	/**
+	 * Reads the optional &lt;connectionPool&gt; element of the instance.  Settings that are not specified take their
+	 * default values.
+	 *
+	 * @param       messages                    the Messages collection to add any validation messages to.
+	 * @param       instanceType                the type of instance being built, for use in validation messages.
+	 * @return                                  the connection pool settings of the instance, or the defaults if no
+	 *                                          &lt;connectionPool&gt; element is present.
+	 * @since                                   4.0
+	 */
+	protected ConnectionPoolSettings getConnectionPoolSettings(
+		Messages messages,
+		Class<? extends JdbcDatabaseInstance> instanceType)
+	{
+		if (messages == null) { throw new IllegalArgumentException("messages cannot be null"); }
+		if (instanceType == null) { throw new IllegalArgumentException("instanceType cannot be null"); }
+
+		Optional<Integer> maxSize = this.tryGetPoolInteger(messages, instanceType, "maxSize");
+		Optional<Integer> connectionTimeout = this.tryGetPoolInteger(messages, instanceType, "connectionTimeout");
+		Optional<Integer> idleTimeout = this.tryGetPoolInteger(messages, instanceType, "idleTimeout");
+
+		if (maxSize.isPresent() && maxSize.get() < 1)
+		{
+			V.elementInvalidValue(messages, null, "connectionPool/maxSize", instanceType);
+			return ConnectionPoolSettings.DEFAULT;
+		}
+
+		return new ConnectionPoolSettings(
+			maxSize.orElse(ConnectionPoolSettings.DEFAULT_MAX_SIZE),
+			connectionTimeout.map(Integer::longValue).orElse(ConnectionPoolSettings.DEFAULT_CONNECTION_TIMEOUT_MILLIS),
+			idleTimeout.map(Integer::longValue).orElse(ConnectionPoolSettings.DEFAULT_IDLE_TIMEOUT_MILLIS));
+	}
+
+	private Optional<Integer> tryGetPoolInteger(
+		Messages messages,
+		Class<? extends JdbcDatabaseInstance> instanceType,
+		String name)
+	{
+		if (messages == null) { throw new IllegalArgumentException("messages cannot be null"); }
+		if (instanceType == null) { throw new IllegalArgumentException("instanceType cannot be null"); }
+		if (name == null) { throw new IllegalArgumentException("name cannot be null"); }
+
+		String xpath = "connectionPool/" + name;
+		Optional<Integer> result = this.tryGetInteger(xpath);
+
+		if (this.tryGetString(xpath).isPresent() && (!result.isPresent() || result.get() < 0))
+		{
+			V.elementInvalidValue(messages, null, xpath, instanceType);
+			result = Optional.empty();
+		}
+
+		return result;
+	}
+}
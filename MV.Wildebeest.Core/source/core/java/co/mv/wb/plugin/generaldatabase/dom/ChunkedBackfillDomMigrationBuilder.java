@@ -0,0 +1,123 @@
+// Wildebeest Migration Framework
+// Copyright © 2013 - 2018, Matheson Ventures Pte Ltd
+//
+// This file is part of Wildebeest
+//
+// Wildebeest is free software: you can redistribute it and/or modify it under
+// the terms of the GNU General Public License v2 as published by the Free
+// Software Foundation.
+//
+// Wildebeest is distributed in the hope that it will be useful, but WITHOUT ANY
+// WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+// A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along with
+// Wildebeest.  If not, see http://www.gnu.org/licenses/gpl-2.0.html
+
+package co.mv.wb.plugin.generaldatabase.dom;
+
+import co.mv.wb.Messages;
+import co.mv.wb.Migration;
+import co.mv.wb.MigrationBuilder;
+import co.mv.wb.PluginBuildException;
+import co.mv.wb.V;
+import co.mv.wb.plugin.base.dom.BaseDomMigrationBuilder;
+import co.mv.wb.plugin.generaldatabase.ChunkedBackfillMigration;
+
+import java.io.File;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * A {@link MigrationBuilder} that builds a {@link ChunkedBackfillMigration} from a DOM {@link org.w3c.dom.Element}.
+ *
+ * @since                                       4.0
+ */
+public class ChunkedBackfillDomMigrationBuilder extends BaseDomMigrationBuilder
+{
+	@Override public Migration build(
+		UUID migrationId,
+		Optional<UUID> fromStateId,
+		Optional<UUID> toStateId,
+		File baseDir) throws
+			PluginBuildException
+	{
+		Optional<String> tableName = this.tryGetString("tableName");
+		Optional<String> keyColumn = this.tryGetString("keyColumn");
+		Optional<String> chunkSizeRaw = this.tryGetString("chunkSize");
+		Optional<Long> chunkSize = chunkSizeRaw.flatMap(ChunkedBackfillDomMigrationBuilder::tryParseLong);
+		Optional<String> sql = this.tryGetString("sql");
+		Optional<String> workersRaw = this.tryGetString("workers");
+		Optional<Integer> workers = this.tryGetInteger("workers");
+		Optional<String> sleepMillisRaw = this.tryGetString("sleepMillis");
+		Optional<Long> sleepMillis = sleepMillisRaw.flatMap(ChunkedBackfillDomMigrationBuilder::tryParseLong);
+		Optional<String> maxLagSecondsRaw = this.tryGetString("maxLagSeconds");
+		Optional<Integer> maxLagSeconds = this.tryGetInteger("maxLagSeconds");
+		Optional<String> lagQuery = this.tryGetString("lagQuery");
+
+		// Validation
+		Messages messages = new Messages();
+		if (!tableName.isPresent())
+		{
+			V.elementMissing(messages, migrationId, "tableName", ChunkedBackfillMigration.class);
+		}
+		if (!keyColumn.isPresent())
+		{
+			V.elementMissing(messages, migrationId, "keyColumn", ChunkedBackfillMigration.class);
+		}
+		if (!chunkSizeRaw.isPresent())
+		{
+			V.elementMissing(messages, migrationId, "chunkSize", ChunkedBackfillMigration.class);
+		}
+		else if (!chunkSize.isPresent() || chunkSize.get() < 1)
+		{
+			V.elementInvalidValue(messages, migrationId, "chunkSize", ChunkedBackfillMigration.class);
+		}
+		if (!sql.isPresent())
+		{
+			V.elementMissing(messages, migrationId, "sql", ChunkedBackfillMigration.class);
+		}
+		if (workersRaw.isPresent() && (!workers.isPresent() || workers.get() < 1))
+		{
+			V.elementInvalidValue(messages, migrationId, "workers", ChunkedBackfillMigration.class);
+		}
+		if (sleepMillisRaw.isPresent() && (!sleepMillis.isPresent() || sleepMillis.get() < 0))
+		{
+			V.elementInvalidValue(messages, migrationId, "sleepMillis", ChunkedBackfillMigration.class);
+		}
+		if (maxLagSecondsRaw.isPresent() && (!maxLagSeconds.isPresent() || maxLagSeconds.get() < 0))
+		{
+			V.elementInvalidValue(messages, migrationId, "maxLagSeconds", ChunkedBackfillMigration.class);
+		}
+
+		if (messages.size() > 0)
+		{
+			throw new PluginBuildException(messages);
+		}
+
+		return new ChunkedBackfillMigration(
+			migrationId,
+			fromStateId,
+			toStateId,
+			tableName.get(),
+			keyColumn.get(),
+			chunkSize.get(),
+			sql.get(),
+			workers.orElse(1),
+			sleepMillis.orElse(0L),
+			maxLagSeconds,
+			lagQuery);
+	}
+
+	private static Optional<Long> tryParseLong(String value)
+	{
+		try
+		{
+			return Optional.of(Long.parseLong(value.trim()));
+		}
+		catch (NumberFormatException e)
+		{
+			return Optional.empty();
+		}
+	}
+}
@@ -0,0 +1,101 @@
+// Wildebeest Migration Framework
+// Copyright © 2013 - 2018, Matheson Ventures Pte Ltd
+//
+// This file is part of Wildebeest
+//
+// Wildebeest is free software: you can redistribute it and/or modify it under
+// the terms of the GNU General Public License v2 as published by the Free
+// Software Foundation.
+//
+// Wildebeest is distributed in the hope that it will be useful, but WITHOUT ANY
+// WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+// A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along with
+// Wildebeest.  If not, see http://www.gnu.org/licenses/gpl-2.0.html
+
+package co.mv.wb.plugin.generaldatabase.dom;
+
+import co.mv.wb.Assertion;
+import co.mv.wb.AssertionBuilder;
+import co.mv.wb.Messages;
+import co.mv.wb.PluginBuildException;
+import co.mv.wb.V;
+import co.mv.wb.plugin.base.dom.BaseDomAssertionBuilder;
+import co.mv.wb.plugin.generaldatabase.RowCountAssertion;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static co.mv.wb.framework.Util.coalesceWhitespace;
+
+/**
+ * An {@link AssertionBuilder} that builds a {@link RowCountAssertion} from a DOM {@link org.w3c.dom.Element}.
+ *
+ * @since                                       4.0
+ */
+public class RowCountDomAssertionBuilder extends BaseDomAssertionBuilder implements AssertionBuilder
+{
+	@Override public Assertion build(
+		UUID assertionId,
+		int seqNum) throws
+			PluginBuildException
+	{
+		Optional<String> sql = this.tryGetString("sql");
+		Optional<String> description = this.tryGetString("description");
+		Optional<String> minRaw = this.tryGetString("min");
+		Optional<Integer> min = this.tryGetInteger("min");
+		Optional<String> maxRaw = this.tryGetString("max");
+		Optional<Integer> max = this.tryGetInteger("max");
+
+		// Validation
+		Messages messages = new Messages();
+		if (!sql.isPresent())
+		{
+			V.elementMissing(messages, assertionId, "sql", RowCountAssertion.class);
+		}
+
+		if (!description.isPresent())
+		{
+			V.elementMissing(messages, assertionId, "description", RowCountAssertion.class);
+		}
+
+		if (minRaw.isPresent() && (!min.isPresent() || min.get() < 0))
+		{
+			V.elementInvalidValue(messages, assertionId, "min", RowCountAssertion.class);
+		}
+
+		if (maxRaw.isPresent() && (!max.isPresent() || max.get() < 0))
+		{
+			V.elementInvalidValue(messages, assertionId, "max", RowCountAssertion.class);
+		}
+
+		if (!minRaw.isPresent() && !maxRaw.isPresent())
+		{
+			messages.addMessage(
+				"At least one of elements min and max must be specified for %s with ID %s",
+				RowCountAssertion.class.getName(),
+				assertionId);
+		}
+		else if (min.isPresent() && max.isPresent() && min.get() > max.get())
+		{
+			messages.addMessage(
+				"Element min cannot be greater than element max for %s with ID %s",
+				RowCountAssertion.class.getName(),
+				assertionId);
+		}
+
+		if (messages.size() > 0)
+		{
+			throw new PluginBuildException(messages);
+		}
+
+		return new RowCountAssertion(
+			assertionId,
+			coalesceWhitespace(description.get()),
+			seqNum,
+			sql.get(),
+			min,
+			max);
+	}
+}
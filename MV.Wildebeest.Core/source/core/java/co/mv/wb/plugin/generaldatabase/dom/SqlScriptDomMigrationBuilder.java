@@ -45,20 +45,43 @@ public class SqlScriptDomMigrationBuilder extends BaseDomMigrationBuilder
 		Migration result;
 		
 		Optional<String> sql = this.tryGetString("sql");
+		Optional<String> fileName = this.tryGetString("file");
+
+		// A script file is resolved relative to the directory that contains the resource
+		Optional<File> file = fileName.map(name -> new File(name).isAbsolute()
+			? new File(name)
+			: new File(baseDir, name));
 		
 		// Validation
 		Messages messages = new Messages();
-		if (!sql.isPresent())
+		if (!sql.isPresent() && !file.isPresent())
 		{
 			V.elementMissing(messages, migrationId, "sql", SqlScriptMigration.class);
 		}
+		else if (sql.isPresent() && file.isPresent())
+		{
+			messages.addMessage(
+				"Only one of elements sql and file may be specified for %s with ID %s",
+				SqlScriptMigration.class.getName(),
+				migrationId);
+		}
+		else if (file.isPresent() && !file.get().isFile())
+		{
+			messages.addMessage(
+				"The script file %s for %s with ID %s does not exist",
+				file.get().getAbsolutePath(),
+				SqlScriptMigration.class.getName(),
+				migrationId);
+		}
 		
 		if (messages.size() > 0)
 		{
 			throw new PluginBuildException(messages);
 		}
 
-		result = new SqlScriptMigration(migrationId, fromStateId, toStateId, sql.get());
+		result = sql.isPresent()
+			? new SqlScriptMigration(migrationId, fromStateId, toStateId, sql.get())
+			: new SqlScriptMigration(migrationId, fromStateId, toStateId, file.get());
 		
 		return result;
 	}
@@ -0,0 +1,305 @@
+// Wildebeest Migration Framework
+// Copyright © 2013 - 2018, Matheson Ventures Pte Ltd
+//
+// This file is part of Wildebeest
+//
+// Wildebeest is free software: you can redistribute it and/or modify it under
+// the terms of the GNU General Public License v2 as published by the Free
+// Software Foundation.
+//
+// Wildebeest is distributed in the hope that it will be useful, but WITHOUT ANY
+// WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+// A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along with
+// Wildebeest.  If not, see http://www.gnu.org/licenses/gpl-2.0.html
+
+package co.mv.wb.plugin.h2;
+
+import co.mv.wb.FaultException;
+import co.mv.wb.plugin.generaldatabase.AnsiSqlDatabaseInstance;
+import co.mv.wb.plugin.generaldatabase.BaseDatabaseInstance;
+import co.mv.wb.plugin.generaldatabase.CatalogSnapshot;
+import co.mv.wb.plugin.generaldatabase.SqlDialect;
+import org.h2.api.ErrorCode;
+import org.h2.jdbcx.JdbcDataSource;
+
+import javax.sql.DataSource;
+import java.io.File;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Optional;
+
+/**
+ * Represents an instance of an H2 database, which runs inside the Wildebeest process rather than on a server.  The
+ * database is either held in memory, where it lasts until the process exits, or stored in a file in a local directory,
+ * where it is kept open until the instance is closed.
+ *
+ * Unquoted identifiers are folded to lower case, as they are by PostgreSQL, so that the catalog queries made by the
+ * ANSI SQL assertions find the tables that a script creates.
+ * 
+ * @since                                       4.0
+ */
+public class H2DatabaseInstance extends BaseDatabaseInstance implements AnsiSqlDatabaseInstance
+{
+	private static final String USERNAME = "sa";
+	private static final String PASSWORD = "";
+
+	private final H2StorageMode _storageMode;
+	private final Optional<String> _path;
+	private final Optional<String> _compatibilityMode;
+	private volatile boolean _stateTableKnownToExist = false;
+	private volatile Optional<CatalogSnapshot> _catalogSnapshot = Optional.empty();
+
+	/**
+	 * Creates a new H2DatabaseInstance.
+	 *
+	 * @param       storageMode                 where the database keeps its data.
+	 * @param       path                        the directory that holds the database file, which is required for the
+	 *                                          File storage mode and must be null for the Memory storage mode.
+	 * @param       compatibilityMode           the name of the H2 compatibility mode to run the database in, such as
+	 *                                          PostgreSQL or MySQL, or null for H2's own behaviour.
+	 * @param       databaseName                the name of the database.
+	 * @param       metaSchemaName              the name of the schema that holds the state tracking table, or null
+	 *                                          to use the default.
+	 * @param       stateTableName              the name of the state tracking table, or null to use the default.
+	 * @since                                   4.0
+	 */
+	public H2DatabaseInstance(
+		H2StorageMode storageMode,
+		String path,
+		String compatibilityMode,
+		String databaseName,
+		String metaSchemaName,
+		String stateTableName)
+	{
+		super(databaseName, stateTableName);
+
+		if (storageMode == null) { throw new IllegalArgumentException("storageMode cannot be null"); }
+		if (storageMode == H2StorageMode.File && path == null)
+		{
+			throw new IllegalArgumentException("path cannot be null for a file database");
+		}
+		if (storageMode == H2StorageMode.Memory && path != null)
+		{
+			throw new IllegalArgumentException("path must be null for an in-memory database");
+		}
+		if ("".equals(compatibilityMode)) { throw new IllegalArgumentException("compatibilityMode cannot be empty"); }
+
+		_storageMode = storageMode;
+		_path = Optional.ofNullable(path);
+		_compatibilityMode = Optional.ofNullable(compatibilityMode);
+		if (metaSchemaName != null)
+		{
+			this.setMetaSchemaName(metaSchemaName);
+		}
+	}
+
+	public H2StorageMode getStorageMode()
+	{
+		return _storageMode;
+	}
+
+	public Optional<String> getPath()
+	{
+		return _path;
+	}
+
+	public Optional<String> getCompatibilityMode()
+	{
+		return _compatibilityMode;
+	}
+
+	// <editor-fold desc="MetaSchemaName" defaultstate="collapsed">
+
+	private String _metaSchemaName = null;
+	private boolean _metaSchemaName_set = false;
+
+	@Override public String getMetaSchemaName() {
+		if(!_metaSchemaName_set) {
+			throw new IllegalStateException("metaSchemaName not set.");
+		}
+		if(_metaSchemaName == null) {
+			throw new IllegalStateException("metaSchemaName should not be null");
+		}
+		return _metaSchemaName;
+	}
+
+	@Override public final void setMetaSchemaName(
+		String value) {
+		if(value == null) {
+			throw new IllegalArgumentException("metaSchemaName cannot be null");
+		}
+		boolean changing = !_metaSchemaName_set || !_metaSchemaName.equals(value);
+		if(changing) {
+			_metaSchemaName_set = true;
+			_metaSchemaName = value;
+		}
+	}
+
+	@Override public void clearMetaSchemaName() {
+		if(_metaSchemaName_set) {
+			_metaSchemaName_set = true;
+			_metaSchemaName = null;
+		}
+	}
+
+	@Override public boolean hasMetaSchemaName() {
+		return _metaSchemaName_set;
+	}
+
+	// </editor-fold>
+
+	/**
+	 * Gets the JDBC URL for this database.  The database is kept open when its last connection is closed, as the
+	 * connections are not pooled.  An in-memory database then lasts for as long as the process does rather than for a
+	 * single connection, and a file database is not reopened for each connection.
+	 *
+	 * @return                                  the JDBC URL for this database.
+	 * @since                                   4.0
+	 */
+	public String getJdbcUrl()
+	{
+		StringBuilder result = new StringBuilder("jdbc:h2:");
+
+		if (_storageMode == H2StorageMode.Memory)
+		{
+			result.append("mem:").append(this.getDatabaseName());
+		}
+		else
+		{
+			result.append("file:").append(new File(_path.get(), this.getDatabaseName()).getPath());
+		}
+
+		result.append(";DB_CLOSE_DELAY=-1");
+
+		_compatibilityMode.ifPresent(mode -> result.append(";MODE=").append(mode));
+		result.append(";DATABASE_TO_LOWER=TRUE");
+
+		return result.toString();
+	}
+
+	/**
+	 * Returns a DataSource that only connects to the database if it already exists.  H2 creates a database when it is
+	 * first connected to, so there is no separate server-level database to perform administrative operations against.
+	 *
+	 * @return                                  a DataSource that does not create the database.
+	 * @since                                   4.0
+	 */
+	@Override public DataSource getAdminDataSource()
+	{
+		return H2DatabaseInstance.createDataSource(this.getJdbcUrl() + ";IFEXISTS=TRUE");
+	}
+
+	/**
+	 * Returns a DataSource for the database, which creates the database when it is first connected to.  Connections to
+	 * an embedded database are cheap to open, so they are not pooled.
+	 *
+	 * @return                                  a DataSource for the database.
+	 * @since                                   4.0
+	 */
+	@Override public DataSource getAppDataSource()
+	{
+		return H2DatabaseInstance.createDataSource(this.getJdbcUrl());
+	}
+
+	@Override public void releaseAppConnections()
+	{
+		_stateTableKnownToExist = false;
+		_catalogSnapshot = Optional.empty();
+	}
+
+	@Override public SqlDialect getSqlDialect()
+	{
+		return SqlDialect.Ansi;
+	}
+
+	@Override public boolean isStateTableKnownToExist()
+	{
+		return _stateTableKnownToExist;
+	}
+
+	@Override public void setStateTableKnownToExist(
+		boolean value)
+	{
+		_stateTableKnownToExist = value;
+	}
+
+	@Override public Optional<CatalogSnapshot> getCatalogSnapshot()
+	{
+		return _catalogSnapshot;
+	}
+
+	@Override public void setCatalogSnapshot(
+		Optional<CatalogSnapshot> value)
+	{
+		if (value == null) { throw new IllegalArgumentException("value cannot be null"); }
+
+		_catalogSnapshot = value;
+	}
+
+	/**
+	 * Shuts down a file database, so that its file is written and released.  An in-memory database is left open, as
+	 * shutting it down would discard it.
+	 *
+	 * @since                                   4.0
+	 */
+	@Override public void close()
+	{
+		_stateTableKnownToExist = false;
+		_catalogSnapshot = Optional.empty();
+
+		if (_storageMode != H2StorageMode.File)
+		{
+			return;
+		}
+
+		try (Connection conn = this.getAdminDataSource().getConnection();
+			Statement stmt = conn.createStatement())
+		{
+			stmt.execute("SHUTDOWN");
+		}
+		catch (SQLException e)
+		{
+			if (e.getErrorCode() != ErrorCode.DATABASE_NOT_FOUND_WITH_IF_EXISTS_1)
+			{
+				throw new FaultException(e);
+			}
+		}
+	}
+
+	@Override public boolean databaseExists()
+	{
+		if (_catalogSnapshot.isPresent())
+		{
+			return _catalogSnapshot.get().databaseExists();
+		}
+
+		// The URL has IFEXISTS=TRUE, so opening a connection fails rather than creating the database
+		try (Connection conn = this.getAdminDataSource().getConnection())
+		{
+			return conn.isValid(0);
+		}
+		catch (SQLException e)
+		{
+			if (e.getErrorCode() == ErrorCode.DATABASE_NOT_FOUND_WITH_IF_EXISTS_1)
+			{
+				return false;
+			}
+
+			throw new FaultException(e);
+		}
+	}
+
+	private static DataSource createDataSource(
+		String url)
+	{
+		JdbcDataSource ds = new JdbcDataSource();
+		ds.setURL(url);
+		ds.setUser(USERNAME);
+		ds.setPassword(PASSWORD);
+
+		return ds;
+	}
+}
@@ -0,0 +1,214 @@
+// Wildebeest Migration Framework
+// Copyright © 2013 - 2018, Matheson Ventures Pte Ltd
+//
+// This file is part of Wildebeest
+//
+// Wildebeest is free software: you can redistribute it and/or modify it under
+// the terms of the GNU General Public License v2 as published by the Free
+// Software Foundation.
+//
+// Wildebeest is distributed in the hope that it will be useful, but WITHOUT ANY
+// WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+// A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along with
+// Wildebeest.  If not, see http://www.gnu.org/licenses/gpl-2.0.html
+
+package co.mv.wb.plugin.h2;
+
+import co.mv.wb.FaultException;
+import co.mv.wb.IndeterminateStateException;
+import co.mv.wb.Instance;
+import co.mv.wb.ModelExtensions;
+import co.mv.wb.Resource;
+import co.mv.wb.ResourcePlugin;
+import co.mv.wb.State;
+import co.mv.wb.Wildebeest;
+import co.mv.wb.plugin.generaldatabase.AnsiSqlDatabaseInstance;
+import co.mv.wb.plugin.generaldatabase.Extensions;
+
+import java.io.PrintStream;
+import java.sql.SQLException;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Defines an H2 database resource, which is migrated in-process without a database server.
+ * 
+ * @since                                       4.0
+ */
+public class H2DatabaseResourcePlugin implements ResourcePlugin
+{
+	public H2DatabaseResourcePlugin()
+	{
+	}
+
+	@Override public State currentState(
+		Resource resource,
+		Instance instance) throws
+			IndeterminateStateException
+	{
+		if (resource == null) { throw new IllegalArgumentException("resource cannot be null"); }
+		if (instance == null) { throw new IllegalArgumentException("instance cannot be null"); }
+		H2DatabaseInstance db = ModelExtensions.As(instance, H2DatabaseInstance.class);
+		if (db == null) { throw new IllegalArgumentException("instance must be a H2DatabaseInstance"); }
+
+		String metaSchemaName = Extensions.getMetaSchemaName(db);
+		String stateTableName = Extensions.getStateTableName(db);
+		
+		UUID declaredStateId = null;
+		
+		if (db.databaseExists() &&
+			H2DatabaseResourcePlugin.stateTableExists(db, metaSchemaName, stateTableName) &&
+			H2StateHelper.hasStateId(
+				resource.getResourceId(), db.getAppDataSource(), metaSchemaName, stateTableName))
+		{
+			declaredStateId = H2StateHelper.getStateId(
+				resource.getResourceId(),
+				db.getAppDataSource(),
+				metaSchemaName,
+				stateTableName);
+		}
+		
+		// If we found a declared state, check that the state is actually defined
+		State result = null;
+		if (declaredStateId != null)
+		{
+			result = Wildebeest.stateForId(resource, declaredStateId);
+
+			// If the declared state ID is not known, throw
+			if (result == null)
+			{
+				throw new IndeterminateStateException(String.format(
+					"The resource is declared to be in state %s, but this state is not defined for this resource",
+					declaredStateId.toString()));
+			}
+		}
+		
+		return result;
+	}
+
+	@Override public void setStateId(
+		PrintStream output,
+		Resource resource,
+		Instance instance,
+		UUID stateId)
+	{
+		if (output == null) { throw new IllegalArgumentException("output cannot be null"); }
+		if (resource == null) { throw new IllegalArgumentException("resource cannot be null"); }
+		if (instance == null) { throw new IllegalArgumentException("instance cannot be null"); }
+		AnsiSqlDatabaseInstance db = ModelExtensions.As(instance, AnsiSqlDatabaseInstance.class);
+		if (db == null) { throw new IllegalArgumentException("instance must be an AnsiSqlDatabaseInstance"); }
+		if (stateId == null) { throw new IllegalArgumentException("stateId cannot be null"); }
+		
+		String metaSchemaName = Extensions.getMetaSchemaName(db);
+		String stateTableName = Extensions.getStateTableName(db);
+
+		H2DatabaseResourcePlugin.ensureStateTable(db, metaSchemaName, stateTableName);
+
+		// Set the state tracking row
+		try
+		{
+			H2StateHelper.setStateId(
+				resource.getResourceId(),
+				db.getAppDataSource(),
+				metaSchemaName,
+				stateTableName,
+				stateId);
+		}
+		catch (SQLException e)
+		{
+			throw new FaultException(e);
+		}
+	}
+
+	@Override public void setStateId(
+		PrintStream output,
+		Resource resource,
+		Instance instance,
+		Optional<UUID> expectedStateId,
+		UUID stateId) throws
+			IndeterminateStateException
+	{
+		if (output == null) { throw new IllegalArgumentException("output cannot be null"); }
+		if (resource == null) { throw new IllegalArgumentException("resource cannot be null"); }
+		if (instance == null) { throw new IllegalArgumentException("instance cannot be null"); }
+		AnsiSqlDatabaseInstance db = ModelExtensions.As(instance, AnsiSqlDatabaseInstance.class);
+		if (db == null) { throw new IllegalArgumentException("instance must be an AnsiSqlDatabaseInstance"); }
+		if (expectedStateId == null) { throw new IllegalArgumentException("expectedStateId cannot be null"); }
+		if (stateId == null) { throw new IllegalArgumentException("stateId cannot be null"); }
+
+		String metaSchemaName = Extensions.getMetaSchemaName(db);
+		String stateTableName = Extensions.getStateTableName(db);
+
+		H2DatabaseResourcePlugin.ensureStateTable(db, metaSchemaName, stateTableName);
+
+		// Set the state tracking row, unless another process has changed it since it was read
+		boolean set;
+		try
+		{
+			set = H2StateHelper.compareAndSetStateId(
+				resource.getResourceId(),
+				db.getAppDataSource(),
+				metaSchemaName,
+				stateTableName,
+				expectedStateId,
+				stateId);
+		}
+		catch (SQLException e)
+		{
+			throw new FaultException(e);
+		}
+
+		if (!set)
+		{
+			throw new IndeterminateStateException(String.format(
+				"The resource was expected to be in state %s, but its state has been changed by another process",
+				expectedStateId.map(UUID::toString).orElse("non-existent")));
+		}
+	}
+
+	/**
+	 * Checks whether or not the state tracking table exists.  The catalog is only queried if the instance does not
+	 * already know that the table exists.
+	 */
+	private static boolean stateTableExists(
+		H2DatabaseInstance db,
+		String metaSchemaName,
+		String stateTableName)
+	{
+		if (db == null) { throw new IllegalArgumentException("db cannot be null"); }
+		if (metaSchemaName == null) { throw new IllegalArgumentException("metaSchemaName cannot be null"); }
+		if (stateTableName == null) { throw new IllegalArgumentException("stateTableName cannot be null"); }
+
+		if (!db.isStateTableKnownToExist() &&
+			H2StateHelper.stateTableExists(db.getAppDataSource(), metaSchemaName, stateTableName))
+		{
+			db.setStateTableKnownToExist(true);
+		}
+
+		return db.isStateTableKnownToExist();
+	}
+
+	/**
+	 * Creates the state tracking table if the instance does not already know that it exists.
+	 */
+	private static void ensureStateTable(
+		AnsiSqlDatabaseInstance db,
+		String metaSchemaName,
+		String stateTableName)
+	{
+		if (db == null) { throw new IllegalArgumentException("db cannot be null"); }
+		if (metaSchemaName == null) { throw new IllegalArgumentException("metaSchemaName cannot be null"); }
+		if (stateTableName == null) { throw new IllegalArgumentException("stateTableName cannot be null"); }
+
+		if (!db.isStateTableKnownToExist())
+		{
+			H2StateHelper.ensureStateTable(
+				db.getAppDataSource(),
+				metaSchemaName,
+				stateTableName);
+			db.setStateTableKnownToExist(true);
+		}
+	}
+}
@@ -0,0 +1,375 @@
+// Wildebeest Migration Framework
+// Copyright © 2013 - 2018, Matheson Ventures Pte Ltd
+//
+// This file is part of Wildebeest
+//
+// Wildebeest is free software: you can redistribute it and/or modify it under
+// the terms of the GNU General Public License v2 as published by the Free
+// Software Foundation.
+//
+// Wildebeest is distributed in the hope that it will be useful, but WITHOUT ANY
+// WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+// A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along with
+// Wildebeest.  If not, see http://www.gnu.org/licenses/gpl-2.0.html
+
+package co.mv.wb.plugin.h2;
+
+import co.mv.wb.FaultException;
+import co.mv.wb.IndeterminateStateException;
+import co.mv.wb.framework.DatabaseHelper;
+import org.h2.api.ErrorCode;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Centralizes state tracking operations for H2DatabaseInstances.
+ * 
+ * @since                                       4.0
+ */
+public class H2StateHelper
+{
+	/**
+	 * Sets the tracked state for an instance.  Note that a H2DatabaseInstance may be migrated by multiple
+	 * separate resource definitions (to support composite resources).  The state set is for a specific resource
+	 * definition.
+	 *
+	 * The state tracking table must already exist; see {@link #ensureStateTable(DataSource, String, String)}.
+	 * 
+	 * @param       resourceId                  the ID of the resource for which we are tracking state.
+	 * @param       appDataSource               the DataSource for interacting with the database.
+	 * @param       metaSchemaName              the name of the schema where state tracking meta data should be stored.
+	 * @param       stateTableName              the name of the state tracking table in use for this instance.
+	 * @param       stateId                     the ID of the state.
+	 * @throws      SQLException                if an error occurs when interacting with the database.
+	 * @since                                   4.0
+	 */
+	public static void setStateId(
+		UUID resourceId,
+		DataSource appDataSource,
+		String metaSchemaName,
+		String stateTableName,
+		UUID stateId) throws SQLException
+	{
+		if (resourceId == null) { throw new IllegalArgumentException("resourceId cannot be null"); }
+		if (appDataSource == null) { throw new IllegalArgumentException("appDataSource"); }
+		if (metaSchemaName == null) { throw new IllegalArgumentException("metaSchemaName cannot be null"); }
+		if ("".equals(metaSchemaName)) { throw new IllegalArgumentException("metaSchemaName cannot be empty"); }
+		if (stateTableName == null) { throw new IllegalArgumentException("stateTableName cannot be null"); }
+		if ("".equals(stateTableName)) { throw new IllegalArgumentException("stateTableName cannot be empty"); }
+		if (stateId == null) { throw new IllegalArgumentException("stateId cannot be null"); }
+
+		DatabaseHelper.executeUpdate(
+			appDataSource,
+			String.format(
+				"MERGE INTO %s.%s(ResourceId, StateId) KEY(ResourceId) VALUES(?, ?);",
+				metaSchemaName,
+				stateTableName),
+			resourceId,
+			stateId);
+	}
+
+	/**
+	 * Sets the tracked state for an instance, but only if the instance is still in the expected previous state.  The
+	 * check and the write are a single statement, so two runners migrating the same instance at the same time detect
+	 * each other without either of them taking locks.
+	 *
+	 * The state tracking table must already exist; see {@link #ensureStateTable(DataSource, String, String)}.
+	 * 
+	 * @param       resourceId                  the ID of the resource for which we are tracking state.
+	 * @param       appDataSource               the DataSource for interacting with the database.
+	 * @param       metaSchemaName              the name of the schema where state tracking meta data should be stored.
+	 * @param       stateTableName              the name of the state tracking table in use for this instance.
+	 * @param       expectedStateId             the state that the instance is expected to be in, or empty if no state
+	 *                                          is expected to be tracked yet.
+	 * @param       stateId                     the ID of the new state.
+	 * @return                                  true if the state was set, or false if the instance was not in the
+	 *                                          expected state.
+	 * @throws      SQLException                if an error occurs when interacting with the database.
+	 * @since                                   4.0
+	 */
+	public static boolean compareAndSetStateId(
+		UUID resourceId,
+		DataSource appDataSource,
+		String metaSchemaName,
+		String stateTableName,
+		Optional<UUID> expectedStateId,
+		UUID stateId) throws SQLException
+	{
+		if (resourceId == null) { throw new IllegalArgumentException("resourceId cannot be null"); }
+		if (appDataSource == null) { throw new IllegalArgumentException("appDataSource cannot be null"); }
+		if (metaSchemaName == null) { throw new IllegalArgumentException("metaSchemaName cannot be null"); }
+		if ("".equals(metaSchemaName)) { throw new IllegalArgumentException("metaSchemaName cannot be empty"); }
+		if (stateTableName == null) { throw new IllegalArgumentException("stateTableName cannot be null"); }
+		if ("".equals(stateTableName)) { throw new IllegalArgumentException("stateTableName cannot be empty"); }
+		if (expectedStateId == null) { throw new IllegalArgumentException("expectedStateId cannot be null"); }
+		if (stateId == null) { throw new IllegalArgumentException("stateId cannot be null"); }
+
+		if (!expectedStateId.isPresent())
+		{
+			// Record the first state only if no other runner has recorded one in the meantime, which the primary key
+			// of the state tracking table detects
+			try
+			{
+				return DatabaseHelper.executeUpdate(
+					appDataSource,
+					String.format(
+						"INSERT INTO %s.%s(ResourceId, StateId) VALUES(?, ?);",
+						metaSchemaName,
+						stateTableName),
+					resourceId,
+					stateId) == 1;
+			}
+			catch (SQLException e)
+			{
+				if (e.getErrorCode() == ErrorCode.DUPLICATE_KEY_1)
+				{
+					return false;
+				}
+
+				throw e;
+			}
+		}
+
+		return DatabaseHelper.executeUpdate(
+			appDataSource,
+			String.format(
+				"UPDATE %s.%s SET StateId = ? WHERE ResourceId = ? AND StateId = ?;",
+				metaSchemaName,
+				stateTableName),
+			stateId,
+			resourceId,
+			expectedStateId.get()) == 1;
+	}
+	
+	/**
+	 * Gets the tracked state for an instance.  Note that a H2DatabaseInstance may be migrated by multiple
+	 * separate resource definitions (to support composite resources).  The state retrieved is for a specific resource
+	 * definition.
+	 * 
+	 * @param       resourceId                  the ID of the resource for which the state should be queried.          
+	 * @param       appDataSource               the DataSource for interacting with the database.
+	 * @param       metaSchemaName              the name of the meta-data tracking schema to use.
+	 * @param       stateTableName              the name of the state tracking table in use for this instance.
+	 * @return                                  the ID of the state that the instance is in for the specified resource.
+	 * @throws      IndeterminateStateException if the current state of the instance cannot be determined for the
+	 *                                          specified resource.
+	 * @since                                   4.0
+	 */
+	public static UUID getStateId(
+		UUID resourceId,
+		DataSource appDataSource,
+		String metaSchemaName,
+		String stateTableName) throws IndeterminateStateException
+	{
+		if (resourceId == null) { throw new IllegalArgumentException("resourceId cannot be null"); }
+		if (appDataSource == null) { throw new IllegalArgumentException("appDataSource"); }
+		if (metaSchemaName == null) { throw new IllegalArgumentException("metaSchemaName cannot be null"); }
+		if ("".equals(metaSchemaName)) { throw new IllegalArgumentException("metaSchemaName cannot be empty"); }
+		if (stateTableName == null) { throw new IllegalArgumentException("stateTableName cannot be null"); }
+		if ("".equals(stateTableName)) { throw new IllegalArgumentException("stateTableName cannot be empty"); }
+
+		UUID stateId = H2StateHelper.stateIdScalarOptional(
+			resourceId,
+			appDataSource,
+			metaSchemaName, stateTableName);
+		
+		if (stateId == null)
+		{
+			throw new IndeterminateStateException(String.format(
+				"The state tracking table \"%s\" was not found in the target schema",
+				stateTableName));
+		}
+
+		return stateId;
+	}
+
+	/**
+	 * Indicates whether or not a state is currently tracked for the specified resource.  The state tracking table must
+	 * already exist.
+	 * 
+	 * @param       resourceId                  the ID of the resource for which the state should be queried.          
+	 * @param       appDataSource               the DataSource for interacting with the database.
+	 * @param       metaSchemaName              the name of the meta-data tracking schema to use.
+	 * @param       stateTableName              the name of the state tracking table in use for this instance.
+	 * @return                                  a boolean value indicating whether or not a state is currently tracked
+	 *                                          for the specified resource.
+	 * @exception   IndeterminateStateException if the state of the resource cannot be determined
+	 * @since                                   4.0
+	 */
+	public static boolean hasStateId(
+		UUID resourceId,
+		DataSource appDataSource,
+		String metaSchemaName,
+		String stateTableName) throws IndeterminateStateException
+	{
+		if (resourceId == null) { throw new IllegalArgumentException("resourceId cannot be null"); }
+		if (appDataSource == null) { throw new IllegalArgumentException("appDataSource"); }
+		if (metaSchemaName == null) { throw new IllegalArgumentException("metaSchemaName cannot be null"); }
+		if ("".equals(metaSchemaName)) { throw new IllegalArgumentException("metaSchemaName cannot be empty"); }
+		if (stateTableName == null) { throw new IllegalArgumentException("stateTableName cannot be null"); }
+		if ("".equals(stateTableName)) { throw new IllegalArgumentException("stateTableName cannot be empty"); }
+
+		UUID stateId = H2StateHelper.stateIdScalarOptional(
+			resourceId,
+			appDataSource,
+			metaSchemaName, stateTableName);
+
+		return stateId != null;
+	}
+	
+	/**
+	 * Indicates whether or not the state tracking table exists, using a single catalog query.
+	 *
+	 * @param       appDataSource               the DataSource for interacting with the database.
+	 * @param       metaSchemaName              the name of the meta-data tracking schema to use.
+	 * @param       stateTableName              the name of the state tracking table in use for this instance.
+	 * @return                                  true if the state tracking table exists, otherwise false.
+	 * @since                                   4.0
+	 */
+	public static boolean stateTableExists(
+		DataSource appDataSource,
+		String metaSchemaName,
+		String stateTableName)
+	{
+		if (appDataSource == null) { throw new IllegalArgumentException("appDataSource"); }
+		if (metaSchemaName == null) { throw new IllegalArgumentException("metaSchemaName cannot be null"); }
+		if ("".equals(metaSchemaName)) { throw new IllegalArgumentException("metaSchemaName cannot be empty"); }
+		if (stateTableName == null) { throw new IllegalArgumentException("stateTableName cannot be null"); }
+		if ("".equals(stateTableName)) { throw new IllegalArgumentException("stateTableName cannot be empty"); }
+
+		// Unquoted identifiers are folded to lower case by H2DatabaseInstance
+		return DatabaseHelper.rowExists(
+			appDataSource,
+			String.format(
+				"SELECT 1 FROM information_schema.tables WHERE table_schema = '%s' AND table_name = '%s';",
+				metaSchemaName.toLowerCase(),
+				stateTableName.toLowerCase()));
+	}
+
+	/**
+	 * Creates the state tracking table in a H2DatabaseInstance if it does not already exist.  The catalog is
+	 * checked first, so that no DDL is issued when the table is already present.
+	 * 
+	 * @param       appDataSource               the DataSource for interacting with the database.
+	 * @param       metaSchemaName              the name of the meta-data tracking schema to use.
+	 * @param       stateTableName              the name of the state tracking table in use for this instance.
+	 * @since                                   4.0
+	 */
+	public static void ensureStateTable(
+		DataSource appDataSource,
+		String metaSchemaName,
+		String stateTableName)
+	{
+		if (appDataSource == null) { throw new IllegalArgumentException("appDataSource"); }
+		if (metaSchemaName == null) { throw new IllegalArgumentException("metaSchemaName cannot be null"); }
+		if ("".equals(metaSchemaName)) { throw new IllegalArgumentException("metaSchemaName cannot be empty"); }
+		if (stateTableName == null) { throw new IllegalArgumentException("stateTableName cannot be null"); }
+		if ("".equals(stateTableName)) { throw new IllegalArgumentException("stateTableName cannot be empty"); }
+
+		if (H2StateHelper.stateTableExists(appDataSource, metaSchemaName, stateTableName))
+		{
+			return;
+		}
+		
+		try
+		{
+			DatabaseHelper.execute(
+				appDataSource,
+				String.format("CREATE SCHEMA IF NOT EXISTS %s;", metaSchemaName));
+
+			DatabaseHelper.execute(appDataSource, new StringBuilder()
+				.append("CREATE TABLE IF NOT EXISTS ")
+						.append(metaSchemaName).append(".")
+						.append(stateTableName).append("(")
+					.append("ResourceId UUID NOT NULL, ")
+					.append("StateId UUID NOT NULL, ")
+					.append("CONSTRAINT PK_").append(stateTableName).append(" PRIMARY KEY (ResourceId)")
+					.append(");").toString());
+		}
+		catch(SQLException e)
+		{
+			throw new FaultException(e);
+		}
+	}
+
+	/**
+	 * Data access method for retrieving the state ID for the specified resource, if it is tracked.  If not then this
+	 * method will return null.
+	 * 
+	 * @param       resourceId                  the ID of the resource for which the state should be queried.          
+	 * @param       appDataSource               the DataSource for interacting with the database.
+	 * @param       metaSchemaName              the name of the meta-data tracking schema to use.
+	 * @param       stateTableName              the name of the state tracking table in use for this instance.
+	 * @return                                  the ID of the tracked state for this resource if tracked, or null
+	 *                                          otherwise.
+	 * @throws                                  IndeterminateStateException if multiple states are tracked for the
+	 *                                          specified resource.
+	 * @since                                   4.0
+	 */
+	private static UUID stateIdScalarOptional(
+		UUID resourceId,
+		DataSource appDataSource,
+		String metaSchemaName,
+		String stateTableName) throws IndeterminateStateException
+	{
+		if (resourceId == null) { throw new IllegalArgumentException("resourceId cannot be null"); }
+		if (appDataSource == null) { throw new IllegalArgumentException("appDataSource cannot be null"); }
+		if (metaSchemaName == null) { throw new IllegalArgumentException("metaSchemaName cannot be null"); }
+		if (stateTableName == null) { throw new IllegalArgumentException("stateTableName cannot be null"); }
+		
+		UUID result = null;
+		Connection conn = null;
+		PreparedStatement ps = null;
+		ResultSet rs = null;
+		
+		try
+		{
+			conn = appDataSource.getConnection();
+			ps = conn.prepareStatement(String.format(
+				"SELECT StateId FROM %s.%s WHERE ResourceId = ?;",
+				metaSchemaName,
+				stateTableName));
+			ps.setObject(1, resourceId);
+			rs = ps.executeQuery();
+
+			if (rs.next())
+			{
+				result = (UUID)rs.getObject(1);
+
+				if (rs.next())
+				{
+					throw new IndeterminateStateException(String.format(
+						"Multiple rows found in the state tracking table \"%s\"",
+						stateTableName));
+				}
+			}
+		}
+		catch(SQLException e)
+		{
+			throw new FaultException(e);
+		}
+		finally
+		{
+			try
+			{
+				DatabaseHelper.release(rs);
+				DatabaseHelper.release(ps);
+				DatabaseHelper.release(conn);
+			}
+			catch(SQLException e)
+			{
+				throw new FaultException(e);
+			}
+		}
+		
+		return result;
+	}
+}
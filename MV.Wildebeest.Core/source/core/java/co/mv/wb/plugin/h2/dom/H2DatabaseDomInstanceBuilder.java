@@ -0,0 +1,79 @@
+// Wildebeest Migration Framework
+// Copyright © 2013 - 2018, Matheson Ventures Pte Ltd
+//
+// This file is part of Wildebeest
+//
+// Wildebeest is free software: you can redistribute it and/or modify it under
+// the terms of the GNU General Public License v2 as published by the Free
+// Software Foundation.
+//
+// Wildebeest is distributed in the hope that it will be useful, but WITHOUT ANY
+// WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+// A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along with
+// Wildebeest.  If not, see http://www.gnu.org/licenses/gpl-2.0.html
+
+package co.mv.wb.plugin.h2.dom;
+
+import co.mv.wb.Instance;
+import co.mv.wb.InstanceBuilder;
+import co.mv.wb.Messages;
+import co.mv.wb.PluginBuildException;
+import co.mv.wb.V;
+import co.mv.wb.plugin.base.dom.BaseDomInstanceBuilder;
+import co.mv.wb.plugin.h2.H2DatabaseInstance;
+import co.mv.wb.plugin.h2.H2StorageMode;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * An {@link InstanceBuilder} that builds a {@link H2DatabaseInstance} from a DOM {@link org.w3c.dom.Element}.
+ * 
+ * @since                                       4.0
+ */
+public class H2DatabaseDomInstanceBuilder extends BaseDomInstanceBuilder
+{
+	@Override public Instance build() throws
+		PluginBuildException
+	{
+		Optional<String> storageModeName = this.tryGetString("storageMode");
+		Optional<String> path = this.tryGetString("path");
+		Optional<String> compatibilityMode = this.tryGetString("compatibilityMode");
+		Optional<String> databaseName = this.tryGetString("databaseName");
+		Optional<String> metaSchemaName = this.tryGetString("metaSchemaName");
+		Optional<String> stateTableName = this.tryGetString("stateTableName");
+
+		Optional<H2StorageMode> storageMode = storageModeName.flatMap(name -> Arrays
+			.stream(H2StorageMode.values())
+			.filter(mode -> mode.name().equalsIgnoreCase(name))
+			.findFirst());
+
+		Messages messages = new Messages();
+		if (!storageModeName.isPresent()) { V.elementMissing(messages, null, "storageMode", H2DatabaseInstance.class); }
+		else if (!storageMode.isPresent()) { V.elementInvalidValue(messages, null, "storageMode", H2DatabaseInstance.class); }
+		if (storageMode.orElse(null) == H2StorageMode.File && !path.isPresent())
+		{
+			V.elementMissing(messages, null, "path", H2DatabaseInstance.class);
+		}
+		if (storageMode.orElse(null) == H2StorageMode.Memory && path.isPresent())
+		{
+			V.elementInvalidValue(messages, null, "path", H2DatabaseInstance.class);
+		}
+		if (!databaseName.isPresent()) { V.elementMissing(messages, null, "databaseName", H2DatabaseInstance.class); }
+
+		if (messages.size() > 0)
+		{
+			throw new PluginBuildException(messages);
+		}
+
+		return new H2DatabaseInstance(
+			storageMode.get(),
+			path.orElse(null),
+			compatibilityMode.orElse(null),
+			databaseName.get(),
+			metaSchemaName.orElse(null),
+			stateTableName.orElse(null));
+	}
+}
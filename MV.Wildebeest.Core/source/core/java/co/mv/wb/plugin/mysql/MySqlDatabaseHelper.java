@@ -47,6 +47,11 @@ public class MySqlDatabaseHelper
 		if (instance == null) { throw new IllegalArgumentException("instance"); }
 		if (tableName == null) { throw new IllegalArgumentException("tableName cannot be null"); }
 		if ("".equals(tableName)) { throw new IllegalArgumentException("tableName cannot be empty"); }
+
+		if (instance.getCatalogSnapshot().isPresent())
+		{
+			return instance.getCatalogSnapshot().get().tableExists(instance.getDatabaseName(), tableName);
+		}
 		
 		StringBuilder query = new StringBuilder();
 		query
@@ -20,7 +20,11 @@ import co.mv.wb.FaultException;
 import co.mv.wb.Instance;
 import co.mv.wb.framework.DatabaseHelper;
 import co.mv.wb.plugin.generaldatabase.BaseDatabaseInstance;
+import co.mv.wb.plugin.generaldatabase.CatalogSnapshot;
+import co.mv.wb.plugin.generaldatabase.ConnectionPoolSettings;
+import co.mv.wb.plugin.generaldatabase.ConnectionPools;
 import co.mv.wb.plugin.generaldatabase.JdbcDatabaseInstance;
+import co.mv.wb.plugin.generaldatabase.SqlDialect;
 import com.mysql.jdbc.jdbc2.optional.MysqlDataSource;
 
 import javax.sql.DataSource;
@@ -28,6 +32,7 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Optional;
 
 /**
  * A resource {@link Instance} that describes a MySQL database.
@@ -36,6 +41,12 @@ import java.sql.SQLException;
  */
 public class MySqlDatabaseInstance extends BaseDatabaseInstance implements JdbcDatabaseInstance
 {
+	private final ConnectionPools _connectionPools = new ConnectionPools(
+		this::createAdminDataSource,
+		this::createAppDataSource);
+	private volatile boolean _stateTableKnownToExist = false;
+	private volatile Optional<CatalogSnapshot> _catalogSnapshot = Optional.empty();
+
 	/**
 	 * Creates a new MySqlDatabaseInstance.
 	 * 
@@ -241,14 +252,7 @@ public class MySqlDatabaseInstance extends BaseDatabaseInstance implements JdbcD
 	 */
 	@Override public DataSource getAdminDataSource()
 	{
-		MysqlDataSource ds = new MysqlDataSource();
-		ds.setServerName(this.getHostName());
-		ds.setPort(this.getPort());
-		ds.setUser(this.getAdminUsername());
-		ds.setPassword(this.getAdminPassword());
-		ds.setDatabaseName("information_schema");
-		
-		return ds;
+		return _connectionPools.getAdminDataSource();
 	}
 	
 	/**
@@ -258,6 +262,84 @@ public class MySqlDatabaseInstance extends BaseDatabaseInstance implements JdbcD
 	 * @since                                   1.0
 	 */
 	@Override public DataSource getAppDataSource()
+	{
+		return _connectionPools.getAppDataSource();
+	}
+
+	@Override public void releaseAppConnections()
+	{
+		_stateTableKnownToExist = false;
+		_catalogSnapshot = Optional.empty();
+		_connectionPools.releaseAppConnections();
+	}
+
+	@Override public SqlDialect getSqlDialect()
+	{
+		return SqlDialect.MySql;
+	}
+
+	@Override public boolean isStateTableKnownToExist()
+	{
+		return _stateTableKnownToExist;
+	}
+
+	@Override public void setStateTableKnownToExist(
+		boolean value)
+	{
+		_stateTableKnownToExist = value;
+	}
+
+	@Override public Optional<CatalogSnapshot> getCatalogSnapshot()
+	{
+		return _catalogSnapshot;
+	}
+
+	@Override public void setCatalogSnapshot(
+		Optional<CatalogSnapshot> value)
+	{
+		if (value == null) { throw new IllegalArgumentException("value cannot be null"); }
+
+		_catalogSnapshot = value;
+	}
+
+	/**
+	 * Closes the connection pools that this instance holds open.
+	 *
+	 * @since                                   4.0
+	 */
+	@Override public void close()
+	{
+		_stateTableKnownToExist = false;
+		_catalogSnapshot = Optional.empty();
+		_connectionPools.close();
+	}
+
+	@Override public ConnectionPoolSettings getConnectionPoolSettings()
+	{
+		return _connectionPools.getSettings();
+	}
+
+	@Override public void setConnectionPoolSettings(
+		ConnectionPoolSettings value)
+	{
+		if (value == null) { throw new IllegalArgumentException("value cannot be null"); }
+
+		_connectionPools.setSettings(value);
+	}
+
+	private DataSource createAdminDataSource()
+	{
+		MysqlDataSource ds = new MysqlDataSource();
+		ds.setServerName(this.getHostName());
+		ds.setPort(this.getPort());
+		ds.setUser(this.getAdminUsername());
+		ds.setPassword(this.getAdminPassword());
+		ds.setDatabaseName("information_schema");
+		
+		return ds;
+	}
+
+	private DataSource createAppDataSource()
 	{
 		MysqlDataSource ds = new MysqlDataSource();
 		ds.setServerName(this.getHostName());
@@ -271,6 +353,11 @@ public class MySqlDatabaseInstance extends BaseDatabaseInstance implements JdbcD
 
 	@Override public boolean databaseExists()
 	{
+		if (_catalogSnapshot.isPresent())
+		{
+			return _catalogSnapshot.get().databaseExists();
+		}
+
 		boolean result = false;
 		
 		Connection conn = null;
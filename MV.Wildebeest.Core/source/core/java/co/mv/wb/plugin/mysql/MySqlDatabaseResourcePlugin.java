@@ -28,6 +28,7 @@ import co.mv.wb.plugin.generaldatabase.Extensions;
 
 import java.io.PrintStream;
 import java.sql.SQLException;
+import java.util.Optional;
 import java.util.UUID;
 
 /**
@@ -55,12 +56,14 @@ public class MySqlDatabaseResourcePlugin implements ResourcePlugin
 
 		UUID declaredStateId = null;
 		
-		if (db.databaseExists())
+		String stateTableName = Extensions.getStateTableName(db);
+
+		if (db.databaseExists() && MySqlDatabaseResourcePlugin.stateTableExists(db, stateTableName))
 		{
 			declaredStateId = MySqlStateHelper.getStateId(
 				resource.getResourceId(),
 				db.getAppDataSource(),
-				Extensions.getStateTableName(db));
+				stateTableName);
 		}
 		
 		// If we found a declared state, check that the state is actually defined
@@ -94,18 +97,105 @@ public class MySqlDatabaseResourcePlugin implements ResourcePlugin
 		if (db == null) { throw new IllegalArgumentException("instance must be a MySqlDatabaseInstance"); }
 		if (stateId == null) { throw new IllegalArgumentException("stateId"); }
 		
+		String stateTableName = Extensions.getStateTableName(db);
+
 		// Set the state tracking row
 		try
 		{
+			MySqlDatabaseResourcePlugin.ensureStateTable(db, stateTableName);
+
 			MySqlStateHelper.setStateId(
 				resource.getResourceId(),
 				db.getAppDataSource(),
-				Extensions.getStateTableName(db),
+				stateTableName,
+				stateId);
+		}
+		catch (SQLException e)
+		{
+			throw new FaultException(e);
+		}
+	}
+
+	@Override public void setStateId(
+		PrintStream output,
+		Resource resource,
+		Instance instance,
+		Optional<UUID> expectedStateId,
+		UUID stateId) throws
+			IndeterminateStateException
+	{
+		if (output == null) { throw new IllegalArgumentException("output cannot be null"); }
+		if (resource == null) { throw new IllegalArgumentException("resource cannot be null"); }
+		if (instance == null) { throw new IllegalArgumentException("instance cannot be null"); }
+		MySqlDatabaseInstance db = ModelExtensions.As(instance, MySqlDatabaseInstance.class);
+		if (db == null) { throw new IllegalArgumentException("instance must be a MySqlDatabaseInstance"); }
+		if (expectedStateId == null) { throw new IllegalArgumentException("expectedStateId cannot be null"); }
+		if (stateId == null) { throw new IllegalArgumentException("stateId cannot be null"); }
+
+		String stateTableName = Extensions.getStateTableName(db);
+
+		// Set the state tracking row, unless another process has changed it since it was read
+		boolean set;
+		try
+		{
+			MySqlDatabaseResourcePlugin.ensureStateTable(db, stateTableName);
+
+			set = MySqlStateHelper.compareAndSetStateId(
+				resource.getResourceId(),
+				db.getAppDataSource(),
+				stateTableName,
+				expectedStateId,
 				stateId);
 		}
 		catch (SQLException e)
 		{
 			throw new FaultException(e);
 		}
+
+		if (!set)
+		{
+			throw new IndeterminateStateException(String.format(
+				"The resource was expected to be in state %s, but its state has been changed by another process",
+				expectedStateId.map(UUID::toString).orElse("non-existent")));
+		}
+	}
+
+	/**
+	 * Checks whether or not the state tracking table exists.  The catalog is only queried if the instance does not
+	 * already know that the table exists.
+	 */
+	private static boolean stateTableExists(
+		MySqlDatabaseInstance db,
+		String stateTableName)
+	{
+		if (db == null) { throw new IllegalArgumentException("db cannot be null"); }
+		if (stateTableName == null) { throw new IllegalArgumentException("stateTableName cannot be null"); }
+
+		if (!db.isStateTableKnownToExist() &&
+			MySqlStateHelper.stateTableExists(db.getAppDataSource(), stateTableName))
+		{
+			db.setStateTableKnownToExist(true);
+		}
+
+		return db.isStateTableKnownToExist();
+	}
+
+	/**
+	 * Creates the state tracking table if the instance does not already know that it exists.
+	 */
+	private static void ensureStateTable(
+		MySqlDatabaseInstance db,
+		String stateTableName) throws SQLException
+	{
+		if (db == null) { throw new IllegalArgumentException("db cannot be null"); }
+		if (stateTableName == null) { throw new IllegalArgumentException("stateTableName cannot be null"); }
+
+		if (!db.isStateTableKnownToExist())
+		{
+			MySqlStateHelper.ensureStateTable(
+				db.getAppDataSource(),
+				stateTableName);
+			db.setStateTableKnownToExist(true);
+		}
 	}
 }
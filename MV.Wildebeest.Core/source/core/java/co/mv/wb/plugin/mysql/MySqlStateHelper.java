@@ -25,6 +25,7 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Optional;
 import java.util.UUID;
 
 /**
@@ -34,9 +35,14 @@ import java.util.UUID;
  */
 public class MySqlStateHelper
 {
+	// The SQLSTATE reported when an INSERT would duplicate the primary key
+	private static final String SQL_STATE_INTEGRITY_CONSTRAINT_VIOLATION = "23000";
+
 	/**
 	 * Sets the tracked state for an instance.  Note that a MySqlDatabaseInstance may be migrated by multiple separate
 	 * resource definitions (to support composite resources).  The state set is for a specific resource definition.
+	 *
+	 * The state tracking table must already exist; see {@link #ensureStateTable(DataSource, String)}.
 	 * 
 	 * @param       resourceId                  the ID of the resource for which we are tracking state.
 	 * @param       appDataSource               the DataSource for interacting with the database.
@@ -56,25 +62,83 @@ public class MySqlStateHelper
 		if (stateTableName == null) { throw new IllegalArgumentException("stateTableName cannot be null"); }
 		if ("".equals(stateTableName)) { throw new IllegalArgumentException("stateTableName cannot be empty"); }
 		if (stateId == null) { throw new IllegalArgumentException("stateId cannot be null"); }
-		
-		MySqlStateHelper.createStateTableIfNotExists(
-			appDataSource,
-			stateTableName);
-		
-		DatabaseHelper.execute(
+
+		DatabaseHelper.executeUpdate(
 			appDataSource,
 			String.format(
-				"DELETE FROM %s WHERE ResourceId = '%s';",
-				stateTableName,
-				resourceId));
+				"INSERT INTO %s(ResourceId, StateId) VALUES(?, ?) ON DUPLICATE KEY UPDATE StateId = VALUES(StateId);",
+				stateTableName),
+			resourceId.toString(),
+			stateId.toString());
+	}
+
+	/**
+	 * Sets the tracked state for an instance, but only if the instance is still in the expected previous state.  The
+	 * check and the write are a single statement, so two runners migrating the same instance at the same time detect
+	 * each other without either of them taking locks.
+	 *
+	 * The state tracking table must already exist; see {@link #ensureStateTable(DataSource, String)}.
+	 * 
+	 * @param       resourceId                  the ID of the resource for which we are tracking state.
+	 * @param       appDataSource               the DataSource for interacting with the database.
+	 * @param       stateTableName              the name of the state tracking table in use for this instance.
+	 * @param       expectedStateId             the state that the instance is expected to be in, or empty if no state
+	 *                                          is expected to be tracked yet.
+	 * @param       stateId                     the ID of the new state.
+	 * @return                                  true if the state was set, or false if the instance was not in the
+	 *                                          expected state.
+	 * @throws      SQLException                if an error occurs when interacting with the database.
+	 * @since                                   4.0
+	 */
+	public static boolean compareAndSetStateId(
+		UUID resourceId,
+		DataSource appDataSource,
+		String stateTableName,
+		Optional<UUID> expectedStateId,
+		UUID stateId) throws SQLException
+	{
+		if (resourceId == null) { throw new IllegalArgumentException("resourceId cannot be null"); }
+		if (appDataSource == null) { throw new IllegalArgumentException("appDataSource cannot be null"); }
+		if (stateTableName == null) { throw new IllegalArgumentException("stateTableName cannot be null"); }
+		if ("".equals(stateTableName)) { throw new IllegalArgumentException("stateTableName cannot be empty"); }
+		if (expectedStateId == null) { throw new IllegalArgumentException("expectedStateId cannot be null"); }
+		if (stateId == null) { throw new IllegalArgumentException("stateId cannot be null"); }
+
+		if (!expectedStateId.isPresent())
+		{
+			// Record the first state only if no other runner has recorded one in the meantime
+			try
+			{
+				DatabaseHelper.executeUpdate(
+					appDataSource,
+					String.format(
+						"INSERT INTO %s(ResourceId, StateId) VALUES(?, ?);",
+						stateTableName),
+					resourceId.toString(),
+					stateId.toString());
+			}
+			catch (SQLException e)
+			{
+				// A duplicate key means that another runner has already recorded a state for this resource
+				if (SQL_STATE_INTEGRITY_CONSTRAINT_VIOLATION.equals(e.getSQLState()))
+				{
+					return false;
+				}
+
+				throw e;
+			}
 
-		DatabaseHelper.execute(
+			return true;
+		}
+
+		return DatabaseHelper.executeUpdate(
 			appDataSource,
 			String.format(
-				"INSERT INTO %s(ResourceId, StateId) VALUES('%s', '%s');",
-				stateTableName,
-				resourceId,
-				stateId));
+				"UPDATE %s SET StateId = ? WHERE ResourceId = ? AND StateId = ?;",
+				stateTableName),
+			stateId.toString(),
+			resourceId.toString(),
+			expectedStateId.get().toString()) == 1;
 	}
 	
 	/**
@@ -154,20 +218,49 @@ public class MySqlStateHelper
 	}
 
 	/**
-	 * Creates the state tracking table in a MySqlDatabaseInstance.
+	 * Indicates whether or not the state tracking table exists, using a single catalog query.
+	 *
+	 * @param       appDataSource               the DataSource for interacting with the database.
+	 * @param       stateTableName              the name of the state tracking table in use for this instance.
+	 * @return                                  true if the state tracking table exists, otherwise false.
+	 * @since                                   4.0
+	 */
+	public static boolean stateTableExists(
+		DataSource appDataSource,
+		String stateTableName)
+	{
+		if (appDataSource == null) { throw new IllegalArgumentException("appDataSource"); }
+		if (stateTableName == null) { throw new IllegalArgumentException("stateTableName cannot be null"); }
+		if ("".equals(stateTableName)) { throw new IllegalArgumentException("stateTableName cannot be empty"); }
+
+		return DatabaseHelper.rowExists(
+			appDataSource,
+			String.format(
+				"SELECT 1 FROM information_schema.tables WHERE table_schema = DATABASE() AND table_name = '%s';",
+				stateTableName));
+	}
+
+	/**
+	 * Creates the state tracking table in a MySqlDatabaseInstance if it does not already exist.  The catalog is checked
+	 * first, so that no DDL is issued when the table is already present.
 	 * 
 	 * @param       appDataSource               the DataSource for interacting with the database.
 	 * @param       stateTableName              the name of the state tracking table in use for this instance.
 	 * @throws      SQLException                if an error occurs when interacting with the database.
 	 * @since                                   1.0
 	 */
-	private static void createStateTableIfNotExists(
+	public static void ensureStateTable(
 		DataSource appDataSource,
 		String stateTableName) throws SQLException
 	{
 		if (appDataSource == null) { throw new IllegalArgumentException("appDataSource"); }
 		if (stateTableName == null) { throw new IllegalArgumentException("stateTableName cannot be null"); }
 		if ("".equals(stateTableName)) { throw new IllegalArgumentException("stateTableName cannot be empty"); }
+
+		if (MySqlStateHelper.stateTableExists(appDataSource, stateTableName))
+		{
+			return;
+		}
 		
 		DatabaseHelper.execute(appDataSource, new StringBuilder()
 			.append("CREATE TABLE IF NOT EXISTS `").append(stateTableName).append("`(")
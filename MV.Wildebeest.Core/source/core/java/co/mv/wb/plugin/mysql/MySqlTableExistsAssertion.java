@@ -25,9 +25,12 @@ import co.mv.wb.ResourceType;
 import co.mv.wb.Wildebeest;
 import co.mv.wb.plugin.base.BaseAssertion;
 import co.mv.wb.plugin.base.ImmutableAssertionResponse;
+import co.mv.wb.plugin.generaldatabase.CatalogAssertion;
+import co.mv.wb.plugin.generaldatabase.CatalogProbe;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 /**
@@ -48,7 +51,7 @@ import java.util.UUID;
 		"    <tableName>ProductType</tableName>\n" +
 		"</assertion>"
 )
-public class MySqlTableExistsAssertion extends BaseAssertion
+public class MySqlTableExistsAssertion extends BaseAssertion implements CatalogAssertion
 {
 	/**
 	 * Creates a new MySqlTableExistsAssertion.
@@ -122,6 +125,33 @@ public class MySqlTableExistsAssertion extends BaseAssertion
 			Wildebeest.MySqlDatabase);
 	}
 	
+	@Override public Optional<CatalogProbe> getCatalogProbe(Instance instance)
+	{
+		if (instance == null) { throw new IllegalArgumentException("instance cannot be null"); }
+		MySqlDatabaseInstance db = ModelExtensions.As(instance, MySqlDatabaseInstance.class);
+
+		return db == null
+			? Optional.empty()
+			: Optional.of(CatalogProbe.table(db.getDatabaseName(), this.getTableName()));
+	}
+
+	@Override public AssertionResponse respond(boolean exists)
+	{
+		AssertionResponse result;
+
+		if (exists)
+		{
+			result = new ImmutableAssertionResponse(true, "Table " + this.getTableName() + " exists");
+		}
+
+		else
+		{
+			result = new ImmutableAssertionResponse(false, "Table " + this.getTableName() + " does not exist");
+		}
+
+		return result;
+	}
+
 	@Override public AssertionResponse perform(Instance instance)
 	{
 		if (instance == null) { throw new IllegalArgumentException("instance cannot be null"); }
@@ -137,14 +167,9 @@ public class MySqlTableExistsAssertion extends BaseAssertion
 				String.format("Database %s does not exist", db.getDatabaseName()));
 		}
 		
-		else if (MySqlDatabaseHelper.tableExists(db, this.getTableName()))
-		{
-			result = new ImmutableAssertionResponse(true, "Table " + this.getTableName() + " exists");
-		}
-		
 		else
 		{
-			result = new ImmutableAssertionResponse(false, "Table " + this.getTableName() + " does not exist");
+			result = this.respond(MySqlDatabaseHelper.tableExists(db, this.getTableName()));
 		}
 		
 		return result;
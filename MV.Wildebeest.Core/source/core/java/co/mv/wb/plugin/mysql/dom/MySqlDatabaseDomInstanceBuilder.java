@@ -21,7 +21,8 @@ import co.mv.wb.InstanceBuilder;
 import co.mv.wb.Messages;
 import co.mv.wb.PluginBuildException;
 import co.mv.wb.V;
-import co.mv.wb.plugin.base.dom.BaseDomInstanceBuilder;
+import co.mv.wb.plugin.generaldatabase.ConnectionPoolSettings;
+import co.mv.wb.plugin.generaldatabase.dom.BaseDatabaseDomInstanceBuilder;
 import co.mv.wb.plugin.mysql.MySqlDatabaseInstance;
 
 import java.util.Optional;
@@ -31,7 +32,7 @@ import java.util.Optional;
  * 
  * @since                                       1.0
  */
-public class MySqlDatabaseDomInstanceBuilder extends BaseDomInstanceBuilder
+public class MySqlDatabaseDomInstanceBuilder extends BaseDatabaseDomInstanceBuilder
 {
 	@Override public Instance build() throws
 		PluginBuildException
@@ -50,12 +51,16 @@ public class MySqlDatabaseDomInstanceBuilder extends BaseDomInstanceBuilder
 		if (!adminPassword.isPresent()) { V.elementMissing(messages, null, "adminPassword", MySqlDatabaseInstance.class); }
 		if (!databaseName.isPresent()) { V.elementMissing(messages, null, "databaseName", MySqlDatabaseInstance.class); }
 
+		ConnectionPoolSettings connectionPoolSettings = this.getConnectionPoolSettings(
+			messages,
+			MySqlDatabaseInstance.class);
+
 		if (messages.size() > 0)
 		{
 			throw new PluginBuildException(messages);
 		}
 		
-		Instance result = new MySqlDatabaseInstance(
+		MySqlDatabaseInstance result = new MySqlDatabaseInstance(
 			hostName.get(),
 			port.get(),
 			adminUsername.get(),
@@ -63,6 +68,8 @@ public class MySqlDatabaseDomInstanceBuilder extends BaseDomInstanceBuilder
 			databaseName.get(),
 			stateTableName.orElse(null));
 
+		result.setConnectionPoolSettings(connectionPoolSettings);
+
 		return result;
 	}
 }
@@ -19,10 +19,15 @@ package co.mv.wb.plugin.postgresql;
 import co.mv.wb.framework.DatabaseHelper;
 import co.mv.wb.plugin.generaldatabase.AnsiSqlDatabaseInstance;
 import co.mv.wb.plugin.generaldatabase.BaseDatabaseInstance;
+import co.mv.wb.plugin.generaldatabase.CatalogSnapshot;
+import co.mv.wb.plugin.generaldatabase.ConnectionPoolSettings;
+import co.mv.wb.plugin.generaldatabase.ConnectionPools;
 import co.mv.wb.plugin.generaldatabase.JdbcDatabaseInstance;
+import co.mv.wb.plugin.generaldatabase.SqlDialect;
 import org.postgresql.ds.PGSimpleDataSource;
 
 import javax.sql.DataSource;
+import java.util.Optional;
 
 /**
  * Represents an instance of a PostgreSQL database, which is an ANSI-compliant database system.
@@ -32,6 +37,12 @@ import javax.sql.DataSource;
 public class PostgreSqlDatabaseInstance extends BaseDatabaseInstance implements AnsiSqlDatabaseInstance,
 	JdbcDatabaseInstance
 {
+	private final ConnectionPools _connectionPools = new ConnectionPools(
+		this::createAdminDataSource,
+		this::createAppDataSource);
+	private volatile boolean _stateTableKnownToExist = false;
+	private volatile Optional<CatalogSnapshot> _catalogSnapshot = Optional.empty();
+
 	public PostgreSqlDatabaseInstance(
 		String hostName,
 		int port,
@@ -248,6 +259,77 @@ public class PostgreSqlDatabaseInstance extends BaseDatabaseInstance implements
 	// </editor-fold>
 
 	@Override public DataSource getAdminDataSource()
+	{
+		return _connectionPools.getAdminDataSource();
+	}
+
+	@Override public DataSource getAppDataSource()
+	{
+		return _connectionPools.getAppDataSource();
+	}
+
+	@Override public void releaseAppConnections()
+	{
+		_stateTableKnownToExist = false;
+		_catalogSnapshot = Optional.empty();
+		_connectionPools.releaseAppConnections();
+	}
+
+	@Override public SqlDialect getSqlDialect()
+	{
+		return SqlDialect.PostgreSql;
+	}
+
+	@Override public boolean isStateTableKnownToExist()
+	{
+		return _stateTableKnownToExist;
+	}
+
+	@Override public void setStateTableKnownToExist(
+		boolean value)
+	{
+		_stateTableKnownToExist = value;
+	}
+
+	@Override public Optional<CatalogSnapshot> getCatalogSnapshot()
+	{
+		return _catalogSnapshot;
+	}
+
+	@Override public void setCatalogSnapshot(
+		Optional<CatalogSnapshot> value)
+	{
+		if (value == null) { throw new IllegalArgumentException("value cannot be null"); }
+
+		_catalogSnapshot = value;
+	}
+
+	/**
+	 * Closes the connection pools that this instance holds open.
+	 *
+	 * @since                                   4.0
+	 */
+	@Override public void close()
+	{
+		_stateTableKnownToExist = false;
+		_catalogSnapshot = Optional.empty();
+		_connectionPools.close();
+	}
+
+	@Override public ConnectionPoolSettings getConnectionPoolSettings()
+	{
+		return _connectionPools.getSettings();
+	}
+
+	@Override public void setConnectionPoolSettings(
+		ConnectionPoolSettings value)
+	{
+		if (value == null) { throw new IllegalArgumentException("value cannot be null"); }
+
+		_connectionPools.setSettings(value);
+	}
+
+	private DataSource createAdminDataSource()
 	{
 		PGSimpleDataSource ds = new PGSimpleDataSource();
 		ds.setServerName(this.getHostName());
@@ -259,7 +341,7 @@ public class PostgreSqlDatabaseInstance extends BaseDatabaseInstance implements
 		return ds;
 	}
 
-	@Override public DataSource getAppDataSource()
+	private DataSource createAppDataSource()
 	{
 		PGSimpleDataSource ds = new PGSimpleDataSource();
 		ds.setServerName(this.getHostName());
@@ -273,6 +355,11 @@ public class PostgreSqlDatabaseInstance extends BaseDatabaseInstance implements
 
 	@Override public boolean databaseExists()
 	{
+		if (_catalogSnapshot.isPresent())
+		{
+			return _catalogSnapshot.get().databaseExists();
+		}
+
 		return DatabaseHelper.rowExists(
 			this.getAdminDataSource(),
 			String.format("SELECT * FROM pg_database WHERE datname = '%s';", this.getDatabaseName().toLowerCase()));
@@ -16,19 +16,30 @@
 
 package co.mv.wb.plugin.postgresql;
 
+import co.mv.wb.AssertionFailedException;
 import co.mv.wb.FaultException;
 import co.mv.wb.IndeterminateStateException;
 import co.mv.wb.Instance;
+import co.mv.wb.InvalidStateSpecifiedException;
+import co.mv.wb.Migration;
+import co.mv.wb.MigrationFailedException;
+import co.mv.wb.MigrationNotPossibleException;
 import co.mv.wb.ModelExtensions;
+import co.mv.wb.OutputFormatter;
 import co.mv.wb.Resource;
 import co.mv.wb.ResourcePlugin;
 import co.mv.wb.State;
+import co.mv.wb.TargetNotSpecifiedException;
+import co.mv.wb.TemplateBuilder;
+import co.mv.wb.UnknownStateSpecifiedException;
 import co.mv.wb.Wildebeest;
 import co.mv.wb.plugin.generaldatabase.AnsiSqlDatabaseInstance;
 import co.mv.wb.plugin.generaldatabase.Extensions;
 
 import java.io.PrintStream;
 import java.sql.SQLException;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 /**
@@ -57,8 +68,10 @@ public class PostgreSqlDatabaseResourcePlugin implements ResourcePlugin
 		
 		UUID declaredStateId = null;
 		
-		if (db.databaseExists() && PostgreSqlStateHelper.hasStateId(
-			resource.getResourceId(), db.getAppDataSource(), metaSchemaName, stateTableName))
+		if (db.databaseExists() &&
+			PostgreSqlDatabaseResourcePlugin.stateTableExists(db, metaSchemaName, stateTableName) &&
+			PostgreSqlStateHelper.hasStateId(
+				resource.getResourceId(), db.getAppDataSource(), metaSchemaName, stateTableName))
 		{
 			declaredStateId = PostgreSqlStateHelper.getStateId(
 				resource.getResourceId(),
@@ -98,14 +111,19 @@ public class PostgreSqlDatabaseResourcePlugin implements ResourcePlugin
 		if (db == null) { throw new IllegalArgumentException("instance must be a MySqlDatabaseInstance"); }
 		if (stateId == null) { throw new IllegalArgumentException("stateId"); }
 		
+		String metaSchemaName = Extensions.getMetaSchemaName(db);
+		String stateTableName = Extensions.getStateTableName(db);
+
+		PostgreSqlDatabaseResourcePlugin.ensureStateTable(db, metaSchemaName, stateTableName);
+
 		// Set the state tracking row
 		try
 		{
 			PostgreSqlStateHelper.setStateId(
 				resource.getResourceId(),
 				db.getAppDataSource(),
-				Extensions.getMetaSchemaName(db),
-				Extensions.getStateTableName(db),
+				metaSchemaName,
+				stateTableName,
 				stateId);
 		}
 		catch (SQLException e)
@@ -113,4 +131,185 @@ public class PostgreSqlDatabaseResourcePlugin implements ResourcePlugin
 			throw new FaultException(e);
 		}
     }
+
+	@Override public void setStateId(
+		PrintStream output,
+		Resource resource,
+		Instance instance,
+		Optional<UUID> expectedStateId,
+		UUID stateId) throws
+			IndeterminateStateException
+	{
+		if (output == null) { throw new IllegalArgumentException("output cannot be null"); }
+		if (resource == null) { throw new IllegalArgumentException("resource cannot be null"); }
+		if (instance == null) { throw new IllegalArgumentException("instance cannot be null"); }
+		AnsiSqlDatabaseInstance db = ModelExtensions.As(instance, AnsiSqlDatabaseInstance.class);
+		if (db == null) { throw new IllegalArgumentException("instance must be an AnsiSqlDatabaseInstance"); }
+		if (expectedStateId == null) { throw new IllegalArgumentException("expectedStateId cannot be null"); }
+		if (stateId == null) { throw new IllegalArgumentException("stateId cannot be null"); }
+
+		String metaSchemaName = Extensions.getMetaSchemaName(db);
+		String stateTableName = Extensions.getStateTableName(db);
+
+		PostgreSqlDatabaseResourcePlugin.ensureStateTable(db, metaSchemaName, stateTableName);
+
+		// Set the state tracking row, unless another process has changed it since it was read
+		boolean set;
+		try
+		{
+			set = PostgreSqlStateHelper.compareAndSetStateId(
+				resource.getResourceId(),
+				db.getAppDataSource(),
+				metaSchemaName,
+				stateTableName,
+				expectedStateId,
+				stateId);
+		}
+		catch (SQLException e)
+		{
+			throw new FaultException(e);
+		}
+
+		if (!set)
+		{
+			throw new IndeterminateStateException(String.format(
+				"The resource was expected to be in state %s, but its state has been changed by another process",
+				expectedStateId.map(UUID::toString).orElse("non-existent")));
+		}
+	}
+
+	/**
+	 * A new PostgreSQL database can be created with CREATE DATABASE ... TEMPLATE; see {@link PostgreSqlTemplates}.
+	 */
+	@Override public boolean canProvisionFromTemplate(
+		Instance instance)
+	{
+		if (instance == null) { throw new IllegalArgumentException("instance cannot be null"); }
+
+		PostgreSqlDatabaseInstance db = ModelExtensions.As(instance, PostgreSqlDatabaseInstance.class);
+
+		return db != null && !db.databaseExists();
+	}
+
+	/**
+	 * The template is built by migrating a database of its own along the path, under a temporary name, and is then
+	 * renamed so that other processes only ever see a finished template.  Templates built for an earlier version of
+	 * the path are dropped once the new one is in place.
+	 */
+	@Override public boolean provisionFromTemplate(
+		PrintStream output,
+		Resource resource,
+		Instance instance,
+		UUID targetStateId,
+		List<Migration> path,
+		TemplateBuilder builder) throws
+			AssertionFailedException,
+			TargetNotSpecifiedException,
+			IndeterminateStateException,
+			InvalidStateSpecifiedException,
+			MigrationFailedException,
+			MigrationNotPossibleException,
+			UnknownStateSpecifiedException
+	{
+		if (output == null) { throw new IllegalArgumentException("output cannot be null"); }
+		if (resource == null) { throw new IllegalArgumentException("resource cannot be null"); }
+		if (instance == null) { throw new IllegalArgumentException("instance cannot be null"); }
+		PostgreSqlDatabaseInstance db = ModelExtensions.As(instance, PostgreSqlDatabaseInstance.class);
+		if (db == null) { throw new IllegalArgumentException("instance must be a PostgreSqlDatabaseInstance"); }
+		if (targetStateId == null) { throw new IllegalArgumentException("targetStateId cannot be null"); }
+		if (path == null) { throw new IllegalArgumentException("path cannot be null"); }
+		if (builder == null) { throw new IllegalArgumentException("builder cannot be null"); }
+
+		Optional<String> templateName = PostgreSqlTemplates.templateName(
+			resource.getResourceId(),
+			targetStateId,
+			db,
+			path);
+
+		if (!templateName.isPresent())
+		{
+			// A migration on the path cannot describe its content, so a template for the path could be stale
+			output.println(OutputFormatter.templateNotPossible());
+			return false;
+		}
+
+		if (!PostgreSqlTemplates.exists(db, templateName.get()))
+		{
+			output.println(OutputFormatter.templateBuildStart(templateName.get()));
+
+			String buildName = templateName.get() + "_" + UUID.randomUUID().toString().substring(0, 8);
+			boolean built = false;
+			try
+			{
+				builder.build(PostgreSqlTemplates.instanceFor(db, buildName));
+				built = true;
+			}
+			finally
+			{
+				if (!built)
+				{
+					PostgreSqlTemplates.drop(db, buildName);
+				}
+			}
+
+			PostgreSqlTemplates.publish(db, buildName, templateName.get());
+
+			for (String stale : PostgreSqlTemplates.dropStale(
+				db,
+				PostgreSqlTemplates.templatePrefix(resource.getResourceId(), targetStateId),
+				templateName.get()))
+			{
+				output.println(OutputFormatter.templateDropped(stale));
+			}
+		}
+
+		output.println(OutputFormatter.templateClone(templateName.get(), db.getDatabaseName()));
+		PostgreSqlTemplates.cloneTo(db, templateName.get());
+
+		return true;
+	}
+
+	/**
+	 * Checks whether or not the state tracking table exists.  The catalog is only queried if the instance does not
+	 * already know that the table exists.
+	 */
+	private static boolean stateTableExists(
+		PostgreSqlDatabaseInstance db,
+		String metaSchemaName,
+		String stateTableName)
+	{
+		if (db == null) { throw new IllegalArgumentException("db cannot be null"); }
+		if (metaSchemaName == null) { throw new IllegalArgumentException("metaSchemaName cannot be null"); }
+		if (stateTableName == null) { throw new IllegalArgumentException("stateTableName cannot be null"); }
+
+		if (!db.isStateTableKnownToExist() &&
+			PostgreSqlStateHelper.stateTableExists(db.getAppDataSource(), metaSchemaName, stateTableName))
+		{
+			db.setStateTableKnownToExist(true);
+		}
+
+		return db.isStateTableKnownToExist();
+	}
+
+	/**
+	 * Creates the state tracking table if the instance does not already know that it exists.
+	 */
+	private static void ensureStateTable(
+		AnsiSqlDatabaseInstance db,
+		String metaSchemaName,
+		String stateTableName)
+	{
+		if (db == null) { throw new IllegalArgumentException("db cannot be null"); }
+		if (metaSchemaName == null) { throw new IllegalArgumentException("metaSchemaName cannot be null"); }
+		if (stateTableName == null) { throw new IllegalArgumentException("stateTableName cannot be null"); }
+
+		if (!db.isStateTableKnownToExist())
+		{
+			PostgreSqlStateHelper.ensureStateTable(
+				db.getAppDataSource(),
+				metaSchemaName,
+				stateTableName);
+			db.setStateTableKnownToExist(true);
+		}
+	}
 }
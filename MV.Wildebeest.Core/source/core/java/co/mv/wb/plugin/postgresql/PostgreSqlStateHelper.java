@@ -25,6 +25,7 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Optional;
 import java.util.UUID;
 
 /**
@@ -38,6 +39,8 @@ public class PostgreSqlStateHelper
 	 * Sets the tracked state for an instance.  Note that a PostgreSqlDatabaseInstance may be migrated by multiple
 	 * separate resource definitions (to support composite resources).  The state set is for a specific resource
 	 * definition.
+	 *
+	 * The state tracking table must already exist; see {@link #ensureStateTable(DataSource, String, String)}.
 	 * 
 	 * @param       resourceId                  the ID of the resource for which we are tracking state.
 	 * @param       appDataSource               the DataSource for interacting with the database.
@@ -61,28 +64,76 @@ public class PostgreSqlStateHelper
 		if (stateTableName == null) { throw new IllegalArgumentException("stateTableName cannot be null"); }
 		if ("".equals(stateTableName)) { throw new IllegalArgumentException("stateTableName cannot be empty"); }
 		if (stateId == null) { throw new IllegalArgumentException("stateId cannot be null"); }
-		
-		PostgreSqlStateHelper.createStateTableIfNotExists(
-			appDataSource,
-			metaSchemaName,
-			stateTableName);
-		
-		DatabaseHelper.execute(
+
+		DatabaseHelper.executeUpdate(
 			appDataSource,
 			String.format(
-				"DELETE FROM %s.%s WHERE ResourceId = '%s';",
+				"INSERT INTO %s.%s(ResourceId, StateId) VALUES(?, ?) " +
+					"ON CONFLICT (ResourceId) DO UPDATE SET StateId = EXCLUDED.StateId;",
 				metaSchemaName,
-				stateTableName,
-				resourceId));
+				stateTableName),
+			resourceId,
+			stateId);
+	}
+
+	/**
+	 * Sets the tracked state for an instance, but only if the instance is still in the expected previous state.  The
+	 * check and the write are a single statement, so two runners migrating the same instance at the same time detect
+	 * each other without either of them taking locks.
+	 *
+	 * The state tracking table must already exist; see {@link #ensureStateTable(DataSource, String, String)}.
+	 * 
+	 * @param       resourceId                  the ID of the resource for which we are tracking state.
+	 * @param       appDataSource               the DataSource for interacting with the database.
+	 * @param       metaSchemaName              the name of the schema where state tracking meta data should be stored.
+	 * @param       stateTableName              the name of the state tracking table in use for this instance.
+	 * @param       expectedStateId             the state that the instance is expected to be in, or empty if no state
+	 *                                          is expected to be tracked yet.
+	 * @param       stateId                     the ID of the new state.
+	 * @return                                  true if the state was set, or false if the instance was not in the
+	 *                                          expected state.
+	 * @throws      SQLException                if an error occurs when interacting with the database.
+	 * @since                                   4.0
+	 */
+	public static boolean compareAndSetStateId(
+		UUID resourceId,
+		DataSource appDataSource,
+		String metaSchemaName,
+		String stateTableName,
+		Optional<UUID> expectedStateId,
+		UUID stateId) throws SQLException
+	{
+		if (resourceId == null) { throw new IllegalArgumentException("resourceId cannot be null"); }
+		if (appDataSource == null) { throw new IllegalArgumentException("appDataSource cannot be null"); }
+		if (metaSchemaName == null) { throw new IllegalArgumentException("metaSchemaName cannot be null"); }
+		if ("".equals(metaSchemaName)) { throw new IllegalArgumentException("metaSchemaName cannot be empty"); }
+		if (stateTableName == null) { throw new IllegalArgumentException("stateTableName cannot be null"); }
+		if ("".equals(stateTableName)) { throw new IllegalArgumentException("stateTableName cannot be empty"); }
+		if (expectedStateId == null) { throw new IllegalArgumentException("expectedStateId cannot be null"); }
+		if (stateId == null) { throw new IllegalArgumentException("stateId cannot be null"); }
+
+		if (!expectedStateId.isPresent())
+		{
+			// Record the first state only if no other runner has recorded one in the meantime
+			return DatabaseHelper.executeUpdate(
+				appDataSource,
+				String.format(
+					"INSERT INTO %s.%s(ResourceId, StateId) VALUES(?, ?) ON CONFLICT (ResourceId) DO NOTHING;",
+					metaSchemaName,
+					stateTableName),
+				resourceId,
+				stateId) == 1;
+		}
 
-		DatabaseHelper.execute(
+		return DatabaseHelper.executeUpdate(
 			appDataSource,
 			String.format(
-				"INSERT INTO %s.%s(ResourceId, StateId) VALUES('%s', '%s');",
+				"UPDATE %s.%s SET StateId = ? WHERE ResourceId = ? AND StateId = ?;",
 				metaSchemaName,
-				stateTableName,
-				resourceId,
-				stateId));
+				stateTableName),
+			stateId,
+			resourceId,
+			expectedStateId.get()) == 1;
 	}
 	
 	/**
@@ -112,11 +163,6 @@ public class PostgreSqlStateHelper
 		if (stateTableName == null) { throw new IllegalArgumentException("stateTableName cannot be null"); }
 		if ("".equals(stateTableName)) { throw new IllegalArgumentException("stateTableName cannot be empty"); }
 
-		PostgreSqlStateHelper.createStateTableIfNotExists(
-			appDataSource,
-			metaSchemaName,
-			stateTableName);
-		
 		UUID stateId = PostgreSqlStateHelper.stateIdScalarOptional(
 			resourceId,
 			appDataSource,
@@ -133,7 +179,8 @@ public class PostgreSqlStateHelper
 	}
 
 	/**
-	 * Indicates whether or not a state is currently tracked for the specified resource.
+	 * Indicates whether or not a state is currently tracked for the specified resource.  The state tracking table must
+	 * already exist.
 	 * 
 	 * @param       resourceId                  the ID of the resource for which the state should be queried.          
 	 * @param       appDataSource               the DataSource for interacting with the database.
@@ -157,11 +204,6 @@ public class PostgreSqlStateHelper
 		if (stateTableName == null) { throw new IllegalArgumentException("stateTableName cannot be null"); }
 		if ("".equals(stateTableName)) { throw new IllegalArgumentException("stateTableName cannot be empty"); }
 
-		PostgreSqlStateHelper.createStateTableIfNotExists(
-			appDataSource,
-			metaSchemaName,
-			stateTableName);
-		
 		UUID stateId = PostgreSqlStateHelper.stateIdScalarOptional(
 			resourceId,
 			appDataSource,
@@ -171,15 +213,44 @@ public class PostgreSqlStateHelper
 	}
 	
 	/**
-	 * Creates the state tracking table in a PostgreSqlDatabaseInstance.
+	 * Indicates whether or not the state tracking table exists, using a single catalog query.
+	 *
+	 * @param       appDataSource               the DataSource for interacting with the database.
+	 * @param       metaSchemaName              the name of the meta-data tracking schema to use.
+	 * @param       stateTableName              the name of the state tracking table in use for this instance.
+	 * @return                                  true if the state tracking table exists, otherwise false.
+	 * @since                                   4.0
+	 */
+	public static boolean stateTableExists(
+		DataSource appDataSource,
+		String metaSchemaName,
+		String stateTableName)
+	{
+		if (appDataSource == null) { throw new IllegalArgumentException("appDataSource"); }
+		if (metaSchemaName == null) { throw new IllegalArgumentException("metaSchemaName cannot be null"); }
+		if ("".equals(metaSchemaName)) { throw new IllegalArgumentException("metaSchemaName cannot be empty"); }
+		if (stateTableName == null) { throw new IllegalArgumentException("stateTableName cannot be null"); }
+		if ("".equals(stateTableName)) { throw new IllegalArgumentException("stateTableName cannot be empty"); }
+
+		// Unquoted identifiers are folded to lower case by PostgreSQL
+		return DatabaseHelper.rowExists(
+			appDataSource,
+			String.format(
+				"SELECT 1 FROM information_schema.tables WHERE table_schema = '%s' AND table_name = '%s';",
+				metaSchemaName.toLowerCase(),
+				stateTableName.toLowerCase()));
+	}
+
+	/**
+	 * Creates the state tracking table in a PostgreSqlDatabaseInstance if it does not already exist.  The catalog is
+	 * checked first, so that no DDL is issued when the table is already present.
 	 * 
 	 * @param       appDataSource               the DataSource for interacting with the database.
 	 * @param       metaSchemaName              the name of the meta-data tracking schema to use.
 	 * @param       stateTableName              the name of the state tracking table in use for this instance.
-	 * @throws      SQLException                if an error occurs when interacting with the database.
 	 * @since                                   1.0
 	 */
-	private static void createStateTableIfNotExists(
+	public static void ensureStateTable(
 		DataSource appDataSource,
 		String metaSchemaName,
 		String stateTableName)
@@ -189,6 +260,11 @@ public class PostgreSqlStateHelper
 		if ("".equals(metaSchemaName)) { throw new IllegalArgumentException("metaSchemaName cannot be empty"); }
 		if (stateTableName == null) { throw new IllegalArgumentException("stateTableName cannot be null"); }
 		if ("".equals(stateTableName)) { throw new IllegalArgumentException("stateTableName cannot be empty"); }
+
+		if (PostgreSqlStateHelper.stateTableExists(appDataSource, metaSchemaName, stateTableName))
+		{
+			return;
+		}
 		
 		try
 		{
@@ -0,0 +1,382 @@
+// Wildebeest Migration Framework
+// Copyright © 2013 - 2018, Matheson Ventures Pte Ltd
+//
+// This file is part of Wildebeest
+//
+// Wildebeest is free software: you can redistribute it and/or modify it under
+// the terms of the GNU General Public License v2 as published by the Free
+// Software Foundation.
+//
+// Wildebeest is distributed in the hope that it will be useful, but WITHOUT ANY
+// WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+// A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along with
+// Wildebeest.  If not, see http://www.gnu.org/licenses/gpl-2.0.html
+
+package co.mv.wb.plugin.postgresql;
+
+import co.mv.wb.FaultException;
+import co.mv.wb.Migration;
+import co.mv.wb.framework.DatabaseHelper;
+import co.mv.wb.framework.Digests;
+import co.mv.wb.plugin.generaldatabase.Extensions;
+
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Manages the template databases that new PostgreSQL instances are cloned from.  A template holds a resource that
+ * has been migrated to a particular state along a particular migration path.  A new instance that is to be migrated
+ * along the same path is created as a copy of the template with CREATE DATABASE ... TEMPLATE, rather than by
+ * performing each migration again.
+ *
+ * A template is named for the resource, the target state and a hash of the migration path, so a change to any
+ * migration on the path gives a new name and the template is built again.
+ *
+ * @since                                       4.0
+ */
+public final class PostgreSqlTemplates
+{
+	private static final String TEMPLATE_PREFIX = "wb_tpl_";
+
+	private PostgreSqlTemplates()
+	{
+	}
+
+	/**
+	 * Gets the name of the template database for the supplied resource, target state and migration path.  There is
+	 * no name if any migration on the path cannot describe its content, as a change to that migration could not be
+	 * told apart from a template built before the change.
+	 *
+	 * @param       resourceId                  the ID of the resource.
+	 * @param       targetStateId               the ID of the state that the template is migrated to.
+	 * @param       instance                    the instance that is to be cloned from the template.
+	 * @param       path                        the migrations that lead from non-existent to the target state, each
+	 *                                          already built.
+	 * @return                                  the name of the template database, or empty if the migration path
+	 *                                          cannot be provisioned from a template.
+	 * @since                                   4.0
+	 */
+	public static Optional<String> templateName(
+		UUID resourceId,
+		UUID targetStateId,
+		PostgreSqlDatabaseInstance instance,
+		List<Migration> path)
+	{
+		if (resourceId == null) { throw new IllegalArgumentException("resourceId cannot be null"); }
+		if (targetStateId == null) { throw new IllegalArgumentException("targetStateId cannot be null"); }
+		if (instance == null) { throw new IllegalArgumentException("instance cannot be null"); }
+		if (path == null) { throw new IllegalArgumentException("path cannot be null"); }
+
+		return PostgreSqlTemplates.pathHash(instance, path)
+			.map(hash -> PostgreSqlTemplates.templatePrefix(resourceId, targetStateId) + hash.substring(0, 16));
+	}
+
+	/**
+	 * Gets the prefix shared by the names of every template database for the supplied resource and target state,
+	 * whatever their migration path.
+	 *
+	 * @param       resourceId                  the ID of the resource.
+	 * @param       targetStateId               the ID of the state that the template is migrated to.
+	 * @return                                  the prefix of the names of the template databases.
+	 * @since                                   4.0
+	 */
+	public static String templatePrefix(
+		UUID resourceId,
+		UUID targetStateId)
+	{
+		if (resourceId == null) { throw new IllegalArgumentException("resourceId cannot be null"); }
+		if (targetStateId == null) { throw new IllegalArgumentException("targetStateId cannot be null"); }
+
+		return String.format(
+			"%s%s_%s_",
+			TEMPLATE_PREFIX,
+			resourceId.toString().substring(0, 8),
+			targetStateId.toString().substring(0, 8));
+	}
+
+	/**
+	 * Hashes the migration path, and the meta schema and state table that the template records its state in.  Each
+	 * migration is hashed with its type, its states and everything that it adds with
+	 * {@link Migration#digestContent(MessageDigest)}, including the contents of any files that it reads.  The hash is
+	 * empty if any migration cannot describe its content.
+	 */
+	static Optional<String> pathHash(
+		PostgreSqlDatabaseInstance instance,
+		List<Migration> path)
+	{
+		if (instance == null) { throw new IllegalArgumentException("instance cannot be null"); }
+		if (path == null) { throw new IllegalArgumentException("path cannot be null"); }
+
+		MessageDigest digest;
+		try
+		{
+			digest = MessageDigest.getInstance("SHA-256");
+		}
+		catch (NoSuchAlgorithmException e)
+		{
+			throw new FaultException(e);
+		}
+
+		Digests.update(digest, Extensions.getMetaSchemaName(instance));
+		Digests.update(digest, Extensions.getStateTableName(instance));
+
+		for (Migration migration : path)
+		{
+			Digests.update(digest, migration.getClass().getName());
+			Digests.update(digest, migration.getMigrationId().toString());
+			Digests.update(digest, migration.getFromStateId().map(UUID::toString).orElse(""));
+			Digests.update(digest, migration.getToStateId().map(UUID::toString).orElse(""));
+
+			try
+			{
+				if (!migration.digestContent(digest))
+				{
+					return Optional.empty();
+				}
+			}
+			catch (IOException e)
+			{
+				throw new FaultException(e);
+			}
+		}
+
+		StringBuilder result = new StringBuilder();
+		for (byte b : digest.digest())
+		{
+			result.append(String.format("%02x", b));
+		}
+
+		return Optional.of(result.toString());
+	}
+
+	/**
+	 * Checks whether the named database exists on the server of the supplied instance.
+	 *
+	 * @param       instance                    an instance on the server to check.
+	 * @param       databaseName                the name of the database.
+	 * @return                                  true if the database exists.
+	 * @since                                   4.0
+	 */
+	public static boolean exists(
+		PostgreSqlDatabaseInstance instance,
+		String databaseName)
+	{
+		if (instance == null) { throw new IllegalArgumentException("instance cannot be null"); }
+		if (databaseName == null) { throw new IllegalArgumentException("databaseName cannot be null"); }
+
+		return !PostgreSqlTemplates.databaseNames(instance, "datname = ?", databaseName).isEmpty();
+	}
+
+	/**
+	 * Creates an instance on the same server as the supplied one, with the same meta schema and state table, for the
+	 * named database.
+	 *
+	 * @param       instance                    the instance to copy the settings of.
+	 * @param       databaseName                the name of the database for the new instance.
+	 * @return                                  the new instance.
+	 * @since                                   4.0
+	 */
+	public static PostgreSqlDatabaseInstance instanceFor(
+		PostgreSqlDatabaseInstance instance,
+		String databaseName)
+	{
+		if (instance == null) { throw new IllegalArgumentException("instance cannot be null"); }
+		if (databaseName == null) { throw new IllegalArgumentException("databaseName cannot be null"); }
+
+		PostgreSqlDatabaseInstance result = new PostgreSqlDatabaseInstance(
+			instance.getHostName(),
+			instance.getPort(),
+			instance.getAdminUsername(),
+			instance.getAdminPassword(),
+			databaseName,
+			instance.hasMetaSchemaName() ? instance.getMetaSchemaName() : null,
+			instance.hasStateTableName() ? instance.getStateTableName() : null);
+		result.setConnectionPoolSettings(instance.getConnectionPoolSettings());
+
+		return result;
+	}
+
+	/**
+	 * Publishes a newly-built database as a template, by renaming it to the template's name and marking it as a
+	 * template.  If another process has published the same template in the meantime then the newly-built database is
+	 * dropped, and the existing template is used.
+	 *
+	 * @param       instance                    an instance on the server of the template.
+	 * @param       buildName                   the name of the newly-built database.
+	 * @param       templateName                the name of the template.
+	 * @since                                   4.0
+	 */
+	public static void publish(
+		PostgreSqlDatabaseInstance instance,
+		String buildName,
+		String templateName)
+	{
+		if (instance == null) { throw new IllegalArgumentException("instance cannot be null"); }
+		if (buildName == null) { throw new IllegalArgumentException("buildName cannot be null"); }
+		if (templateName == null) { throw new IllegalArgumentException("templateName cannot be null"); }
+
+		try
+		{
+			DatabaseHelper.execute(
+				instance.getAdminDataSource(),
+				String.format("ALTER DATABASE %s RENAME TO %s;", buildName, templateName));
+		}
+		catch (SQLException e)
+		{
+			if (!PostgreSqlTemplates.exists(instance, templateName))
+			{
+				throw new FaultException(e);
+			}
+
+			PostgreSqlTemplates.drop(instance, buildName);
+			return;
+		}
+
+		try
+		{
+			DatabaseHelper.execute(
+				instance.getAdminDataSource(),
+				String.format("ALTER DATABASE %s WITH IS_TEMPLATE true;", templateName));
+		}
+		catch (SQLException e)
+		{
+			throw new FaultException(e);
+		}
+	}
+
+	/**
+	 * Creates the database of the supplied instance as a copy of the named template.
+	 *
+	 * @param       instance                    the instance whose database is to be created.
+	 * @param       templateName                the name of the template to copy.
+	 * @since                                   4.0
+	 */
+	public static void cloneTo(
+		PostgreSqlDatabaseInstance instance,
+		String templateName)
+	{
+		if (instance == null) { throw new IllegalArgumentException("instance cannot be null"); }
+		if (templateName == null) { throw new IllegalArgumentException("templateName cannot be null"); }
+
+		try
+		{
+			DatabaseHelper.execute(
+				instance.getAdminDataSource(),
+				String.format("CREATE DATABASE %s TEMPLATE %s;", instance.getDatabaseName(), templateName));
+		}
+		catch (SQLException e)
+		{
+			throw new FaultException(e);
+		}
+	}
+
+	/**
+	 * Drops the templates for the supplied resource and target state other than the named one, as they were built
+	 * for a migration path that has since changed.  A template that cannot be dropped, for example because another
+	 * process is copying it, is left for a later run to drop.
+	 *
+	 * @param       instance                    an instance on the server of the templates.
+	 * @param       prefix                      the prefix of the names of the templates.
+	 * @param       templateName                the name of the template to keep.
+	 * @return                                  the names of the templates that were dropped.
+	 * @since                                   4.0
+	 */
+	public static List<String> dropStale(
+		PostgreSqlDatabaseInstance instance,
+		String prefix,
+		String templateName)
+	{
+		if (instance == null) { throw new IllegalArgumentException("instance cannot be null"); }
+		if (prefix == null) { throw new IllegalArgumentException("prefix cannot be null"); }
+		if (templateName == null) { throw new IllegalArgumentException("templateName cannot be null"); }
+
+		List<String> result = new ArrayList<>();
+
+		// The underscores in the prefix would otherwise match any character
+		String pattern = prefix.replace("_", "\\_") + "%";
+
+		for (String stale : PostgreSqlTemplates.databaseNames(instance, "datname LIKE ?", pattern))
+		{
+			if (!stale.equals(templateName) && PostgreSqlTemplates.drop(instance, stale))
+			{
+				result.add(stale);
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Drops the named database, if it can be dropped.
+	 *
+	 * @param       instance                    an instance on the server of the database.
+	 * @param       databaseName                the name of the database to drop.
+	 * @return                                  true if the database was dropped.
+	 * @since                                   4.0
+	 */
+	public static boolean drop(
+		PostgreSqlDatabaseInstance instance,
+		String databaseName)
+	{
+		if (instance == null) { throw new IllegalArgumentException("instance cannot be null"); }
+		if (databaseName == null) { throw new IllegalArgumentException("databaseName cannot be null"); }
+
+		try
+		{
+			// A template database cannot be dropped until it is no longer marked as one
+			DatabaseHelper.execute(
+				instance.getAdminDataSource(),
+				String.format("ALTER DATABASE %s WITH IS_TEMPLATE false;", databaseName));
+			DatabaseHelper.execute(
+				instance.getAdminDataSource(),
+				String.format("DROP DATABASE IF EXISTS %s;", databaseName));
+		}
+		catch (SQLException e)
+		{
+			return false;
+		}
+
+		return true;
+	}
+
+	private static List<String> databaseNames(
+		PostgreSqlDatabaseInstance instance,
+		String condition,
+		String value)
+	{
+		List<String> result = new ArrayList<>();
+
+		try (Connection conn = instance.getAdminDataSource().getConnection();
+			PreparedStatement ps = conn.prepareStatement(String.format(
+				"SELECT datname FROM pg_database WHERE %s;",
+				condition)))
+		{
+			ps.setString(1, value);
+
+			try (ResultSet rs = ps.executeQuery())
+			{
+				while (rs.next())
+				{
+					result.add(rs.getString(1));
+				}
+			}
+		}
+		catch (SQLException e)
+		{
+			throw new FaultException(e);
+		}
+
+		return result;
+	}
+}
@@ -21,7 +21,8 @@ import co.mv.wb.InstanceBuilder;
 import co.mv.wb.Messages;
 import co.mv.wb.PluginBuildException;
 import co.mv.wb.V;
-import co.mv.wb.plugin.base.dom.BaseDomInstanceBuilder;
+import co.mv.wb.plugin.generaldatabase.ConnectionPoolSettings;
+import co.mv.wb.plugin.generaldatabase.dom.BaseDatabaseDomInstanceBuilder;
 import co.mv.wb.plugin.postgresql.PostgreSqlDatabaseInstance;
 
 import java.util.Optional;
@@ -31,7 +32,7 @@ import java.util.Optional;
  * 
  * @since                                       1.0
  */
-public class PostgreSqlDatabaseDomInstanceBuilder extends BaseDomInstanceBuilder
+public class PostgreSqlDatabaseDomInstanceBuilder extends BaseDatabaseDomInstanceBuilder
 {
 	@Override public Instance build() throws
 		PluginBuildException
@@ -51,12 +52,16 @@ public class PostgreSqlDatabaseDomInstanceBuilder extends BaseDomInstanceBuilder
 		if (!adminPassword.isPresent()) { V.elementMissing(messages, null, "adminPassword", PostgreSqlDatabaseInstance.class); }
 		if (!databaseName.isPresent()) { V.elementMissing(messages, null, "databaseName", PostgreSqlDatabaseInstance.class); }
 
+		ConnectionPoolSettings connectionPoolSettings = this.getConnectionPoolSettings(
+			messages,
+			PostgreSqlDatabaseInstance.class);
+
 		if (messages.size() > 0)
 		{
 			throw new PluginBuildException(messages);
 		}
 
-		Instance result = new PostgreSqlDatabaseInstance(
+		PostgreSqlDatabaseInstance result = new PostgreSqlDatabaseInstance(
 			hostName.get(),
 			port.get(),
 			adminUsername.get(),
@@ -65,6 +70,8 @@ public class PostgreSqlDatabaseDomInstanceBuilder extends BaseDomInstanceBuilder
 			metaSchemaName.orElse(null),
 			stateTableName.orElse(null));
 
+		result.setConnectionPoolSettings(connectionPoolSettings);
+
 		return result;
 	}
 }
@@ -42,6 +42,11 @@ public class SqlServerDatabaseHelper
 		if (schemaName == null) { throw new IllegalArgumentException("schemaName cannot be null"); }
 		if ("".equals(schemaName.trim())) { throw new IllegalArgumentException("schemaName cannot be empty"); }
 
+		if (instance.getCatalogSnapshot().isPresent())
+		{
+			return instance.getCatalogSnapshot().get().schemaExists(schemaName);
+		}
+
 		return DatabaseHelper.rowExists(
 			instance.getAppDataSource(),
 			String.format(
@@ -68,6 +73,11 @@ public class SqlServerDatabaseHelper
 		if ("".equals(schemaName.trim())) { throw new IllegalArgumentException("schemaName cannot be empty"); }
 		if (tableName == null) { throw new IllegalArgumentException("tableName cannot be null"); }
 		if ("".equals(tableName.trim())) { throw new IllegalArgumentException("tableName cannot be empty"); }
+
+		if (instance.getCatalogSnapshot().isPresent())
+		{
+			return instance.getCatalogSnapshot().get().tableExists(schemaName, tableName);
+		}
 		
 		return DatabaseHelper.rowExists(
 			instance.getAppDataSource(),
@@ -19,9 +19,13 @@ package co.mv.wb.plugin.sqlserver;
 import co.mv.wb.FaultException;
 import co.mv.wb.Instance;
 import co.mv.wb.framework.DatabaseHelper;
+import co.mv.wb.plugin.generaldatabase.CatalogSnapshot;
+import co.mv.wb.plugin.generaldatabase.ConnectionPoolSettings;
+import co.mv.wb.plugin.generaldatabase.ConnectionPools;
 import co.mv.wb.plugin.generaldatabase.DatabaseConstants;
 import co.mv.wb.plugin.generaldatabase.DatabaseInstance;
 import co.mv.wb.plugin.generaldatabase.JdbcDatabaseInstance;
+import co.mv.wb.plugin.generaldatabase.SqlDialect;
 import com.microsoft.sqlserver.jdbc.SQLServerDataSource;
 
 import javax.sql.DataSource;
@@ -29,6 +33,7 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Optional;
 
 /**
  * An {@link Instance} of a SQL Server database.
@@ -37,6 +42,12 @@ import java.sql.SQLException;
  */
 public class SqlServerDatabaseInstance implements DatabaseInstance, JdbcDatabaseInstance
 {
+	private final ConnectionPools _connectionPools = new ConnectionPools(
+		this::createAdminDataSource,
+		this::createAppDataSource);
+	private volatile boolean _stateTableKnownToExist = false;
+	private volatile Optional<CatalogSnapshot> _catalogSnapshot = Optional.empty();
+
 	/**
 	 * Creates a new SqlServerDatabaseInstance.
 	 * 
@@ -347,6 +358,82 @@ public class SqlServerDatabaseInstance implements DatabaseInstance, JdbcDatabase
 	 * @since                                   2.0
 	 */
 	@Override public DataSource getAdminDataSource()
+	{
+		return _connectionPools.getAdminDataSource();
+	}
+
+	/**
+	 * Returns a DataSource for the application database defined by this instance.
+	 * 
+	 * @since                                   2.0
+	 */
+	@Override public DataSource getAppDataSource()
+	{
+		return _connectionPools.getAppDataSource();
+	}
+
+	@Override public void releaseAppConnections()
+	{
+		_stateTableKnownToExist = false;
+		_catalogSnapshot = Optional.empty();
+		_connectionPools.releaseAppConnections();
+	}
+
+	@Override public SqlDialect getSqlDialect()
+	{
+		return SqlDialect.SqlServer;
+	}
+
+	@Override public boolean isStateTableKnownToExist()
+	{
+		return _stateTableKnownToExist;
+	}
+
+	@Override public void setStateTableKnownToExist(
+		boolean value)
+	{
+		_stateTableKnownToExist = value;
+	}
+
+	@Override public Optional<CatalogSnapshot> getCatalogSnapshot()
+	{
+		return _catalogSnapshot;
+	}
+
+	@Override public void setCatalogSnapshot(
+		Optional<CatalogSnapshot> value)
+	{
+		if (value == null) { throw new IllegalArgumentException("value cannot be null"); }
+
+		_catalogSnapshot = value;
+	}
+
+	/**
+	 * Closes the connection pools that this instance holds open.
+	 *
+	 * @since                                   4.0
+	 */
+	@Override public void close()
+	{
+		_stateTableKnownToExist = false;
+		_catalogSnapshot = Optional.empty();
+		_connectionPools.close();
+	}
+
+	@Override public ConnectionPoolSettings getConnectionPoolSettings()
+	{
+		return _connectionPools.getSettings();
+	}
+
+	@Override public void setConnectionPoolSettings(
+		ConnectionPoolSettings value)
+	{
+		if (value == null) { throw new IllegalArgumentException("value cannot be null"); }
+
+		_connectionPools.setSettings(value);
+	}
+
+	private DataSource createAdminDataSource()
 	{
 		SQLServerDataSource result = new SQLServerDataSource();
 		result.setServerName(this.getHostName());
@@ -362,12 +449,7 @@ public class SqlServerDatabaseInstance implements DatabaseInstance, JdbcDatabase
 		return result;
 	}
 
-	/**
-	 * Returns a DataSource for the application database defined by this instance.
-	 * 
-	 * @since                                   2.0
-	 */
-	@Override public DataSource getAppDataSource()
+	private DataSource createAppDataSource()
 	{
 		SQLServerDataSource result = new SQLServerDataSource();
 		result.setServerName(this.getHostName());
@@ -385,6 +467,11 @@ public class SqlServerDatabaseInstance implements DatabaseInstance, JdbcDatabase
 
 	@Override public boolean databaseExists()
 	{
+		if (_catalogSnapshot.isPresent())
+		{
+			return _catalogSnapshot.get().databaseExists();
+		}
+
 		boolean result = false;
 		
 		Connection conn = null;
@@ -31,6 +31,7 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Optional;
 import java.util.UUID;
 
 /**
@@ -60,12 +61,14 @@ public class SqlServerDatabaseResourcePlugin implements ResourcePlugin
 		PreparedStatement ps = null;
 		ResultSet rs = null;
 
-		if (db.databaseExists())
+		String stateTableName = Extensions.getStateTableName(db);
+
+		if (db.databaseExists() && SqlServerDatabaseResourcePlugin.stateTableExists(db, stateTableName))
 		{
 			declaredStateId = SqlServerStateHelper.getStateId(
 				resource.getResourceId(),
 				db.getAppDataSource(),
-				Extensions.getStateTableName(db));
+				stateTableName);
 		}
 		
 		// If we found a declared state, check that the state is actually defined
@@ -99,13 +102,17 @@ public class SqlServerDatabaseResourcePlugin implements ResourcePlugin
 		if (db == null) { throw new IllegalArgumentException("instance must be a SqlServerDatabaseInstance"); }
 		if (stateId == null) { throw new IllegalArgumentException("stateId cannot be null"); }
 
+		String stateTableName = Extensions.getStateTableName(db);
+
 		// Set the state tracking row
 		try
 		{
+			SqlServerDatabaseResourcePlugin.ensureStateTable(db, stateTableName);
+
 			SqlServerStateHelper.setStateId(
 				resource.getResourceId(),
 				db.getAppDataSource(),
-				Extensions.getStateTableName(db),
+				stateTableName,
 				stateId);
 		}
 		catch (SQLException e)
@@ -113,4 +120,87 @@ public class SqlServerDatabaseResourcePlugin implements ResourcePlugin
 			throw new FaultException(e);
 		}
 	}
+
+	@Override public void setStateId(
+		PrintStream output,
+		Resource resource,
+		Instance instance,
+		Optional<UUID> expectedStateId,
+		UUID stateId) throws
+			IndeterminateStateException
+	{
+		if (output == null) { throw new IllegalArgumentException("output cannot be null"); }
+		if (resource == null) { throw new IllegalArgumentException("resource cannot be null"); }
+		if (instance == null) { throw new IllegalArgumentException("instance cannot be null"); }
+		SqlServerDatabaseInstance db = ModelExtensions.As(instance, SqlServerDatabaseInstance.class);
+		if (db == null) { throw new IllegalArgumentException("instance must be a SqlServerDatabaseInstance"); }
+		if (expectedStateId == null) { throw new IllegalArgumentException("expectedStateId cannot be null"); }
+		if (stateId == null) { throw new IllegalArgumentException("stateId cannot be null"); }
+
+		String stateTableName = Extensions.getStateTableName(db);
+
+		// Set the state tracking row, unless another process has changed it since it was read
+		boolean set;
+		try
+		{
+			SqlServerDatabaseResourcePlugin.ensureStateTable(db, stateTableName);
+
+			set = SqlServerStateHelper.compareAndSetStateId(
+				resource.getResourceId(),
+				db.getAppDataSource(),
+				stateTableName,
+				expectedStateId,
+				stateId);
+		}
+		catch (SQLException e)
+		{
+			throw new FaultException(e);
+		}
+
+		if (!set)
+		{
+			throw new IndeterminateStateException(String.format(
+				"The resource was expected to be in state %s, but its state has been changed by another process",
+				expectedStateId.map(UUID::toString).orElse("non-existent")));
+		}
+	}
+
+	/**
+	 * Checks whether or not the state tracking table exists.  The catalog is only queried if the instance does not
+	 * already know that the table exists.
+	 */
+	private static boolean stateTableExists(
+		SqlServerDatabaseInstance db,
+		String stateTableName)
+	{
+		if (db == null) { throw new IllegalArgumentException("db cannot be null"); }
+		if (stateTableName == null) { throw new IllegalArgumentException("stateTableName cannot be null"); }
+
+		if (!db.isStateTableKnownToExist() &&
+			SqlServerStateHelper.stateTableExists(db.getAppDataSource(), stateTableName))
+		{
+			db.setStateTableKnownToExist(true);
+		}
+
+		return db.isStateTableKnownToExist();
+	}
+
+	/**
+	 * Creates the state tracking table if the instance does not already know that it exists.
+	 */
+	private static void ensureStateTable(
+		SqlServerDatabaseInstance db,
+		String stateTableName) throws SQLException
+	{
+		if (db == null) { throw new IllegalArgumentException("db cannot be null"); }
+		if (stateTableName == null) { throw new IllegalArgumentException("stateTableName cannot be null"); }
+
+		if (!db.isStateTableKnownToExist())
+		{
+			SqlServerStateHelper.ensureStateTable(
+				db.getAppDataSource(),
+				stateTableName);
+			db.setStateTableKnownToExist(true);
+		}
+	}
 }
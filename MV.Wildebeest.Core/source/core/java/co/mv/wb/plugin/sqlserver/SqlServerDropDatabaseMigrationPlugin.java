@@ -59,6 +59,9 @@ public class SqlServerDropDatabaseMigrationPlugin implements MigrationPlugin
 			throw new IllegalArgumentException("instance must be a SqlServerDatabaseInstance");
 		}
 
+		// Pooled connections to the database would prevent it from being dropped
+		instanceT.releaseAppConnections();
+
 		try
 		{
 			DatabaseHelper.execute(instanceT.getAdminDataSource(), new StringBuilder()
@@ -25,9 +25,12 @@ import co.mv.wb.ResourceType;
 import co.mv.wb.Wildebeest;
 import co.mv.wb.plugin.base.BaseAssertion;
 import co.mv.wb.plugin.base.ImmutableAssertionResponse;
+import co.mv.wb.plugin.generaldatabase.CatalogAssertion;
+import co.mv.wb.plugin.generaldatabase.CatalogProbe;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 /**
@@ -46,7 +49,7 @@ import java.util.UUID;
 		"    <schemaName>prd</schemaName>\n" +
 		"</assertion>"
 )
-public class SqlServerSchemaExistsAssertion extends BaseAssertion
+public class SqlServerSchemaExistsAssertion extends BaseAssertion implements CatalogAssertion
 {
 	/**
 	 * Creates a new SqlServerSchemaExistsAssertion.
@@ -120,6 +123,33 @@ public class SqlServerSchemaExistsAssertion extends BaseAssertion
 			Wildebeest.SqlServerDatabase);
 	}
 
+	@Override public Optional<CatalogProbe> getCatalogProbe(Instance instance)
+	{
+		if (instance == null) { throw new IllegalArgumentException("instance cannot be null"); }
+		SqlServerDatabaseInstance db = ModelExtensions.As(instance, SqlServerDatabaseInstance.class);
+
+		return db == null
+			? Optional.empty()
+			: Optional.of(CatalogProbe.schema(this.getSchemaName()));
+	}
+
+	@Override public AssertionResponse respond(boolean exists)
+	{
+		AssertionResponse result;
+
+		if (exists)
+		{
+			result = new ImmutableAssertionResponse(true, "Schema " + this.getSchemaName() + " exists");
+		}
+
+		else
+		{
+			result = new ImmutableAssertionResponse(false, "Schema " + this.getSchemaName() + " does not exist");
+		}
+
+		return result;
+	}
+
 	@Override public AssertionResponse perform(Instance instance)
 	{
 		if (instance == null) { throw new IllegalArgumentException("instance cannot be null"); }
@@ -135,16 +165,11 @@ public class SqlServerSchemaExistsAssertion extends BaseAssertion
 				String.format("Database %s does not exist", db.getDatabaseName()));
 		}
 		
-		else if (SqlServerDatabaseHelper.schemaExists(
-			db,
-			this.getSchemaName()))
-		{
-			result = new ImmutableAssertionResponse(true, "Schema " + this.getSchemaName() + " exists");
-		}
-		
 		else
 		{
-			result = new ImmutableAssertionResponse(false, "Schema " + this.getSchemaName() + " does not exist");
+			result = this.respond(SqlServerDatabaseHelper.schemaExists(
+				db,
+				this.getSchemaName()));
 		}
 		
 		return result;
@@ -25,6 +25,7 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Optional;
 import java.util.UUID;
 
 /**
@@ -38,6 +39,8 @@ public class SqlServerStateHelper
 	 * Sets the tracked state for an instance.  Note that a SqlServerDatabaseInstance may be migrated by multiple
 	 * separate resource definitions (to support composite resources).  The state set is for a specific resource
 	 * definition.
+	 *
+	 * The state tracking table must already exist; see {@link #ensureStateTable(DataSource, String)}.
 	 * 
 	 * @param       resourceId                  the ID of the resource for which we are tracking state.
 	 * @param       appDataSource               the DataSource for interacting with the database.
@@ -57,25 +60,77 @@ public class SqlServerStateHelper
 		if (stateTableName == null) { throw new IllegalArgumentException("stateTableName cannot be null"); }
 		if ("".equals(stateTableName)) { throw new IllegalArgumentException("stateTableName cannot be empty"); }
 		if (stateId == null) { throw new IllegalArgumentException("stateId cannot be null"); }
-		
-		SqlServerStateHelper.createStateTableIfNotExists(
-			appDataSource,
-			stateTableName);
-		
-		DatabaseHelper.execute(
+
+		DatabaseHelper.executeUpdate(
 			appDataSource,
-			String.format(
-				"DELETE FROM %s WHERE ResourceId = '%s';",
-				stateTableName,
-				resourceId));
+			new StringBuilder()
+				.append("MERGE ").append(stateTableName).append(" WITH (HOLDLOCK) AS target ")
+				.append("USING (SELECT CAST(? AS uniqueidentifier) AS ResourceId, ")
+					.append("CAST(? AS uniqueidentifier) AS StateId) AS source ")
+				.append("ON target.ResourceId = source.ResourceId ")
+				.append("WHEN MATCHED THEN UPDATE SET StateId = source.StateId ")
+				.append("WHEN NOT MATCHED THEN INSERT (ResourceId, StateId) VALUES (source.ResourceId, source.StateId);")
+				.toString(),
+			resourceId.toString(),
+			stateId.toString());
+	}
 
-		DatabaseHelper.execute(
+	/**
+	 * Sets the tracked state for an instance, but only if the instance is still in the expected previous state.  The
+	 * check and the write are a single statement, so two runners migrating the same instance at the same time detect
+	 * each other without either of them taking locks.
+	 *
+	 * The state tracking table must already exist; see {@link #ensureStateTable(DataSource, String)}.
+	 * 
+	 * @param       resourceId                  the ID of the resource for which we are tracking state.
+	 * @param       appDataSource               the DataSource for interacting with the database.
+	 * @param       stateTableName              the name of the state tracking table in use for this instance.
+	 * @param       expectedStateId             the state that the instance is expected to be in, or empty if no state
+	 *                                          is expected to be tracked yet.
+	 * @param       stateId                     the ID of the new state.
+	 * @return                                  true if the state was set, or false if the instance was not in the
+	 *                                          expected state.
+	 * @throws      SQLException                if an error occurs when interacting with the database.
+	 * @since                                   4.0
+	 */
+	public static boolean compareAndSetStateId(
+		UUID resourceId,
+		DataSource appDataSource,
+		String stateTableName,
+		Optional<UUID> expectedStateId,
+		UUID stateId) throws SQLException
+	{
+		if (resourceId == null) { throw new IllegalArgumentException("resourceId cannot be null"); }
+		if (appDataSource == null) { throw new IllegalArgumentException("appDataSource cannot be null"); }
+		if (stateTableName == null) { throw new IllegalArgumentException("stateTableName cannot be null"); }
+		if ("".equals(stateTableName)) { throw new IllegalArgumentException("stateTableName cannot be empty"); }
+		if (expectedStateId == null) { throw new IllegalArgumentException("expectedStateId cannot be null"); }
+		if (stateId == null) { throw new IllegalArgumentException("stateId cannot be null"); }
+
+		if (!expectedStateId.isPresent())
+		{
+			// Record the first state only if no other runner has recorded one in the meantime
+			return DatabaseHelper.executeUpdate(
+				appDataSource,
+				new StringBuilder()
+					.append("MERGE ").append(stateTableName).append(" WITH (HOLDLOCK) AS target ")
+					.append("USING (SELECT CAST(? AS uniqueidentifier) AS ResourceId, ")
+					.append("CAST(? AS uniqueidentifier) AS StateId) AS source ")
+					.append("ON target.ResourceId = source.ResourceId ")
+					.append("WHEN NOT MATCHED THEN INSERT (ResourceId, StateId) VALUES (source.ResourceId, source.StateId);")
+					.toString(),
+				resourceId.toString(),
+				stateId.toString()) == 1;
+		}
+
+		return DatabaseHelper.executeUpdate(
 			appDataSource,
 			String.format(
-				"INSERT INTO %s(ResourceId, StateId) VALUES('%s', '%s');",
-				stateTableName,
-				resourceId,
-				stateId));
+				"UPDATE %s SET StateId = ? WHERE ResourceId = ? AND StateId = ?;",
+				stateTableName),
+			stateId.toString(),
+			resourceId.toString(),
+			expectedStateId.get().toString()) == 1;
 	}
 	
 	
@@ -156,20 +211,49 @@ public class SqlServerStateHelper
 	}
 
 	/**
-	 * Creates the state tracking table in a SqlServerDatabaseInstance.
+	 * Indicates whether or not the state tracking table exists, using a single catalog query.
+	 *
+	 * @param       appDataSource               the DataSource for interacting with the database.
+	 * @param       stateTableName              the name of the state tracking table in use for this instance.
+	 * @return                                  true if the state tracking table exists, otherwise false.
+	 * @since                                   4.0
+	 */
+	public static boolean stateTableExists(
+		DataSource appDataSource,
+		String stateTableName)
+	{
+		if (appDataSource == null) { throw new IllegalArgumentException("appDataSource"); }
+		if (stateTableName == null) { throw new IllegalArgumentException("stateTableName cannot be null"); }
+		if ("".equals(stateTableName)) { throw new IllegalArgumentException("stateTableName cannot be empty"); }
+
+		return DatabaseHelper.rowExists(
+			appDataSource,
+			String.format(
+				"SELECT * FROM sysobjects WHERE name = '%s' AND xtype = 'U';",
+				stateTableName));
+	}
+
+	/**
+	 * Creates the state tracking table in a SqlServerDatabaseInstance if it does not already exist.  The catalog is
+	 * checked first, so that no DDL is issued when the table is already present.
 	 * 
 	 * @param       appDataSource               the DataSource for interacting with the database.
 	 * @param       stateTableName              the name of the state tracking table in use for this instance.
 	 * @throws      SQLException                if an error occurs when interacting with the database.
 	 * @since                                   3.0
 	 */
-	private static void createStateTableIfNotExists(
+	public static void ensureStateTable(
 		DataSource appDataSource,
 		String stateTableName) throws SQLException
 	{
 		if (appDataSource == null) { throw new IllegalArgumentException("appDataSource"); }
 		if (stateTableName == null) { throw new IllegalArgumentException("stateTableName cannot be null"); }
 		if ("".equals(stateTableName)) { throw new IllegalArgumentException("stateTableName cannot be empty"); }
+
+		if (SqlServerStateHelper.stateTableExists(appDataSource, stateTableName))
+		{
+			return;
+		}
 		
 		DatabaseHelper.execute(appDataSource, new StringBuilder()
 			.append("IF NOT EXISTS (SELECT * FROM sysobjects WHERE name = '").append(stateTableName).append
@@ -25,9 +25,12 @@ import co.mv.wb.ResourceType;
 import co.mv.wb.Wildebeest;
 import co.mv.wb.plugin.base.BaseAssertion;
 import co.mv.wb.plugin.base.ImmutableAssertionResponse;
+import co.mv.wb.plugin.generaldatabase.CatalogAssertion;
+import co.mv.wb.plugin.generaldatabase.CatalogProbe;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 /**
@@ -48,7 +51,7 @@ import java.util.UUID;
 		"    <tableName>Product</tableName>\n" +
 		"</assertion>"
 )
-public class SqlServerTableExistsAssertion extends BaseAssertion
+public class SqlServerTableExistsAssertion extends BaseAssertion implements CatalogAssertion
 {
 	/**
 	 * Creates a new SqlServerTableExistsAssertion.
@@ -168,6 +171,33 @@ public class SqlServerTableExistsAssertion extends BaseAssertion
 			Wildebeest.SqlServerDatabase);
 	}
 
+	@Override public Optional<CatalogProbe> getCatalogProbe(Instance instance)
+	{
+		if (instance == null) { throw new IllegalArgumentException("instance cannot be null"); }
+		SqlServerDatabaseInstance db = ModelExtensions.As(instance, SqlServerDatabaseInstance.class);
+
+		return db == null
+			? Optional.empty()
+			: Optional.of(CatalogProbe.table(this.getSchemaName(), this.getTableName()));
+	}
+
+	@Override public AssertionResponse respond(boolean exists)
+	{
+		AssertionResponse result;
+
+		if (exists)
+		{
+			result = new ImmutableAssertionResponse(true, "Table " + this.getTableName() + " exists");
+		}
+
+		else
+		{
+			result = new ImmutableAssertionResponse(false, "Table " + this.getTableName() + " does not exist");
+		}
+
+		return result;
+	}
+
 	@Override public AssertionResponse perform(Instance instance)
 	{
 		if (instance == null) { throw new IllegalArgumentException("instance cannot be null"); }
@@ -183,17 +213,12 @@ public class SqlServerTableExistsAssertion extends BaseAssertion
 				String.format("Database %s does not exist", db.getDatabaseName()));
 		}
 		
-		else if (SqlServerDatabaseHelper.tableExists(
-			db,
-			this.getSchemaName(),
-			this.getTableName()))
-		{
-			result = new ImmutableAssertionResponse(true, "Table " + this.getTableName() + " exists");
-		}
-		
 		else
 		{
-			result = new ImmutableAssertionResponse(false, "Table " + this.getTableName() + " does not exist");
+			result = this.respond(SqlServerDatabaseHelper.tableExists(
+				db,
+				this.getSchemaName(),
+				this.getTableName()));
 		}
 		
 		return result;
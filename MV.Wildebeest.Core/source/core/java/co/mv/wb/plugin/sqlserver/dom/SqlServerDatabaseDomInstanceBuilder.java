@@ -21,7 +21,8 @@ import co.mv.wb.InstanceBuilder;
 import co.mv.wb.Messages;
 import co.mv.wb.PluginBuildException;
 import co.mv.wb.V;
-import co.mv.wb.plugin.base.dom.BaseDomInstanceBuilder;
+import co.mv.wb.plugin.generaldatabase.ConnectionPoolSettings;
+import co.mv.wb.plugin.generaldatabase.dom.BaseDatabaseDomInstanceBuilder;
 import co.mv.wb.plugin.sqlserver.SqlServerDatabaseInstance;
 
 import java.util.Optional;
@@ -31,7 +32,7 @@ import java.util.Optional;
  * 
  * @since                                       2.0
  */
-public class SqlServerDatabaseDomInstanceBuilder extends BaseDomInstanceBuilder
+public class SqlServerDatabaseDomInstanceBuilder extends BaseDatabaseDomInstanceBuilder
 {
 	@Override public Instance build() throws
 		PluginBuildException
@@ -61,12 +62,16 @@ public class SqlServerDatabaseDomInstanceBuilder extends BaseDomInstanceBuilder
 			V.elementMissing(messages, null, "databaseName", SqlServerDatabaseInstance.class);
 		}
 
+		ConnectionPoolSettings connectionPoolSettings = this.getConnectionPoolSettings(
+			messages,
+			SqlServerDatabaseInstance.class);
+
 		if (messages.size() > 0)
 		{
 			throw new PluginBuildException(messages);
 		}
 		
-		Instance result = new SqlServerDatabaseInstance(
+		SqlServerDatabaseInstance result = new SqlServerDatabaseInstance(
 			hostName.get(),
 			instanceName.orElse(null),
 			port.get(),
@@ -75,6 +80,8 @@ public class SqlServerDatabaseDomInstanceBuilder extends BaseDomInstanceBuilder
 			databaseName.get(),
 			stateTableName.orElse(null));
 		
+		result.setConnectionPoolSettings(connectionPoolSettings);
+
 		return result;
 	}
 }
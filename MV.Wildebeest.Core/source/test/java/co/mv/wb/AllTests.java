@@ -25,6 +25,7 @@ import org.junit.runners.Suite;
 	co.mv.wb.plugin.base.AllTests.class,
 	co.mv.wb.plugin.composite.AllTests.class,
 	co.mv.wb.plugin.generaldatabase.AllTests.class,
+	co.mv.wb.plugin.h2.AllTests.class,
 	co.mv.wb.plugin.mysql.AllTests.class,
 	co.mv.wb.plugin.postgresql.AllTests.class,
 	co.mv.wb.plugin.sqlserver.AllTests.class
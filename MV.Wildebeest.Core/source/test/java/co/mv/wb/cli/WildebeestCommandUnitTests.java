@@ -24,9 +24,13 @@ import co.mv.wb.plugin.fake.FakeConstants;
 import org.junit.Test;
 import org.mockito.Matchers;
 
+import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
 import java.util.Optional;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.verify;
@@ -193,4 +197,76 @@ public class WildebeestCommandUnitTests
 
 		// (none)
 	}
+
+	@Test public void tryBuildWildebeestApi_lazyMigrationsNotSpecified_built()
+	{
+		// Setup
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+		// Execute
+		Optional<WildebeestApi> wildebeestApi = WildebeestCommand.tryBuildWildebeestApi(
+			Wildebeest.wildebeestApi(System.out),
+			new String[] { "migrate" },
+			new PrintStream(output));
+
+		// Verify
+		assertTrue("wildebeestApi.isPresent", wildebeestApi.isPresent());
+		assertEquals("output", "", output.toString());
+	}
+
+	@Test public void tryBuildWildebeestApi_invalidLazyMigrations_notBuilt()
+	{
+		// Setup
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+		// Execute
+		Optional<WildebeestApi> wildebeestApi = WildebeestCommand.tryBuildWildebeestApi(
+			Wildebeest.wildebeestApi(System.out),
+			new String[] { "migrate", "--lazyMigrations:yes" },
+			new PrintStream(output));
+
+		// Verify
+		assertFalse("wildebeestApi.isPresent", wildebeestApi.isPresent());
+		assertEquals(
+			"output",
+			"The value \"yes\" is not valid for the lazyMigrations option; expected true or false" +
+				System.lineSeparator(),
+			output.toString());
+	}
+
+	@Test public void tryBuildWildebeestApi_assertionOptions_built()
+	{
+		// Setup
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+		// Execute
+		Optional<WildebeestApi> wildebeestApi = WildebeestCommand.tryBuildWildebeestApi(
+			Wildebeest.wildebeestApi(System.out),
+			new String[] { "migrate", "--assert:each", "--assertFailFast:true", "-c:8" },
+			new PrintStream(output));
+
+		// Verify
+		assertTrue("wildebeestApi.isPresent", wildebeestApi.isPresent());
+		assertEquals("output", "", output.toString());
+	}
+
+	@Test public void tryBuildWildebeestApi_invalidAssertConcurrency_notBuilt()
+	{
+		// Setup
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+		// Execute
+		Optional<WildebeestApi> wildebeestApi = WildebeestCommand.tryBuildWildebeestApi(
+			Wildebeest.wildebeestApi(System.out),
+			new String[] { "migrate", "--assertConcurrency:0" },
+			new PrintStream(output));
+
+		// Verify
+		assertFalse("wildebeestApi.isPresent", wildebeestApi.isPresent());
+		assertEquals(
+			"output",
+			"The assertion concurrency \"0\" is not valid; expected a whole number of at least 1" +
+				System.lineSeparator(),
+			output.toString());
+	}
 }
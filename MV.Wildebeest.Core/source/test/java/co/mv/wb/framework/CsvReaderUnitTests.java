@@ -0,0 +1,119 @@
+// Wildebeest Migration Framework
+// Copyright © 2013 - 2018, Matheson Ventures Pte Ltd
+//
+// This file is part of Wildebeest
+//
+// Wildebeest is free software: you can redistribute it and/or modify it under
+// the terms of the GNU General Public License v2 as published by the Free
+// Software Foundation.
+//
+// Wildebeest is distributed in the hope that it will be useful, but WITHOUT ANY
+// WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+// A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along with
+// Wildebeest.  If not, see http://www.gnu.org/licenses/gpl-2.0.html
+
+package co.mv.wb.framework;
+
+import co.mv.wb.ExpectException;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Unit tests for {@link CsvReader}.
+ *
+ * @since                                       4.0
+ */
+public class CsvReaderUnitTests
+{
+	@Test public void read_plainFields_readsRecords() throws IOException
+	{
+		// Setup
+		CsvReader reader = new CsvReader(new StringReader("1,Foo\r\n2,Bar\n\n3,Baz"));
+
+		// Execute
+		List<List<String>> records = CsvReaderUnitTests.readAll(reader);
+
+		// Verify
+		assertEquals(
+			"records",
+			Arrays.asList(
+				Arrays.asList("1", "Foo"),
+				Arrays.asList("2", "Bar"),
+				Arrays.asList("3", "Baz")),
+			records);
+		assertEquals("recordNumber", 3, reader.getRecordNumber());
+	}
+
+	@Test public void read_quotedFields_unescapesQuotesAndKeepsDelimiters() throws IOException
+	{
+		// Setup
+		CsvReader reader = new CsvReader(new StringReader("\"a,b\",\"say \"\"hi\"\"\",\"line1\r\nline2\"\n"));
+
+		// Execute
+		List<List<String>> records = CsvReaderUnitTests.readAll(reader);
+
+		// Verify
+		assertEquals(
+			"records",
+			Arrays.asList(Arrays.asList("a,b", "say \"hi\"", "line1\r\nline2")),
+			records);
+	}
+
+	@Test public void read_emptyFields_unquotedAreNullAndQuotedAreEmpty() throws IOException
+	{
+		// Setup
+		CsvReader reader = new CsvReader(new StringReader(",\"\",x,\n"));
+
+		// Execute
+		List<List<String>> records = CsvReaderUnitTests.readAll(reader);
+
+		// Verify
+		assertEquals(
+			"records",
+			Arrays.asList(Arrays.asList(null, "", "x", null)),
+			records);
+	}
+
+	@Test public void read_unclosedQuote_throws()
+	{
+		// Setup
+		CsvReader reader = new CsvReader(new StringReader("1,\"Foo\n2,Bar\n"));
+
+		// Execute and Verify
+		new ExpectException(IOException.class)
+		{
+			@Override public void invoke() throws Exception
+			{
+				CsvReaderUnitTests.readAll(reader);
+			}
+
+			@Override public void verify(Exception e)
+			{
+				assertEquals("e.message", "Record 1 has a quoted field that is not closed", e.getMessage());
+			}
+		}.perform();
+	}
+
+	private static List<List<String>> readAll(
+		CsvReader reader) throws IOException
+	{
+		List<List<String>> result = new ArrayList<>();
+
+		for (Optional<List<String>> record = reader.read(); record.isPresent(); record = reader.read())
+		{
+			result.add(record.get());
+		}
+
+		return result;
+	}
+}
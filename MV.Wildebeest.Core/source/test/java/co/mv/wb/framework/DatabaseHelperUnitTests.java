@@ -0,0 +1,231 @@
+// Wildebeest Migration Framework
+// Copyright © 2013 - 2018, Matheson Ventures Pte Ltd
+//
+// This file is part of Wildebeest
+//
+// Wildebeest is free software: you can redistribute it and/or modify it under
+// the terms of the GNU General Public License v2 as published by the Free
+// Software Foundation.
+//
+// Wildebeest is distributed in the hope that it will be useful, but WITHOUT ANY
+// WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+// A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along with
+// Wildebeest.  If not, see http://www.gnu.org/licenses/gpl-2.0.html
+
+package co.mv.wb.framework;
+
+import co.mv.wb.plugin.generaldatabase.SqlDialect;
+import co.mv.wb.plugin.generaldatabase.SqlScriptSplitter;
+import org.junit.Test;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.lang.reflect.Proxy;
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Logger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link DatabaseHelper}.
+ *
+ * @since                                       4.0
+ */
+public class DatabaseHelperUnitTests
+{
+	@Test public void executeBatch_queryInScript_executedOnItsOwnInOrder() throws SQLException
+	{
+		// Setup
+		String script =
+			"CREATE TABLE a (id int);\n" +
+			"SELECT pg_catalog.set_config('search_path', '', false);\n" +
+			"INSERT INTO a VALUES (1);\n" +
+			"INSERT INTO a VALUES (2);\n";
+
+		RecordingDataSource dataSource = new RecordingDataSource();
+
+		// Execute
+		DatabaseHelper.executeBatch(
+			dataSource,
+			new SqlScriptSplitter(new StringReader(script), SqlDialect.PostgreSql));
+
+		// Verify
+		assertEquals("log.size", 3, dataSource.getLog().size());
+		assertEquals("log[0]", "batch: CREATE TABLE a (id int)", dataSource.getLog().get(0));
+		assertEquals(
+			"log[1]",
+			"execute: SELECT pg_catalog.set_config('search_path', '', false)",
+			dataSource.getLog().get(1));
+		assertEquals(
+			"log[2]",
+			"batch: INSERT INTO a VALUES (1); INSERT INTO a VALUES (2)",
+			dataSource.getLog().get(2));
+	}
+
+	@Test public void executeBatch_withProgress_reportedAfterEachBatchAndStatement() throws SQLException
+	{
+		// Setup
+		String script =
+			"CREATE TABLE a (id int);\n" +
+			"SELECT pg_catalog.set_config('search_path', '', false);\n" +
+			"INSERT INTO a VALUES (1);\n" +
+			"INSERT INTO a VALUES (2);\n";
+
+		RecordingDataSource dataSource = new RecordingDataSource();
+		List<Integer> progress = new ArrayList<>();
+
+		// Execute
+		DatabaseHelper.executeBatch(
+			dataSource,
+			new SqlScriptSplitter(new StringReader(script), SqlDialect.PostgreSql),
+			progress::add);
+
+		// Verify
+		assertEquals("progress", Arrays.asList(1, 2, 4), progress);
+	}
+
+	@Test public void isBatchable_statementsThatCannotReturnResults_true()
+	{
+		// Execute and Verify
+		assertTrue("CREATE", DatabaseHelper.isBatchable("CREATE TABLE a (id int)"));
+		assertTrue("comment then INSERT", DatabaseHelper.isBatchable("-- seed\n/* rows */ INSERT INTO a VALUES (1)"));
+		assertTrue("INSERT ... SELECT", DatabaseHelper.isBatchable("insert into a select id from b"));
+		assertTrue("UPDATE", DatabaseHelper.isBatchable("UPDATE a SET id = 2 WHERE id = 1"));
+	}
+
+	@Test public void isBatchable_statementsThatMayReturnResults_false()
+	{
+		// Execute and Verify
+		assertFalse("SELECT", DatabaseHelper.isBatchable("SELECT setval('a_id_seq', 10)"));
+		assertFalse("parenthesized SELECT", DatabaseHelper.isBatchable("(SELECT 1)"));
+		assertFalse("WITH", DatabaseHelper.isBatchable("WITH x AS (SELECT 1) SELECT * FROM x"));
+		assertFalse("SET", DatabaseHelper.isBatchable("SET search_path = public"));
+		assertFalse("RETURNING", DatabaseHelper.isBatchable("INSERT INTO a VALUES (1) RETURNING id"));
+		assertFalse("SQL Server batch", DatabaseHelper.isBatchable("UPDATE a SET id = 2\nSELECT @@ROWCOUNT"));
+	}
+
+	/**
+	 * A DataSource whose connections record the statements executed, and which reject a batch that contains a query in
+	 * the same way that the PostgreSQL and MySQL drivers do.
+	 */
+	private static class RecordingDataSource implements DataSource
+	{
+		private final List<String> _log = new ArrayList<>();
+
+		List<String> getLog()
+		{
+			return _log;
+		}
+
+		@Override public Connection getConnection()
+		{
+			DatabaseMetaData metaData = (DatabaseMetaData)Proxy.newProxyInstance(
+				DatabaseHelperUnitTests.class.getClassLoader(),
+				new Class<?>[] { DatabaseMetaData.class },
+				(proxy, method, args) -> "supportsBatchUpdates".equals(method.getName()) ? true : null);
+
+			List<String> batch = new ArrayList<>();
+
+			Statement statement = (Statement)Proxy.newProxyInstance(
+				DatabaseHelperUnitTests.class.getClassLoader(),
+				new Class<?>[] { Statement.class },
+				(proxy, method, args) ->
+				{
+					switch (method.getName())
+					{
+						case "addBatch":
+							batch.add((String)args[0]);
+							return null;
+						case "executeBatch":
+							for (String sql : batch)
+							{
+								if (!DatabaseHelper.isBatchable(sql))
+								{
+									throw new BatchUpdateException(
+										"A result was returned when none was expected.",
+										new int[0]);
+								}
+							}
+							_log.add("batch: " + String.join("; ", batch));
+							int[] result = new int[batch.size()];
+							batch.clear();
+							return result;
+						case "execute":
+							_log.add("execute: " + args[0]);
+							return true;
+						default:
+							return null;
+					}
+				});
+
+			return (Connection)Proxy.newProxyInstance(
+				DatabaseHelperUnitTests.class.getClassLoader(),
+				new Class<?>[] { Connection.class },
+				(proxy, method, args) ->
+				{
+					switch (method.getName())
+					{
+						case "getMetaData":
+							return metaData;
+						case "createStatement":
+							return statement;
+						case "getAutoCommit":
+							return true;
+						default:
+							return null;
+					}
+				});
+		}
+
+		@Override public Connection getConnection(String username, String password)
+		{
+			return this.getConnection();
+		}
+
+		@Override public PrintWriter getLogWriter()
+		{
+			return null;
+		}
+
+		@Override public void setLogWriter(PrintWriter out)
+		{
+		}
+
+		@Override public void setLoginTimeout(int seconds)
+		{
+		}
+
+		@Override public int getLoginTimeout()
+		{
+			return 0;
+		}
+
+		@Override public Logger getParentLogger() throws SQLFeatureNotSupportedException
+		{
+			throw new SQLFeatureNotSupportedException();
+		}
+
+		@Override public <T> T unwrap(Class<T> iface) throws SQLException
+		{
+			throw new SQLException("not a wrapper");
+		}
+
+		@Override public boolean isWrapperFor(Class<?> iface)
+		{
+			return false;
+		}
+	}
+}
@@ -0,0 +1,131 @@
+// Wildebeest Migration Framework
+// Copyright © 2013 - 2018, Matheson Ventures Pte Ltd
+//
+// This file is part of Wildebeest
+//
+// Wildebeest is free software: you can redistribute it and/or modify it under
+// the terms of the GNU General Public License v2 as published by the Free
+// Software Foundation.
+//
+// Wildebeest is distributed in the hope that it will be useful, but WITHOUT ANY
+// WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+// A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along with
+// Wildebeest.  If not, see http://www.gnu.org/licenses/gpl-2.0.html
+
+package co.mv.wb.framework;
+
+import org.junit.Test;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Unit tests for {@link PluginIndexProcessor}.
+ *
+ * @since                                       4.0
+ */
+public class PluginIndexProcessorUnitTests
+{
+	private static final String MIGRATION_TYPE =
+		"@co.mv.wb.MigrationType(pluginGroupUri = \"g\", uri = \"u\", description = \"d\", example = \"e\") ";
+
+	@Test public void process_incrementalBuild_mergesWithExistingIndex() throws IOException
+	{
+		// Setup
+		Path dir = Files.createTempDirectory("wb-index");
+		File a = write(dir, "A", MIGRATION_TYPE + "public class A {}");
+		File b = write(dir, "B", MIGRATION_TYPE + "public class B {}");
+		File c = write(dir, "C", "public class C {}");
+		compile(dir, a, b, c);
+
+		// Execute
+		compile(dir, c);
+
+		// Verify
+		assertEquals("index", Arrays.asList("p.A", "p.B"), readIndex(dir));
+	}
+
+	@Test public void process_annotationRemoved_dropsEntry() throws IOException
+	{
+		// Setup
+		Path dir = Files.createTempDirectory("wb-index");
+		File a = write(dir, "A", MIGRATION_TYPE + "public class A {}");
+		File b = write(dir, "B", MIGRATION_TYPE + "public class B {}");
+		compile(dir, a, b);
+
+		// Execute
+		compile(dir, write(dir, "B", "public class B {}"));
+
+		// Verify
+		assertEquals("index", Arrays.asList("p.A"), readIndex(dir));
+	}
+
+	@Test public void process_classDeleted_dropsEntry() throws IOException
+	{
+		// Setup
+		Path dir = Files.createTempDirectory("wb-index");
+		File a = write(dir, "A", MIGRATION_TYPE + "public class A {}");
+		File b = write(dir, "B", MIGRATION_TYPE + "public class B {}");
+		compile(dir, a, b);
+		Files.delete(dir.resolve("out/p/A.class"));
+
+		// Execute
+		compile(dir, b);
+
+		// Verify
+		assertEquals("index", Arrays.asList("p.B"), readIndex(dir));
+	}
+
+	private static File write(
+		Path dir,
+		String className,
+		String body) throws IOException
+	{
+		Path file = dir.resolve("src/p/" + className + ".java");
+		Files.createDirectories(file.getParent());
+		Files.write(file, ("package p; " + body).getBytes(StandardCharsets.UTF_8));
+
+		return file.toFile();
+	}
+
+	private static void compile(
+		Path dir,
+		File... sources) throws IOException
+	{
+		Path out = dir.resolve("out");
+		Files.createDirectories(out);
+
+		// The earlier output is on the classpath, as it is in an incremental build
+		List<String> args = new ArrayList<>(Arrays.asList(
+			"-processor", PluginIndexProcessor.class.getName(),
+			"-cp", System.getProperty("java.class.path") + File.pathSeparator + out,
+			"-d", out.toString()));
+		for (File source : sources)
+		{
+			args.add(source.getPath());
+		}
+
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		assertEquals("javac", 0, compiler.run(null, null, null, args.toArray(new String[0])));
+	}
+
+	private static List<String> readIndex(
+		Path dir) throws IOException
+	{
+		return Files.readAllLines(
+			dir.resolve("out").resolve(PluginIndexProcessor.MIGRATION_TYPES_INDEX),
+			StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,305 @@
+// Wildebeest Migration Framework
+// Copyright © 2013 - 2018, Matheson Ventures Pte Ltd
+//
+// This file is part of Wildebeest
+//
+// Wildebeest is free software: you can redistribute it and/or modify it under
+// the terms of the GNU General Public License v2 as published by the Free
+// Software Foundation.
+//
+// Wildebeest is distributed in the hope that it will be useful, but WITHOUT ANY
+// WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+// A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along with
+// Wildebeest.  If not, see http://www.gnu.org/licenses/gpl-2.0.html
+
+package co.mv.wb.framework;
+
+import co.mv.wb.ExpectException;
+import org.junit.Test;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.logging.Logger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link PooledDataSource}.
+ *
+ * @since                                       4.0
+ */
+public class PooledDataSourceUnitTests
+{
+	@Test public void getConnection_sequentialUse_reusesPhysicalConnection() throws SQLException
+	{
+		// Setup
+		CountingDataSource physical = new CountingDataSource();
+		PooledDataSource pool = new PooledDataSource(physical, 2, 1000, 60000);
+
+		// Execute
+		for (int i = 0; i < 10; i ++)
+		{
+			Connection conn = pool.getConnection();
+			conn.close();
+		}
+
+		// Verify
+		assertEquals("physical.opened", 1, physical.getOpened());
+		assertEquals("pool.openConnectionCount", 1, pool.getOpenConnectionCount());
+	}
+
+	@Test public void getConnection_closedTwice_returnsOnce() throws SQLException
+	{
+		// Setup
+		CountingDataSource physical = new CountingDataSource();
+		PooledDataSource pool = new PooledDataSource(physical, 2, 1000, 60000);
+
+		Connection conn1 = pool.getConnection();
+		conn1.close();
+
+		// Execute
+		conn1.close();
+		Connection conn2 = pool.getConnection();
+		pool.getConnection();
+
+		// Verify
+		assertTrue("conn1.isClosed", conn1.isClosed());
+		assertFalse("conn2.isClosed", conn2.isClosed());
+		assertEquals("physical.opened", 2, physical.getOpened());
+		assertEquals("pool.openConnectionCount", 2, pool.getOpenConnectionCount());
+	}
+
+	@Test public void getConnection_exhausted_timesOut() throws SQLException
+	{
+		// Setup
+		PooledDataSource pool = new PooledDataSource(new CountingDataSource(), 1, 50, 60000);
+		pool.getConnection();
+
+		// Execute and Verify
+		new ExpectException(SQLTimeoutException.class)
+		{
+			@Override public void invoke() throws Exception
+			{
+				pool.getConnection();
+			}
+
+			@Override public void verify(Exception e)
+			{
+			}
+		}.perform();
+	}
+
+	@Test public void evictIdleConnections_closesIdleConnections() throws SQLException
+	{
+		// Setup
+		CountingDataSource physical = new CountingDataSource();
+		PooledDataSource pool = new PooledDataSource(physical, 2, 1000, 60000);
+		pool.getConnection().close();
+
+		// Execute
+		pool.evictIdleConnections();
+
+		// Verify
+		assertEquals("physical.closed", 1, physical.getClosed());
+		assertEquals("pool.openConnectionCount", 0, pool.getOpenConnectionCount());
+
+		pool.getConnection().close();
+		assertEquals("physical.opened", 2, physical.getOpened());
+	}
+
+	@Test public void close_inUseConnection_closedOnRelease() throws SQLException
+	{
+		// Setup
+		CountingDataSource physical = new CountingDataSource();
+		PooledDataSource pool = new PooledDataSource(physical, 2, 1000, 60000);
+		Connection conn = pool.getConnection();
+
+		// Execute
+		pool.close();
+		conn.close();
+
+		// Verify
+		assertEquals("physical.closed", 1, physical.getClosed());
+		assertEquals("pool.openConnectionCount", 0, pool.getOpenConnectionCount());
+	}
+
+	@Test public void release_settingChanged_restoresSetting() throws SQLException
+	{
+		// Setup
+		CountingDataSource physical = new CountingDataSource();
+		PooledDataSource pool = new PooledDataSource(physical, 2, 1000, 60000);
+		Connection conn1 = pool.getConnection();
+		conn1.setReadOnly(true);
+
+		// Execute
+		conn1.close();
+		Connection conn2 = pool.getConnection();
+
+		// Verify
+		assertFalse("conn2.isReadOnly", conn2.isReadOnly());
+		assertEquals("physical.opened", 1, physical.getOpened());
+	}
+
+	@Test public void release_sessionStatementExecuted_closesConnection() throws SQLException
+	{
+		// Setup
+		CountingDataSource physical = new CountingDataSource();
+		PooledDataSource pool = new PooledDataSource(physical, 2, 1000, 60000);
+		Connection conn = pool.getConnection();
+		conn.createStatement().execute("-- switch schema\nSET search_path TO other");
+
+		// Execute
+		conn.close();
+
+		// Verify
+		assertEquals("physical.closed", 1, physical.getClosed());
+		assertEquals("pool.openConnectionCount", 0, pool.getOpenConnectionCount());
+
+		pool.getConnection().close();
+		assertEquals("physical.opened", 2, physical.getOpened());
+	}
+
+	@Test public void release_ordinaryStatementExecuted_reusesConnection() throws SQLException
+	{
+		// Setup
+		CountingDataSource physical = new CountingDataSource();
+		PooledDataSource pool = new PooledDataSource(physical, 2, 1000, 60000);
+		Connection conn = pool.getConnection();
+		Statement stmt = conn.createStatement();
+		stmt.addBatch("CREATE TABLE Settings (Name varchar(20), Value varchar(20))");
+		stmt.addBatch("UPDATE Settings SET Value = 'on'");
+
+		// Execute
+		conn.close();
+
+		// Verify
+		assertEquals("physical.closed", 0, physical.getClosed());
+
+		pool.getConnection().close();
+		assertEquals("physical.opened", 1, physical.getOpened());
+	}
+
+	@Test public void createStatement_getConnection_returnsPooledConnection() throws SQLException
+	{
+		// Setup
+		PooledDataSource pool = new PooledDataSource(new CountingDataSource(), 2, 1000, 60000);
+		Connection conn = pool.getConnection();
+
+		// Execute
+		Statement stmt = conn.createStatement();
+
+		// Verify
+		assertSame("stmt.connection", conn, stmt.getConnection());
+	}
+
+	/**
+	 * A DataSource that hands out inert connections and counts how many are opened and closed.
+	 */
+	private static class CountingDataSource implements DataSource
+	{
+		private int _opened = 0;
+		private int _closed = 0;
+
+		int getOpened()
+		{
+			return _opened;
+		}
+
+		int getClosed()
+		{
+			return _closed;
+		}
+
+		@Override public Connection getConnection()
+		{
+			_opened ++;
+
+			boolean[] closed = { false };
+			boolean[] readOnly = { false };
+
+			return (Connection)Proxy.newProxyInstance(
+				PooledDataSourceUnitTests.class.getClassLoader(),
+				new Class<?>[] { Connection.class },
+				(proxy, method, args) ->
+				{
+					switch (method.getName())
+					{
+						case "close":
+							if (!closed[0])
+							{
+								closed[0] = true;
+								_closed ++;
+							}
+							return null;
+						case "isClosed":
+							return closed[0];
+						case "isReadOnly":
+							return readOnly[0];
+						case "setReadOnly":
+							readOnly[0] = (Boolean)args[0];
+							return null;
+						case "createStatement":
+							return Proxy.newProxyInstance(
+								PooledDataSourceUnitTests.class.getClassLoader(),
+								new Class<?>[] { Statement.class },
+								(statement, statementMethod, statementArgs) ->
+									statementMethod.getReturnType() == boolean.class ? false : null);
+						case "isValid":
+						case "getAutoCommit":
+							return true;
+						default:
+							return null;
+					}
+				});
+		}
+
+		@Override public Connection getConnection(String username, String password)
+		{
+			return this.getConnection();
+		}
+
+		@Override public PrintWriter getLogWriter()
+		{
+			return null;
+		}
+
+		@Override public void setLogWriter(PrintWriter out)
+		{
+		}
+
+		@Override public void setLoginTimeout(int seconds)
+		{
+		}
+
+		@Override public int getLoginTimeout()
+		{
+			return 0;
+		}
+
+		@Override public Logger getParentLogger() throws SQLFeatureNotSupportedException
+		{
+			throw new SQLFeatureNotSupportedException();
+		}
+
+		@Override public <T> T unwrap(Class<T> iface) throws SQLException
+		{
+			throw new SQLException("not a wrapper");
+		}
+
+		@Override public boolean isWrapperFor(Class<?> iface)
+		{
+			return false;
+		}
+	}
+}
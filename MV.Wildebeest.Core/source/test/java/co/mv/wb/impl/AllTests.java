@@ -22,6 +22,8 @@ import org.junit.runners.Suite;
 @RunWith(Suite.class)
 @Suite.SuiteClasses(
 	{
+		MigrationGraphUnitTests.class,
+		PluginIndexUnitTests.class,
 		ResourceHelperUnitTests.class,
 		WildebeestApiImplUnitTests.class
 	})
@@ -0,0 +1,304 @@
+// Wildebeest Migration Framework
+// Copyright © 2013 - 2018, Matheson Ventures Pte Ltd
+//
+// This file is part of Wildebeest
+//
+// Wildebeest is free software: you can redistribute it and/or modify it under
+// the terms of the GNU General Public License v2 as published by the Free
+// Software Foundation.
+//
+// Wildebeest is distributed in the hope that it will be useful, but WITHOUT ANY
+// WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+// A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along with
+// Wildebeest.  If not, see http://www.gnu.org/licenses/gpl-2.0.html
+
+package co.mv.wb.impl;
+
+import co.mv.wb.ExpectException;
+import co.mv.wb.Migration;
+import co.mv.wb.MigrationNotPossibleException;
+import co.mv.wb.Resource;
+import co.mv.wb.State;
+import co.mv.wb.plugin.base.ImmutableState;
+import co.mv.wb.plugin.base.ResourceImpl;
+import co.mv.wb.plugin.fake.FakeConstants;
+import co.mv.wb.plugin.fake.SetTagMigration;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Unit tests for {@link MigrationGraph}.
+ *
+ * @since                                       4.0
+ */
+public class MigrationGraphUnitTests
+{
+	//
+	// findPath()
+	//
+
+	@Test public void findPath_nonExistentToDeepState_succeeds() throws MigrationNotPossibleException
+	{
+		// Setup
+		Resource resource = MigrationGraphUnitTests.resource();
+		State state1 = MigrationGraphUnitTests.state(resource);
+		State state2 = MigrationGraphUnitTests.state(resource);
+		State state3 = MigrationGraphUnitTests.state(resource);
+		Migration migration1 = MigrationGraphUnitTests.migration(resource, null, state1);
+		Migration migration2 = MigrationGraphUnitTests.migration(resource, state1, state2);
+		Migration migration3 = MigrationGraphUnitTests.migration(resource, state2, state3);
+
+		// Execute
+		List<Migration> path = MigrationGraph
+			.build(resource)
+			.findPath(Optional.empty(), Optional.of(state3.getStateId()));
+
+		// Verify
+		assertEquals("path.size", 3, path.size());
+		assertSame("path[0]", migration1, path.get(0));
+		assertSame("path[1]", migration2, path.get(1));
+		assertSame("path[2]", migration3, path.get(2));
+	}
+
+	@Test public void findPath_toSameState_succeeds() throws MigrationNotPossibleException
+	{
+		// Setup
+		Resource resource = MigrationGraphUnitTests.resource();
+		State state1 = MigrationGraphUnitTests.state(resource);
+		MigrationGraphUnitTests.migration(resource, null, state1);
+
+		// Execute
+		List<Migration> path = MigrationGraph
+			.build(resource)
+			.findPath(Optional.of(state1.getStateId()), Optional.of(state1.getStateId()));
+
+		// Verify
+		assertEquals("path.size", 0, path.size());
+	}
+
+	/**
+	 * Where the graph branches and later rejoins, the shortest path is chosen, and ties are broken by declaration order.
+	 *
+	 * @since                                   4.0
+	 */
+	@Test public void findPath_diamond_choosesShortestPath() throws MigrationNotPossibleException
+	{
+		// Setup
+		Resource resource = MigrationGraphUnitTests.resource();
+		State state1 = MigrationGraphUnitTests.state(resource);
+		State stateA = MigrationGraphUnitTests.state(resource);
+		State stateB1 = MigrationGraphUnitTests.state(resource);
+		State stateB2 = MigrationGraphUnitTests.state(resource);
+		State stateC = MigrationGraphUnitTests.state(resource);
+		State state2 = MigrationGraphUnitTests.state(resource);
+		MigrationGraphUnitTests.migration(resource, state1, stateB1);
+		MigrationGraphUnitTests.migration(resource, stateB1, stateB2);
+		MigrationGraphUnitTests.migration(resource, stateB2, state2);
+		Migration migrationA1 = MigrationGraphUnitTests.migration(resource, state1, stateA);
+		Migration migrationA2 = MigrationGraphUnitTests.migration(resource, stateA, state2);
+		MigrationGraphUnitTests.migration(resource, state1, stateC);
+		MigrationGraphUnitTests.migration(resource, stateC, state2);
+
+		// Execute
+		List<Migration> path = MigrationGraph
+			.build(resource)
+			.findPath(Optional.of(state1.getStateId()), Optional.of(state2.getStateId()));
+
+		// Verify
+		assertEquals("path.size", 2, path.size());
+		assertSame("path[0]", migrationA1, path.get(0));
+		assertSame("path[1]", migrationA2, path.get(1));
+	}
+
+	@Test public void findPath_cycle_succeeds() throws MigrationNotPossibleException
+	{
+		// Setup
+		Resource resource = MigrationGraphUnitTests.resource();
+		State state1 = MigrationGraphUnitTests.state(resource);
+		State state2 = MigrationGraphUnitTests.state(resource);
+		State state3 = MigrationGraphUnitTests.state(resource);
+		Migration migration1 = MigrationGraphUnitTests.migration(resource, null, state1);
+		MigrationGraphUnitTests.migration(resource, state1, null);
+		Migration migration2 = MigrationGraphUnitTests.migration(resource, state1, state2);
+		MigrationGraphUnitTests.migration(resource, state2, state1);
+		Migration migration3 = MigrationGraphUnitTests.migration(resource, state2, state3);
+
+		// Execute
+		List<Migration> path = MigrationGraph
+			.build(resource)
+			.findPath(Optional.empty(), Optional.of(state3.getStateId()));
+
+		// Verify
+		assertEquals("path.size", 3, path.size());
+		assertSame("path[0]", migration1, path.get(0));
+		assertSame("path[1]", migration2, path.get(1));
+		assertSame("path[2]", migration3, path.get(2));
+	}
+
+	@Test public void findPath_noPath_throws()
+	{
+		// Setup
+		Resource resource = MigrationGraphUnitTests.resource();
+		State state1 = MigrationGraphUnitTests.state(resource);
+		State state2 = MigrationGraphUnitTests.state(resource);
+		MigrationGraphUnitTests.migration(resource, null, state1);
+		MigrationGraphUnitTests.migration(resource, state2, state1);
+
+		MigrationGraph graph = MigrationGraph.build(resource);
+
+		// Execute and Verify
+		new ExpectException(MigrationNotPossibleException.class)
+		{
+			@Override public void invoke() throws Exception
+			{
+				graph.findPath(Optional.empty(), Optional.of(state2.getStateId()));
+			}
+
+			@Override public void verify(Exception e)
+			{
+			}
+		}.perform();
+	}
+
+	/**
+	 * A long chain of states interleaved with diamonds, each of which doubles the number of possible paths.  The
+	 * planner visits each state once, so the path is found without enumerating the alternatives.
+	 *
+	 * @since                                   4.0
+	 */
+	@Test public void findPath_largeResource_succeeds() throws MigrationNotPossibleException
+	{
+		// Setup
+		Resource resource = MigrationGraphUnitTests.resource();
+
+		State previous = MigrationGraphUnitTests.state(resource);
+		MigrationGraphUnitTests.migration(resource, null, previous);
+
+		for (int i = 0; i < 5000; i ++)
+		{
+			State branch1 = MigrationGraphUnitTests.state(resource);
+			State branch2 = MigrationGraphUnitTests.state(resource);
+			State next = MigrationGraphUnitTests.state(resource);
+			MigrationGraphUnitTests.migration(resource, previous, branch1);
+			MigrationGraphUnitTests.migration(resource, previous, branch2);
+			MigrationGraphUnitTests.migration(resource, branch1, next);
+			MigrationGraphUnitTests.migration(resource, branch2, next);
+			previous = next;
+		}
+
+		// Execute
+		List<Migration> path = MigrationGraph
+			.build(resource)
+			.findPath(Optional.empty(), Optional.of(previous.getStateId()));
+
+		// Verify
+		assertEquals("path.size", 10001, path.size());
+		assertEquals("path[last].toState", previous.getStateId(), path.get(path.size() - 1).getToStateId().get());
+	}
+
+	//
+	// findLoops()
+	//
+
+	@Test public void findLoops_rollbackCycle_returnsEmpty()
+	{
+		// Setup
+		Resource resource = MigrationGraphUnitTests.resource();
+		State state1 = MigrationGraphUnitTests.state(resource);
+		State state2 = MigrationGraphUnitTests.state(resource);
+		MigrationGraphUnitTests.migration(resource, null, state1);
+		MigrationGraphUnitTests.migration(resource, state1, state2);
+		MigrationGraphUnitTests.migration(resource, state2, state1);
+		MigrationGraphUnitTests.migration(resource, state1, null);
+
+		// Execute
+		List<Migration> loops = MigrationGraph.build(resource).findLoops();
+
+		// Verify
+		assertEquals("loops.size", 0, loops.size());
+	}
+
+	@Test public void findLoops_migrationToSameState_returnsMigration()
+	{
+		// Setup
+		Resource resource = MigrationGraphUnitTests.resource();
+		State state1 = MigrationGraphUnitTests.state(resource);
+		State state2 = MigrationGraphUnitTests.state(resource);
+		MigrationGraphUnitTests.migration(resource, null, state1);
+		MigrationGraphUnitTests.migration(resource, state1, state2);
+		Migration migration3 = MigrationGraphUnitTests.migration(resource, state2, state2);
+		Migration migration4 = MigrationGraphUnitTests.migration(resource, null, null);
+
+		// Execute
+		List<Migration> loops = MigrationGraph.build(resource).findLoops();
+
+		// Verify
+		assertEquals("loops.size", 2, loops.size());
+		assertSame("loops[0]", migration4, loops.get(0));
+		assertSame("loops[1]", migration3, loops.get(1));
+	}
+
+	//
+	// findUnreachableStates()
+	//
+
+	@Test public void findUnreachableStates_succeeds()
+	{
+		// Setup
+		Resource resource = MigrationGraphUnitTests.resource();
+		State state1 = MigrationGraphUnitTests.state(resource);
+		State state2 = MigrationGraphUnitTests.state(resource);
+		State state3 = MigrationGraphUnitTests.state(resource);
+		MigrationGraphUnitTests.migration(resource, null, state1);
+		MigrationGraphUnitTests.migration(resource, state2, state3);
+
+		// Execute
+		List<State> unreachable = MigrationGraph.build(resource).findUnreachableStates();
+
+		// Verify
+		assertEquals("unreachable.size", 2, unreachable.size());
+		assertSame("unreachable[0]", state2, unreachable.get(0));
+		assertSame("unreachable[1]", state3, unreachable.get(1));
+	}
+
+	private static Resource resource()
+	{
+		return new ResourceImpl(
+			UUID.randomUUID(),
+			FakeConstants.Fake,
+			"Resource",
+			Optional.empty());
+	}
+
+	private static State state(
+		Resource resource)
+	{
+		State result = new ImmutableState(UUID.randomUUID());
+		resource.getStates().add(result);
+
+		return result;
+	}
+
+	private static Migration migration(
+		Resource resource,
+		State fromState,
+		State toState)
+	{
+		Migration result = new SetTagMigration(
+			UUID.randomUUID(),
+			Optional.ofNullable(fromState).map(State::getStateId),
+			Optional.ofNullable(toState).map(State::getStateId),
+			"tag");
+		resource.getMigrations().add(result);
+
+		return result;
+	}
+}
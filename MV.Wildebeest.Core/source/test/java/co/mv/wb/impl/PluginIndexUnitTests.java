@@ -0,0 +1,58 @@
+// Wildebeest Migration Framework
+// Copyright © 2013 - 2018, Matheson Ventures Pte Ltd
+//
+// This file is part of Wildebeest
+//
+// Wildebeest is free software: you can redistribute it and/or modify it under
+// the terms of the GNU General Public License v2 as published by the Free
+// Software Foundation.
+//
+// Wildebeest is distributed in the hope that it will be useful, but WITHOUT ANY
+// WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+// A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along with
+// Wildebeest.  If not, see http://www.gnu.org/licenses/gpl-2.0.html
+
+package co.mv.wb.impl;
+
+import co.mv.wb.plugin.fake.SetTagMigration;
+import co.mv.wb.plugin.fake.TagAssertion;
+import co.mv.wb.plugin.generaldatabase.AnsiSqlTableExistsAssertion;
+import co.mv.wb.plugin.generaldatabase.SqlScriptMigration;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link PluginIndex}.
+ *
+ * @since                                       4.0
+ */
+public class PluginIndexUnitTests
+{
+	@Test public void migrationTypes_includesCoreAndTestPlugins()
+	{
+		// Execute
+		List<Class<?>> migrationTypes = PluginIndex.migrationTypes();
+
+		// Verify
+		assertTrue("SqlScriptMigration", migrationTypes.contains(SqlScriptMigration.class));
+		assertTrue("SetTagMigration", migrationTypes.contains(SetTagMigration.class));
+		assertFalse("AnsiSqlTableExistsAssertion", migrationTypes.contains(AnsiSqlTableExistsAssertion.class));
+	}
+
+	@Test public void assertionTypes_includesCoreAndTestPlugins()
+	{
+		// Execute
+		List<Class<?>> assertionTypes = PluginIndex.assertionTypes();
+
+		// Verify
+		assertTrue("AnsiSqlTableExistsAssertion", assertionTypes.contains(AnsiSqlTableExistsAssertion.class));
+		assertTrue("TagAssertion", assertionTypes.contains(TagAssertion.class));
+		assertFalse("SqlScriptMigration", assertionTypes.contains(SqlScriptMigration.class));
+	}
+}
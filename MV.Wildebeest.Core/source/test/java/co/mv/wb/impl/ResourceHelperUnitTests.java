@@ -17,8 +17,11 @@
 package co.mv.wb.impl;
 
 import co.mv.wb.Assertion;
+import co.mv.wb.AssertionCost;
 import co.mv.wb.AssertionFailedException;
+import co.mv.wb.AssertionPolicy;
 import co.mv.wb.AssertionResult;
+import co.mv.wb.AssertionType;
 import co.mv.wb.Asserts;
 import co.mv.wb.ExpectException;
 import co.mv.wb.IndeterminateStateException;
@@ -28,7 +31,12 @@ import co.mv.wb.Migration;
 import co.mv.wb.MigrationFailedException;
 import co.mv.wb.MigrationNotPossibleException;
 import co.mv.wb.MigrationPlugin;
+import co.mv.wb.MigrationTypeInfo;
+import co.mv.wb.PluginGroup;
+import co.mv.wb.PluginManager;
 import co.mv.wb.Resource;
+import co.mv.wb.ResourcePlugin;
+import co.mv.wb.ResourceType;
 import co.mv.wb.State;
 import co.mv.wb.TargetNotSpecifiedException;
 import co.mv.wb.UnknownStateSpecifiedException;
@@ -46,6 +54,7 @@ import org.junit.Ignore;
 import org.junit.Test;
 
 import java.io.PrintStream;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -189,6 +198,74 @@ public class ResourceHelperUnitTests
 			results.get(1), "results[1]");
 	}
 
+	@Test public void assertState_multipleAssertionsInParallel_reportsInSeqNumOrder() throws
+		IndeterminateStateException
+	{
+		// Setup
+		PrintStream output = System.out;
+		Resource resource = new ResourceImpl(
+			UUID.randomUUID(),
+			FakeConstants.Fake,
+			"Resource",
+			Optional.empty());
+
+		State state = new ImmutableState(UUID.randomUUID());
+		resource.getStates().add(state);
+
+		UUID assertion3Id = UUID.randomUUID();
+		state.getAssertions().add(new TagAssertion(
+			assertion3Id,
+			2,
+			"Bar"));
+
+		UUID assertion1Id = UUID.randomUUID();
+		state.getAssertions().add(new TagAssertion(
+			assertion1Id,
+			0,
+			"Foo"));
+
+		UUID assertion2Id = UUID.randomUUID();
+		state.getAssertions().add(new TagAssertion(
+			assertion2Id,
+			1,
+			"Foo"));
+
+		// The fake instance is only read by its assertions, so it can serve them all at once
+		FakeInstance instance = new FakeInstance(state.getStateId())
+		{
+			@Override public int getMaxConcurrency()
+			{
+				return 4;
+			}
+		};
+		instance.setTag("Foo");
+
+		Map<ResourceType, ResourcePlugin> resourcePlugins = new HashMap<>();
+		resourcePlugins.put(FakeConstants.Fake, new FakeResourcePlugin());
+
+		WildebeestApiImpl wildebeestApi = new WildebeestApiImpl(output);
+		wildebeestApi.setResourcePlugins(resourcePlugins);
+		wildebeestApi.setAssertionConcurrency(4);
+
+		// Execute
+		List<AssertionResult> results = wildebeestApi.assertState(
+			resource,
+			instance);
+
+		// Verify
+		assertNotNull("results", results);
+		assertEquals("results.size", 3, results.size());
+		Asserts.assertAssertionResult(
+			assertion1Id, true, "Tag is as expected",
+			results.get(0), "results[0]");
+		Asserts.assertAssertionResult(
+			assertion2Id, true, "Tag is as expected",
+			results.get(1), "results[1]");
+		Asserts.assertAssertionResult(
+			assertion3Id, false, "Tag not as expected",
+			results.get(2), "results[2]");
+	}
+
 	/**
 	 * Verifies that when the internal call to currentState() results in an IndeterminateStateException, assertState
 	 * handles that properly.
@@ -558,6 +635,117 @@ public class ResourceHelperUnitTests
 		
 	}
 	
+	@Test public void migrate_assertFinal_skipsIntermediateAssertions() throws
+		AssertionFailedException,
+		IndeterminateStateException,
+		InvalidStateSpecifiedException,
+		MigrationNotPossibleException,
+		MigrationFailedException,
+		TargetNotSpecifiedException,
+		UnknownStateSpecifiedException
+	{
+		// Setup
+		PrintStream output = System.out;
+		Resource resource = new ResourceImpl(
+			UUID.randomUUID(),
+			FakeConstants.Fake,
+			"Resource",
+			Optional.empty());
+
+		// The assertion of the intermediate state would fail if it were performed
+		State state1 = new ImmutableState(UUID.randomUUID(), Optional.of("State 1"));
+		state1.getAssertions().add(new TagAssertion(UUID.randomUUID(), 0, "baz"));
+		resource.getStates().add(state1);
+
+		State state2 = new ImmutableState(UUID.randomUUID(), Optional.of("State 2"));
+		state2.getAssertions().add(new TagAssertion(UUID.randomUUID(), 0, "bar"));
+		resource.getStates().add(state2);
+
+		resource.getMigrations().add(new SetTagMigration(
+			UUID.randomUUID(),
+			Optional.empty(),
+			Optional.of(state1.getStateId()),
+			"foo"));
+		resource.getMigrations().add(new SetTagMigration(
+			UUID.randomUUID(),
+			Optional.of(state1.getStateId()),
+			Optional.of(state2.getStateId()),
+			"bar"));
+
+		FakeInstance instance = new FakeInstance();
+
+		WildebeestApiImpl wildebeestApi = ResourceHelperUnitTests.setTagApi(output);
+
+		// Execute
+		wildebeestApi.migrate(
+			resource,
+			instance,
+			Optional.of(state2.getStateId().toString()),
+			AssertionPolicy.Final);
+
+		// Verify
+		assertEquals("instance.tag", "bar", instance.getTag());
+		assertEquals("instance.stateId", state2.getStateId(), instance.getStateId());
+	}
+
+	@Test public void migrate_assertFinalTargetFails_throwsForTargetState()
+	{
+		// Setup
+		PrintStream output = System.out;
+		Resource resource = new ResourceImpl(
+			UUID.randomUUID(),
+			FakeConstants.Fake,
+			"Resource",
+			Optional.empty());
+
+		State state1 = new ImmutableState(UUID.randomUUID(), Optional.of("State 1"));
+		state1.getAssertions().add(new TagAssertion(UUID.randomUUID(), 0, "foo"));
+		resource.getStates().add(state1);
+
+		State state2 = new ImmutableState(UUID.randomUUID(), Optional.of("State 2"));
+		state2.getAssertions().add(new TagAssertion(UUID.randomUUID(), 0, "bar"));
+		resource.getStates().add(state2);
+
+		resource.getMigrations().add(new SetTagMigration(
+			UUID.randomUUID(),
+			Optional.empty(),
+			Optional.of(state1.getStateId()),
+			"foo"));
+		resource.getMigrations().add(new SetTagMigration(
+			UUID.randomUUID(),
+			Optional.of(state1.getStateId()),
+			Optional.of(state2.getStateId()),
+			"baz"));
+
+		FakeInstance instance = new FakeInstance();
+
+		WildebeestApiImpl wildebeestApi = ResourceHelperUnitTests.setTagApi(output);
+
+		// Execute and Verify
+		new ExpectException(AssertionFailedException.class)
+		{
+			@Override public void invoke() throws Exception
+			{
+				wildebeestApi.migrate(
+					resource,
+					instance,
+					Optional.of(state2.getStateId().toString()),
+					AssertionPolicy.Final);
+			}
+
+			@Override public void verify(Exception e)
+			{
+				AssertionFailedException te = (AssertionFailedException)e;
+
+				assertEquals("te.stateId", state2.getStateId(), te.getStateId());
+				assertEquals("te.assertionResults.size", 1, te.getAssertionResults().size());
+			}
+		}.perform();
+
+		// The state is still recorded after each step
+		assertEquals("instance.stateId", state2.getStateId(), instance.getStateId());
+	}
+
 	@Ignore @Test public void migrate_stateToNonExistent_succeeds() throws
 		AssertionFailedException,
 		IndeterminateStateException,
@@ -703,6 +891,70 @@ public class ResourceHelperUnitTests
 
 	}
 	
+	@Test public void jumpstate_failFastAssertions_performsCheapestFirstAndStopsAtFailure()
+	{
+		// Setup
+		PrintStream output = System.out;
+		Resource resource = new ResourceImpl(
+			UUID.randomUUID(),
+			FakeConstants.Fake,
+			"Resource",
+			Optional.empty());
+
+		State state = new ImmutableState(UUID.randomUUID());
+		resource.getStates().add(state);
+
+		UUID expensiveId = UUID.randomUUID();
+		state.getAssertions().add(new TagAssertion(
+			expensiveId,
+			0,
+			"Foo"));
+
+		UUID cheapId = UUID.randomUUID();
+		state.getAssertions().add(new TagAssertion(
+			cheapId,
+			1,
+			"Bar")
+		{
+			@Override public AssertionCost getCost()
+			{
+				return AssertionCost.CatalogLookup;
+			}
+		});
+
+		FakeInstance instance = new FakeInstance(state.getStateId());
+		instance.setTag("Foo");
+
+		Map<ResourceType, ResourcePlugin> resourcePlugins = new HashMap<>();
+		resourcePlugins.put(FakeConstants.Fake, new FakeResourcePlugin());
+
+		WildebeestApiImpl wildebeestApi = new WildebeestApiImpl(output);
+		wildebeestApi.setResourcePlugins(resourcePlugins);
+		wildebeestApi.setFailFastAssertions(true);
+
+		// Execute and Verify
+		new ExpectException(AssertionFailedException.class)
+		{
+			@Override public void invoke() throws Exception
+			{
+				wildebeestApi.jumpstate(
+					resource,
+					instance,
+					state.getStateId().toString());
+			}
+
+			@Override public void verify(Exception e)
+			{
+				AssertionFailedException te = (AssertionFailedException)e;
+
+				assertEquals("te.assertionResults.size", 1, te.getAssertionResults().size());
+				Asserts.assertAssertionResult(
+					cheapId, false, "Tag not as expected",
+					te.getAssertionResults().get(0), "te.assertionResults[0]");
+			}
+		}.perform();
+	}
+
 	@Test public void jumpstate_nonExistentState_throws()
 	{
 		
@@ -812,4 +1064,41 @@ public class ResourceHelperUnitTests
 		assertEquals("instance.tag", "Foo", instance.getTag());
 		
 	}
+
+	/**
+	 * Creates a WildebeestApiImpl for Fake resources that performs SetTag migrations.
+	 */
+	private static WildebeestApiImpl setTagApi(
+		PrintStream output)
+	{
+		Map<ResourceType, ResourcePlugin> resourcePlugins = new HashMap<>();
+		resourcePlugins.put(FakeConstants.Fake, new FakeResourcePlugin());
+
+		WildebeestApiImpl result = new WildebeestApiImpl(output);
+		result.setResourcePlugins(resourcePlugins);
+		result.setPluginManager(new PluginManager()
+		{
+			@Override public List<PluginGroup> getPluginGroups()
+			{
+				return Collections.emptyList();
+			}
+
+			@Override public List<MigrationTypeInfo> getMigrationTypeInfos()
+			{
+				return Collections.emptyList();
+			}
+
+			@Override public MigrationPlugin getMigrationPlugin(String uri)
+			{
+				return new SetTagMigrationPlugin();
+			}
+
+			@Override public List<AssertionType> getAssertionTypes()
+			{
+				return Collections.emptyList();
+			}
+		});
+
+		return result;
+	}
 }
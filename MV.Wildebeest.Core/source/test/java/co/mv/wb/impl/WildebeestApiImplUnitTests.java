@@ -17,10 +17,17 @@
 package co.mv.wb.impl;
 
 import co.mv.wb.AssertionFailedException;
+import co.mv.wb.AssertionType;
 import co.mv.wb.IndeterminateStateException;
 import co.mv.wb.InvalidStateSpecifiedException;
 import co.mv.wb.MigrationFailedException;
 import co.mv.wb.MigrationNotPossibleException;
+import co.mv.wb.MigrationPlugin;
+import co.mv.wb.MigrationTypeInfo;
+import co.mv.wb.PluginGroup;
+import co.mv.wb.PluginManager;
+import co.mv.wb.Resource;
+import co.mv.wb.State;
 import co.mv.wb.TargetNotSpecifiedException;
 import co.mv.wb.UnknownStateSpecifiedException;
 import co.mv.wb.Wildebeest;
@@ -29,16 +36,35 @@ import co.mv.wb.XmlValidationException;
 import co.mv.wb.fixture.TestContext_SimpleFakeResource;
 import co.mv.wb.fixture.TestContext_SimpleFakeResource_Builder;
 import co.mv.wb.framework.ArgumentNullException;
+import co.mv.wb.plugin.base.ImmutableState;
+import co.mv.wb.plugin.base.ResourceImpl;
+import co.mv.wb.plugin.generaldatabase.AnsiSqlTableExistsAssertion;
+import co.mv.wb.plugin.generaldatabase.CatalogSnapshot;
+import co.mv.wb.plugin.generaldatabase.FakeDatabase;
+import co.mv.wb.plugin.generaldatabase.SqlDialect;
+import co.mv.wb.plugin.generaldatabase.SqlScriptMigration;
+import co.mv.wb.plugin.generaldatabase.SqlScriptMigrationPlugin;
+import co.mv.wb.plugin.postgresql.PostgreSqlDatabaseInstance;
+import co.mv.wb.plugin.postgresql.PostgreSqlDatabaseResourcePlugin;
 import org.junit.Assert;
 import org.junit.Test;
 
+import javax.sql.DataSource;
 import java.io.File;
 import java.io.IOException;
 import java.io.PrintStream;
 import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static co.mv.wb.Asserts.assertFakeInstance;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Unit tests for WildebeestApiImpl.
@@ -47,6 +73,8 @@ import static co.mv.wb.Asserts.assertFakeInstance;
  */
 public class WildebeestApiImplUnitTests
 {
+	private static final String CATALOG_SCHEMA_QUERY = "SELECT schema_name FROM information_schema.schemata";
+
 	/**
 	 * A call to migrate specified a target and the resource does not have a default.  WildebeestApiImpl correctly
 	 * resolves the specified target and passes it to ResourceHelperImpl.
@@ -200,6 +228,90 @@ public class WildebeestApiImplUnitTests
 			"instance");
 	}
 
+	/**
+	 * A catalog snapshot is attached to the instance when a run of SQL scripts is fast-forwarded.  The scripts change
+	 * the catalog, so WildebeestApiImpl discards the snapshot and asserts the target state against a new one.
+	 *
+	 * @since                                   4.0
+	 */
+	@Test public void migrate_fastForwardWithCatalogSnapshot_assertsAgainstNewSnapshot() throws
+		AssertionFailedException,
+		IndeterminateStateException,
+		InvalidStateSpecifiedException,
+		MigrationFailedException,
+		MigrationNotPossibleException,
+		TargetNotSpecifiedException,
+		UnknownStateSpecifiedException
+	{
+		// Setup
+		Resource resource = WildebeestApiImplUnitTests.catalogResource();
+		AtomicReference<UUID> stateId = new AtomicReference<>(resource.getStates().get(0).getStateId());
+		AtomicBoolean databaseExists = new AtomicBoolean(true);
+		FakeDatabase database = WildebeestApiImplUnitTests.catalogDatabase(stateId, databaseExists);
+		PostgreSqlDatabaseInstance instance = WildebeestApiImplUnitTests.instance(database);
+		CatalogSnapshot.take(instance);
+
+		WildebeestApiImpl wildebeestApi = WildebeestApiImplUnitTests.postgreSqlApi();
+		wildebeestApi.setCatalogSnapshots(true);
+		wildebeestApi.setFastForward(true);
+
+		// Execute
+		wildebeestApi.migrate(
+			resource,
+			instance,
+			Optional.of("three"));
+
+		// Verify
+		assertEquals("stateId", resource.getStates().get(2).getStateId(), stateId.get());
+		assertEquals(
+			"snapshots taken",
+			2,
+			database.getLog().stream().filter(CATALOG_SCHEMA_QUERY::equals).count());
+	}
+
+	/**
+	 * A catalog snapshot is attached to a new PostgreSQL instance when its database is copied from a template.  The
+	 * snapshot records that the database does not exist, so WildebeestApiImpl discards it and asserts the target
+	 * state against a new one.
+	 *
+	 * @since                                   4.0
+	 */
+	@Test public void migrate_templateWithCatalogSnapshot_assertsAgainstNewSnapshot() throws
+		AssertionFailedException,
+		IndeterminateStateException,
+		InvalidStateSpecifiedException,
+		MigrationFailedException,
+		MigrationNotPossibleException,
+		TargetNotSpecifiedException,
+		UnknownStateSpecifiedException
+	{
+		// Setup
+		Resource resource = WildebeestApiImplUnitTests.catalogResource();
+		AtomicReference<UUID> stateId = new AtomicReference<>();
+		AtomicBoolean databaseExists = new AtomicBoolean(false);
+		FakeDatabase database = WildebeestApiImplUnitTests.catalogDatabase(stateId, databaseExists);
+		PostgreSqlDatabaseInstance instance = WildebeestApiImplUnitTests.instance(database);
+		CatalogSnapshot.take(instance);
+
+		WildebeestApiImpl wildebeestApi = WildebeestApiImplUnitTests.postgreSqlApi();
+		wildebeestApi.setCatalogSnapshots(true);
+		wildebeestApi.setTemplateProvisioning(true);
+
+		// Execute
+		wildebeestApi.migrate(
+			resource,
+			instance,
+			Optional.of("three"));
+
+		// Verify
+		assertTrue("databaseExists", databaseExists.get());
+		assertEquals("stateId", resource.getStates().get(2).getStateId(), stateId.get());
+		assertEquals(
+			"snapshots taken",
+			1,
+			database.getLog().stream().filter(CATALOG_SCHEMA_QUERY::equals).count());
+	}
+
 	@Test
 	public void validateResourceXml_invalidMySqlResource_fails()
 	{
@@ -364,4 +476,163 @@ public class WildebeestApiImplUnitTests
 
 		return result;
 	}
+
+	private static WildebeestApiImpl postgreSqlApi()
+	{
+		WildebeestApiImpl result = new WildebeestApiImpl(System.out);
+		result.setResourcePlugins(Collections.singletonMap(
+			Wildebeest.PostgreSqlDatabase,
+			new PostgreSqlDatabaseResourcePlugin()));
+		result.setPluginManager(new PluginManager()
+		{
+			@Override public List<PluginGroup> getPluginGroups()
+			{
+				return Collections.emptyList();
+			}
+
+			@Override public List<MigrationTypeInfo> getMigrationTypeInfos()
+			{
+				return Collections.emptyList();
+			}
+
+			@Override public MigrationPlugin getMigrationPlugin(String uri)
+			{
+				return new SqlScriptMigrationPlugin();
+			}
+
+			@Override public List<AssertionType> getAssertionTypes()
+			{
+				return Collections.emptyList();
+			}
+		});
+
+		return result;
+	}
+
+	/**
+	 * Builds a PostgreSQL resource with states one, two and three, each reached by a SQL script, where state three
+	 * asserts that the table created by its script exists.
+	 */
+	private static Resource catalogResource()
+	{
+		Resource result = new ResourceImpl(
+			UUID.randomUUID(),
+			Wildebeest.PostgreSqlDatabase,
+			"MyResource",
+			Optional.empty());
+
+		Optional<UUID> previousStateId = Optional.empty();
+		for (String label : Arrays.asList("one", "two", "three"))
+		{
+			State state = new ImmutableState(
+				UUID.randomUUID(),
+				Optional.of(label));
+			result.getStates().add(state);
+
+			result.getMigrations().add(new SqlScriptMigration(
+				UUID.randomUUID(),
+				previousStateId,
+				Optional.of(state.getStateId()),
+				String.format("CREATE TABLE %s (id INT);", label)));
+
+			previousStateId = Optional.of(state.getStateId());
+		}
+
+		result.getStates().get(2).getAssertions().add(new AnsiSqlTableExistsAssertion(
+			UUID.randomUUID(),
+			0,
+			"public",
+			"three"));
+
+		return result;
+	}
+
+	/**
+	 * Builds a FakeDatabase that answers as a PostgreSQL server would for a database that is created from a template
+	 * and whose state is recorded in the supplied reference.  Table three is listed in the catalog once it is created.
+	 */
+	private static FakeDatabase catalogDatabase(
+		AtomicReference<UUID> stateId,
+		AtomicBoolean databaseExists)
+	{
+		AtomicBoolean tableExists = new AtomicBoolean(false);
+
+		return new FakeDatabase(SqlDialect.PostgreSql).withResponder((sql, parameters) ->
+		{
+			if (sql.startsWith("CREATE DATABASE"))
+			{
+				databaseExists.set(true);
+				tableExists.set(true);
+				stateId.set(null);
+			}
+			else if (sql.contains("CREATE TABLE three"))
+			{
+				tableExists.set(true);
+			}
+			else if (sql.startsWith("UPDATE"))
+			{
+				stateId.set((UUID)parameters.get(0));
+				return Collections.singletonList(new Object[] { 1 });
+			}
+			else if (sql.startsWith("INSERT"))
+			{
+				stateId.set((UUID)parameters.get(1));
+				return Collections.singletonList(new Object[] { 1 });
+			}
+			else if (sql.startsWith("SELECT * FROM pg_database"))
+			{
+				return databaseExists.get() ? Collections.singletonList(new Object[] { 1 }) : Collections.emptyList();
+			}
+			else if (sql.startsWith("SELECT datname FROM pg_database"))
+			{
+				return Collections.singletonList(new Object[] { parameters.get(0) });
+			}
+			else if (sql.startsWith("SELECT 1 FROM information_schema.tables"))
+			{
+				return Collections.singletonList(new Object[] { 1 });
+			}
+			else if (sql.startsWith("SELECT StateId"))
+			{
+				return stateId.get() == null
+					? Collections.emptyList()
+					: Collections.singletonList(new Object[] { stateId.get() });
+			}
+			else if (sql.equals(CATALOG_SCHEMA_QUERY))
+			{
+				return Collections.singletonList(new Object[] { "public" });
+			}
+			else if (sql.startsWith("SELECT table_schema, table_name FROM information_schema.tables"))
+			{
+				return tableExists.get()
+					? Collections.singletonList(new Object[] { "public", "three" })
+					: Collections.emptyList();
+			}
+
+			return Collections.emptyList();
+		});
+	}
+
+	private static PostgreSqlDatabaseInstance instance(
+		FakeDatabase database)
+	{
+		return new PostgreSqlDatabaseInstance(
+			"localhost",
+			5432,
+			"postgres",
+			"",
+			"wb_test",
+			null,
+			null)
+		{
+			@Override public DataSource getAdminDataSource()
+			{
+				return database.getInstance().getAdminDataSource();
+			}
+
+			@Override public DataSource getAppDataSource()
+			{
+				return database.getInstance().getAppDataSource();
+			}
+		};
+	}
 }
@@ -0,0 +1,99 @@
+// Wildebeest Migration Framework
+// Copyright © 2013 - 2018, Matheson Ventures Pte Ltd
+//
+// This file is part of Wildebeest
+//
+// Wildebeest is free software: you can redistribute it and/or modify it under
+// the terms of the GNU General Public License v2 as published by the Free
+// Software Foundation.
+//
+// Wildebeest is distributed in the hope that it will be useful, but WITHOUT ANY
+// WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+// A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along with
+// Wildebeest.  If not, see http://www.gnu.org/licenses/gpl-2.0.html
+
+package co.mv.wb.impl;
+
+import co.mv.wb.XmlValidationException;
+import org.xml.sax.SAXException;
+
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+
+/**
+ * Measures the per-file cost of validating a resource definition, comparing compilation of the XSD on every call (the
+ * behaviour before compiled schemas were cached) against {@link WildebeestApiImpl#validateResourceXml(String)}.
+ *
+ * This is not part of the unit test suites.  Run it from the source/test/etc directory, optionally passing the resource
+ * file and the number of iterations:
+ *
+ * <pre>java co.mv.wb.impl.XmlValidationBenchmark PostgreSqlDatabase/database.wbresource.xml 500</pre>
+ *
+ * @since                                       4.0
+ */
+public class XmlValidationBenchmark
+{
+	public static void main(String[] args) throws
+		IOException,
+		SAXException,
+		XmlValidationException
+	{
+		String filename = args.length > 0 ? args[0] : "PostgreSqlDatabase/database.wbresource.xml";
+		int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+
+		String xml = new String(Files.readAllBytes(new File(filename).toPath()), "UTF-8");
+
+		// Warm up both paths so that class loading and JIT compilation are not measured
+		for (int i = 0; i < 20; i ++)
+		{
+			XmlValidationBenchmark.validateUncached(xml);
+			WildebeestApiImpl.validateResourceXml(xml);
+		}
+
+		long uncachedStart = System.nanoTime();
+		for (int i = 0; i < iterations; i ++)
+		{
+			XmlValidationBenchmark.validateUncached(xml);
+		}
+		long uncachedNanos = System.nanoTime() - uncachedStart;
+
+		long cachedStart = System.nanoTime();
+		for (int i = 0; i < iterations; i ++)
+		{
+			WildebeestApiImpl.validateResourceXml(xml);
+		}
+		long cachedNanos = System.nanoTime() - cachedStart;
+
+		System.out.println(String.format(
+			"%s, %d iterations",
+			filename,
+			iterations));
+		System.out.println(String.format(
+			"  compile schema per file: %8.1f us/file",
+			uncachedNanos / 1000.0 / iterations));
+		System.out.println(String.format(
+			"  cached schema:           %8.1f us/file",
+			cachedNanos / 1000.0 / iterations));
+	}
+
+	/**
+	 * Validates the supplied resource XML the way WildebeestApiImpl did before schemas were cached: a new SchemaFactory
+	 * and a freshly-compiled Schema for every document.
+	 */
+	private static void validateUncached(
+		String xml) throws
+			IOException,
+			SAXException
+	{
+		SchemaFactory factory = SchemaFactory.newInstance("http://www.w3.org/XML/XMLSchema/v1.1");
+		Schema schema = factory.newSchema(WildebeestApiImpl.class.getResource("resource.xsd"));
+		schema.newValidator().validate(new StreamSource(new StringReader(xml)));
+	}
+}
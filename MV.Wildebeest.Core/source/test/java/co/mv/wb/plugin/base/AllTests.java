@@ -16,18 +16,23 @@
 
 package co.mv.wb.plugin.base;
 
+import co.mv.wb.plugin.base.dom.BaseDomBuilderUnitTests;
 import co.mv.wb.plugin.base.dom.DomInstanceLoaderTests;
 import co.mv.wb.plugin.base.dom.DomResourceLoaderTests;
 import co.mv.wb.plugin.base.dom.ResourceLoaderIntegrationTests;
+import co.mv.wb.plugin.base.dom.SaxResourceLoaderTests;
 import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 
 @RunWith(Suite.class)
 @Suite.SuiteClasses(
 {
+	BaseDomBuilderUnitTests.class,
 	DomInstanceLoaderTests.class,
 	DomResourceLoaderTests.class,
-	ResourceLoaderIntegrationTests.class
+	ImmutableResourceUnitTests.class,
+	ResourceLoaderIntegrationTests.class,
+	SaxResourceLoaderTests.class
 })
 public class AllTests
 {
@@ -0,0 +1,148 @@
+// Wildebeest Migration Framework
+// Copyright © 2013 - 2018, Matheson Ventures Pte Ltd
+//
+// This file is part of Wildebeest
+//
+// Wildebeest is free software: you can redistribute it and/or modify it under
+// the terms of the GNU General Public License v2 as published by the Free
+// Software Foundation.
+//
+// Wildebeest is distributed in the hope that it will be useful, but WITHOUT ANY
+// WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+// A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along with
+// Wildebeest.  If not, see http://www.gnu.org/licenses/gpl-2.0.html
+
+package co.mv.wb.plugin.base;
+
+import co.mv.wb.Migration;
+import co.mv.wb.Resource;
+import co.mv.wb.State;
+import co.mv.wb.Wildebeest;
+import co.mv.wb.plugin.fake.FakeConstants;
+import co.mv.wb.plugin.fake.SetTagMigration;
+import co.mv.wb.plugin.fake.TagAssertion;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+/**
+ * Unit tests for {@link ImmutableResource}.
+ *
+ * @since                                       4.0
+ */
+public class ImmutableResourceUnitTests
+{
+	@Test public void from_resource_indexesStatesAndMigrations()
+	{
+		// Setup
+		Resource resource = new ResourceImpl(
+			UUID.randomUUID(),
+			FakeConstants.Fake,
+			"Resource",
+			Optional.of("Bar"));
+
+		State state1 = new ImmutableState(UUID.randomUUID(), Optional.of("Foo"));
+		state1.getAssertions().add(new TagAssertion(UUID.randomUUID(), 0, "foo"));
+		resource.getStates().add(state1);
+
+		State state2 = new ImmutableState(UUID.randomUUID(), Optional.of("Bar"));
+		resource.getStates().add(state2);
+
+		Migration migration1 = new SetTagMigration(
+			UUID.randomUUID(),
+			Optional.empty(),
+			Optional.of(state1.getStateId()),
+			"foo");
+		resource.getMigrations().add(migration1);
+
+		Migration migration2 = new SetTagMigration(
+			UUID.randomUUID(),
+			Optional.of(state1.getStateId()),
+			Optional.of(state2.getStateId()),
+			"bar");
+		resource.getMigrations().add(migration2);
+
+		// Execute
+		ImmutableResource immutableResource = ImmutableResource.from(resource);
+
+		// Verify
+		assertEquals("resourceId", resource.getResourceId(), immutableResource.getResourceId());
+		assertEquals("name", "Resource", immutableResource.getName());
+		assertEquals("defaultTarget", Optional.of("Bar"), immutableResource.getDefaultTarget());
+		assertEquals("states.size", 2, immutableResource.getStates().size());
+		assertEquals("migrations.size", 2, immutableResource.getMigrations().size());
+
+		State foo = immutableResource.stateForId(state1.getStateId()).get();
+		assertEquals("foo.label", Optional.of("Foo"), foo.getLabel());
+		assertEquals("foo.assertions.size", 1, foo.getAssertions().size());
+		assertSame("stateForLabel(Bar)", immutableResource.getStates().get(1), immutableResource.stateForLabel("Bar").get());
+		assertSame("Wildebeest.stateForId", foo, Wildebeest.stateForId(immutableResource, state1.getStateId()));
+		assertFalse("stateForLabel(Bup)", immutableResource.stateForLabel("Bup").isPresent());
+
+		List<Migration> fromNonExistent = immutableResource.migrationsFrom(Optional.empty());
+		assertEquals("migrationsFrom(non-existent).size", 1, fromNonExistent.size());
+		assertSame("migrationsFrom(non-existent)[0]", migration1, fromNonExistent.get(0));
+
+		List<Migration> toBar = immutableResource.migrationsTo(Optional.of(state2.getStateId()));
+		assertEquals("migrationsTo(Bar).size", 1, toBar.size());
+		assertSame("migrationsTo(Bar)[0]", migration2, toBar.get(0));
+
+		assertEquals(
+			"migrationsTo(non-existent).size",
+			0,
+			immutableResource.migrationsTo(Optional.empty()).size());
+	}
+
+	@Test public void from_resource_isUnaffectedByLaterChanges()
+	{
+		// Setup
+		Resource resource = new ResourceImpl(
+			UUID.randomUUID(),
+			FakeConstants.Fake,
+			"Resource",
+			Optional.empty());
+
+		State state = new ImmutableState(UUID.randomUUID());
+		resource.getStates().add(state);
+
+		ImmutableResource immutableResource = ImmutableResource.from(resource);
+
+		// Execute
+		resource.getStates().add(new ImmutableState(UUID.randomUUID()));
+		state.getAssertions().add(new TagAssertion(UUID.randomUUID(), 0, "foo"));
+
+		// Verify
+		assertEquals("states.size", 1, immutableResource.getStates().size());
+		assertEquals("states[0].assertions.size", 0, immutableResource.getStates().get(0).getAssertions().size());
+	}
+
+	@Test public void getStates_add_throws()
+	{
+		// Setup
+		ImmutableResource resource = ImmutableResource.from(new ResourceImpl(
+			UUID.randomUUID(),
+			FakeConstants.Fake,
+			"Resource",
+			Optional.empty()));
+
+		// Execute and Verify
+		try
+		{
+			resource.getStates().add(new ImmutableState(UUID.randomUUID()));
+			fail("UnsupportedOperationException expected");
+		}
+		catch (UnsupportedOperationException e)
+		{
+			// Expected
+		}
+	}
+}
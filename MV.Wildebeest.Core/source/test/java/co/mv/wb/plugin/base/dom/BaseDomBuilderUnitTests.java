@@ -0,0 +1,113 @@
+// Wildebeest Migration Framework
+// Copyright © 2013 - 2018, Matheson Ventures Pte Ltd
+//
+// This file is part of Wildebeest
+//
+// Wildebeest is free software: you can redistribute it and/or modify it under
+// the terms of the GNU General Public License v2 as published by the Free
+// Software Foundation.
+//
+// Wildebeest is distributed in the hope that it will be useful, but WITHOUT ANY
+// WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+// A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along with
+// Wildebeest.  If not, see http://www.gnu.org/licenses/gpl-2.0.html
+
+package co.mv.wb.plugin.base.dom;
+
+import co.mv.wb.ExpectException;
+import org.junit.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.xml.sax.InputSource;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.StringReader;
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Unit tests for {@link BaseDomBuilder}.
+ *
+ * @since                                       4.0
+ */
+public class BaseDomBuilderUnitTests
+{
+	@Test public void tryGetString_childElementName_succeeds() throws Exception
+	{
+		// Setup
+		TestDomBuilder builder = new TestDomBuilder();
+		builder.setElement(BaseDomBuilderUnitTests.element(
+			"<assertion><!-- comment --><other>Bar</other><tableName>Foo</tableName><tableName>Bup</tableName></assertion>"));
+
+		// Execute
+		Optional<String> tableName = builder.tryGetString("tableName");
+		Optional<String> schemaName = builder.tryGetString("schemaName");
+
+		// Verify
+		assertEquals("tableName", Optional.of("Foo"), tableName);
+		assertEquals("schemaName", Optional.empty(), schemaName);
+	}
+
+	@Test public void tryGetString_xpathExpression_isReusedAcrossElements() throws Exception
+	{
+		// Setup
+		TestDomBuilder builder = new TestDomBuilder();
+
+		// Execute and Verify
+		builder.setElement(BaseDomBuilderUnitTests.element("<assertion><table><name>Foo</name></table></assertion>"));
+		assertEquals("first", Optional.of("Foo"), builder.tryGetString("table/name"));
+
+		builder.reset();
+		builder.setElement(BaseDomBuilderUnitTests.element("<assertion><table><name>Bar</name></table></assertion>"));
+		assertEquals("second", Optional.of("Bar"), builder.tryGetString("table/name"));
+	}
+
+	@Test public void tryGetString_invalidXPath_throws() throws Exception
+	{
+		// Setup
+		TestDomBuilder builder = new TestDomBuilder();
+		builder.setElement(BaseDomBuilderUnitTests.element("<assertion/>"));
+
+		// Execute and Verify
+		new ExpectException(IllegalArgumentException.class)
+		{
+			@Override public void invoke() throws Exception
+			{
+				builder.tryGetString("table[");
+			}
+
+			@Override public void verify(Exception e)
+			{
+			}
+		}.perform();
+	}
+
+	@Test public void tryGetInteger_absent_returnsEmpty() throws Exception
+	{
+		// Setup
+		TestDomBuilder builder = new TestDomBuilder();
+		builder.setElement(BaseDomBuilderUnitTests.element("<instance><port>5432</port></instance>"));
+
+		// Execute and Verify
+		assertEquals("port", Optional.of(5432), builder.tryGetInteger("port"));
+		assertEquals("timeout", Optional.empty(), builder.tryGetInteger("timeout"));
+	}
+
+	private static Element element(
+		String xml) throws Exception
+	{
+		Document document = DocumentBuilderFactory
+			.newInstance()
+			.newDocumentBuilder()
+			.parse(new InputSource(new StringReader(xml)));
+
+		return document.getDocumentElement();
+	}
+
+	private static class TestDomBuilder extends BaseDomBuilder
+	{
+	}
+}
@@ -0,0 +1,374 @@
+// Wildebeest Migration Framework
+// Copyright © 2013 - 2018, Matheson Ventures Pte Ltd
+//
+// This file is part of Wildebeest
+//
+// Wildebeest is free software: you can redistribute it and/or modify it under
+// the terms of the GNU General Public License v2 as published by the Free
+// Software Foundation.
+//
+// Wildebeest is distributed in the hope that it will be useful, but WITHOUT ANY
+// WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+// A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along with
+// Wildebeest.  If not, see http://www.gnu.org/licenses/gpl-2.0.html
+
+package co.mv.wb.plugin.base.dom;
+
+import co.mv.wb.AssertionBuilder;
+import co.mv.wb.Asserts;
+import co.mv.wb.ExpectException;
+import co.mv.wb.LoaderFault;
+import co.mv.wb.MigrationBuilder;
+import co.mv.wb.PluginBuildException;
+import co.mv.wb.Resource;
+import co.mv.wb.XmlValidationException;
+import co.mv.wb.fixture.FixtureCreator;
+import co.mv.wb.impl.ResourceTypeServiceBuilder;
+import co.mv.wb.plugin.base.ImmutableResource;
+import co.mv.wb.plugin.fake.FakeConstants;
+import co.mv.wb.plugin.fake.SetTagMigration;
+import co.mv.wb.plugin.fake.TagAssertion;
+import co.mv.wb.plugin.fake.dom.DomSetTagMigrationBuilder;
+import co.mv.wb.plugin.fake.dom.DomTagAssertionBuilder;
+import org.junit.Test;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+
+import javax.xml.XMLConstants;
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link SaxResourceLoader}.
+ *
+ * @since                                       4.0
+ */
+public class SaxResourceLoaderTests {
+    @Test
+    public void loadResourceForStatesWithAssertionsAndMigrations() throws
+            LoaderFault,
+            PluginBuildException {
+
+        //
+        // Setup
+        //
+
+        UUID resourceId = UUID.randomUUID();
+        UUID state1Id = UUID.randomUUID();
+        UUID state2Id = UUID.randomUUID();
+        UUID assertion1Id = UUID.randomUUID();
+        UUID assertion2Id = UUID.randomUUID();
+        UUID migration1Id = UUID.randomUUID();
+        UUID migration2Id = UUID.randomUUID();
+
+        String resourceXml = FixtureCreator.create()
+                .resource(FakeConstants.Fake.getUri(), resourceId, "Product Catalogue Database")
+                .state(state1Id, "Foo")
+                .assertion(FakeConstants.Fake.getUri(), assertion1Id).innerXml("<tag>Foo</tag>")
+                .assertion(FakeConstants.Fake.getUri(), assertion2Id).innerXml("<tag>Bar</tag>")
+                .state(state2Id, null)
+                .migration(FakeConstants.Fake.getUri(), migration1Id, null, state1Id).innerXml("<tag>Foo</tag>")
+                .migration(FakeConstants.Fake.getUri(), migration2Id, state1Id, state2Id).innerXml("<tag>Bar</tag>")
+                .render();
+
+        SaxResourceLoader resourceLoader = SaxResourceLoaderTests.resourceLoader(Optional.empty(), resourceXml);
+
+        //
+        // Execute
+        //
+
+        Resource resource = resourceLoader.load(new File("."));
+
+        //
+        // Verify
+        //
+
+        // Resource
+        assertNotNull("resource", resource);
+        assertTrue("resource is ImmutableResource", resource instanceof ImmutableResource);
+        Asserts.assertResource(resourceId, "Product Catalogue Database", resource, "resource");
+
+        // States
+        assertEquals("resource.states.size", 2, resource.getStates().size());
+        Asserts.assertState(state1Id, Optional.of("Foo"), resource.getStates().get(0), "resource.states[0]");
+        Asserts.assertState(state2Id, Optional.empty(), resource.getStates().get(1), "resource.states[1]");
+
+        assertEquals(
+                "resource.states[0].assertions.size",
+                2,
+                resource.getStates().get(0).getAssertions().size());
+        Asserts.assertTagAssertion(
+                assertion1Id, "Tag is Foo", 0, "Foo",
+                (TagAssertion) resource.getStates().get(0).getAssertions().get(0),
+                "resource.states[0].assertions[0]");
+        Asserts.assertTagAssertion(
+                assertion2Id, "Tag is Bar", 1, "Bar",
+                (TagAssertion) resource.getStates().get(0).getAssertions().get(1),
+                "resource.states[0].assertions[1]");
+        assertEquals(
+                "resource.states[1].assertions.size",
+                0,
+                resource.getStates().get(1).getAssertions().size());
+
+        // Migrations
+        assertEquals("resource.migrations.size", 2, resource.getMigrations().size());
+        Asserts.assertFakeMigration(
+                migration1Id, Optional.empty(), Optional.of(state1Id), "Foo",
+                (SetTagMigration) resource.getMigrations().get(0),
+                "resource.migrations[0]");
+        Asserts.assertFakeMigration(
+                migration2Id, Optional.of(state1Id), Optional.of(state2Id), "Bar",
+                (SetTagMigration) resource.getMigrations().get(1),
+                "resource.migrations[1]");
+
+    }
+
+    @Test
+    public void loadResourceWithUnknownAssertionTypeThrows() {
+
+        //
+        // Setup
+        //
+
+        String resourceXml = FixtureCreator.create()
+                .resource(FakeConstants.Fake.getUri(), UUID.randomUUID(), "Product Catalogue Database")
+                .state(UUID.randomUUID(), "Foo")
+                .assertion("Unknown", UUID.randomUUID()).innerXml("<tag>Foo</tag>")
+                .render();
+
+        SaxResourceLoader resourceLoader = SaxResourceLoaderTests.resourceLoader(Optional.empty(), resourceXml);
+
+        //
+        // Execute and Verify
+        //
+
+        new ExpectException(PluginBuildException.class) {
+            @Override
+            public void invoke() throws Exception {
+                resourceLoader.load(new File("."));
+            }
+
+            @Override
+            public void verify(Exception e) {
+            }
+        }.perform();
+
+    }
+
+    @Test
+    public void loadResourceNotValidAgainstSchemaThrows() throws
+            SAXException {
+
+        //
+        // Setup
+        //
+
+        String resourceXml = FixtureCreator.create()
+                .resource(FakeConstants.Fake.getUri(), UUID.randomUUID(), "Product Catalogue Database")
+                .state(UUID.randomUUID(), "Foo")
+                .render();
+
+        // A schema that does not allow a resource to have any states
+        Schema schema = SchemaFactory
+                .newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI)
+                .newSchema(new StreamSource(new StringReader(
+                        "<xs:schema xmlns:xs=\"http://www.w3.org/2001/XMLSchema\">" +
+                        "<xs:element name=\"resource\"><xs:complexType>" +
+                        "<xs:anyAttribute processContents=\"skip\"/>" +
+                        "</xs:complexType></xs:element>" +
+                        "</xs:schema>")));
+
+        SaxResourceLoader resourceLoader = SaxResourceLoaderTests.resourceLoader(Optional.of(schema), resourceXml);
+
+        //
+        // Execute and Verify
+        //
+
+        new ExpectException(LoaderFault.class) {
+            @Override
+            public void invoke() throws Exception {
+                resourceLoader.load(new File("."));
+            }
+
+            @Override
+            public void verify(Exception e) {
+                assertTrue("cause is XmlValidationException", e.getCause() instanceof XmlValidationException);
+            }
+        }.perform();
+
+    }
+
+    @Test
+    public void loadResourceWithLazyMigrationsBuildsMigrationsWhenMaterialized() throws
+            IOException,
+            LoaderFault,
+            PluginBuildException {
+
+        //
+        // Setup
+        //
+
+        UUID resourceId = UUID.randomUUID();
+        UUID state1Id = UUID.randomUUID();
+        UUID state2Id = UUID.randomUUID();
+        UUID migration1Id = UUID.randomUUID();
+        UUID migration2Id = UUID.randomUUID();
+
+        String resourceXml = FixtureCreator.create()
+                .resource(FakeConstants.Fake.getUri(), resourceId, "Product Catalogue Database")
+                .state(state1Id, "Foo")
+                .state(state2Id, null)
+                .migration(FakeConstants.Fake.getUri(), migration1Id, null, state1Id).innerXml("<tag>Foo</tag>")
+                .migration(FakeConstants.Fake.getUri(), migration2Id, state1Id, state2Id)
+                    .innerXml("<tag>B&amp;<![CDATA[<r>]]></tag>")
+                .render();
+
+        SaxResourceLoader resourceLoader = SaxResourceLoaderTests.lazyResourceLoader(
+                SaxResourceLoaderTests.resourceFile(resourceXml));
+
+        //
+        // Execute
+        //
+
+        Resource resource = resourceLoader.load(new File("."));
+
+        //
+        // Verify
+        //
+
+        assertEquals("resource.migrations.size", 2, resource.getMigrations().size());
+        assertTrue(
+                "resource.migrations[0] is LazyMigration",
+                resource.getMigrations().get(0) instanceof LazyMigration);
+        Asserts.assertMigration(
+                migration2Id, Optional.of(state1Id), Optional.of(state2Id),
+                resource.getMigrations().get(1),
+                "resource.migrations[1]");
+
+        Asserts.assertFakeMigration(
+                migration1Id, Optional.empty(), Optional.of(state1Id), "Foo",
+                (SetTagMigration) LazyMigration.materialize(resource.getMigrations().get(0)),
+                "resource.migrations[0]");
+        Asserts.assertFakeMigration(
+                migration2Id, Optional.of(state1Id), Optional.of(state2Id), "B&<r>",
+                (SetTagMigration) LazyMigration.materialize(resource.getMigrations().get(1)),
+                "resource.migrations[1]");
+
+    }
+
+    @Test
+    public void loadResourceWithLazyMigrationsReadsBodyAfterMultiByteCharacters() throws
+            IOException,
+            LoaderFault,
+            PluginBuildException {
+
+        //
+        // Setup
+        //
+
+        UUID stateId = UUID.randomUUID();
+        UUID migrationId = UUID.randomUUID();
+
+        // The start tag of the migration shares a line with characters that are more than one byte long in UTF-8
+        String resourceXml =
+                "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\r\n" +
+                "<resource type=\"" + FakeConstants.Fake.getUri() + "\" id=\"" + UUID.randomUUID() + "\" " +
+                        "name=\"Café\">\r\n" +
+                "<states><state id=\"" + stateId + "\" label=\"Zürich\"/></states>" +
+                "<migrations><migration type=\"" + FakeConstants.Fake.getUri() + "\" id=\"" + migrationId + "\" " +
+                        "toStateId=\"" + stateId + "\" note=\"日本\"><tag>Ça va</tag></migration></migrations>\r\n" +
+                "</resource>\r\n";
+
+        SaxResourceLoader resourceLoader = SaxResourceLoaderTests.lazyResourceLoader(
+                SaxResourceLoaderTests.resourceFile(resourceXml));
+
+        //
+        // Execute
+        //
+
+        Resource resource = resourceLoader.load(new File("."));
+
+        //
+        // Verify
+        //
+
+        assertEquals("resource.migrations.size", 1, resource.getMigrations().size());
+        assertTrue(
+                "resource.migrations[0] is LazyMigration",
+                resource.getMigrations().get(0) instanceof LazyMigration);
+        Asserts.assertFakeMigration(
+                migrationId, Optional.empty(), Optional.of(stateId), "Ça va",
+                (SetTagMigration) LazyMigration.materialize(resource.getMigrations().get(0)),
+                "resource.migrations[0]");
+
+    }
+
+    private static File resourceFile(
+            String resourceXml) throws
+            IOException {
+
+        File result = File.createTempFile("resource", ".wbr");
+        result.deleteOnExit();
+        Files.write(result.toPath(), resourceXml.getBytes(StandardCharsets.UTF_8));
+
+        return result;
+    }
+
+    private static SaxResourceLoader lazyResourceLoader(
+            File resourceFile) {
+
+        Map<String, AssertionBuilder> assertionBuilders = new HashMap<>();
+        assertionBuilders.put(FakeConstants.Fake.getUri(), new DomTagAssertionBuilder());
+
+        Map<String, MigrationBuilder> migrationBuilders = new HashMap<>();
+        migrationBuilders.put(FakeConstants.Fake.getUri(), new DomSetTagMigrationBuilder());
+
+        return new SaxResourceLoader(
+                ResourceTypeServiceBuilder
+                        .create()
+                        .with(FakeConstants.Fake)
+                        .build(),
+                assertionBuilders,
+                migrationBuilders,
+                Optional.empty(),
+                resourceFile,
+                true);
+    }
+
+    private static SaxResourceLoader resourceLoader(
+            Optional<Schema> schema,
+            String resourceXml) {
+
+        Map<String, AssertionBuilder> assertionBuilders = new HashMap<>();
+        assertionBuilders.put(FakeConstants.Fake.getUri(), new DomTagAssertionBuilder());
+
+        Map<String, MigrationBuilder> migrationBuilders = new HashMap<>();
+        migrationBuilders.put(FakeConstants.Fake.getUri(), new DomSetTagMigrationBuilder());
+
+        return new SaxResourceLoader(
+                ResourceTypeServiceBuilder
+                        .create()
+                        .with(FakeConstants.Fake)
+                        .build(),
+                assertionBuilders,
+                migrationBuilders,
+                schema,
+                new InputSource(new StringReader(resourceXml)));
+    }
+}
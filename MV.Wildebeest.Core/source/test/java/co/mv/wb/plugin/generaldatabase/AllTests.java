@@ -17,6 +17,10 @@
 package co.mv.wb.plugin.generaldatabase;
 
 import co.mv.wb.plugin.generaldatabase.dom.AnsiSqlDomServiceUnitTests;
+import co.mv.wb.plugin.generaldatabase.dom.ChunkedBackfillDomMigrationBuilderUnitTests;
+import co.mv.wb.plugin.generaldatabase.dom.CreateIndexDomMigrationBuilderUnitTests;
+import co.mv.wb.plugin.generaldatabase.dom.DropIndexDomMigrationBuilderUnitTests;
+import co.mv.wb.plugin.generaldatabase.dom.SqlScriptDomMigrationBuilderUnitTests;
 import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 
@@ -24,7 +28,21 @@ import org.junit.runners.Suite;
 @Suite.SuiteClasses(
 {
 	AnsiSqlDomServiceUnitTests.class,
+	BulkLoadMigrationPluginUnitTests.class,
+	CatalogAssertionsUnitTests.class,
+	CatalogSnapshotUnitTests.class,
+	ChunkedBackfillDomMigrationBuilderUnitTests.class,
+	ChunkedBackfillMigrationPluginUnitTests.class,
+	CreateIndexDomMigrationBuilderUnitTests.class,
+	CreateIndexMigrationPluginUnitTests.class,
 	DatabaseDomServiceUnitTests.class,
+	DropIndexDomMigrationBuilderUnitTests.class,
+	DropIndexMigrationPluginUnitTests.class,
+	RowCountAssertionUnitTests.class,
+	SqlScriptDomMigrationBuilderUnitTests.class,
+	SqlScriptFastForwardUnitTests.class,
+	SqlScriptMigrationPluginUnitTests.class,
+	SqlScriptSplitterUnitTests.class,
 })
 public class AllTests
 {
@@ -0,0 +1,194 @@
+// Wildebeest Migration Framework
+// Copyright © 2013 - 2018, Matheson Ventures Pte Ltd
+//
+// This file is part of Wildebeest
+//
+// Wildebeest is free software: you can redistribute it and/or modify it under
+// the terms of the GNU General Public License v2 as published by the Free
+// Software Foundation.
+//
+// Wildebeest is distributed in the hope that it will be useful, but WITHOUT ANY
+// WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+// A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along with
+// Wildebeest.  If not, see http://www.gnu.org/licenses/gpl-2.0.html
+
+package co.mv.wb.plugin.generaldatabase;
+
+import co.mv.wb.ExpectException;
+import co.mv.wb.MigrationFailedException;
+import co.mv.wb.MigrationFaultException;
+import co.mv.wb.framework.CsvReader;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Unit tests for {@link BulkLoadMigrationPlugin}.
+ *
+ * @since                                       4.0
+ */
+public class BulkLoadMigrationPluginUnitTests
+{
+	private static final String INSERT = "INSERT INTO Orders (OrderId, Notes) VALUES (?, ?)";
+
+	@Test public void perform_sqlServer_insertsBatchesInOneTransaction() throws
+		IOException,
+		MigrationFailedException
+	{
+		// Setup
+		FakeDatabase database = new FakeDatabase(SqlDialect.SqlServer);
+		File file = csv("\uFEFFOrderId,Notes\r\n1,first\r\n2,\"a, b\"\r\n3,\r\n4,\"\"\r\n");
+
+		// Execute
+		new BulkLoadMigrationPlugin().perform(System.out, migration(file, 3), database.getInstance());
+
+		// Verify
+		assertEquals(
+			"log",
+			Arrays.asList(
+				INSERT + " [1, first]",
+				INSERT + " [2, a, b]",
+				INSERT + " [3, null]",
+				INSERT + " [4, ]",
+				"COMMIT"),
+			database.getLog());
+	}
+
+	@Test public void perform_invalidColumnName_failsWithoutLoading() throws IOException
+	{
+		// Setup
+		FakeDatabase database = new FakeDatabase(SqlDialect.SqlServer);
+		File file = csv("OrderId,Notes) SELECT 1; DROP TABLE Orders; --\n1,first\n");
+
+		// Execute and Verify
+		new ExpectException(MigrationFailedException.class)
+		{
+			@Override public void invoke() throws Exception
+			{
+				new BulkLoadMigrationPlugin().perform(System.out, migration(file, 100), database.getInstance());
+			}
+
+			@Override public void verify(Exception e)
+			{
+				assertEquals("log.size", 0, database.getLog().size());
+			}
+		}.perform();
+	}
+
+	@Test public void perform_wrongFieldCount_rollsBack() throws IOException
+	{
+		// Setup
+		FakeDatabase database = new FakeDatabase(SqlDialect.SqlServer);
+		File file = csv("OrderId,Notes\n1,first\n2\n");
+
+		// Execute and Verify
+		new ExpectException(MigrationFaultException.class)
+		{
+			@Override public void invoke() throws Exception
+			{
+				new BulkLoadMigrationPlugin().perform(System.out, migration(file, 100), database.getInstance());
+			}
+
+			@Override public void verify(Exception e)
+			{
+				assertEquals(
+					"log",
+					Arrays.asList(
+						INSERT + " [1, first]",
+						"ROLLBACK"),
+					database.getLog());
+			}
+		}.perform();
+	}
+
+	@Test public void loadDataRows_nullAndEmptyFields_encodedDistinctly() throws IOException
+	{
+		// Setup
+		InputStream rows = new BulkLoadMigrationPlugin.LoadDataRows(
+			new CsvReader(new StringReader("1,,\"\"\r\n2,NULL,\"say \"\"hi\"\"\"\r\n")),
+			3);
+
+		// Execute
+		String actual = read(rows);
+
+		// Verify
+		assertEquals(
+			"rows",
+			"\"1\",NULL,\"\"\n\"2\",\"NULL\",\"say \"\"hi\"\"\"\n",
+			actual);
+	}
+
+	@Test public void loadDataRows_wrongFieldCount_fails()
+	{
+		// Setup
+		InputStream rows = new BulkLoadMigrationPlugin.LoadDataRows(
+			new CsvReader(new StringReader("1,first\n2\n")),
+			2);
+
+		// Execute and Verify
+		new ExpectException(IOException.class)
+		{
+			@Override public void invoke() throws Exception
+			{
+				read(rows);
+			}
+
+			@Override public void verify(Exception e)
+			{
+				assertEquals(
+					"e.message",
+					"Row 2 has 1 fields, but the first line of the file names 2 columns",
+					e.getMessage());
+			}
+		}.perform();
+	}
+
+	private static BulkLoadMigration migration(
+		File file,
+		int batchSize)
+	{
+		return new BulkLoadMigration(
+			UUID.randomUUID(),
+			Optional.of(UUID.randomUUID()),
+			Optional.of(UUID.randomUUID()),
+			"Orders",
+			file,
+			batchSize);
+	}
+
+	private static File csv(
+		String content) throws IOException
+	{
+		File file = File.createTempFile("BulkLoadMigrationPluginUnitTests", ".csv");
+		file.deleteOnExit();
+		Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+
+		return file;
+	}
+
+	private static String read(
+		InputStream input) throws IOException
+	{
+		ByteArrayOutputStream result = new ByteArrayOutputStream();
+		byte[] buffer = new byte[7];
+		for (int n = input.read(buffer); n != -1; n = input.read(buffer))
+		{
+			result.write(buffer, 0, n);
+		}
+
+		return new String(result.toByteArray(), StandardCharsets.UTF_8);
+	}
+}
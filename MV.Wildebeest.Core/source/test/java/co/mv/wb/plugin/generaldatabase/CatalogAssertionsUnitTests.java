@@ -0,0 +1,95 @@
+// Wildebeest Migration Framework
+// Copyright © 2013 - 2018, Matheson Ventures Pte Ltd
+//
+// This file is part of Wildebeest
+//
+// Wildebeest is free software: you can redistribute it and/or modify it under
+// the terms of the GNU General Public License v2 as published by the Free
+// Software Foundation.
+//
+// Wildebeest is distributed in the hope that it will be useful, but WITHOUT ANY
+// WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+// A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along with
+// Wildebeest.  If not, see http://www.gnu.org/licenses/gpl-2.0.html
+
+package co.mv.wb.plugin.generaldatabase;
+
+import co.mv.wb.Assertion;
+import co.mv.wb.AssertionResponse;
+import co.mv.wb.plugin.fake.FakeInstance;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link CatalogAssertions}.
+ *
+ * @since                                       4.0
+ */
+public class CatalogAssertionsUnitTests
+{
+	@Test public void query_postgreSql_joinsValuesToInformationSchema()
+	{
+		// Execute
+		String query = CatalogAssertions.query(SqlDialect.PostgreSql, 2);
+
+		// Verify
+		assertEquals(
+			"query",
+			"SELECT p.n FROM (VALUES (?, ?, ?, ?), (?, ?, ?, ?)) AS p(n, k, s, t) WHERE " +
+				"(p.k = 'T' AND EXISTS (SELECT 1 FROM information_schema.tables x " +
+				"WHERE x.table_schema = p.s AND x.table_name = p.t)) OR " +
+				"(p.k = 'S' AND EXISTS (SELECT 1 FROM information_schema.schemata x WHERE x.schema_name = p.s))",
+			query);
+	}
+
+	@Test public void query_mySql_listsProbesWithUnionAll()
+	{
+		// Execute
+		String query = CatalogAssertions.query(SqlDialect.MySql, 3);
+
+		// Verify
+		assertTrue(
+			"query",
+			query.startsWith("SELECT p.n FROM (SELECT ? AS n, ? AS k, ? AS s, ? AS t " +
+				"UNION ALL SELECT ?, ?, ?, ? UNION ALL SELECT ?, ?, ?, ?) AS p WHERE "));
+	}
+
+	@Test public void query_sqlServer_checksObjectIds()
+	{
+		// Execute
+		String query = CatalogAssertions.query(SqlDialect.SqlServer, 1);
+
+		// Verify
+		assertEquals(
+			"query",
+			"SELECT p.n FROM (VALUES (?, ?, ?, ?)) AS p(n, k, s, t) WHERE " +
+				"(p.k = 'T' AND OBJECT_ID(QUOTENAME(p.s) + '.' + QUOTENAME(p.t), 'U') IS NOT NULL) OR " +
+				"(p.k = 'S' AND EXISTS (SELECT 1 FROM sys.schemas x WHERE x.name = p.s))",
+			query);
+	}
+
+	@Test public void perform_instanceNotDatabase_performsNone()
+	{
+		// Setup
+		FakeInstance instance = new FakeInstance(UUID.randomUUID());
+
+		Assertion assertion1 = new AnsiSqlTableExistsAssertion(UUID.randomUUID(), 0, "prd", "Foo");
+		Assertion assertion2 = new AnsiSqlTableDoesNotExistAssertion(UUID.randomUUID(), 1, "prd", "Bar");
+
+		// Execute
+		Map<UUID, AssertionResponse> responses = CatalogAssertions.perform(
+			instance,
+			Arrays.asList(assertion1, assertion2));
+
+		// Verify
+		assertEquals("responses.size", 0, responses.size());
+	}
+}
@@ -0,0 +1,196 @@
+// Wildebeest Migration Framework
+// Copyright © 2013 - 2018, Matheson Ventures Pte Ltd
+//
+// This file is part of Wildebeest
+//
+// Wildebeest is free software: you can redistribute it and/or modify it under
+// the terms of the GNU General Public License v2 as published by the Free
+// Software Foundation.
+//
+// Wildebeest is distributed in the hope that it will be useful, but WITHOUT ANY
+// WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+// A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along with
+// Wildebeest.  If not, see http://www.gnu.org/licenses/gpl-2.0.html
+
+package co.mv.wb.plugin.generaldatabase;
+
+import co.mv.wb.plugin.fake.FakeInstance;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link CatalogSnapshot}.
+ *
+ * @since                                       4.0
+ */
+public class CatalogSnapshotUnitTests
+{
+	private static final String SCHEMA_QUERY = "SELECT schema_name FROM information_schema.schemata";
+	private static final String TABLE_QUERY = "SELECT table_schema, table_name FROM information_schema.tables";
+
+	@Test public void take_postgreSql_matchesNamesWithCase()
+	{
+		// Setup
+		FakeDatabase database = catalog(new FakeDatabase(SqlDialect.PostgreSql), SCHEMA_QUERY, "public");
+
+		// Execute
+		CatalogSnapshot snapshot = CatalogSnapshot.take(database.getInstance()).get();
+
+		// Verify
+		assertEquals("log", Arrays.asList(SCHEMA_QUERY, TABLE_QUERY), database.getLog());
+		assertTrue("databaseExists", snapshot.databaseExists());
+		assertTrue("schemaExists(public)", snapshot.schemaExists("public"));
+		assertFalse("schemaExists(PUBLIC)", snapshot.schemaExists("PUBLIC"));
+		assertTrue("tableExists(public, Orders)", snapshot.tableExists("public", "Orders"));
+		assertFalse("tableExists(public, orders)", snapshot.tableExists("public", "orders"));
+		assertFalse("tableExists(public, Customers)", snapshot.tableExists("public", "Customers"));
+	}
+
+	@Test public void take_mySql_matchesNamesWithoutCase()
+	{
+		// Setup
+		String schemaQuery = "SELECT SCHEMA_NAME FROM information_schema.SCHEMATA";
+		String tableQuery =
+			"SELECT TABLE_SCHEMA, TABLE_NAME FROM information_schema.TABLES WHERE TABLE_SCHEMA = ?";
+		FakeDatabase database = catalog(new FakeDatabase(SqlDialect.MySql), schemaQuery, "wb_test");
+
+		// Execute
+		CatalogSnapshot snapshot = CatalogSnapshot.take(database.getInstance()).get();
+
+		// Verify
+		assertEquals("log", Arrays.asList(schemaQuery, tableQuery + " [wb_test]"), database.getLog());
+		assertTrue("schemaExists(WB_TEST)", snapshot.schemaExists("WB_TEST"));
+		assertTrue("tableExists(WB_TEST, orders)", snapshot.tableExists("WB_TEST", "orders"));
+	}
+
+	@Test public void take_sqlServer_matchesNamesWithoutCase()
+	{
+		// Setup
+		FakeDatabase database = catalog(
+			new FakeDatabase(SqlDialect.SqlServer),
+			"SELECT name FROM sys.schemas",
+			"dbo");
+
+		// Execute
+		CatalogSnapshot snapshot = CatalogSnapshot.take(database.getInstance()).get();
+
+		// Verify
+		assertEquals("log.size", 2, database.getLog().size());
+		assertTrue("schemaExists(DBO)", snapshot.schemaExists("DBO"));
+		assertTrue("tableExists(DBO, ORDERS)", snapshot.tableExists("DBO", "ORDERS"));
+	}
+
+	@Test public void take_databaseDoesNotExist_queriesOnlyDatabase()
+	{
+		// Setup
+		FakeDatabase database = new FakeDatabase(SqlDialect.PostgreSql).withDatabaseExists(false);
+
+		// Execute
+		CatalogSnapshot snapshot = CatalogSnapshot.take(database.getInstance()).get();
+
+		// Verify
+		assertEquals("log.size", 0, database.getLog().size());
+		assertEquals("queriesRun", 1, snapshot.getQueriesRun());
+		assertFalse("databaseExists", snapshot.databaseExists());
+		assertFalse("schemaExists", snapshot.schemaExists("public"));
+	}
+
+	@Test public void take_snapshotAttached_reusesSnapshot()
+	{
+		// Setup
+		FakeDatabase database = catalog(new FakeDatabase(SqlDialect.PostgreSql), SCHEMA_QUERY, "public");
+		CatalogSnapshot first = CatalogSnapshot.take(database.getInstance()).get();
+
+		// Execute
+		CatalogSnapshot second = CatalogSnapshot.take(database.getInstance()).get();
+
+		// Verify
+		assertSame("snapshot", first, second);
+		assertEquals("log.size", 2, database.getLog().size());
+		assertEquals("queriesRun", 3, second.getQueriesRun());
+	}
+
+	@Test public void take_instanceNotDatabase_empty()
+	{
+		// Execute
+		Optional<CatalogSnapshot> snapshot = CatalogSnapshot.take(new FakeInstance());
+
+		// Verify
+		assertFalse("snapshot.isPresent", snapshot.isPresent());
+	}
+
+	@Test public void getQueriesSaved_lookups_countsEachLookup()
+	{
+		// Setup
+		FakeDatabase database = catalog(new FakeDatabase(SqlDialect.PostgreSql), SCHEMA_QUERY, "public");
+		CatalogSnapshot snapshot = CatalogSnapshot.take(database.getInstance()).get();
+
+		// Execute
+		snapshot.databaseExists();
+		snapshot.schemaExists("public");
+		snapshot.tableExists("public", "Orders");
+		snapshot.tableExists("public", "Customers");
+
+		// Verify
+		assertEquals("queriesSaved", 4, snapshot.getQueriesSaved());
+		assertEquals("log.size", 2, database.getLog().size());
+	}
+
+	@Test public void report_reportedTwice_countsSinceLastReport()
+	{
+		// Setup
+		FakeDatabase database = catalog(new FakeDatabase(SqlDialect.PostgreSql), SCHEMA_QUERY, "public");
+		CatalogSnapshot snapshot = CatalogSnapshot.take(database.getInstance()).get();
+		snapshot.schemaExists("public");
+		snapshot.tableExists("public", "Orders");
+		String first = snapshot.report();
+		snapshot.tableExists("public", "Customers");
+
+		// Execute
+		String second = snapshot.report();
+
+		// Verify
+		assertEquals("first", "Catalog snapshot answered 2 catalog queries from memory, having run 3 to load", first);
+		assertEquals("second", "Catalog snapshot answered 1 catalog queries from memory, having run 0 to load", second);
+	}
+
+	@Test public void invalidate_snapshotAttached_nextTakeReloads()
+	{
+		// Setup
+		FakeDatabase database = catalog(new FakeDatabase(SqlDialect.PostgreSql), SCHEMA_QUERY, "public");
+		CatalogSnapshot first = CatalogSnapshot.take(database.getInstance()).get();
+
+		// Execute
+		CatalogSnapshot.invalidate(database.getInstance());
+
+		// Verify
+		assertFalse("catalogSnapshot.isPresent", database.getInstance().getCatalogSnapshot().isPresent());
+		CatalogSnapshot second = CatalogSnapshot.take(database.getInstance()).get();
+		assertNotSame("snapshot", first, second);
+		assertEquals("log.size", 4, database.getLog().size());
+	}
+
+	/**
+	 * Answers the schema query with the supplied schema, and any other query with an Orders table in that schema.
+	 */
+	private static FakeDatabase catalog(
+		FakeDatabase database,
+		String schemaQuery,
+		String schemaName)
+	{
+		return database.withResponder((sql, parameters) -> sql.equals(schemaQuery)
+			? Collections.singletonList(new Object[] { schemaName })
+			: Collections.singletonList(new Object[] { schemaName, "Orders" }));
+	}
+}
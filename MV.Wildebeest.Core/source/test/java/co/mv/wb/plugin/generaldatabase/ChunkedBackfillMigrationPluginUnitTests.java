@@ -0,0 +1,219 @@
+// Wildebeest Migration Framework
+// Copyright © 2013 - 2018, Matheson Ventures Pte Ltd
+//
+// This file is part of Wildebeest
+//
+// Wildebeest is free software: you can redistribute it and/or modify it under
+// the terms of the GNU General Public License v2 as published by the Free
+// Software Foundation.
+//
+// Wildebeest is distributed in the hope that it will be useful, but WITHOUT ANY
+// WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+// A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along with
+// Wildebeest.  If not, see http://www.gnu.org/licenses/gpl-2.0.html
+
+package co.mv.wb.plugin.generaldatabase;
+
+import co.mv.wb.ExpectException;
+import co.mv.wb.MigrationFailedException;
+import co.mv.wb.MigrationFaultException;
+import co.mv.wb.plugin.postgresql.PostgreSqlDatabaseInstance;
+import org.junit.Test;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link ChunkedBackfillMigrationPlugin}.
+ *
+ * @since                                       4.0
+ */
+public class ChunkedBackfillMigrationPluginUnitTests
+{
+	private static final String UPDATE = "UPDATE Orders SET Total = Net + Tax WHERE OrderId >= ? AND OrderId < ?";
+
+	@Test public void perform_keysNotAligned_chunksAlignedToChunkSize() throws MigrationFailedException
+	{
+		// Setup
+		FakeDatabase database = new FakeDatabase(SqlDialect.MySql).withResponder((sql, parameters) ->
+			sql.startsWith("SELECT MIN(")
+				? Collections.singletonList(new Object[] { 15L, 42L })
+				: Collections.emptyList());
+
+		// Execute
+		new ChunkedBackfillMigrationPlugin().perform(System.out, migration(10, 1), database.getInstance());
+
+		// Verify
+		assertEquals(
+			"updates",
+			Arrays.asList(
+				UPDATE + " [10, 20]",
+				UPDATE + " [20, 30]",
+				UPDATE + " [30, 40]",
+				UPDATE + " [40, 50]"),
+			updates(database));
+		assertTrue(
+			"checkpoint cleared",
+			database.getLog().get(database.getLog().size() - 1).startsWith("DELETE FROM wb_state_checkpoint "));
+	}
+
+	@Test public void perform_checkpointHasCompletedChunks_skipsCompletedChunks() throws MigrationFailedException
+	{
+		// Setup
+		FakeDatabase database = new FakeDatabase(SqlDialect.MySql).withResponder((sql, parameters) ->
+		{
+			if (sql.startsWith("SELECT MIN("))
+			{
+				return Collections.singletonList(new Object[] { 15L, 42L });
+			}
+
+			if (sql.startsWith("SELECT ChunkStart FROM wb_state_checkpoint "))
+			{
+				return Arrays.asList(new Object[] { 20L }, new Object[] { 30L });
+			}
+
+			return Collections.emptyList();
+		});
+
+		// Execute
+		new ChunkedBackfillMigrationPlugin().perform(System.out, migration(10, 1), database.getInstance());
+
+		// Verify
+		assertEquals(
+			"updates",
+			Arrays.asList(
+				UPDATE + " [10, 20]",
+				UPDATE + " [40, 50]"),
+			updates(database));
+	}
+
+	@Test public void perform_emptyTable_updatesNothing() throws MigrationFailedException
+	{
+		// Setup
+		FakeDatabase database = new FakeDatabase(SqlDialect.MySql).withResponder((sql, parameters) ->
+			sql.startsWith("SELECT MIN(")
+				? Collections.singletonList(new Object[] { null, null })
+				: Collections.emptyList());
+
+		// Execute
+		new ChunkedBackfillMigrationPlugin().perform(System.out, migration(10, 1), database.getInstance());
+
+		// Verify
+		assertEquals("updates.size", 0, updates(database).size());
+	}
+
+	@Test public void perform_workerFails_otherWorkersStopAndCheckpointKept()
+	{
+		// Setup
+		FakeDatabase database = new FakeDatabase(SqlDialect.MySql).withResponder((sql, parameters) ->
+		{
+			if (sql.startsWith("SELECT MIN("))
+			{
+				return Collections.singletonList(new Object[] { 0L, 999L });
+			}
+
+			if (sql.equals(UPDATE))
+			{
+				if (parameters.get(0).equals(5L))
+				{
+					throw new SQLException("deadlock detected");
+				}
+
+				try
+				{
+					Thread.sleep(5);
+				}
+				catch (InterruptedException e)
+				{
+					Thread.currentThread().interrupt();
+				}
+			}
+
+			return Collections.emptyList();
+		});
+
+		// Execute and Verify
+		new ExpectException(MigrationFaultException.class)
+		{
+			@Override public void invoke() throws Exception
+			{
+				new ChunkedBackfillMigrationPlugin().perform(System.out, migration(1, 4), database.getInstance());
+			}
+
+			@Override public void verify(Exception e)
+			{
+				assertEquals("e.cause.message", "deadlock detected", e.getCause().getMessage());
+				assertTrue("updates.size", updates(database).size() < 100);
+				assertFalse(
+					"checkpoint cleared",
+					database.getLog().stream().anyMatch(sql -> sql.startsWith("DELETE FROM")));
+			}
+		}.perform();
+	}
+
+	@Test public void checkpointTableName_nonAnsiInstance_namedAfterStateTable()
+	{
+		// Execute
+		String name = ChunkedBackfillMigrationPlugin.checkpointTableName(
+			new FakeDatabase(SqlDialect.SqlServer).getInstance());
+
+		// Verify
+		assertEquals("name", "wb_state_checkpoint", name);
+	}
+
+	@Test public void checkpointTableName_ansiInstance_inMetaSchema()
+	{
+		// Setup
+		PostgreSqlDatabaseInstance instance = new PostgreSqlDatabaseInstance(
+			"localhost",
+			5432,
+			"postgres",
+			"password",
+			"wb_test",
+			"wb_meta",
+			"orders_state");
+
+		// Execute
+		String name = ChunkedBackfillMigrationPlugin.checkpointTableName(instance);
+
+		// Verify
+		assertEquals("name", "wb_meta.orders_state_checkpoint", name);
+	}
+
+	private static ChunkedBackfillMigration migration(
+		long chunkSize,
+		int workers)
+	{
+		return new ChunkedBackfillMigration(
+			UUID.randomUUID(),
+			Optional.of(UUID.randomUUID()),
+			Optional.of(UUID.randomUUID()),
+			"Orders",
+			"OrderId",
+			chunkSize,
+			UPDATE,
+			workers,
+			0,
+			Optional.empty(),
+			Optional.empty());
+	}
+
+	private static List<String> updates(
+		FakeDatabase database)
+	{
+		return database.getLog().stream()
+			.filter(sql -> sql.startsWith(UPDATE))
+			.collect(Collectors.toList());
+	}
+}
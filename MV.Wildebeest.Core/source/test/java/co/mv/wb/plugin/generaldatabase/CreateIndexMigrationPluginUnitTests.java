@@ -0,0 +1,175 @@
+// Wildebeest Migration Framework
+// Copyright © 2013 - 2018, Matheson Ventures Pte Ltd
+//
+// This file is part of Wildebeest
+//
+// Wildebeest is free software: you can redistribute it and/or modify it under
+// the terms of the GNU General Public License v2 as published by the Free
+// Software Foundation.
+//
+// Wildebeest is distributed in the hope that it will be useful, but WITHOUT ANY
+// WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+// A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along with
+// Wildebeest.  If not, see http://www.gnu.org/licenses/gpl-2.0.html
+
+package co.mv.wb.plugin.generaldatabase;
+
+import co.mv.wb.ExpectException;
+import co.mv.wb.MigrationFailedException;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Unit tests for {@link CreateIndexMigrationPlugin}.
+ *
+ * @since                                       4.0
+ */
+public class CreateIndexMigrationPluginUnitTests
+{
+	private static final String VALIDITY_QUERY =
+		"SELECT i.indisvalid FROM pg_index i WHERE i.indexrelid = to_regclass(?)";
+
+	@Test public void perform_postgreSql_createsConcurrently() throws MigrationFailedException
+	{
+		// Setup
+		FakeDatabase database = new FakeDatabase(SqlDialect.PostgreSql);
+
+		// Execute
+		new CreateIndexMigrationPlugin().perform(System.out, migration(false), database.getInstance());
+
+		// Verify
+		assertEquals(
+			"log",
+			Arrays.asList(
+				VALIDITY_QUERY + " [IX_Order_CustomerId]",
+				"CREATE INDEX CONCURRENTLY IX_Order_CustomerId ON Orders (CustomerId, CreatedAt)",
+				VALIDITY_QUERY + " [IX_Order_CustomerId]"),
+			database.getLog());
+	}
+
+	@Test public void perform_postgreSqlInvalidIndexLeftBehind_dropsInvalidIndexFirst() throws
+		MigrationFailedException
+	{
+		// Setup
+		AtomicInteger lookups = new AtomicInteger();
+		FakeDatabase database = new FakeDatabase(SqlDialect.PostgreSql).withResponder((sql, parameters) ->
+			sql.equals(VALIDITY_QUERY) && lookups.getAndIncrement() == 0
+				? Collections.singletonList(new Object[] { false })
+				: Collections.emptyList());
+
+		// Execute
+		new CreateIndexMigrationPlugin().perform(System.out, migration(false), database.getInstance());
+
+		// Verify
+		assertEquals(
+			"log",
+			Arrays.asList(
+				VALIDITY_QUERY + " [IX_Order_CustomerId]",
+				"DROP INDEX CONCURRENTLY IF EXISTS IX_Order_CustomerId",
+				"CREATE INDEX CONCURRENTLY IX_Order_CustomerId ON Orders (CustomerId, CreatedAt)",
+				VALIDITY_QUERY + " [IX_Order_CustomerId]"),
+			database.getLog());
+	}
+
+	@Test public void perform_postgreSqlIndexLeftInvalid_fails()
+	{
+		// Setup
+		AtomicInteger lookups = new AtomicInteger();
+		FakeDatabase database = new FakeDatabase(SqlDialect.PostgreSql).withResponder((sql, parameters) ->
+			sql.equals(VALIDITY_QUERY) && lookups.getAndIncrement() > 0
+				? Collections.singletonList(new Object[] { false })
+				: Collections.emptyList());
+
+		// Execute and Verify
+		new ExpectException(MigrationFailedException.class)
+		{
+			@Override public void invoke() throws Exception
+			{
+				new CreateIndexMigrationPlugin().perform(System.out, migration(false), database.getInstance());
+			}
+
+			@Override public void verify(Exception e)
+			{
+				assertEquals(
+					"e.message",
+					"index \"IX_Order_CustomerId\" was left invalid and has been dropped",
+					((MigrationFailedException)e).getMessage());
+			}
+		}.perform();
+	}
+
+	@Test public void perform_mySql_createsInPlace() throws MigrationFailedException
+	{
+		// Setup
+		FakeDatabase database = new FakeDatabase(SqlDialect.MySql);
+
+		// Execute
+		new CreateIndexMigrationPlugin().perform(System.out, migration(true), database.getInstance());
+
+		// Verify
+		assertEquals(
+			"log",
+			Collections.singletonList(
+				"CREATE UNIQUE INDEX IX_Order_CustomerId ON Orders (CustomerId, CreatedAt) " +
+					"ALGORITHM=INPLACE LOCK=NONE"),
+			database.getLog());
+	}
+
+	@Test public void perform_sqlServer_createsOnline() throws MigrationFailedException
+	{
+		// Setup
+		FakeDatabase database = new FakeDatabase(SqlDialect.SqlServer);
+
+		// Execute
+		new CreateIndexMigrationPlugin().perform(System.out, migration(false), database.getInstance());
+
+		// Verify
+		assertEquals(
+			"log",
+			Collections.singletonList(
+				"CREATE INDEX IX_Order_CustomerId ON Orders (CustomerId, CreatedAt) WITH (ONLINE = ON)"),
+			database.getLog());
+	}
+
+	@Test public void perform_ansi_fails()
+	{
+		// Setup
+		FakeDatabase database = new FakeDatabase(SqlDialect.Ansi);
+
+		// Execute and Verify
+		new ExpectException(MigrationFailedException.class)
+		{
+			@Override public void invoke() throws Exception
+			{
+				new CreateIndexMigrationPlugin().perform(System.out, migration(false), database.getInstance());
+			}
+
+			@Override public void verify(Exception e)
+			{
+				assertEquals("log.size", 0, database.getLog().size());
+			}
+		}.perform();
+	}
+
+	private static CreateIndexMigration migration(
+		boolean unique)
+	{
+		return new CreateIndexMigration(
+			UUID.randomUUID(),
+			Optional.empty(),
+			Optional.of(UUID.randomUUID()),
+			"IX_Order_CustomerId",
+			"Orders",
+			"CustomerId, CreatedAt",
+			unique);
+	}
+}
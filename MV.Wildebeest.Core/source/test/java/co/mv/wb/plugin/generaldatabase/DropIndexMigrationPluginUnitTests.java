@@ -0,0 +1,139 @@
+// Wildebeest Migration Framework
+// Copyright © 2013 - 2018, Matheson Ventures Pte Ltd
+//
+// This file is part of Wildebeest
+//
+// Wildebeest is free software: you can redistribute it and/or modify it under
+// the terms of the GNU General Public License v2 as published by the Free
+// Software Foundation.
+//
+// Wildebeest is distributed in the hope that it will be useful, but WITHOUT ANY
+// WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+// A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along with
+// Wildebeest.  If not, see http://www.gnu.org/licenses/gpl-2.0.html
+
+package co.mv.wb.plugin.generaldatabase;
+
+import co.mv.wb.ExpectException;
+import co.mv.wb.MigrationFailedException;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Unit tests for {@link DropIndexMigrationPlugin}.
+ *
+ * @since                                       4.0
+ */
+public class DropIndexMigrationPluginUnitTests
+{
+	private static final String CLUSTERED_QUERY =
+		"SELECT type FROM sys.indexes WHERE name = ? AND object_id = OBJECT_ID(?)";
+
+	@Test public void perform_postgreSql_dropsConcurrently() throws MigrationFailedException
+	{
+		// Setup
+		FakeDatabase database = new FakeDatabase(SqlDialect.PostgreSql);
+
+		// Execute
+		new DropIndexMigrationPlugin().perform(System.out, migration(), database.getInstance());
+
+		// Verify
+		assertEquals(
+			"log",
+			Collections.singletonList("DROP INDEX CONCURRENTLY IX_Order_CustomerId"),
+			database.getLog());
+	}
+
+	@Test public void perform_mySql_dropsInPlace() throws MigrationFailedException
+	{
+		// Setup
+		FakeDatabase database = new FakeDatabase(SqlDialect.MySql);
+
+		// Execute
+		new DropIndexMigrationPlugin().perform(System.out, migration(), database.getInstance());
+
+		// Verify
+		assertEquals(
+			"log",
+			Collections.singletonList("DROP INDEX IX_Order_CustomerId ON Orders ALGORITHM=INPLACE LOCK=NONE"),
+			database.getLog());
+	}
+
+	@Test public void perform_sqlServerClustered_dropsOnline() throws MigrationFailedException
+	{
+		// Setup
+		FakeDatabase database = new FakeDatabase(SqlDialect.SqlServer).withResponder((sql, parameters) ->
+			sql.equals(CLUSTERED_QUERY)
+				? Collections.singletonList(new Object[] { 1 })
+				: Collections.emptyList());
+
+		// Execute
+		new DropIndexMigrationPlugin().perform(System.out, migration(), database.getInstance());
+
+		// Verify
+		assertEquals(
+			"log",
+			Arrays.asList(
+				CLUSTERED_QUERY + " [IX_Order_CustomerId, Orders]",
+				"DROP INDEX IX_Order_CustomerId ON Orders WITH (ONLINE = ON)"),
+			database.getLog());
+	}
+
+	@Test public void perform_sqlServerNonclustered_dropsWithoutOnline() throws MigrationFailedException
+	{
+		// Setup
+		FakeDatabase database = new FakeDatabase(SqlDialect.SqlServer).withResponder((sql, parameters) ->
+			sql.equals(CLUSTERED_QUERY)
+				? Collections.singletonList(new Object[] { 2 })
+				: Collections.emptyList());
+
+		// Execute
+		new DropIndexMigrationPlugin().perform(System.out, migration(), database.getInstance());
+
+		// Verify
+		assertEquals(
+			"log",
+			Arrays.asList(
+				CLUSTERED_QUERY + " [IX_Order_CustomerId, Orders]",
+				"DROP INDEX IX_Order_CustomerId ON Orders"),
+			database.getLog());
+	}
+
+	@Test public void perform_ansi_fails()
+	{
+		// Setup
+		FakeDatabase database = new FakeDatabase(SqlDialect.Ansi);
+
+		// Execute and Verify
+		new ExpectException(MigrationFailedException.class)
+		{
+			@Override public void invoke() throws Exception
+			{
+				new DropIndexMigrationPlugin().perform(System.out, migration(), database.getInstance());
+			}
+
+			@Override public void verify(Exception e)
+			{
+				assertEquals("log.size", 0, database.getLog().size());
+			}
+		}.perform();
+	}
+
+	private static DropIndexMigration migration()
+	{
+		return new DropIndexMigration(
+			UUID.randomUUID(),
+			Optional.of(UUID.randomUUID()),
+			Optional.of(UUID.randomUUID()),
+			"IX_Order_CustomerId",
+			"Orders");
+	}
+}
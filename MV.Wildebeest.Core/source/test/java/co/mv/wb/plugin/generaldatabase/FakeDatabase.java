@@ -0,0 +1,356 @@
+// Wildebeest Migration Framework
+// Copyright © 2013 - 2018, Matheson Ventures Pte Ltd
+//
+// This file is part of Wildebeest
+//
+// Wildebeest is free software: you can redistribute it and/or modify it under
+// the terms of the GNU General Public License v2 as published by the Free
+// Software Foundation.
+//
+// Wildebeest is distributed in the hope that it will be useful, but WITHOUT ANY
+// WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+// A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along with
+// Wildebeest.  If not, see http://www.gnu.org/licenses/gpl-2.0.html
+
+package co.mv.wb.plugin.generaldatabase;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.logging.Logger;
+
+/**
+ * A {@link DatabaseInstance} of a given dialect whose connections record the SQL executed against them, for testing
+ * plugins without a database server.  Queries and updates are answered by a {@link Responder}, which by default
+ * returns no rows.
+ *
+ * @since                                       4.0
+ */
+public class FakeDatabase
+{
+	private final SqlDialect _dialect;
+	private final List<String> _log = Collections.synchronizedList(new ArrayList<>());
+	private final DataSource _dataSource = new FakeDataSource();
+	private final DatabaseInstance _instance;
+	private volatile Responder _responder = (sql, parameters) -> Collections.emptyList();
+	private volatile boolean _databaseExists = true;
+	private volatile Optional<CatalogSnapshot> _catalogSnapshot = Optional.empty();
+
+	public FakeDatabase(
+		SqlDialect dialect)
+	{
+		if (dialect == null) { throw new IllegalArgumentException("dialect cannot be null"); }
+
+		_dialect = dialect;
+		_instance = (DatabaseInstance)Proxy.newProxyInstance(
+			FakeDatabase.class.getClassLoader(),
+			new Class<?>[] { DatabaseInstance.class },
+			(proxy, method, args) ->
+			{
+				switch (method.getName())
+				{
+					case "getSqlDialect":
+						return _dialect;
+					case "getAdminDataSource":
+					case "getAppDataSource":
+						return _dataSource;
+					case "getDatabaseName":
+						return "wb_test";
+					case "databaseExists":
+						return _databaseExists;
+					case "getCatalogSnapshot":
+						return _catalogSnapshot;
+					case "setCatalogSnapshot":
+						_catalogSnapshot = (Optional<CatalogSnapshot>)args[0];
+						return null;
+					case "equals":
+						return proxy == args[0];
+					case "hashCode":
+						return System.identityHashCode(proxy);
+					default:
+						return FakeDatabase.defaultValue(method.getReturnType());
+				}
+			});
+	}
+
+	public DatabaseInstance getInstance()
+	{
+		return _instance;
+	}
+
+	/**
+	 * Gets the SQL executed so far, in order.  A statement with parameters is followed by the parameters in square
+	 * brackets, and commits and rollbacks are recorded as COMMIT and ROLLBACK.
+	 *
+	 * @return                                  the SQL executed so far.
+	 */
+	public List<String> getLog()
+	{
+		synchronized (_log)
+		{
+			return new ArrayList<>(_log);
+		}
+	}
+
+	public FakeDatabase withResponder(
+		Responder value)
+	{
+		if (value == null) { throw new IllegalArgumentException("value cannot be null"); }
+
+		_responder = value;
+		return this;
+	}
+
+	public FakeDatabase withDatabaseExists(
+		boolean value)
+	{
+		_databaseExists = value;
+		return this;
+	}
+
+	/**
+	 * Answers the SQL executed against a FakeDatabase.  The rows returned are the result of a query, and their number
+	 * is the update count of an update.
+	 */
+	public interface Responder
+	{
+		List<Object[]> respond(
+			String sql,
+			List<Object> parameters) throws SQLException;
+	}
+
+	private List<Object[]> execute(
+		String sql,
+		List<Object> parameters) throws SQLException
+	{
+		_log.add(parameters.isEmpty() ? sql : sql + " " + parameters);
+		return _responder.respond(sql, parameters);
+	}
+
+	private Connection connection()
+	{
+		DatabaseMetaData metaData = (DatabaseMetaData)FakeDatabase.proxy(
+			DatabaseMetaData.class,
+			(proxy, method, args) -> "supportsBatchUpdates".equals(method.getName())
+				? true
+				: FakeDatabase.defaultValue(method.getReturnType()));
+
+		boolean[] autoCommit = { true };
+
+		return (Connection)FakeDatabase.proxy(
+			Connection.class,
+			(proxy, method, args) ->
+			{
+				switch (method.getName())
+				{
+					case "getMetaData":
+						return metaData;
+					case "getAutoCommit":
+						return autoCommit[0];
+					case "setAutoCommit":
+						autoCommit[0] = (Boolean)args[0];
+						return null;
+					case "commit":
+						_log.add("COMMIT");
+						return null;
+					case "rollback":
+						_log.add("ROLLBACK");
+						return null;
+					case "createStatement":
+						return this.statement((Connection)proxy, Optional.empty());
+					case "prepareStatement":
+						return this.statement((Connection)proxy, Optional.of((String)args[0]));
+					default:
+						return FakeDatabase.defaultValue(method.getReturnType());
+				}
+			});
+	}
+
+	private PreparedStatement statement(
+		Connection connection,
+		Optional<String> preparedSql)
+	{
+		List<Object> parameters = new ArrayList<>();
+		List<Integer> batch = new ArrayList<>();
+
+		return (PreparedStatement)FakeDatabase.proxy(
+			PreparedStatement.class,
+			(proxy, method, args) ->
+			{
+				String name = method.getName();
+				String sql = args != null && args.length > 0 && args[0] instanceof String
+					? (String)args[0]
+					: preparedSql.orElse(null);
+
+				if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer)
+				{
+					int index = (Integer)args[0];
+					while (parameters.size() < index)
+					{
+						parameters.add(null);
+					}
+					parameters.set(index - 1, args[1]);
+					return null;
+				}
+
+				switch (name)
+				{
+					case "executeQuery":
+						return FakeDatabase.resultSet(this.execute(sql, new ArrayList<>(parameters)));
+					case "executeUpdate":
+						return this.execute(sql, new ArrayList<>(parameters)).size();
+					case "execute":
+						return !this.execute(sql, new ArrayList<>(parameters)).isEmpty();
+					case "addBatch":
+						batch.add(this.execute(sql, new ArrayList<>(parameters)).size());
+						return null;
+					case "executeBatch":
+						int[] result = batch.stream().mapToInt(Integer::intValue).toArray();
+						batch.clear();
+						return result;
+					case "clearParameters":
+						parameters.clear();
+						return null;
+					case "getConnection":
+						return connection;
+					default:
+						return FakeDatabase.defaultValue(method.getReturnType());
+				}
+			});
+	}
+
+	private static ResultSet resultSet(
+		List<Object[]> rows)
+	{
+		int[] row = { -1 };
+		boolean[] wasNull = { false };
+
+		return (ResultSet)FakeDatabase.proxy(
+			ResultSet.class,
+			(proxy, method, args) ->
+			{
+				String name = method.getName();
+
+				if ("next".equals(name))
+				{
+					row[0] ++;
+					return row[0] < rows.size();
+				}
+
+				if ("wasNull".equals(name))
+				{
+					return wasNull[0];
+				}
+
+				if (name.startsWith("get") && args != null && args.length == 1 && args[0] instanceof Integer)
+				{
+					Object value = rows.get(row[0])[(Integer)args[0] - 1];
+					wasNull[0] = value == null;
+
+					switch (name)
+					{
+						case "getString":
+							return value == null ? null : value.toString();
+						case "getLong":
+							return value == null ? 0L : ((Number)value).longValue();
+						case "getInt":
+							return value == null ? 0 : ((Number)value).intValue();
+						case "getBoolean":
+							return value != null && (Boolean)value;
+						default:
+							return value;
+					}
+				}
+
+				return FakeDatabase.defaultValue(method.getReturnType());
+			});
+	}
+
+	private static Object proxy(
+		Class<?> type,
+		InvocationHandler handler)
+	{
+		return Proxy.newProxyInstance(FakeDatabase.class.getClassLoader(), new Class<?>[] { type }, handler);
+	}
+
+	private static Object defaultValue(
+		Class<?> type)
+	{
+		if (type == boolean.class)
+		{
+			return false;
+		}
+
+		if (type == int.class)
+		{
+			return 0;
+		}
+
+		if (type == long.class)
+		{
+			return 0L;
+		}
+
+		return null;
+	}
+
+	private class FakeDataSource implements DataSource
+	{
+		@Override public Connection getConnection()
+		{
+			return FakeDatabase.this.connection();
+		}
+
+		@Override public Connection getConnection(String username, String password)
+		{
+			return this.getConnection();
+		}
+
+		@Override public PrintWriter getLogWriter()
+		{
+			return null;
+		}
+
+		@Override public void setLogWriter(PrintWriter out)
+		{
+		}
+
+		@Override public void setLoginTimeout(int seconds)
+		{
+		}
+
+		@Override public int getLoginTimeout()
+		{
+			return 0;
+		}
+
+		@Override public Logger getParentLogger() throws SQLFeatureNotSupportedException
+		{
+			throw new SQLFeatureNotSupportedException();
+		}
+
+		@Override public <T> T unwrap(Class<T> iface) throws SQLException
+		{
+			throw new SQLException("not a wrapper");
+		}
+
+		@Override public boolean isWrapperFor(Class<?> iface)
+		{
+			return false;
+		}
+	}
+}
@@ -0,0 +1,87 @@
+// Wildebeest Migration Framework
+// Copyright © 2013 - 2018, Matheson Ventures Pte Ltd
+//
+// This file is part of Wildebeest
+//
+// Wildebeest is free software: you can redistribute it and/or modify it under
+// the terms of the GNU General Public License v2 as published by the Free
+// Software Foundation.
+//
+// Wildebeest is distributed in the hope that it will be useful, but WITHOUT ANY
+// WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+// A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along with
+// Wildebeest.  If not, see http://www.gnu.org/licenses/gpl-2.0.html
+
+package co.mv.wb.plugin.generaldatabase;
+
+import org.junit.Test;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link RowCountAssertion}.
+ *
+ * @since                                       4.0
+ */
+public class RowCountAssertionUnitTests
+{
+	@Test public void wrap_existsOnly_wrapsInExists()
+	{
+		// Execute
+		String query = RowCountAssertion.wrap("SELECT * FROM Product; ", true);
+
+		// Verify
+		assertEquals(
+			"query",
+			"SELECT CASE WHEN EXISTS (SELECT * FROM Product) THEN 1 ELSE 0 END",
+			query);
+	}
+
+	@Test public void wrap_count_wrapsInCount()
+	{
+		// Execute
+		String query = RowCountAssertion.wrap("SELECT * FROM Product", false);
+
+		// Verify
+		assertEquals(
+			"query",
+			"SELECT COUNT(*) FROM (SELECT * FROM Product) AS q",
+			query);
+	}
+
+	@Test public void isExistsOnly_bounds_onlyWhenPresenceDecides()
+	{
+		// Verify
+		assertTrue("max 0", rowCount(Optional.empty(), Optional.of(0)).isExistsOnly());
+		assertTrue("min 1", rowCount(Optional.of(1), Optional.empty()).isExistsOnly());
+		assertFalse("min 1 max 1", rowCount(Optional.of(1), Optional.of(1)).isExistsOnly());
+		assertFalse("min 2", rowCount(Optional.of(2), Optional.empty()).isExistsOnly());
+		assertFalse("max 5", rowCount(Optional.empty(), Optional.of(5)).isExistsOnly());
+	}
+
+	@Test(expected = IllegalArgumentException.class) public void constructor_minGreaterThanMax_throws()
+	{
+		// Execute
+		rowCount(Optional.of(3), Optional.of(2));
+	}
+
+	private static RowCountAssertion rowCount(
+		Optional<Integer> min,
+		Optional<Integer> max)
+	{
+		return new RowCountAssertion(
+			UUID.randomUUID(),
+			"Product rows",
+			0,
+			"SELECT * FROM Product",
+			min,
+			max);
+	}
+}
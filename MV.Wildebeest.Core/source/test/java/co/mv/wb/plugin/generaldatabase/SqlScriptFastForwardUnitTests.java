@@ -0,0 +1,80 @@
+// Wildebeest Migration Framework
+// Copyright © 2013 - 2018, Matheson Ventures Pte Ltd
+//
+// This file is part of Wildebeest
+//
+// Wildebeest is free software: you can redistribute it and/or modify it under
+// the terms of the GNU General Public License v2 as published by the Free
+// Software Foundation.
+//
+// Wildebeest is distributed in the hope that it will be useful, but WITHOUT ANY
+// WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+// A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along with
+// Wildebeest.  If not, see http://www.gnu.org/licenses/gpl-2.0.html
+
+package co.mv.wb.plugin.generaldatabase;
+
+import co.mv.wb.plugin.fake.FakeInstance;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Unit tests for {@link SqlScriptFastForward}.
+ *
+ * @since                                       4.0
+ */
+public class SqlScriptFastForwardUnitTests
+{
+	@Test public void isSupported_notDatabase_false()
+	{
+		// Execute and Verify
+		assertFalse("isSupported", SqlScriptFastForward.isSupported(new FakeInstance()));
+	}
+
+	@Test public void statements_multipleScripts_chainsStatementsInOrder() throws IOException
+	{
+		// Setup
+		List<SqlScriptMigration> migrations = Arrays.asList(
+			new SqlScriptMigration(
+				UUID.randomUUID(),
+				Optional.empty(),
+				Optional.of(UUID.randomUUID()),
+				"CREATE TABLE a (id int); CREATE TABLE b (id int);"),
+			new SqlScriptMigration(
+				UUID.randomUUID(),
+				Optional.empty(),
+				Optional.of(UUID.randomUUID()),
+				""),
+			new SqlScriptMigration(
+				UUID.randomUUID(),
+				Optional.empty(),
+				Optional.of(UUID.randomUUID()),
+				"CREATE TABLE c (id int);"));
+
+		// Execute
+		List<String> statements = new ArrayList<>();
+		try (SqlScriptFastForward.Statements iterator = new SqlScriptFastForward.Statements(
+			migrations,
+			SqlDialect.PostgreSql))
+		{
+			iterator.forEachRemaining(statements::add);
+		}
+
+		// Verify
+		assertEquals("statements.size", 3, statements.size());
+		assertEquals("statements[0]", "CREATE TABLE a (id int)", statements.get(0));
+		assertEquals("statements[1]", "CREATE TABLE b (id int)", statements.get(1));
+		assertEquals("statements[2]", "CREATE TABLE c (id int)", statements.get(2));
+	}
+}
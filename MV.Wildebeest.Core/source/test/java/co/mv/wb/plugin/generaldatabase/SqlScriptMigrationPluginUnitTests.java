@@ -0,0 +1,91 @@
+// Wildebeest Migration Framework
+// Copyright © 2013 - 2018, Matheson Ventures Pte Ltd
+//
+// This file is part of Wildebeest
+//
+// Wildebeest is free software: you can redistribute it and/or modify it under
+// the terms of the GNU General Public License v2 as published by the Free
+// Software Foundation.
+//
+// Wildebeest is distributed in the hope that it will be useful, but WITHOUT ANY
+// WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+// A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along with
+// Wildebeest.  If not, see http://www.gnu.org/licenses/gpl-2.0.html
+
+package co.mv.wb.plugin.generaldatabase;
+
+import co.mv.wb.plugin.fake.SetTagMigration;
+import org.junit.Test;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link SqlScriptMigrationPlugin}.
+ *
+ * @since                                       4.0
+ */
+public class SqlScriptMigrationPluginUnitTests
+{
+	@Test public void canPerformTogether_sqlScriptsOnPostgreSql_true()
+	{
+		// Setup
+		SqlScriptMigrationPlugin plugin = new SqlScriptMigrationPlugin();
+		FakeDatabase database = new FakeDatabase(SqlDialect.PostgreSql);
+
+		// Execute
+		boolean result = plugin.canPerformTogether(
+			SqlScriptMigrationPluginUnitTests.sqlScript(),
+			SqlScriptMigrationPluginUnitTests.sqlScript(),
+			database.getInstance());
+
+		// Verify
+		assertTrue("canPerformTogether", result);
+	}
+
+	@Test public void canPerformTogether_sqlScriptsOnMySql_false()
+	{
+		// Setup
+		SqlScriptMigrationPlugin plugin = new SqlScriptMigrationPlugin();
+		FakeDatabase database = new FakeDatabase(SqlDialect.MySql);
+
+		// Execute
+		boolean result = plugin.canPerformTogether(
+			SqlScriptMigrationPluginUnitTests.sqlScript(),
+			SqlScriptMigrationPluginUnitTests.sqlScript(),
+			database.getInstance());
+
+		// Verify
+		assertFalse("canPerformTogether", result);
+	}
+
+	@Test public void canPerformTogether_nextNotSqlScript_false()
+	{
+		// Setup
+		SqlScriptMigrationPlugin plugin = new SqlScriptMigrationPlugin();
+		FakeDatabase database = new FakeDatabase(SqlDialect.PostgreSql);
+
+		// Execute
+		boolean result = plugin.canPerformTogether(
+			SqlScriptMigrationPluginUnitTests.sqlScript(),
+			new SetTagMigration(UUID.randomUUID(), Optional.empty(), Optional.of(UUID.randomUUID()), "Foo"),
+			database.getInstance());
+
+		// Verify
+		assertFalse("canPerformTogether", result);
+	}
+
+	private static SqlScriptMigration sqlScript()
+	{
+		return new SqlScriptMigration(
+			UUID.randomUUID(),
+			Optional.empty(),
+			Optional.of(UUID.randomUUID()),
+			"CREATE TABLE a (id int);");
+	}
+}
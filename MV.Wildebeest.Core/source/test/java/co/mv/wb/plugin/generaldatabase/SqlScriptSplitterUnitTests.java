@@ -0,0 +1,208 @@
+// Wildebeest Migration Framework
+// Copyright © 2013 - 2018, Matheson Ventures Pte Ltd
+//
+// This file is part of Wildebeest
+//
+// Wildebeest is free software: you can redistribute it and/or modify it under
+// the terms of the GNU General Public License v2 as published by the Free
+// Software Foundation.
+//
+// Wildebeest is distributed in the hope that it will be useful, but WITHOUT ANY
+// WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+// A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along with
+// Wildebeest.  If not, see http://www.gnu.org/licenses/gpl-2.0.html
+
+package co.mv.wb.plugin.generaldatabase;
+
+import org.junit.Test;
+
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link SqlScriptSplitter}.
+ *
+ * @since                                       4.0
+ */
+public class SqlScriptSplitterUnitTests
+{
+	@Test public void split_ansiStatements_splitsOnSemicolons()
+	{
+		// Setup
+		String sql =
+			"CREATE TABLE Foo(Bar int);\n" +
+			"\n" +
+			"INSERT INTO Foo(Bar) VALUES(1);\n" +
+			"INSERT INTO Foo(Bar) VALUES(2)";
+
+		// Execute
+		List<String> statements = SqlScriptSplitter.split(sql, SqlDialect.Ansi);
+
+		// Verify
+		assertEquals(
+			"statements",
+			Arrays.asList(
+				"CREATE TABLE Foo(Bar int)",
+				"INSERT INTO Foo(Bar) VALUES(1)",
+				"INSERT INTO Foo(Bar) VALUES(2)"),
+			statements);
+	}
+
+	@Test public void split_delimitersInQuotesAndComments_notSplit()
+	{
+		// Setup
+		String sql =
+			"-- Seed data; first row\n" +
+			"INSERT INTO Foo(Bar, \"Baz;\") VALUES(1, 'a;''b'); /* trailing; comment */\n" +
+			"/* only a comment; */\n" +
+			";\n";
+
+		// Execute
+		List<String> statements = SqlScriptSplitter.split(sql, SqlDialect.Ansi);
+
+		// Verify
+		assertEquals(
+			"statements",
+			Arrays.asList(
+				"-- Seed data; first row\nINSERT INTO Foo(Bar, \"Baz;\") VALUES(1, 'a;''b')"),
+			statements);
+	}
+
+	@Test public void split_postgreSqlDollarQuotedFunction_notSplit()
+	{
+		// Setup
+		String function =
+			"CREATE FUNCTION foo() RETURNS int AS $body$\n" +
+			"BEGIN\n" +
+			"    PERFORM 1; RETURN $$nested;$$::int;\n" +
+			"END;\n" +
+			"$body$ LANGUAGE plpgsql";
+		String sql =
+			function + ";\n" +
+			"SELECT E'it\\'s; fine', $1;\n" +
+			"/* outer /* inner; */ still a comment; */ SELECT 2;";
+
+		// Execute
+		List<String> statements = SqlScriptSplitter.split(sql, SqlDialect.PostgreSql);
+
+		// Verify
+		assertEquals(
+			"statements",
+			Arrays.asList(
+				function,
+				"SELECT E'it\\'s; fine', $1",
+				"/* outer /* inner; */ still a comment; */ SELECT 2"),
+			statements);
+	}
+
+	@Test public void split_mySqlDelimiter_splitsOnCustomDelimiter()
+	{
+		// Setup
+		String sql =
+			"CREATE TABLE `Foo;`(Bar int); # comment; here\n" +
+			"DELIMITER $$\n" +
+			"CREATE PROCEDURE Baz()\n" +
+			"BEGIN\n" +
+			"    INSERT INTO Foo VALUES('a\\';b');\n" +
+			"END$$\n" +
+			"DELIMITER ;\n" +
+			"CALL Baz();\n";
+
+		// Execute
+		List<String> statements = SqlScriptSplitter.split(sql, SqlDialect.MySql);
+
+		// Verify
+		assertEquals(
+			"statements",
+			Arrays.asList(
+				"CREATE TABLE `Foo;`(Bar int)",
+				"CREATE PROCEDURE Baz()\nBEGIN\n    INSERT INTO Foo VALUES('a\\';b');\nEND",
+				"CALL Baz()"),
+			statements);
+	}
+
+	@Test public void split_sqlServerGo_splitsIntoBatches()
+	{
+		// Setup
+		String sql =
+			"CREATE TABLE [Foo;Bar](Baz int);\n" +
+			"INSERT INTO [Foo;Bar] VALUES(1);\n" +
+			"go\n" +
+			"INSERT INTO [Foo;Bar] VALUES(2); -- GO\n" +
+			"  GO 2\n" +
+			"SELECT 'GO'\n";
+
+		// Execute
+		List<String> statements = SqlScriptSplitter.split(sql, SqlDialect.SqlServer);
+
+		// Verify
+		assertEquals(
+			"statements",
+			Arrays.asList(
+				"CREATE TABLE [Foo;Bar](Baz int);\nINSERT INTO [Foo;Bar] VALUES(1);",
+				"INSERT INTO [Foo;Bar] VALUES(2); -- GO",
+				"INSERT INTO [Foo;Bar] VALUES(2); -- GO",
+				"SELECT 'GO'"),
+			statements);
+	}
+
+	@Test public void next_scriptLongerThanReadBuffer_readsIncrementally()
+	{
+		// Setup
+		StringBuilder sql = new StringBuilder();
+		for (int i = 0; i < 5000; i ++)
+		{
+			sql.append("INSERT INTO Foo(Bar) VALUES('").append(i).append(";');\n");
+		}
+		CountingReader reader = new CountingReader(new StringReader(sql.toString()));
+
+		// Execute
+		SqlScriptSplitter splitter = new SqlScriptSplitter(reader, SqlDialect.Ansi);
+		String first = splitter.next();
+		int readAfterFirst = reader.getCharsRead();
+		int count = 1;
+		String last = first;
+		while (splitter.hasNext())
+		{
+			last = splitter.next();
+			count ++;
+		}
+
+		// Verify
+		assertEquals("first", "INSERT INTO Foo(Bar) VALUES('0;')", first);
+		assertEquals("last", "INSERT INTO Foo(Bar) VALUES('4999;')", last);
+		assertEquals("count", 5000, count);
+		assertTrue("readAfterFirst", readAfterFirst < sql.length());
+	}
+
+	private static class CountingReader extends FilterReader
+	{
+		private int _charsRead = 0;
+
+		private CountingReader(Reader in)
+		{
+			super(in);
+		}
+
+		@Override public int read(char[] buffer, int offset, int length) throws IOException
+		{
+			int result = super.read(buffer, offset, length);
+			_charsRead += Math.max(result, 0);
+			return result;
+		}
+
+		private int getCharsRead()
+		{
+			return _charsRead;
+		}
+	}
+}
@@ -0,0 +1,180 @@
+// Wildebeest Migration Framework
+// Copyright © 2013 - 2018, Matheson Ventures Pte Ltd
+//
+// This file is part of Wildebeest
+//
+// Wildebeest is free software: you can redistribute it and/or modify it under
+// the terms of the GNU General Public License v2 as published by the Free
+// Software Foundation.
+//
+// Wildebeest is distributed in the hope that it will be useful, but WITHOUT ANY
+// WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+// A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along with
+// Wildebeest.  If not, see http://www.gnu.org/licenses/gpl-2.0.html
+
+package co.mv.wb.plugin.generaldatabase.dom;
+
+import co.mv.wb.LoaderFault;
+import co.mv.wb.PluginBuildException;
+import co.mv.wb.Wildebeest;
+import co.mv.wb.fixture.FixtureCreator;
+import co.mv.wb.impl.ResourceTypeServiceBuilder;
+import co.mv.wb.plugin.base.dom.DomPlugins;
+import co.mv.wb.plugin.generaldatabase.ChunkedBackfillMigration;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+/**
+ * Unit tests for {@link ChunkedBackfillDomMigrationBuilder}.
+ *
+ * @since                                       4.0
+ */
+public class ChunkedBackfillDomMigrationBuilderUnitTests
+{
+	private static final String REQUIRED =
+		"<tableName>Orders</tableName>" +
+		"<keyColumn>OrderId</keyColumn>" +
+		"<sql>UPDATE Orders SET Total = Net + Tax WHERE OrderId &gt;= ? AND OrderId &lt; ?</sql>";
+
+	@Test public void build_validDocument_succeeds() throws
+		LoaderFault,
+		PluginBuildException
+	{
+		// Execute
+		ChunkedBackfillMigration migration = load(
+			REQUIRED +
+			"<chunkSize>5000</chunkSize>" +
+			"<workers>4</workers>" +
+			"<sleepMillis>100</sleepMillis>" +
+			"<maxLagSeconds>10</maxLagSeconds>" +
+			"<lagQuery>SELECT 0</lagQuery>");
+
+		// Verify
+		assertEquals("migration.tableName", "Orders", migration.getTableName());
+		assertEquals("migration.keyColumn", "OrderId", migration.getKeyColumn());
+		assertEquals("migration.chunkSize", 5000, migration.getChunkSize());
+		assertEquals(
+			"migration.sql",
+			"UPDATE Orders SET Total = Net + Tax WHERE OrderId >= ? AND OrderId < ?",
+			migration.getSql());
+		assertEquals("migration.workers", 4, migration.getWorkers());
+		assertEquals("migration.sleepMillis", 100, migration.getSleepMillis());
+		assertEquals("migration.maxLagSeconds", Optional.of(10), migration.getMaxLagSeconds());
+		assertEquals("migration.lagQuery", Optional.of("SELECT 0"), migration.getLagQuery());
+	}
+
+	@Test public void build_optionalElementsOmitted_defaults() throws
+		LoaderFault,
+		PluginBuildException
+	{
+		// Execute
+		ChunkedBackfillMigration migration = load(REQUIRED + "<chunkSize>5000</chunkSize>");
+
+		// Verify
+		assertEquals("migration.workers", 1, migration.getWorkers());
+		assertEquals("migration.sleepMillis", 0, migration.getSleepMillis());
+		assertEquals("migration.maxLagSeconds", Optional.empty(), migration.getMaxLagSeconds());
+		assertEquals("migration.lagQuery", Optional.empty(), migration.getLagQuery());
+	}
+
+	@Test public void build_requiredElementsMissing_fails() throws
+		LoaderFault
+	{
+		// Execute
+		PluginBuildException caught = loadExpectingFailure("");
+
+		// Verify
+		assertEquals("caught.messages.size", 4, caught.getMessages().size());
+	}
+
+	@Test public void build_chunkSizeZero_fails() throws
+		LoaderFault
+	{
+		// Execute
+		PluginBuildException caught = loadExpectingFailure(REQUIRED + "<chunkSize>0</chunkSize>");
+
+		// Verify
+		assertEquals("caught.messages.size", 1, caught.getMessages().size());
+	}
+
+	@Test public void build_chunkSizeNotNumber_fails() throws
+		LoaderFault
+	{
+		// Execute
+		PluginBuildException caught = loadExpectingFailure(REQUIRED + "<chunkSize>lots</chunkSize>");
+
+		// Verify
+		assertEquals("caught.messages.size", 1, caught.getMessages().size());
+	}
+
+	@Test public void build_workersZero_fails() throws
+		LoaderFault
+	{
+		// Execute
+		PluginBuildException caught = loadExpectingFailure(
+			REQUIRED + "<chunkSize>5000</chunkSize><workers>0</workers>");
+
+		// Verify
+		assertEquals("caught.messages.size", 1, caught.getMessages().size());
+	}
+
+	@Test public void build_sleepMillisNegative_fails() throws
+		LoaderFault
+	{
+		// Execute
+		PluginBuildException caught = loadExpectingFailure(
+			REQUIRED + "<chunkSize>5000</chunkSize><sleepMillis>-1</sleepMillis>");
+
+		// Verify
+		assertEquals("caught.messages.size", 1, caught.getMessages().size());
+	}
+
+	private static PluginBuildException loadExpectingFailure(
+		String innerXml) throws
+			LoaderFault
+	{
+		PluginBuildException result = null;
+		try
+		{
+			load(innerXml);
+		}
+		catch (PluginBuildException e)
+		{
+			result = e;
+		}
+
+		assertNotNull("PluginBuildException expected", result);
+
+		return result;
+	}
+
+	private static ChunkedBackfillMigration load(
+		String innerXml) throws
+			LoaderFault,
+			PluginBuildException
+	{
+		String xml = FixtureCreator.create()
+			.resource(Wildebeest.PostgreSqlDatabase.getUri(), UUID.randomUUID(), "Foo")
+				.migration("ChunkedBackfill", UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID())
+					.innerXml(innerXml)
+			.render();
+
+		return (ChunkedBackfillMigration)DomPlugins.resourceLoader(
+			ResourceTypeServiceBuilder
+				.create()
+				.withFactoryResourceTypes()
+				.build(),
+			xml)
+			.load(new File("."))
+			.getMigrations()
+			.get(0);
+	}
+}
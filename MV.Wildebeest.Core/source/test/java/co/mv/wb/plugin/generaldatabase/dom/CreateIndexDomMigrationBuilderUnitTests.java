@@ -0,0 +1,138 @@
+// Wildebeest Migration Framework
+// Copyright © 2013 - 2018, Matheson Ventures Pte Ltd
+//
+// This file is part of Wildebeest
+//
+// Wildebeest is free software: you can redistribute it and/or modify it under
+// the terms of the GNU General Public License v2 as published by the Free
+// Software Foundation.
+//
+// Wildebeest is distributed in the hope that it will be useful, but WITHOUT ANY
+// WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+// A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along with
+// Wildebeest.  If not, see http://www.gnu.org/licenses/gpl-2.0.html
+
+package co.mv.wb.plugin.generaldatabase.dom;
+
+import co.mv.wb.LoaderFault;
+import co.mv.wb.PluginBuildException;
+import co.mv.wb.Wildebeest;
+import co.mv.wb.fixture.FixtureCreator;
+import co.mv.wb.impl.ResourceTypeServiceBuilder;
+import co.mv.wb.plugin.base.dom.DomPlugins;
+import co.mv.wb.plugin.generaldatabase.CreateIndexMigration;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link CreateIndexDomMigrationBuilder}.
+ *
+ * @since                                       4.0
+ */
+public class CreateIndexDomMigrationBuilderUnitTests
+{
+	@Test public void build_validDocument_succeeds() throws
+		LoaderFault,
+		PluginBuildException
+	{
+		// Execute
+		CreateIndexMigration migration = load(
+			"<indexName>IX_Order_CustomerId</indexName>" +
+			"<tableName>Orders</tableName>" +
+			"<columns>CustomerId, CreatedAt</columns>" +
+			"<unique> true </unique>");
+
+		// Verify
+		assertEquals("migration.indexName", "IX_Order_CustomerId", migration.getIndexName());
+		assertEquals("migration.tableName", "Orders", migration.getTableName());
+		assertEquals("migration.columns", "CustomerId, CreatedAt", migration.getColumns());
+		assertTrue("migration.unique", migration.isUnique());
+	}
+
+	@Test public void build_uniqueOmitted_notUnique() throws
+		LoaderFault,
+		PluginBuildException
+	{
+		// Execute
+		CreateIndexMigration migration = load(
+			"<indexName>IX_Order_CustomerId</indexName>" +
+			"<tableName>Orders</tableName>" +
+			"<columns>CustomerId</columns>");
+
+		// Verify
+		assertFalse("migration.unique", migration.isUnique());
+	}
+
+	@Test public void build_elementsMissing_fails() throws
+		LoaderFault
+	{
+		// Execute
+		PluginBuildException caught = null;
+		try
+		{
+			load("");
+		}
+		catch (PluginBuildException e)
+		{
+			caught = e;
+		}
+
+		// Verify
+		assertNotNull("PluginBuildException expected", caught);
+		assertEquals("caught.messages.size", 3, caught.getMessages().size());
+	}
+
+	@Test public void build_uniqueInvalid_fails() throws
+		LoaderFault
+	{
+		// Execute
+		PluginBuildException caught = null;
+		try
+		{
+			load(
+				"<indexName>IX_Order_CustomerId</indexName>" +
+				"<tableName>Orders</tableName>" +
+				"<columns>CustomerId</columns>" +
+				"<unique>yes</unique>");
+		}
+		catch (PluginBuildException e)
+		{
+			caught = e;
+		}
+
+		// Verify
+		assertNotNull("PluginBuildException expected", caught);
+		assertEquals("caught.messages.size", 1, caught.getMessages().size());
+	}
+
+	private static CreateIndexMigration load(
+		String innerXml) throws
+			LoaderFault,
+			PluginBuildException
+	{
+		String xml = FixtureCreator.create()
+			.resource(Wildebeest.PostgreSqlDatabase.getUri(), UUID.randomUUID(), "Foo")
+				.migration("CreateIndex", UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID())
+					.innerXml(innerXml)
+			.render();
+
+		return (CreateIndexMigration)DomPlugins.resourceLoader(
+			ResourceTypeServiceBuilder
+				.create()
+				.withFactoryResourceTypes()
+				.build(),
+			xml)
+			.load(new File("."))
+			.getMigrations()
+			.get(0);
+	}
+}
@@ -0,0 +1,95 @@
+// Wildebeest Migration Framework
+// Copyright © 2013 - 2018, Matheson Ventures Pte Ltd
+//
+// This file is part of Wildebeest
+//
+// Wildebeest is free software: you can redistribute it and/or modify it under
+// the terms of the GNU General Public License v2 as published by the Free
+// Software Foundation.
+//
+// Wildebeest is distributed in the hope that it will be useful, but WITHOUT ANY
+// WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+// A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along with
+// Wildebeest.  If not, see http://www.gnu.org/licenses/gpl-2.0.html
+
+package co.mv.wb.plugin.generaldatabase.dom;
+
+import co.mv.wb.LoaderFault;
+import co.mv.wb.PluginBuildException;
+import co.mv.wb.Wildebeest;
+import co.mv.wb.fixture.FixtureCreator;
+import co.mv.wb.impl.ResourceTypeServiceBuilder;
+import co.mv.wb.plugin.base.dom.DomPlugins;
+import co.mv.wb.plugin.generaldatabase.DropIndexMigration;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+/**
+ * Unit tests for {@link DropIndexDomMigrationBuilder}.
+ *
+ * @since                                       4.0
+ */
+public class DropIndexDomMigrationBuilderUnitTests
+{
+	@Test public void build_validDocument_succeeds() throws
+		LoaderFault,
+		PluginBuildException
+	{
+		// Execute
+		DropIndexMigration migration = load(
+			"<indexName>IX_Order_CustomerId</indexName>" +
+			"<tableName>Orders</tableName>");
+
+		// Verify
+		assertEquals("migration.indexName", "IX_Order_CustomerId", migration.getIndexName());
+		assertEquals("migration.tableName", "Orders", migration.getTableName());
+	}
+
+	@Test public void build_elementsMissing_fails() throws
+		LoaderFault
+	{
+		// Execute
+		PluginBuildException caught = null;
+		try
+		{
+			load("");
+		}
+		catch (PluginBuildException e)
+		{
+			caught = e;
+		}
+
+		// Verify
+		assertNotNull("PluginBuildException expected", caught);
+		assertEquals("caught.messages.size", 2, caught.getMessages().size());
+	}
+
+	private static DropIndexMigration load(
+		String innerXml) throws
+			LoaderFault,
+			PluginBuildException
+	{
+		String xml = FixtureCreator.create()
+			.resource(Wildebeest.PostgreSqlDatabase.getUri(), UUID.randomUUID(), "Foo")
+				.migration("DropIndex", UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID())
+					.innerXml(innerXml)
+			.render();
+
+		return (DropIndexMigration)DomPlugins.resourceLoader(
+			ResourceTypeServiceBuilder
+				.create()
+				.withFactoryResourceTypes()
+				.build(),
+			xml)
+			.load(new File("."))
+			.getMigrations()
+			.get(0);
+	}
+}
@@ -0,0 +1,252 @@
+// Wildebeest Migration Framework
+// Copyright © 2013 - 2018, Matheson Ventures Pte Ltd
+//
+// This file is part of Wildebeest
+//
+// Wildebeest is free software: you can redistribute it and/or modify it under
+// the terms of the GNU General Public License v2 as published by the Free
+// Software Foundation.
+//
+// Wildebeest is distributed in the hope that it will be useful, but WITHOUT ANY
+// WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+// A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along with
+// Wildebeest.  If not, see http://www.gnu.org/licenses/gpl-2.0.html
+
+package co.mv.wb.plugin.generaldatabase.dom;
+
+import co.mv.wb.LoaderFault;
+import co.mv.wb.PluginBuildException;
+import co.mv.wb.Wildebeest;
+import co.mv.wb.fixture.FixtureCreator;
+import co.mv.wb.impl.ResourceTypeServiceBuilder;
+import co.mv.wb.plugin.base.dom.DomPlugins;
+import co.mv.wb.plugin.generaldatabase.SqlScriptMigration;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link SqlScriptDomMigrationBuilder}.
+ *
+ * @since                                       4.0
+ */
+public class SqlScriptDomMigrationBuilderUnitTests
+{
+	@Test public void build_sql_succeeds() throws
+		IOException,
+		LoaderFault,
+		PluginBuildException
+	{
+		// Execute
+		SqlScriptMigration migration = load(
+			new File("."),
+			"<sql>SELECT 1;</sql>");
+
+		// Verify
+		assertFalse("migration.file.isPresent", migration.getFile().isPresent());
+		assertEquals("migration.script", "SELECT 1;", read(migration));
+	}
+
+	@Test public void build_relativeFile_resolvedAgainstBaseDir() throws
+		IOException,
+		LoaderFault,
+		PluginBuildException
+	{
+		// Setup
+		File baseDir = Files.createTempDirectory("SqlScriptDomMigrationBuilderUnitTests").toFile();
+		baseDir.deleteOnExit();
+		File file = script(baseDir, "schema.sql", "CREATE TABLE Orders (OrderId INT);");
+
+		// Execute
+		SqlScriptMigration migration = load(
+			baseDir,
+			"<file>schema.sql</file>");
+
+		// Verify
+		assertEquals("migration.file", file, migration.getFile().get());
+		assertEquals("migration.script", "CREATE TABLE Orders (OrderId INT);", read(migration));
+	}
+
+	@Test public void build_absoluteFile_usedAsIs() throws
+		IOException,
+		LoaderFault,
+		PluginBuildException
+	{
+		// Setup
+		File scriptDir = Files.createTempDirectory("SqlScriptDomMigrationBuilderUnitTests").toFile();
+		scriptDir.deleteOnExit();
+		File file = script(scriptDir, "schema.sql", "SELECT 1;");
+
+		// Execute
+		SqlScriptMigration migration = load(
+			new File("."),
+			"<file>" + file.getAbsolutePath() + "</file>");
+
+		// Verify
+		assertEquals("migration.file", file.getAbsoluteFile(), migration.getFile().get());
+	}
+
+	@Test public void build_gzipFile_scriptDecompressed() throws
+		IOException,
+		LoaderFault,
+		PluginBuildException
+	{
+		// Setup
+		File baseDir = Files.createTempDirectory("SqlScriptDomMigrationBuilderUnitTests").toFile();
+		baseDir.deleteOnExit();
+		File file = new File(baseDir, "data.sql.gz");
+		file.deleteOnExit();
+		try (OutputStream output = new GZIPOutputStream(Files.newOutputStream(file.toPath())))
+		{
+			output.write("INSERT INTO Orders VALUES (1);".getBytes(StandardCharsets.UTF_8));
+		}
+
+		// Execute
+		SqlScriptMigration migration = load(
+			baseDir,
+			"<file>data.sql.gz</file>");
+
+		// Verify
+		assertEquals("migration.script", "INSERT INTO Orders VALUES (1);", read(migration));
+	}
+
+	@Test public void build_sqlAndFile_fails() throws
+		IOException,
+		LoaderFault
+	{
+		// Setup
+		File baseDir = Files.createTempDirectory("SqlScriptDomMigrationBuilderUnitTests").toFile();
+		baseDir.deleteOnExit();
+		script(baseDir, "schema.sql", "SELECT 1;");
+
+		// Execute
+		PluginBuildException caught = build_fails(
+			baseDir,
+			"<sql>SELECT 1;</sql><file>schema.sql</file>");
+
+		// Verify
+		assertEquals("caught.messages.size", 1, caught.getMessages().size());
+		assertTrue(
+			"caught.messages[0]",
+			caught.getMessages().getMessages().get(0).startsWith("Only one of elements sql and file"));
+	}
+
+	@Test public void build_neitherSqlNorFile_fails() throws
+		LoaderFault
+	{
+		// Execute
+		PluginBuildException caught = build_fails(
+			new File("."),
+			"");
+
+		// Verify
+		assertEquals("caught.messages.size", 1, caught.getMessages().size());
+	}
+
+	@Test public void build_fileDoesNotExist_fails() throws
+		IOException,
+		LoaderFault
+	{
+		// Setup
+		File baseDir = Files.createTempDirectory("SqlScriptDomMigrationBuilderUnitTests").toFile();
+		baseDir.deleteOnExit();
+
+		// Execute
+		PluginBuildException caught = build_fails(
+			baseDir,
+			"<file>missing.sql</file>");
+
+		// Verify
+		assertEquals("caught.messages.size", 1, caught.getMessages().size());
+		assertTrue(
+			"caught.messages[0]",
+			caught.getMessages().getMessages().get(0).startsWith(String.format(
+				"The script file %s ",
+				new File(baseDir, "missing.sql").getAbsolutePath())));
+	}
+
+	private static PluginBuildException build_fails(
+		File baseDir,
+		String innerXml) throws
+			LoaderFault
+	{
+		PluginBuildException result = null;
+		try
+		{
+			load(baseDir, innerXml);
+		}
+		catch (PluginBuildException e)
+		{
+			result = e;
+		}
+
+		assertNotNull("PluginBuildException expected", result);
+
+		return result;
+	}
+
+	private static SqlScriptMigration load(
+		File baseDir,
+		String innerXml) throws
+			LoaderFault,
+			PluginBuildException
+	{
+		String xml = FixtureCreator.create()
+			.resource(Wildebeest.PostgreSqlDatabase.getUri(), UUID.randomUUID(), "Foo")
+				.migration("SqlScript", UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID())
+					.innerXml(innerXml)
+			.render();
+
+		return (SqlScriptMigration)DomPlugins.resourceLoader(
+			ResourceTypeServiceBuilder
+				.create()
+				.withFactoryResourceTypes()
+				.build(),
+			xml)
+			.load(baseDir)
+			.getMigrations()
+			.get(0);
+	}
+
+	private static File script(
+		File dir,
+		String name,
+		String content) throws IOException
+	{
+		File result = new File(dir, name);
+		result.deleteOnExit();
+		Files.write(result.toPath(), content.getBytes(StandardCharsets.UTF_8));
+
+		return result;
+	}
+
+	private static String read(
+		SqlScriptMigration migration) throws IOException
+	{
+		StringBuilder result = new StringBuilder();
+		try (Reader script = migration.openScript())
+		{
+			char[] buffer = new char[1024];
+			for (int n = script.read(buffer); n != -1; n = script.read(buffer))
+			{
+				result.append(buffer, 0, n);
+			}
+		}
+
+		return result.toString();
+	}
+}
@@ -0,0 +1,147 @@
+// Wildebeest Migration Framework
+// Copyright © 2013 - 2018, Matheson Ventures Pte Ltd
+//
+// This file is part of Wildebeest
+//
+// Wildebeest is free software: you can redistribute it and/or modify it under
+// the terms of the GNU General Public License v2 as published by the Free
+// Software Foundation.
+//
+// Wildebeest is distributed in the hope that it will be useful, but WITHOUT ANY
+// WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+// A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along with
+// Wildebeest.  If not, see http://www.gnu.org/licenses/gpl-2.0.html
+
+package co.mv.wb.plugin.h2;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link H2DatabaseInstance}.
+ *
+ * @since                                       4.0
+ */
+public class H2DatabaseInstanceUnitTests
+{
+	@Test public void getJdbcUrl_memory_keepsDatabaseOpen()
+	{
+		// Setup
+		H2DatabaseInstance instance = new H2DatabaseInstance(
+			H2StorageMode.Memory,
+			null,
+			null,
+			"WildebeestTest",
+			null,
+			null);
+
+		// Execute
+		String url = instance.getJdbcUrl();
+
+		// Verify
+		assertEquals(
+			"url",
+			"jdbc:h2:mem:WildebeestTest;DB_CLOSE_DELAY=-1;DATABASE_TO_LOWER=TRUE",
+			url);
+	}
+
+	@Test public void getJdbcUrl_fileWithCompatibilityMode_includesPathAndMode()
+	{
+		// Setup
+		H2DatabaseInstance instance = new H2DatabaseInstance(
+			H2StorageMode.File,
+			"build",
+			"PostgreSQL",
+			"WildebeestTest",
+			null,
+			null);
+
+		// Execute
+		String url = instance.getJdbcUrl();
+
+		// Verify
+		assertEquals(
+			"url",
+			"jdbc:h2:file:" + new File("build", "WildebeestTest").getPath() +
+				";DB_CLOSE_DELAY=-1;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE",
+			url);
+	}
+
+	@Test public void close_fileDatabase_contentsKept() throws
+		IOException,
+		SQLException
+	{
+		// Setup
+		H2DatabaseInstance instance = H2DatabaseInstanceUnitTests.fileInstance();
+		try (Connection conn = instance.getAppDataSource().getConnection();
+			Statement stmt = conn.createStatement())
+		{
+			stmt.execute("CREATE TABLE orders (order_id INT)");
+		}
+
+		// Execute
+		instance.close();
+
+		// Verify
+		assertTrue("databaseExists", instance.databaseExists());
+		try (Connection conn = instance.getAppDataSource().getConnection();
+			Statement stmt = conn.createStatement();
+			ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM orders"))
+		{
+			assertTrue("rs.next", rs.next());
+			assertEquals("count", 0, rs.getInt(1));
+		}
+		instance.close();
+	}
+
+	@Test public void close_fileDatabaseDoesNotExist_succeeds() throws IOException
+	{
+		// Setup
+		H2DatabaseInstance instance = H2DatabaseInstanceUnitTests.fileInstance();
+
+		// Execute
+		instance.close();
+
+		// Verify
+		assertFalse("databaseExists", instance.databaseExists());
+	}
+
+	@Test(expected = IllegalArgumentException.class) public void ctor_fileWithoutPath_throws()
+	{
+		// Execute
+		new H2DatabaseInstance(
+			H2StorageMode.File,
+			null,
+			null,
+			"WildebeestTest",
+			null,
+			null);
+	}
+
+	private static H2DatabaseInstance fileInstance() throws IOException
+	{
+		File path = Files.createTempDirectory("H2DatabaseInstanceUnitTests").toFile();
+		path.deleteOnExit();
+
+		return new H2DatabaseInstance(
+			H2StorageMode.File,
+			path.getPath(),
+			null,
+			"WildebeestTest",
+			null,
+			null);
+	}
+}
@@ -0,0 +1,261 @@
+// Wildebeest Migration Framework
+// Copyright © 2013 - 2018, Matheson Ventures Pte Ltd
+//
+// This file is part of Wildebeest
+//
+// Wildebeest is free software: you can redistribute it and/or modify it under
+// the terms of the GNU General Public License v2 as published by the Free
+// Software Foundation.
+//
+// Wildebeest is distributed in the hope that it will be useful, but WITHOUT ANY
+// WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+// A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along with
+// Wildebeest.  If not, see http://www.gnu.org/licenses/gpl-2.0.html
+
+package co.mv.wb.plugin.h2;
+
+import co.mv.wb.Assertion;
+import co.mv.wb.AssertionResponse;
+import co.mv.wb.ExpectException;
+import co.mv.wb.IndeterminateStateException;
+import co.mv.wb.Migration;
+import co.mv.wb.Resource;
+import co.mv.wb.State;
+import co.mv.wb.Wildebeest;
+import co.mv.wb.plugin.base.ImmutableState;
+import co.mv.wb.plugin.base.ResourceImpl;
+import co.mv.wb.plugin.generaldatabase.AnsiSqlTableExistsAssertion;
+import co.mv.wb.plugin.generaldatabase.RowExistsAssertion;
+import co.mv.wb.plugin.generaldatabase.SqlScriptMigration;
+import co.mv.wb.plugin.generaldatabase.SqlScriptMigrationPlugin;
+import org.junit.Test;
+
+import java.io.PrintStream;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link H2DatabaseResourcePlugin}, against in-memory H2 databases.
+ *
+ * @since                                       4.0
+ */
+public class H2DatabaseResourcePluginUnitTests
+{
+	@Test public void currentState_databaseDoesNotExist_returnsNull() throws IndeterminateStateException
+	{
+		// Setup
+		Resource resource = H2DatabaseResourcePluginUnitTests.resource();
+		H2DatabaseInstance instance = H2DatabaseResourcePluginUnitTests.memoryInstance();
+
+		// Execute
+		State state = new H2DatabaseResourcePlugin().currentState(
+			resource,
+			instance);
+
+		// Verify
+		assertNull("state", state);
+	}
+
+	@Test public void currentState_emptyDatabase_returnsNull() throws
+		IndeterminateStateException,
+		SQLException
+	{
+		// Setup
+		Resource resource = H2DatabaseResourcePluginUnitTests.resource();
+		H2DatabaseInstance instance = H2DatabaseResourcePluginUnitTests.memoryInstance();
+		H2DatabaseResourcePluginUnitTests.createDatabase(instance);
+
+		// Execute
+		State state = new H2DatabaseResourcePlugin().currentState(
+			resource,
+			instance);
+
+		// Verify
+		assertNull("state", state);
+	}
+
+	@Test public void setStateId_stateAlreadyTracked_stateReplaced() throws IndeterminateStateException
+	{
+		// Setup
+		PrintStream output = System.out;
+		Resource resource = H2DatabaseResourcePluginUnitTests.resource();
+		State first = H2DatabaseResourcePluginUnitTests.addState(resource, "first");
+		State second = H2DatabaseResourcePluginUnitTests.addState(resource, "second");
+		H2DatabaseInstance instance = H2DatabaseResourcePluginUnitTests.memoryInstance();
+		H2DatabaseResourcePlugin resourcePlugin = new H2DatabaseResourcePlugin();
+		resourcePlugin.setStateId(output, resource, instance, first.getStateId());
+
+		// Execute
+		resourcePlugin.setStateId(output, resource, instance, second.getStateId());
+
+		// Verify
+		State state = resourcePlugin.currentState(
+			resource,
+			instance);
+		assertEquals("state.stateId", second.getStateId(), state.getStateId());
+	}
+
+	@Test public void setStateId_expectedStateTracked_stateSet() throws IndeterminateStateException
+	{
+		// Setup
+		PrintStream output = System.out;
+		Resource resource = H2DatabaseResourcePluginUnitTests.resource();
+		State first = H2DatabaseResourcePluginUnitTests.addState(resource, "first");
+		State second = H2DatabaseResourcePluginUnitTests.addState(resource, "second");
+		H2DatabaseInstance instance = H2DatabaseResourcePluginUnitTests.memoryInstance();
+		H2DatabaseResourcePlugin resourcePlugin = new H2DatabaseResourcePlugin();
+		resourcePlugin.setStateId(output, resource, instance, Optional.empty(), first.getStateId());
+
+		// Execute
+		resourcePlugin.setStateId(output, resource, instance, Optional.of(first.getStateId()), second.getStateId());
+
+		// Verify
+		State state = resourcePlugin.currentState(
+			resource,
+			instance);
+		assertEquals("state.stateId", second.getStateId(), state.getStateId());
+	}
+
+	@Test public void setStateId_staleExpectedState_throws() throws IndeterminateStateException
+	{
+		// Setup
+		PrintStream output = System.out;
+		Resource resource = H2DatabaseResourcePluginUnitTests.resource();
+		State first = H2DatabaseResourcePluginUnitTests.addState(resource, "first");
+		State second = H2DatabaseResourcePluginUnitTests.addState(resource, "second");
+		State third = H2DatabaseResourcePluginUnitTests.addState(resource, "third");
+		H2DatabaseInstance instance = H2DatabaseResourcePluginUnitTests.memoryInstance();
+		H2DatabaseResourcePlugin resourcePlugin = new H2DatabaseResourcePlugin();
+		resourcePlugin.setStateId(output, resource, instance, second.getStateId());
+
+		// Execute and Verify
+		new ExpectException(IndeterminateStateException.class)
+		{
+			@Override public void invoke() throws Exception
+			{
+				resourcePlugin.setStateId(
+					output,
+					resource,
+					instance,
+					Optional.of(first.getStateId()),
+					third.getStateId());
+			}
+
+			@Override public void verify(Exception e)
+			{
+				assertEquals(
+					"e.message",
+					String.format(
+						"The resource was expected to be in state %s, but its state has been changed by another " +
+							"process",
+						first.getStateId()),
+					e.getMessage());
+			}
+		}.perform();
+
+		State state = resourcePlugin.currentState(
+			resource,
+			instance);
+		assertEquals("state.stateId", second.getStateId(), state.getStateId());
+	}
+
+	@Test public void sqlScriptMigration_thenAssertState_assertionsPass() throws Exception
+	{
+		// Setup
+		PrintStream output = System.out;
+		Resource resource = H2DatabaseResourcePluginUnitTests.resource();
+		State created = new ImmutableState(
+			UUID.randomUUID(),
+			Optional.of("created"),
+			Arrays.asList(
+				new AnsiSqlTableExistsAssertion(UUID.randomUUID(), 0, "public", "orders"),
+				new RowExistsAssertion(
+					UUID.randomUUID(),
+					"Order 1 exists",
+					1,
+					"SELECT * FROM orders WHERE order_id = 1;")));
+		resource.getStates().add(created);
+		Migration migration = new SqlScriptMigration(
+			UUID.randomUUID(),
+			Optional.empty(),
+			Optional.of(created.getStateId()),
+			"CREATE TABLE orders (order_id INT NOT NULL, PRIMARY KEY (order_id));\n" +
+				"INSERT INTO orders (order_id) VALUES (1);\n");
+		resource.getMigrations().add(migration);
+		H2DatabaseInstance instance = H2DatabaseResourcePluginUnitTests.memoryInstance();
+		H2DatabaseResourcePluginUnitTests.createDatabase(instance);
+		H2DatabaseResourcePlugin resourcePlugin = new H2DatabaseResourcePlugin();
+
+		// Execute
+		new SqlScriptMigrationPlugin().perform(
+			output,
+			migration,
+			instance);
+		resourcePlugin.setStateId(output, resource, instance, Optional.empty(), created.getStateId());
+
+		// Verify
+		State state = resourcePlugin.currentState(
+			resource,
+			instance);
+		assertEquals("state.stateId", created.getStateId(), state.getStateId());
+		for (Assertion assertion : state.getAssertions())
+		{
+			AssertionResponse response = assertion.perform(instance);
+			assertTrue(response.getMessage(), response.getResult());
+		}
+	}
+
+	private static Resource resource()
+	{
+		return new ResourceImpl(
+			UUID.randomUUID(),
+			Wildebeest.H2Database,
+			"Database",
+			Optional.empty());
+	}
+
+	private static State addState(
+		Resource resource,
+		String label)
+	{
+		State result = new ImmutableState(
+			UUID.randomUUID(),
+			Optional.of(label));
+		resource.getStates().add(result);
+
+		return result;
+	}
+
+	/**
+	 * Creates an instance for an in-memory database that is unique to the calling test.  The database does not exist
+	 * until a connection is opened through the app DataSource.
+	 */
+	private static H2DatabaseInstance memoryInstance()
+	{
+		return new H2DatabaseInstance(
+			H2StorageMode.Memory,
+			null,
+			null,
+			"H2DatabaseResourcePluginUnitTests_" + UUID.randomUUID().toString().replace("-", ""),
+			null,
+			null);
+	}
+
+	private static void createDatabase(
+		H2DatabaseInstance instance) throws SQLException
+	{
+		try (Connection conn = instance.getAppDataSource().getConnection())
+		{
+			assertTrue("conn.isValid", conn.isValid(0));
+		}
+	}
+}
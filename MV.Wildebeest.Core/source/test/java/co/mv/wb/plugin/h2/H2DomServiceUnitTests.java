@@ -0,0 +1,97 @@
+// Wildebeest Migration Framework
+// Copyright © 2013 - 2018, Matheson Ventures Pte Ltd
+//
+// This file is part of Wildebeest
+//
+// Wildebeest is free software: you can redistribute it and/or modify it under
+// the terms of the GNU General Public License v2 as published by the Free
+// Software Foundation.
+//
+// Wildebeest is distributed in the hope that it will be useful, but WITHOUT ANY
+// WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+// A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along with
+// Wildebeest.  If not, see http://www.gnu.org/licenses/gpl-2.0.html
+
+package co.mv.wb.plugin.h2;
+
+import co.mv.wb.Instance;
+import co.mv.wb.LoaderFault;
+import co.mv.wb.ModelExtensions;
+import co.mv.wb.PluginBuildException;
+import co.mv.wb.Wildebeest;
+import co.mv.wb.plugin.base.dom.DomInstanceLoader;
+import co.mv.wb.plugin.base.dom.DomPlugins;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Optional;
+
+/**
+ * Unit tests for the DOM persistence services for H2 plugins.
+ * 
+ * @since                                       4.0
+ */
+public class H2DomServiceUnitTests
+{
+	@Test public void h2DatabaseInstanceLoadFromValidDocumentSucceeds() throws
+		LoaderFault,
+		PluginBuildException
+	{
+		// Setup
+		StringBuilder xml = new StringBuilder();
+		xml.append("<instance type=\"").append(Wildebeest.H2Database.getUri()).append("\">\n")
+			.append("<storageMode>File</storageMode>\n")
+			.append("<path>build</path>\n")
+			.append("<compatibilityMode>PostgreSQL</compatibilityMode>\n")
+			.append("<databaseName>WildebeestTest</databaseName>\n")
+			.append("<stateTableName>wb_state</stateTableName>\n")
+			.append("</instance>");
+
+		DomInstanceLoader loader = DomPlugins.instanceLoader(xml.toString());
+		
+		// Execute
+		Instance instance = loader.load();
+		
+		// Verify
+		Assert.assertNotNull("instance", instance);
+		H2DatabaseInstance instanceT = ModelExtensions.As(instance, H2DatabaseInstance.class);
+		Assert.assertNotNull("instance must be of type H2DatabaseInstance", instanceT);
+		Assert.assertEquals("instance.storageMode", H2StorageMode.File, instanceT.getStorageMode());
+		Assert.assertEquals("instance.path", Optional.of("build"), instanceT.getPath());
+		Assert.assertEquals("instance.compatibilityMode", Optional.of("PostgreSQL"), instanceT.getCompatibilityMode());
+		Assert.assertEquals("instance.databaseName", "WildebeestTest", instanceT.getDatabaseName());
+		Assert.assertEquals("instance.stateTableName", "wb_state", instanceT.getStateTableName());
+		Assert.assertFalse("instance.hasMetaSchemaName", instanceT.hasMetaSchemaName());
+	}
+
+	@Test public void h2DatabaseInstanceLoadInMemoryWithPathFails() throws
+		LoaderFault
+	{
+		// Setup
+		StringBuilder xml = new StringBuilder();
+		xml.append("<instance type=\"").append(Wildebeest.H2Database.getUri()).append("\">\n")
+			.append("<storageMode>Memory</storageMode>\n")
+			.append("<path>build</path>\n")
+			.append("<databaseName>WildebeestTest</databaseName>\n")
+			.append("</instance>");
+
+		DomInstanceLoader loader = DomPlugins.instanceLoader(xml.toString());
+
+		// Execute
+		PluginBuildException caught = null;
+		try
+		{
+			loader.load();
+		}
+		catch (PluginBuildException e)
+		{
+			caught = e;
+		}
+
+		// Verify
+		Assert.assertNotNull("PluginBuildException expected", caught);
+		Assert.assertEquals("caught.messages.size", 1, caught.getMessages().size());
+	}
+}
@@ -0,0 +1,235 @@
+// Wildebeest Migration Framework
+// Copyright © 2013 - 2018, Matheson Ventures Pte Ltd
+//
+// This file is part of Wildebeest
+//
+// Wildebeest is free software: you can redistribute it and/or modify it under
+// the terms of the GNU General Public License v2 as published by the Free
+// Software Foundation.
+//
+// Wildebeest is distributed in the hope that it will be useful, but WITHOUT ANY
+// WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+// A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along with
+// Wildebeest.  If not, see http://www.gnu.org/licenses/gpl-2.0.html
+
+package co.mv.wb.plugin.h2;
+
+import org.junit.Test;
+
+import javax.sql.DataSource;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link H2StateHelper}, against in-memory H2 databases.
+ *
+ * @since                                       4.0
+ */
+public class H2StateHelperUnitTests
+{
+	private static final String META_SCHEMA_NAME = "wb";
+	private static final String STATE_TABLE_NAME = "wb_state";
+
+	@Test public void ensureStateTable_emptyDatabase_tableCreated()
+	{
+		// Setup
+		DataSource appDataSource = H2StateHelperUnitTests.memoryDataSource();
+
+		// Execute
+		H2StateHelper.ensureStateTable(appDataSource, META_SCHEMA_NAME, STATE_TABLE_NAME);
+
+		// Verify
+		assertTrue(
+			"stateTableExists",
+			H2StateHelper.stateTableExists(appDataSource, META_SCHEMA_NAME, STATE_TABLE_NAME));
+	}
+
+	@Test public void setStateId_noTrackedState_stateSet() throws Exception
+	{
+		// Setup
+		DataSource appDataSource = H2StateHelperUnitTests.stateTableDataSource();
+		UUID resourceId = UUID.randomUUID();
+		UUID stateId = UUID.randomUUID();
+
+		// Execute
+		H2StateHelper.setStateId(resourceId, appDataSource, META_SCHEMA_NAME, STATE_TABLE_NAME, stateId);
+
+		// Verify
+		assertEquals(
+			"stateId",
+			stateId,
+			H2StateHelper.getStateId(resourceId, appDataSource, META_SCHEMA_NAME, STATE_TABLE_NAME));
+	}
+
+	@Test public void setStateId_stateAlreadyTracked_stateReplaced() throws Exception
+	{
+		// Setup
+		DataSource appDataSource = H2StateHelperUnitTests.stateTableDataSource();
+		UUID resourceId = UUID.randomUUID();
+		UUID otherResourceId = UUID.randomUUID();
+		UUID otherStateId = UUID.randomUUID();
+		UUID stateId = UUID.randomUUID();
+		H2StateHelper.setStateId(resourceId, appDataSource, META_SCHEMA_NAME, STATE_TABLE_NAME, UUID.randomUUID());
+		H2StateHelper.setStateId(otherResourceId, appDataSource, META_SCHEMA_NAME, STATE_TABLE_NAME, otherStateId);
+
+		// Execute
+		H2StateHelper.setStateId(resourceId, appDataSource, META_SCHEMA_NAME, STATE_TABLE_NAME, stateId);
+
+		// Verify
+		assertEquals(
+			"stateId",
+			stateId,
+			H2StateHelper.getStateId(resourceId, appDataSource, META_SCHEMA_NAME, STATE_TABLE_NAME));
+		assertEquals(
+			"other stateId",
+			otherStateId,
+			H2StateHelper.getStateId(otherResourceId, appDataSource, META_SCHEMA_NAME, STATE_TABLE_NAME));
+	}
+
+	@Test public void hasStateId_noTrackedState_false() throws Exception
+	{
+		// Setup
+		DataSource appDataSource = H2StateHelperUnitTests.stateTableDataSource();
+
+		// Execute
+		boolean result = H2StateHelper.hasStateId(
+			UUID.randomUUID(),
+			appDataSource,
+			META_SCHEMA_NAME,
+			STATE_TABLE_NAME);
+
+		// Verify
+		assertFalse("hasStateId", result);
+	}
+
+	@Test public void compareAndSetStateId_noTrackedStateExpected_stateSet() throws Exception
+	{
+		// Setup
+		DataSource appDataSource = H2StateHelperUnitTests.stateTableDataSource();
+		UUID resourceId = UUID.randomUUID();
+		UUID stateId = UUID.randomUUID();
+
+		// Execute
+		boolean result = H2StateHelper.compareAndSetStateId(
+			resourceId,
+			appDataSource,
+			META_SCHEMA_NAME,
+			STATE_TABLE_NAME,
+			Optional.empty(),
+			stateId);
+
+		// Verify
+		assertTrue("compareAndSetStateId", result);
+		assertEquals(
+			"stateId",
+			stateId,
+			H2StateHelper.getStateId(resourceId, appDataSource, META_SCHEMA_NAME, STATE_TABLE_NAME));
+	}
+
+	@Test public void compareAndSetStateId_noTrackedStateExpectedButStateTracked_stateKept() throws Exception
+	{
+		// Setup
+		DataSource appDataSource = H2StateHelperUnitTests.stateTableDataSource();
+		UUID resourceId = UUID.randomUUID();
+		UUID trackedStateId = UUID.randomUUID();
+		H2StateHelper.setStateId(resourceId, appDataSource, META_SCHEMA_NAME, STATE_TABLE_NAME, trackedStateId);
+
+		// Execute
+		boolean result = H2StateHelper.compareAndSetStateId(
+			resourceId,
+			appDataSource,
+			META_SCHEMA_NAME,
+			STATE_TABLE_NAME,
+			Optional.empty(),
+			UUID.randomUUID());
+
+		// Verify
+		assertFalse("compareAndSetStateId", result);
+		assertEquals(
+			"stateId",
+			trackedStateId,
+			H2StateHelper.getStateId(resourceId, appDataSource, META_SCHEMA_NAME, STATE_TABLE_NAME));
+	}
+
+	@Test public void compareAndSetStateId_expectedStateTracked_stateSet() throws Exception
+	{
+		// Setup
+		DataSource appDataSource = H2StateHelperUnitTests.stateTableDataSource();
+		UUID resourceId = UUID.randomUUID();
+		UUID expectedStateId = UUID.randomUUID();
+		UUID stateId = UUID.randomUUID();
+		H2StateHelper.setStateId(resourceId, appDataSource, META_SCHEMA_NAME, STATE_TABLE_NAME, expectedStateId);
+
+		// Execute
+		boolean result = H2StateHelper.compareAndSetStateId(
+			resourceId,
+			appDataSource,
+			META_SCHEMA_NAME,
+			STATE_TABLE_NAME,
+			Optional.of(expectedStateId),
+			stateId);
+
+		// Verify
+		assertTrue("compareAndSetStateId", result);
+		assertEquals(
+			"stateId",
+			stateId,
+			H2StateHelper.getStateId(resourceId, appDataSource, META_SCHEMA_NAME, STATE_TABLE_NAME));
+	}
+
+	@Test public void compareAndSetStateId_staleExpectedState_stateKept() throws Exception
+	{
+		// Setup
+		DataSource appDataSource = H2StateHelperUnitTests.stateTableDataSource();
+		UUID resourceId = UUID.randomUUID();
+		UUID trackedStateId = UUID.randomUUID();
+		H2StateHelper.setStateId(resourceId, appDataSource, META_SCHEMA_NAME, STATE_TABLE_NAME, trackedStateId);
+
+		// Execute
+		boolean result = H2StateHelper.compareAndSetStateId(
+			resourceId,
+			appDataSource,
+			META_SCHEMA_NAME,
+			STATE_TABLE_NAME,
+			Optional.of(UUID.randomUUID()),
+			UUID.randomUUID());
+
+		// Verify
+		assertFalse("compareAndSetStateId", result);
+		assertEquals(
+			"stateId",
+			trackedStateId,
+			H2StateHelper.getStateId(resourceId, appDataSource, META_SCHEMA_NAME, STATE_TABLE_NAME));
+	}
+
+	/**
+	 * Gets the app DataSource of a new, empty in-memory database.
+	 */
+	private static DataSource memoryDataSource()
+	{
+		return new H2DatabaseInstance(
+			H2StorageMode.Memory,
+			null,
+			null,
+			"H2StateHelperUnitTests_" + UUID.randomUUID().toString().replace("-", ""),
+			null,
+			null).getAppDataSource();
+	}
+
+	/**
+	 * Gets the app DataSource of a new in-memory database that has an empty state tracking table.
+	 */
+	private static DataSource stateTableDataSource()
+	{
+		DataSource result = H2StateHelperUnitTests.memoryDataSource();
+		H2StateHelper.ensureStateTable(result, META_SCHEMA_NAME, STATE_TABLE_NAME);
+
+		return result;
+	}
+}
@@ -85,6 +85,10 @@ public class MySqlDatabaseResourceTests
 
 		try
 		{
+			MySqlStateHelper.ensureStateTable(
+				MySqlUtil.getDataSource(mySqlProperties, databaseName),
+				"wb_state");
+
 			MySqlStateHelper.setStateId(
 				resourceId,
 				MySqlUtil.getDataSource(mySqlProperties, databaseName),
@@ -132,6 +136,10 @@ public class MySqlDatabaseResourceTests
 		
 		String databaseName = MySqlUtil.createDatabase(mySqlProperties, "stm", "");
 
+		MySqlStateHelper.ensureStateTable(
+			MySqlUtil.getDataSource(mySqlProperties, databaseName),
+			"wb_state");
+
 		MySqlStateHelper.setStateId(
 			resourceId,
 			MySqlUtil.getDataSource(mySqlProperties, databaseName),
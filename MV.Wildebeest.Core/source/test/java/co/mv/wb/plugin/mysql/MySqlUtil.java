@@ -197,6 +197,7 @@ public class MySqlUtil
 		if (instance == null) { throw new IllegalArgumentException("instance cannot be null"); }
 		if ("".equals(databaseName)) { throw new IllegalArgumentException("databaseName cannot be empty"); }
 		
+		instance.releaseAppConnections();
 		DatabaseHelper.execute(instance.getAdminDataSource(), "DROP DATABASE `" + databaseName + "`;");
 	}
 }
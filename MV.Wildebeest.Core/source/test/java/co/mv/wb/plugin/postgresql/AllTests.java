@@ -24,7 +24,9 @@ import org.junit.runners.Suite;
 {
 	PostgreSqlAnsiPluginUnitTests.class,
 	PostgreSqlDatabasePluginUnitTests.class,
-	PostgreSqlDomServiceUnitTests.class
+	PostgreSqlDatabaseResourcePluginUnitTests.class,
+	PostgreSqlDomServiceUnitTests.class,
+	PostgreSqlTemplatesUnitTests.class
 })
 public class AllTests
 {
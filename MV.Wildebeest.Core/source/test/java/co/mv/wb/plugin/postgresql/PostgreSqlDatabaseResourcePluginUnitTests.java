@@ -0,0 +1,89 @@
+// Wildebeest Migration Framework
+// Copyright © 2013 - 2018, Matheson Ventures Pte Ltd
+//
+// This file is part of Wildebeest
+//
+// Wildebeest is free software: you can redistribute it and/or modify it under
+// the terms of the GNU General Public License v2 as published by the Free
+// Software Foundation.
+//
+// Wildebeest is distributed in the hope that it will be useful, but WITHOUT ANY
+// WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+// A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along with
+// Wildebeest.  If not, see http://www.gnu.org/licenses/gpl-2.0.html
+
+package co.mv.wb.plugin.postgresql;
+
+import co.mv.wb.Resource;
+import co.mv.wb.Wildebeest;
+import co.mv.wb.plugin.base.ResourceImpl;
+import co.mv.wb.plugin.composite.ExternalResourceMigration;
+import co.mv.wb.plugin.fake.FakeInstance;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+/**
+ * Unit tests for {@link PostgreSqlDatabaseResourcePlugin}.
+ *
+ * @since                                       4.0
+ */
+public class PostgreSqlDatabaseResourcePluginUnitTests
+{
+	@Test public void canProvisionFromTemplate_notPostgreSql_false()
+	{
+		// Setup
+		PostgreSqlDatabaseResourcePlugin plugin = new PostgreSqlDatabaseResourcePlugin();
+
+		// Execute and Verify
+		assertFalse("canProvisionFromTemplate", plugin.canProvisionFromTemplate(new FakeInstance()));
+	}
+
+	@Test public void provisionFromTemplate_migrationWithoutDigest_notProvisioned() throws Exception
+	{
+		// Setup
+		PostgreSqlDatabaseResourcePlugin plugin = new PostgreSqlDatabaseResourcePlugin();
+
+		Resource resource = new ResourceImpl(
+			UUID.randomUUID(),
+			Wildebeest.PostgreSqlDatabase,
+			"MyResource",
+			Optional.empty());
+		UUID targetStateId = UUID.randomUUID();
+
+		PostgreSqlDatabaseInstance instance = new PostgreSqlDatabaseInstance(
+			"localhost",
+			5432,
+			"postgres",
+			"password",
+			"wb_test",
+			null,
+			null);
+
+		// Execute
+		boolean provisioned = plugin.provisionFromTemplate(
+			System.out,
+			resource,
+			instance,
+			targetStateId,
+			Collections.singletonList(new ExternalResourceMigration(
+				UUID.randomUUID(),
+				Optional.empty(),
+				Optional.of(targetStateId),
+				new File("."),
+				"other.wbr",
+				Optional.empty())),
+			templateInstance -> fail("the template should not be built"));
+
+		// Verify
+		assertFalse("provisioned", provisioned);
+	}
+}
@@ -0,0 +1,153 @@
+// Wildebeest Migration Framework
+// Copyright © 2013 - 2018, Matheson Ventures Pte Ltd
+//
+// This file is part of Wildebeest
+//
+// Wildebeest is free software: you can redistribute it and/or modify it under
+// the terms of the GNU General Public License v2 as published by the Free
+// Software Foundation.
+//
+// Wildebeest is distributed in the hope that it will be useful, but WITHOUT ANY
+// WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+// A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along with
+// Wildebeest.  If not, see http://www.gnu.org/licenses/gpl-2.0.html
+
+package co.mv.wb.plugin.postgresql;
+
+import co.mv.wb.Migration;
+import co.mv.wb.plugin.composite.ExternalResourceMigration;
+import co.mv.wb.plugin.generaldatabase.BulkLoadMigration;
+import co.mv.wb.plugin.generaldatabase.SqlScriptMigration;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link PostgreSqlTemplates}.
+ *
+ * @since                                       4.0
+ */
+public class PostgreSqlTemplatesUnitTests
+{
+	private static final UUID RESOURCE_ID = UUID.fromString("6f1c7c2e-0d2a-4c1b-9f3e-2a4b5c6d7e8f");
+	private static final UUID STATE_ID = UUID.fromString("0a1b2c3d-4e5f-6a7b-8c9d-0e1f2a3b4c5d");
+	private static final UUID MIGRATION_ID = UUID.fromString("11111111-2222-3333-4444-555555555555");
+
+	@Test public void templateName_samePath_sameName()
+	{
+		// Execute
+		String name1 = PostgreSqlTemplates.templateName(
+			RESOURCE_ID,
+			STATE_ID,
+			instance(),
+			path("CREATE TABLE a (id int);")).get();
+		String name2 = PostgreSqlTemplates.templateName(
+			RESOURCE_ID,
+			STATE_ID,
+			instance(),
+			path("CREATE TABLE a (id int);")).get();
+
+		// Verify
+		assertEquals("name", name1, name2);
+		assertTrue("name.startsWith", name1.startsWith(PostgreSqlTemplates.templatePrefix(RESOURCE_ID, STATE_ID)));
+		assertEquals("prefix", "wb_tpl_6f1c7c2e_0a1b2c3d_", PostgreSqlTemplates.templatePrefix(RESOURCE_ID, STATE_ID));
+
+		// Room is left for the suffix of the temporary name that a template is built under
+		assertTrue("name.length", name1.length() <= 63 - 9);
+	}
+
+	@Test public void templateName_scriptChanged_differentName()
+	{
+		// Execute
+		String name1 = PostgreSqlTemplates.templateName(
+			RESOURCE_ID,
+			STATE_ID,
+			instance(),
+			path("CREATE TABLE a (id int);")).get();
+		String name2 = PostgreSqlTemplates.templateName(
+			RESOURCE_ID,
+			STATE_ID,
+			instance(),
+			path("CREATE TABLE b (id int);")).get();
+
+		// Verify
+		assertFalse("name1.equals(name2)", name1.equals(name2));
+	}
+
+	@Test public void templateName_bulkLoadFileChanged_differentName() throws IOException
+	{
+		// Setup
+		File file = File.createTempFile("PostgreSqlTemplatesUnitTests", ".csv");
+		file.deleteOnExit();
+		List<Migration> path = Arrays.asList(new BulkLoadMigration(
+			MIGRATION_ID,
+			Optional.empty(),
+			Optional.of(STATE_ID),
+			"PostalCode",
+			file,
+			BulkLoadMigration.DEFAULT_BATCH_SIZE));
+
+		Files.write(file.toPath(), "Code,Name\n2000,Sydney\n".getBytes(StandardCharsets.UTF_8));
+		String name1 = PostgreSqlTemplates.templateName(RESOURCE_ID, STATE_ID, instance(), path).get();
+
+		// Execute
+		Files.write(file.toPath(), "Code,Name\n3000,Melbourne\n".getBytes(StandardCharsets.UTF_8));
+		String name2 = PostgreSqlTemplates.templateName(RESOURCE_ID, STATE_ID, instance(), path).get();
+
+		// Verify
+		assertFalse("name1.equals(name2)", name1.equals(name2));
+	}
+
+	@Test public void templateName_migrationWithoutDigest_empty()
+	{
+		// Setup
+		List<Migration> path = Arrays.asList(new ExternalResourceMigration(
+			MIGRATION_ID,
+			Optional.empty(),
+			Optional.of(STATE_ID),
+			new File("."),
+			"other.wbr",
+			Optional.empty()));
+
+		// Execute
+		Optional<String> name = PostgreSqlTemplates.templateName(RESOURCE_ID, STATE_ID, instance(), path);
+
+		// Verify
+		assertFalse("name.isPresent", name.isPresent());
+	}
+
+	private static PostgreSqlDatabaseInstance instance()
+	{
+		return new PostgreSqlDatabaseInstance(
+			"localhost",
+			5432,
+			"postgres",
+			"password",
+			"wb_test",
+			null,
+			null);
+	}
+
+	private static List<Migration> path(
+		String sql)
+	{
+		return Arrays.asList(new SqlScriptMigration(
+			MIGRATION_ID,
+			Optional.empty(),
+			Optional.of(STATE_ID),
+			sql));
+	}
+}
@@ -34,6 +34,8 @@ public class SqlServerUtil
 	public static void tryDropDatabase(
 		SqlServerDatabaseInstance instance)
 	{
+		instance.releaseAppConnections();
+
 		try
 		{
 			DatabaseHelper.execute(